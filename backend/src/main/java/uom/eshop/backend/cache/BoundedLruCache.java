@@ -0,0 +1,181 @@
+package uom.eshop.backend.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small thread-safe LRU cache with a fixed maximum number of entries.
+ * Access order is tracked by a LinkedHashMap, so the least recently read or written entry is evicted first once the limit is reached.
+ * Values are computed outside the lock, which means two threads missing on the same key may both run the loader; the last one wins.
+ * A loaded value is only cached if the key was not written, updated or invalidated while it was loading, since the load may have read
+ * the data before that change and would otherwise put it back; such a value is still returned to its caller, just not cached.
+ */
+public class BoundedLruCache<K, V> {
+
+    private final int maxEntries;
+    private final LinkedHashMap<K, V> entries;
+    // Keys being loaded, with a generation bumped by every change to the key while the loads run
+    private final Map<K, Load> loads = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedLruCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                boolean evict = size() > BoundedLruCache.this.maxEntries;
+                if (evict) {
+                    evictions++;
+                }
+                return evict;
+            }
+        };
+    }
+
+    public V get(K key) {
+        synchronized (entries) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return value;
+        }
+    }
+
+    public V getOrLoad(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return load(key, loader);
+    }
+
+    /**
+     * Loads the value and caches it, or removes the key if the loader returns null, unless the key changed during the load.
+     */
+    public V load(K key, Function<K, V> loader) {
+        Load load;
+        long generation;
+        synchronized (entries) {
+            load = loads.computeIfAbsent(key, k -> new Load());
+            load.loaders++;
+            generation = load.generation;
+        }
+
+        V value = null;
+        try {
+            value = loader.apply(key);
+        } finally {
+            synchronized (entries) {
+                if (--load.loaders == 0) {
+                    loads.remove(key);
+                }
+                if (load.generation == generation) {
+                    if (value != null) {
+                        entries.put(key, value);
+                    } else {
+                        entries.remove(key);
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            changed(key);
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * Replaces the value only if the key is still cached, leaving cold keys to be loaded lazily later.
+     */
+    public void computeIfPresent(K key, Function<V, V> remapping) {
+        synchronized (entries) {
+            changed(key);
+            V current = entries.get(key);
+            if (current != null) {
+                entries.put(key, remapping.apply(current));
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            changed(key);
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            loads.values().forEach(load -> load.generation++);
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public long hits() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+    public long misses() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+
+    public long evictions() {
+        synchronized (entries) {
+            return evictions;
+        }
+    }
+
+    /**
+     * Sums a weight over every cached value, e.g. to report the memory held by the cache.
+     */
+    public long sum(ToLongFunction<V> weigher) {
+        synchronized (entries) {
+            long total = 0;
+            for (V value : entries.values()) {
+                total += weigher.applyAsLong(value);
+            }
+            return total;
+        }
+    }
+
+    private void changed(K key) {
+        Load load = loads.get(key);
+        if (load != null) {
+            load.generation++;
+        }
+    }
+
+    private static class Load {
+        private long generation;
+        private int loaders;
+    }
+}
@@ -0,0 +1,24 @@
+package uom.eshop.backend.cache;
+
+import java.time.Duration;
+
+/**
+ * A value read through a cache, with how it was obtained and how long ago it was computed.
+ */
+public record CachedValue<V>(V value, Status status, Duration age) {
+
+    public enum Status {
+        /** Served from the cache within its freshness window. */
+        HIT,
+        /** Served from the cache past its freshness window while a background refresh runs. */
+        STALE,
+        /** Computed for this request because nothing servable was cached. */
+        MISS,
+        /** Computed for this request without consulting the cache. */
+        BYPASS
+    }
+
+    public static <V> CachedValue<V> bypass(V value) {
+        return new CachedValue<>(value, Status.BYPASS, Duration.ZERO);
+    }
+}
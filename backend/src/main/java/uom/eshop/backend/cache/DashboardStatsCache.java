@@ -0,0 +1,110 @@
+package uom.eshop.backend.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uom.eshop.backend.config.StatsProperties;
+import uom.eshop.backend.dto.CustomerStatsResponse;
+import uom.eshop.backend.dto.StoreStatsResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate cache of the store and customer dashboard statistics, keyed by store id and customer id.
+ * Dashboards polled from many tabs share one computation per store or customer, and a refresh never blocks readers
+ * as long as the cached value is younger than the configured maximum staleness.
+ * Checkouts, cart changes and product changes mark the affected entries dirty once their transaction commits.
+ * Partial results are returned to the caller but not cached.
+ */
+@Component
+public class DashboardStatsCache implements DisposableBean {
+
+    private final ThreadPoolExecutor refreshExecutor;
+    private final StaleWhileRevalidateCache<Long, StoreStatsResponse> storeStats;
+    private final StaleWhileRevalidateCache<Long, CustomerStatsResponse> customerStats;
+    private final MeterRegistry meterRegistry;
+
+    public DashboardStatsCache(StatsProperties statsProperties, MeterRegistry meterRegistry) {
+        StatsProperties.Cache properties = statsProperties.getCache();
+        AtomicInteger threadCount = new AtomicInteger();
+        // Refreshes beyond the queue are dropped; the stale value stays servable and the next read retries
+        this.refreshExecutor = new ThreadPoolExecutor(
+                properties.getRefreshThreads(),
+                properties.getRefreshThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getMaxEntries()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stats-cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+
+        this.storeStats = new StaleWhileRevalidateCache<>(properties.getMaxEntries(), properties.getFreshFor(),
+                properties.getMaxStaleness(), refreshExecutor, stats -> !stats.isPartial());
+        this.customerStats = new StaleWhileRevalidateCache<>(properties.getMaxEntries(), properties.getFreshFor(),
+                properties.getMaxStaleness(), refreshExecutor, stats -> !stats.isPartial());
+
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("eshop.stats.cache.size", Tags.of("dashboard", "store"), storeStats, StaleWhileRevalidateCache::size);
+        meterRegistry.gauge("eshop.stats.cache.size", Tags.of("dashboard", "customer"), customerStats, StaleWhileRevalidateCache::size);
+    }
+
+    public CachedValue<StoreStatsResponse> getStoreStats(Long storeId, Supplier<StoreStatsResponse> loader) {
+        return record("store", storeStats.get(storeId, loader));
+    }
+
+    public CachedValue<CustomerStatsResponse> getCustomerStats(Long customerId, Supplier<CustomerStatsResponse> loader) {
+        return record("customer", customerStats.get(customerId, loader));
+    }
+
+    /**
+     * Marks the statistics of the given stores as outdated, after the current transaction commits if there is one.
+     */
+    public void markStoresDirty(Collection<Long> storeIds) {
+        List<Long> ids = List.copyOf(storeIds);
+        afterCommit(() -> ids.forEach(storeStats::markDirty));
+    }
+
+    /**
+     * Marks the statistics of the given customer as outdated, after the current transaction commits if there is one.
+     */
+    public void markCustomerDirty(Long customerId) {
+        afterCommit(() -> customerStats.markDirty(customerId));
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private <V> CachedValue<V> record(String dashboard, CachedValue<V> result) {
+        meterRegistry.counter("eshop.stats.cache.requests", "dashboard", dashboard, "result", result.status().name().toLowerCase(Locale.ROOT)).increment();
+        return result;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
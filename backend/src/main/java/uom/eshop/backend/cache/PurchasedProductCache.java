@@ -0,0 +1,91 @@
+package uom.eshop.backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uom.eshop.backend.config.RecommendationProperties;
+import uom.eshop.backend.repository.OrderRepository;
+import uom.eshop.backend.sketch.RoaringBitmap;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-memory index of the products each customer has already purchased, used as a fast exclusion filter for recommendations and search.
+ * Bitmaps are built lazily from order_items the first time a customer is seen and kept up to date incrementally on checkout.
+ * The number of cached customers is bounded and the least recently used customers are evicted first.
+ * Cached bitmaps are never mutated in place: updates publish a modified copy, so readers can use them without locking.
+ */
+@Component
+@Slf4j
+public class PurchasedProductCache {
+
+    private final OrderRepository orderRepository;
+    private final BoundedLruCache<Long, RoaringBitmap> bitmaps;
+
+    public PurchasedProductCache(OrderRepository orderRepository, RecommendationProperties properties) {
+        this.orderRepository = orderRepository;
+        this.bitmaps = new BoundedLruCache<>(properties.getPurchasedCacheMaxCustomers());
+    }
+
+    /**
+     * Returns the bitmap of product ids purchased by the customer, loading it from the database on a cache miss.
+     */
+    public RoaringBitmap getPurchasedProducts(Long customerId) {
+        return bitmaps.getOrLoad(customerId, this::load);
+    }
+
+    public boolean hasPurchased(Long customerId, Long productId) {
+        return getPurchasedProducts(customerId).contains(productId);
+    }
+
+    /**
+     * Records newly purchased products for a customer.
+     * When called inside a transaction the update is applied only after commit, so a rolled back checkout never leaks into the cache.
+     * Customers that are not cached are left alone and will pick up the purchase when their bitmap is next loaded;
+     * a bitmap being loaded meanwhile may predate the purchase, so it is returned but not cached.
+     */
+    public void recordPurchases(Long customerId, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(productIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyPurchases(customerId, ids);
+                }
+            });
+        } else {
+            applyPurchases(customerId, productIds);
+        }
+    }
+
+    public void evict(Long customerId) {
+        bitmaps.invalidate(customerId);
+    }
+
+    public int cachedCustomers() {
+        return bitmaps.size();
+    }
+
+    public long memoryInBytes() {
+        return bitmaps.sum(RoaringBitmap::sizeInBytes);
+    }
+
+    private void applyPurchases(Long customerId, Collection<Long> productIds) {
+        bitmaps.computeIfPresent(customerId, current -> {
+            RoaringBitmap updated = current.copy();
+            productIds.forEach(updated::add);
+            return updated;
+        });
+    }
+
+    private RoaringBitmap load(Long customerId) {
+        RoaringBitmap bitmap = RoaringBitmap.of(orderRepository.findDistinctProductIdsByCustomerId(customerId));
+        log.debug("Loaded purchased-product bitmap for customer {} ({} products)", customerId, bitmap.cardinality());
+        return bitmap;
+    }
+}
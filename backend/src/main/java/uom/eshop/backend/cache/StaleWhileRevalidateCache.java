@@ -0,0 +1,139 @@
+package uom.eshop.backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of expensive computed values that serves a stale value while a single background refresh recomputes it.
+ * A value is fresh for {@code freshFor} after it was loaded and may be served stale until {@code maxStaleness};
+ * marking a key dirty makes its next read trigger a refresh right away. Older or missing values are loaded on the reading thread.
+ * Loads are single-flight per key: concurrent readers that need a value share one loader call instead of stampeding the database.
+ */
+@Slf4j
+public class StaleWhileRevalidateCache<K, V> {
+
+    private final BoundedLruCache<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<Entry<V>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, Long> dirtiedDuringLoad = new ConcurrentHashMap<>();
+    private final long freshForNanos;
+    private final long maxStalenessNanos;
+    private final Executor refreshExecutor;
+    private final Predicate<V> cacheable;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param cacheable decides whether a loaded value may be cached, e.g. to skip partial results; rejected values are still returned
+     */
+    public StaleWhileRevalidateCache(int maxEntries, Duration freshFor, Duration maxStaleness, Executor refreshExecutor, Predicate<V> cacheable) {
+        this(maxEntries, freshFor, maxStaleness, refreshExecutor, cacheable, System::nanoTime);
+    }
+
+    StaleWhileRevalidateCache(int maxEntries, Duration freshFor, Duration maxStaleness, Executor refreshExecutor,
+                              Predicate<V> cacheable, LongSupplier nanoClock) {
+        if (maxStaleness.compareTo(freshFor) < 0) {
+            throw new IllegalArgumentException("maxStaleness must not be shorter than freshFor");
+        }
+        this.entries = new BoundedLruCache<>(maxEntries);
+        this.freshForNanos = freshFor.toNanos();
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.refreshExecutor = refreshExecutor;
+        this.cacheable = cacheable;
+        this.nanoClock = nanoClock;
+    }
+
+    public CachedValue<V> get(K key, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            long age = nanoClock.getAsLong() - entry.loadedAt();
+            if (!entry.dirty() && age < freshForNanos) {
+                return new CachedValue<>(entry.value(), CachedValue.Status.HIT, Duration.ofNanos(age));
+            }
+            if (age < maxStalenessNanos) {
+                load(key, loader, refreshExecutor);
+                return new CachedValue<>(entry.value(), CachedValue.Status.STALE, Duration.ofNanos(age));
+            }
+        }
+
+        // Nothing servable: the first reader loads on its own thread and concurrent readers wait for the same result
+        try {
+            Entry<V> loaded = load(key, loader, Runnable::run).join();
+            return new CachedValue<>(loaded.value(), CachedValue.Status.MISS, Duration.ZERO);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the next read of the key refresh it. A load already running for the key may have read the data before the change,
+     * so its result is stored as dirty as well.
+     */
+    public void markDirty(K key) {
+        if (inFlight.containsKey(key)) {
+            dirtiedDuringLoad.put(key, nanoClock.getAsLong());
+        }
+        entries.computeIfPresent(key, Entry::asDirty);
+    }
+
+    public void invalidate(K key) {
+        entries.invalidate(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private CompletableFuture<Entry<V>> load(K key, Supplier<V> loader, Executor executor) {
+        CompletableFuture<Entry<V>> created = new CompletableFuture<>();
+        CompletableFuture<Entry<V>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> complete(key, loader, created));
+        } catch (RuntimeException e) {
+            // A saturated refresh pool just means the stale value is served a little longer
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private void complete(K key, Supplier<V> loader, CompletableFuture<Entry<V>> future) {
+        long startedAt = nanoClock.getAsLong();
+        try {
+            V value = loader.get();
+            Long dirtiedAt = dirtiedDuringLoad.remove(key);
+            Entry<V> entry = new Entry<>(value, startedAt, dirtiedAt != null && dirtiedAt >= startedAt);
+            if (cacheable.test(value)) {
+                entries.put(key, entry);
+            }
+            future.complete(entry);
+        } catch (Throwable e) {
+            dirtiedDuringLoad.remove(key);
+            log.warn("Loading cache entry {} failed", key, e);
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt, boolean dirty) {
+
+        Entry<V> asDirty() {
+            return dirty ? this : new Entry<>(value, loadedAt, true);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package uom.eshop.backend.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.User;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of user records keyed by username, shared by the login path (DaoAuthenticationProvider) and,
+ * when requests are authenticated against the database, by JwtAuthenticationFilter.
+ * Entries expire after the configured TTL, and must be evicted whenever the password, role or token version of a user changes,
+ * so a change made on this instance is seen immediately and one made on another instance within the TTL.
+ * Unknown usernames are not cached. Cached users are shared between requests and must not be modified.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final BoundedLruCache<String, CachedUser> users;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserDetailsCache(JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        this.users = new BoundedLruCache<>(jwtProperties.getUserCacheMaxEntries());
+        this.ttlNanos = jwtProperties.getUserCacheTtl().toNanos();
+        this.hits = meterRegistry.counter("eshop.auth.user.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("eshop.auth.user.cache.requests", "result", "miss");
+        Gauge.builder("eshop.auth.user.cache.hit.ratio", this, UserDetailsCache::hitRatio)
+                .description("Share of user lookups served from the cache since startup")
+                .register(meterRegistry);
+        Gauge.builder("eshop.auth.user.cache.size", users, BoundedLruCache::size)
+                .description("Number of cached user records")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached user, loading it on a miss or once the entry has expired.
+     *
+     * @return the user, or null if the loader did not find it
+     */
+    public User get(String username, Function<String, Optional<User>> loader) {
+        long now = System.nanoTime();
+        CachedUser cached = users.get(username);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            hits.increment();
+            return cached.user();
+        }
+
+        misses.increment();
+        // An eviction that lands while the user is loading keeps the result out of the cache, as it may predate the change
+        CachedUser loaded = users.load(username, key -> loader.apply(key)
+                .map(user -> new CachedUser(user, now))
+                .orElse(null));
+        return loaded != null ? loaded.user() : null;
+    }
+
+    /**
+     * Evicts the user. When called inside a transaction the entry is dropped once it completes, even on rollback,
+     * so a concurrent lookup cannot cache the old record again before the change is visible.
+     */
+    public void evict(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    users.invalidate(username);
+                }
+            });
+        } else {
+            users.invalidate(username);
+        }
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private record CachedUser(User user, long loadedAt) {
+    }
+}
@@ -0,0 +1,156 @@
+package uom.eshop.backend.concurrent;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uom.eshop.backend.config.StatsProperties;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only queries concurrently, each in its own read-only transaction and therefore on its own connection.
+ * Workers come from a bounded pool shared by all requests, sized below the connection pool so that fanned-out queries can never
+ * take every connection; when the pool and its queue are full, further queries run on the requesting thread.
+ * A query that fails or outlives the timeout leaves its branch empty, so callers can return the sections that did complete.
+ * Branches are separate transactions, so their results are not taken from a single snapshot.
+ */
+@Component
+@Slf4j
+public class ParallelQueryRunner implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration queryTimeout;
+    private final Counter timeoutCounter;
+    private final Counter failureCounter;
+
+    @Autowired
+    public ParallelQueryRunner(PlatformTransactionManager transactionManager,
+                               DataSource dataSource,
+                               StatsProperties statsProperties,
+                               MeterRegistry meterRegistry) {
+        this(transactionManager,
+                boundByConnectionPool(statsProperties.getFanOut().getMaxConcurrency(), dataSource),
+                statsProperties.getFanOut().getQueueCapacity(),
+                statsProperties.getFanOut().getQueryTimeout(),
+                meterRegistry);
+    }
+
+    public ParallelQueryRunner(PlatformTransactionManager transactionManager,
+                               int maxConcurrency,
+                               int queueCapacity,
+                               Duration queryTimeout,
+                               MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrency,
+                maxConcurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "parallel-query-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // The transaction timeout is applied to every statement, so the database stops a query the caller no longer waits for
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, (queryTimeout.toMillis() + 999) / 1000));
+        this.queryTimeout = queryTimeout;
+
+        this.timeoutCounter = Counter.builder("eshop.query.fanout.timeouts")
+                .description("Fanned-out queries abandoned after exceeding the query timeout")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("eshop.query.fanout.failures")
+                .description("Fanned-out queries that failed with an exception")
+                .register(meterRegistry);
+        meterRegistry.gauge("eshop.query.fanout.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    /**
+     * Starts a query in its own read-only transaction on the worker pool.
+     *
+     * @param name the section name used in log messages
+     */
+    public <T> Branch<T> submit(String name, Supplier<T> query) {
+        long deadline = System.nanoTime() + queryTimeout.toNanos();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor);
+        return new Branch<>(name, future, deadline);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static int boundByConnectionPool(int maxConcurrency, DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                // Leave at least one connection for requests that do not fan out
+                int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                if (maxConcurrency >= poolSize) {
+                    log.warn("Fan-out concurrency {} is not below the connection pool size {}, using {}", maxConcurrency, poolSize, poolSize - 1);
+                    return Math.max(1, poolSize - 1);
+                }
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read the connection pool size", e);
+        }
+        return maxConcurrency;
+    }
+
+    /**
+     * Handle on one running query. Its deadline counts from submission, so waiting on several branches one after the other
+     * takes at most one query timeout in total.
+     */
+    public final class Branch<T> {
+
+        private final String name;
+        private final CompletableFuture<T> future;
+        private final long deadline;
+
+        private Branch(String name, CompletableFuture<T> future, long deadline) {
+            this.name = name;
+            this.future = future;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Waits for the query until its deadline.
+         *
+         * @return the query result, or empty if the query failed or timed out
+         */
+        public Optional<T> join() {
+            try {
+                return Optional.ofNullable(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timeoutCounter.increment();
+                log.warn("Query '{}' exceeded {} ms, returning without it", name, queryTimeout.toMillis());
+            } catch (ExecutionException e) {
+                failureCounter.increment();
+                log.warn("Query '{}' failed, returning without it", name, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package uom.eshop.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class to hold username and email availability check related properties.
+ * These properties will be loaded from the application's configuration file under the "eshop.availability" prefix.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "eshop.availability")
+@Data
+public class AvailabilityProperties {
+
+    /**
+     * Number of users the Bloom filter of taken usernames and emails is sized for; it grows on rebuild if there are more.
+     * Together with the false positive probability this sets the memory used, about 2.4 bytes per user at 1%.
+     */
+    private long expectedUsers = 1_000_000;
+
+    /**
+     * Share of available usernames and emails that still need a database lookup to be confirmed.
+     */
+    private double falsePositiveProbability = 0.01;
+
+    /**
+     * Interval at which the filter is rebuilt from the users table, which resizes it and picks up users registered on other instances.
+     */
+    private Duration rebuildInterval = Duration.ofHours(1);
+}
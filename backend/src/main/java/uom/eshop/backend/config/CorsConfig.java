@@ -31,8 +31,8 @@ public class CorsConfig {
         // Allow credentials (cookies, authorization headers)
         configuration.setAllowCredentials(true);
         
-        // Expose Authorization header to frontend
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        // Expose Authorization and the stats cache headers to frontend
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Cache", "X-Cache-Age", "X-Next-Cursor", "X-Total-Count"));
         
         // How long the response from a pre-flight request can be cached (1 hour)
         configuration.setMaxAge(3600L);
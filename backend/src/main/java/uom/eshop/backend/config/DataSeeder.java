@@ -10,6 +10,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import uom.eshop.backend.model.*;
 import uom.eshop.backend.repository.*;
+import uom.eshop.backend.service.CustomerStatsService;
+import uom.eshop.backend.service.StoreStatsService;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -29,6 +31,9 @@ public class DataSeeder implements CommandLineRunner {
     private final StoreRepository storeRepository;
     private final ProductRepository productRepository;
     private final ShoppingCartRepository shoppingCartRepository;
+    private final RegisteredTaxIdRepository registeredTaxIdRepository;
+    private final StoreStatsService storeStatsService;
+    private final CustomerStatsService customerStatsService;
     private final PasswordEncoder passwordEncoder;
 
     @Override
@@ -146,6 +151,7 @@ public class DataSeeder implements CommandLineRunner {
                 .role(Role.CUSTOMER)
                 .build();
         user = userRepository.save(user);
+        registeredTaxIdRepository.save(RegisteredTaxId.builder().taxId(taxId).role(Role.CUSTOMER).build());
 
         Customer customer = Customer.builder()
                 .taxId(taxId)
@@ -154,6 +160,7 @@ public class DataSeeder implements CommandLineRunner {
                 .user(user)
                 .build();
         customer = customerRepository.save(customer);
+        customerStatsService.initialize(customer.getId());
 
         // Create shopping cart for customer
         ShoppingCart cart = ShoppingCart.builder()
@@ -175,6 +182,7 @@ public class DataSeeder implements CommandLineRunner {
                 .role(Role.STORE)
                 .build();
         user = userRepository.save(user);
+        registeredTaxIdRepository.save(RegisteredTaxId.builder().taxId(taxId).role(Role.STORE).build());
 
         Store store = Store.builder()
                 .taxId(taxId)
@@ -183,6 +191,7 @@ public class DataSeeder implements CommandLineRunner {
                 .user(user)
                 .build();
         storeRepository.save(store);
+        storeStatsService.initialize(store.getId());
 
         log.debug("Created store: {} ({})", username, storeName);
         return user;
@@ -200,6 +209,7 @@ public class DataSeeder implements CommandLineRunner {
                     .store(store)
                     .build();
             productRepository.save(product);
+            storeStatsService.recordStockChange(store.getId(), null, product.getStockQuantity());
         }
         log.debug("Created {} products for store: {}", productsData.size(), store.getName());
     }
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Configuration class to hold JWT (JSON Web Token) related properties.
  * These properties will be loaded from the application's configuration file (e.g., application.properties or application.yml).
@@ -15,4 +17,21 @@ public class JwtProperties {
     
     private String secret;
     private long expiration;
+    private Duration tokenVersionCacheTtl = Duration.ofSeconds(30);
+    private int tokenVersionCacheMaxEntries = 10000;
+    private Duration userCacheTtl = Duration.ofSeconds(60);
+    private int userCacheMaxEntries = 10000;
+    /**
+     * Whether requests are authenticated against the (cached) user record instead of the token claims alone,
+     * so role changes apply to tokens that were already issued.
+     */
+    private boolean databasePrincipals = false;
+    private Duration invalidTokenLogInterval = Duration.ofSeconds(60);
+    /**
+     * Number of revoked, unexpired tokens the revocation Bloom filter is sized for; it grows on rebuild if more are revoked.
+     */
+    private long revocationExpectedTokens = 100000;
+    private double revocationFalsePositiveProbability = 0.01;
+    private Duration revocationPollInterval = Duration.ofSeconds(10);
+    private Duration revocationRebuildInterval = Duration.ofHours(1);
 }
\ No newline at end of file
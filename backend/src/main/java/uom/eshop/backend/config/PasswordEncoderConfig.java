@@ -1,19 +1,32 @@
 package uom.eshop.backend.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import uom.eshop.backend.security.BoundedPasswordEncoder;
 
 /**
  * Configuration class to define a PasswordEncoder bean for the application.
  * This bean will be used to encode user passwords securely using the BCrypt hashing algorithm.
+ * Hashing runs on a bounded pool of its own, so a burst of logins is shed with 503 instead of saturating every core.
  */
 @Configuration
 public class PasswordEncoderConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordProperties passwordProperties, MeterRegistry meterRegistry) {
+        PasswordProperties.Hashing hashing = passwordProperties.getHashing();
+        int threads = hashing.getThreads() > 0
+                ? hashing.getThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(passwordProperties.getBcryptStrength()),
+                threads,
+                hashing.getQueueCapacity(),
+                hashing.getTimeout(),
+                hashing.getRetryAfter(),
+                meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package uom.eshop.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class to hold password hashing related properties.
+ * These properties will be loaded from the application's configuration file under the "eshop.password" prefix.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "eshop.password")
+@Data
+public class PasswordProperties {
+
+    /**
+     * BCrypt cost factor of new hashes; stored hashes with a lower cost are rehashed on the next successful login.
+     */
+    private int bcryptStrength = 10;
+
+    private Hashing hashing = new Hashing();
+
+    /**
+     * Settings of the dedicated pool that runs password hashing off the request threads.
+     */
+    @Data
+    public static class Hashing {
+
+        /**
+         * Number of hashes computed at once; 0 means half of the available processors, at least one.
+         */
+        private int threads = 0;
+
+        /**
+         * Number of hashes waiting for a free worker before further logins are rejected with 503.
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * Time a caller waits for its hash, including the time spent queued, before giving up with 503.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /**
+         * Value of the Retry-After header sent with a 503 when hashing is overloaded.
+         */
+        private Duration retryAfter = Duration.ofSeconds(2);
+    }
+}
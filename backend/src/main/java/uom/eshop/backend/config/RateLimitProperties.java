@@ -0,0 +1,69 @@
+package uom.eshop.backend.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class to hold request rate limiting related properties.
+ * These properties will be loaded from the application's configuration file under the "eshop.rate-limit" prefix.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "eshop.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of clients tracked per policy; requests of new clients beyond it are let through rather than limited.
+     */
+    private int maxKeys = 1_000_000;
+
+    /**
+     * Interval at which buckets that have refilled completely, and are therefore indistinguishable from new ones, are dropped.
+     */
+    private Duration sweepInterval = Duration.ofSeconds(30);
+
+    /**
+     * Addresses (CIDR notation) of the reverse proxies in front of the application, such as the frontend's nginx.
+     * For requests coming from them the client address is taken from X-Forwarded-For, skipping the entries appended by trusted proxies.
+     * The default trusts loopback and private networks, like Tomcat's internal proxies; narrow it when untrusted clients share those networks.
+     */
+    private List<String> trustedProxies = new ArrayList<>(List.of(
+            "127.0.0.0/8", "::1/128", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16"));
+
+    /**
+     * Login and registration, limited per client address.
+     */
+    private Policy auth = new Policy(10, 0.5);
+
+    /**
+     * Product and store catalog reads and username/email availability checks, limited per client address.
+     */
+    private Policy browse = new Policy(100, 50);
+
+    /**
+     * Checkout, limited per user.
+     */
+    private Policy checkout = new Policy(5, 0.2);
+
+    /**
+     * Token bucket of one client: up to capacity requests at once, refilled continuously at refillPerSecond.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+
+        private int capacity;
+
+        private double refillPerSecond;
+    }
+}
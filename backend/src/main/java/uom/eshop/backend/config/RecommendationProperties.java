@@ -0,0 +1,61 @@
+package uom.eshop.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class to hold product recommendation related properties.
+ * These properties will be loaded from the application's configuration file under the "eshop.recommendation" prefix.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "eshop.recommendation")
+@Data
+public class RecommendationProperties {
+
+    /**
+     * Maximum number of customers whose purchased-product bitmaps are kept in memory.
+     */
+    private int purchasedCacheMaxCustomers = 10_000;
+
+    /**
+     * Number of candidate products fetched per round trip while filling a recommendation list.
+     */
+    private int candidateBatchSize = 50;
+
+    private Batch batch = new Batch();
+
+    /**
+     * Settings of the nightly job that precomputes recommendations into the customer_recommendations table.
+     */
+    @Data
+    public static class Batch {
+
+        /**
+         * Cron expression of the nightly run; "-" disables the schedule.
+         */
+        private String cron = "0 0 3 * * *";
+
+        /**
+         * Number of customers read, scored and written per chunk (and per checkpoint).
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Number of recommended product ids stored per customer.
+         */
+        private int topN = 20;
+
+        /**
+         * Fork-join parallelism used for scoring; 0 means one worker per available processor.
+         */
+        private int parallelism = 0;
+
+        /**
+         * Maximum number of in-stock products, newest first, held in the catalog snapshot the customers are scored against.
+         * The snapshot takes roughly 150 bytes per product for the whole run; customers whose matches lie beyond it
+         * get their lists topped up by live scoring when they are served.
+         */
+        private int maxCandidates = 100_000;
+    }
+}
@@ -0,0 +1,12 @@
+package uom.eshop.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class that enables Spring's scheduled task support for the application's background jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,103 @@
+package uom.eshop.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class to hold dashboard statistics related properties.
+ * These properties will be loaded from the application's configuration file under the "eshop.stats" prefix.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "eshop.stats")
+@Data
+public class StatsProperties {
+
+    private Reconciliation reconciliation = new Reconciliation();
+
+    private TimeSeries timeSeries = new TimeSeries();
+
+    private FanOut fanOut = new FanOut();
+
+    private Cache cache = new Cache();
+
+    /**
+     * Settings of the job that recomputes the materialized store counters from the source tables.
+     */
+    @Data
+    public static class Reconciliation {
+
+        /**
+         * Cron expression of the reconciliation run; "-" disables the schedule.
+         */
+        private String cron = "0 30 3 * * *";
+
+        /**
+         * Number of store ids read per page while walking the stores.
+         */
+        private int chunkSize = 200;
+    }
+
+    /**
+     * Settings of the pre-aggregated sales time series.
+     */
+    @Data
+    public static class TimeSeries {
+
+        /**
+         * Maximum number of buckets a single time series request may span.
+         */
+        private int maxBuckets = 1000;
+    }
+
+    /**
+     * Settings of the pool that runs the independent dashboard queries concurrently.
+     */
+    @Data
+    public static class FanOut {
+
+        /**
+         * Maximum number of dashboard queries running at once across all requests; kept below the connection pool size.
+         */
+        private int maxConcurrency = 4;
+
+        /**
+         * Number of queries waiting for a free worker before new ones run on the requesting thread instead.
+         */
+        private int queueCapacity = 200;
+
+        /**
+         * Time a single dashboard query may take before its section is reported as unavailable.
+         */
+        private Duration queryTimeout = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Settings of the stale-while-revalidate cache in front of the store and customer dashboard statistics.
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * Time after loading during which cached statistics are served without a refresh.
+         */
+        private Duration freshFor = Duration.ofSeconds(5);
+
+        /**
+         * Maximum age of statistics served while a background refresh runs; older entries are recomputed before responding.
+         */
+        private Duration maxStaleness = Duration.ofSeconds(60);
+
+        /**
+         * Maximum number of stores and of customers whose statistics are cached.
+         */
+        private int maxEntries = 10_000;
+
+        /**
+         * Number of threads running background refreshes.
+         */
+        private int refreshThreads = 2;
+    }
+}
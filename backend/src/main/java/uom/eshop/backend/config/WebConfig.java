@@ -0,0 +1,25 @@
+package uom.eshop.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import uom.eshop.backend.security.CurrentProfileArgumentResolver;
+
+import java.util.List;
+
+/**
+ * Configuration class to register the application's Spring MVC extensions.
+ * Controllers receive the caller's customer or store profile id through the CurrentCustomerId and CurrentStoreId parameter annotations.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CurrentProfileArgumentResolver currentProfileArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentProfileArgumentResolver);
+    }
+}
@@ -4,23 +4,27 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import uom.eshop.backend.dto.AvailabilityResponse;
 import uom.eshop.backend.dto.LoginRequest;
 import uom.eshop.backend.dto.LoginResponse;
 import uom.eshop.backend.dto.RegisterRequest;
 import uom.eshop.backend.dto.RegisterResponse;
+import uom.eshop.backend.exceptions.BadRequestException;
 import uom.eshop.backend.model.User;
 import uom.eshop.backend.security.JwtTokenProvider;
 import uom.eshop.backend.service.AuthService;
+import uom.eshop.backend.service.UserAvailabilityService;
 import uom.eshop.backend.service.UserService;
 
 /**
  * Controller for handling authentication-related endpoints such as login and registration.
- * This controller provides endpoints for user login and registration, returning appropriate responses.
+ * This controller provides endpoints for user login, registration, username and email availability and token revocation, returning appropriate responses.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -29,6 +33,7 @@ public class AuthController {
 
     private final AuthService authService;
     private final UserService userService;
+    private final UserAvailabilityService userAvailabilityService;
 
     /**
      * Endpoint for user login.
@@ -63,4 +68,56 @@ public class AuthController {
         
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint for checking whether a username and/or email are still free, e.g. while a sign-up form is being filled in.
+     * Values that were never registered are answered from memory; taken ones are confirmed against the database.
+     *
+     * @param username the username to check, if any
+     * @param email the email to check, if any
+     * @return ResponseEntity containing the availability of each value that was given
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            throw new BadRequestException("A username or an email is required");
+        }
+
+        AvailabilityResponse response = AvailabilityResponse.builder()
+                .usernameAvailable(username == null || username.isBlank() ? null : userAvailabilityService.isUsernameAvailable(username))
+                .emailAvailable(email == null || email.isBlank() ? null : userAvailabilityService.isEmailAvailable(email))
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint for signing out.
+     * Revokes the token used for this request until it expires; tokens issued to the user's other sessions stay valid.
+     *
+     * @param authentication the authentication object containing the authenticated user's details
+     * @return ResponseEntity with no content once the token is revoked
+     */
+    @PostMapping("/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> logout(Authentication authentication) {
+        authService.logout(authentication);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Endpoint for signing out of every device.
+     * Revokes all tokens issued to the authenticated user so far, including the one used for this request; the user has to log in again.
+     *
+     * @param authentication the authentication object containing the authenticated user's details
+     * @return ResponseEntity with no content once the tokens are revoked
+     */
+    @PostMapping("/logout-all")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> logoutEverywhere(Authentication authentication) {
+        authService.logoutEverywhere(authentication);
+        return ResponseEntity.noContent().build();
+    }
+}
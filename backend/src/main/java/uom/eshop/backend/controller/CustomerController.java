@@ -3,16 +3,20 @@ package uom.eshop.backend.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import uom.eshop.backend.cache.CachedValue;
+import uom.eshop.backend.dto.CustomerDashboardResponse;
 import uom.eshop.backend.dto.CustomerStatsResponse;
+import uom.eshop.backend.security.CurrentCustomerId;
 import uom.eshop.backend.service.CustomerService;
+import uom.eshop.backend.service.DashboardService;
 
 /**
  * Controller for handling customer-related endpoints.
- * This controller provides an endpoint for retrieving customer statistics, which is accessible only to users with the CUSTOMER role.
+ * This controller provides endpoints for retrieving customer statistics and the customer dashboard, which are accessible only to users with the CUSTOMER role.
  */
 @RestController
 @RequestMapping("/api/customers")
@@ -20,18 +24,46 @@ import uom.eshop.backend.service.CustomerService;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final DashboardService dashboardService;
 
     /**
      * Endpoint for retrieving customer statistics.
      * This endpoint is accessible only to users with the CUSTOMER role.
+     * The number of unique stores is estimated from a HyperLogLog sketch (about 2% error) unless an exact count is requested.
+     * Estimated statistics are served from a short-lived cache; the X-Cache header tells whether they were a HIT, STALE (refreshing in the background) or MISS,
+     * and X-Cache-Age how many seconds ago they were computed.
      *
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param exact whether to count unique stores exactly with a COUNT(DISTINCT) query instead of the sketch (default is false)
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the CustomerStatsResponse with customer statistics
      */
     @GetMapping("/stats")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<CustomerStatsResponse> getCustomerStats(Authentication authentication) {
-        CustomerStatsResponse stats = customerService.getCustomerStats(authentication);
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<CustomerStatsResponse> getCustomerStats(
+            @RequestParam(defaultValue = "false") boolean exact,
+            @CurrentCustomerId Long customerId) {
+        CachedValue<CustomerStatsResponse> stats = customerService.getCustomerStats(customerId, exact);
+        return ResponseEntity.ok()
+                .header("X-Cache", stats.status().name())
+                .header("X-Cache-Age", String.valueOf(stats.age().toSeconds()))
+                .body(stats.value());
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint for retrieving everything the customer dashboard shows in a single request: statistics, recent orders and recommendations.
+     * This endpoint is accessible only to users with the CUSTOMER role. The sections are gathered concurrently and each one carries its own status
+     * and the time it took; a section that failed or timed out is UNAVAILABLE without data, and statistics missing some counters are PARTIAL.
+     *
+     * @param limit the number of recent orders and recommended products to include, between 1 and 50 (default is 5)
+     * @param customerId the id of the authenticated user's customer profile
+     * @return ResponseEntity containing the CustomerDashboardResponse with one entry per dashboard section
+     */
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<CustomerDashboardResponse> getCustomerDashboard(
+            @RequestParam(defaultValue = "5") int limit,
+            @CurrentCustomerId Long customerId) {
+        CustomerDashboardResponse dashboard = dashboardService.getCustomerDashboard(customerId, limit);
+        return ResponseEntity.ok(dashboard);
+    }
+}
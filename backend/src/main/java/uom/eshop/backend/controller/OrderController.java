@@ -2,24 +2,30 @@ package uom.eshop.backend.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uom.eshop.backend.dto.CheckoutResponse;
+import uom.eshop.backend.dto.OrderHistoryPage;
+import uom.eshop.backend.dto.OrderHistoryRequest;
 import uom.eshop.backend.dto.OrderResponse;
 import uom.eshop.backend.dto.PaymentRequest;
-import uom.eshop.backend.exceptions.NotFoundException;
-import uom.eshop.backend.model.Store;
-import uom.eshop.backend.model.User;
-import uom.eshop.backend.repository.OrderRepository;
-import uom.eshop.backend.repository.StoreRepository;
+import uom.eshop.backend.security.CurrentCustomerId;
+import uom.eshop.backend.security.CurrentStoreId;
+import uom.eshop.backend.service.OrderExportService;
 import uom.eshop.backend.service.OrderService;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Controller for handling order-related endpoints.
@@ -30,28 +36,29 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final OrderService orderService;
-    private final StoreRepository storeRepository;
-    private final OrderRepository orderRepository;
+    private final OrderExportService orderExportService;
 
     /**
      * Endpoint for checking out and completing an order.
      * This endpoint simulates payment processing and then completes the order for the authenticated customer.
      *
      * @param paymentRequest the payment request containing payment details
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the CheckoutResponse with payment status and order details
      */
     @PostMapping("/checkout")
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<CheckoutResponse> checkout(
             @Valid @RequestBody PaymentRequest paymentRequest,
-            Authentication authentication) {
+            @CurrentCustomerId Long customerId) {
         // Simulate payment processing
         String transactionId = simulatePaymentProcessing(paymentRequest);
         
         // Process the order
-        List<OrderResponse> orders = orderService.completeOrder(authentication);
+        List<OrderResponse> orders = orderService.completeOrder(customerId);
         
         // Return checkout response with payment simulation
         CheckoutResponse response = CheckoutResponse.builder()
@@ -68,28 +75,40 @@ public class OrderController {
      * Endpoint for completing an order after the payment simulation.
      * This endpoint completes the order for the authenticated customer and returns the order details.
      *
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the list of OrderResponse with order details
      */
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<List<OrderResponse>> completeOrder(Authentication authentication) {
-        List<OrderResponse> orders = orderService.completeOrder(authentication);
+    public ResponseEntity<List<OrderResponse>> completeOrder(@CurrentCustomerId Long customerId) {
+        List<OrderResponse> orders = orderService.completeOrder(customerId);
         return ResponseEntity.status(HttpStatus.CREATED).body(orders);
     }
 
     /**
-     * Endpoint for retrieving the authenticated customer's orders.
-     * This endpoint returns a list of orders associated with the authenticated customer.
+     * Endpoint for retrieving the authenticated customer's orders, one page at a time.
+     * This endpoint returns the customer's orders newest first, optionally filtered by order date range and status. When there are more orders,
+     * the X-Next-Cursor header carries an opaque cursor; passing it as the cursor parameter (with the same filters) returns the next page.
      *
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param cursor the cursor returned with the previous page, or none for the first page
+     * @param size the number of orders per page, between 1 and 100 (default is 20)
+     * @param from the earliest order date to include (inclusive), in ISO-8601 local date-time format
+     * @param to the latest order date to include (exclusive), in ISO-8601 local date-time format
+     * @param status the status of the orders to include, one of COMPLETED, CANCELLED or PENDING
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the list of OrderResponse with order details
      */
     @GetMapping
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<List<OrderResponse>> getCustomerOrders(Authentication authentication) {
-        List<OrderResponse> orders = orderService.getCustomerOrders(authentication);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderResponse>> getCustomerOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + OrderService.DEFAULT_HISTORY_PAGE_SIZE) int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            @CurrentCustomerId Long customerId) {
+        OrderHistoryPage page = orderService.getCustomerOrders(customerId, historyRequest(cursor, size, from, to, status));
+        return toResponse(page);
     }
 
     /**
@@ -97,59 +116,73 @@ public class OrderController {
      * This endpoint returns a list of recent orders associated with the authenticated customer, limited by the specified number.
      *
      * @param limit the maximum number of recent orders to return (default is 5)
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the list of OrderResponse with recent order details
      */
     @GetMapping("/recent")
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<List<OrderResponse>> getRecentOrders(
             @RequestParam(defaultValue = "5") int limit,
-            Authentication authentication) {
-        List<OrderResponse> orders = orderService.getRecentCustomerOrders(authentication, limit);
+            @CurrentCustomerId Long customerId) {
+        List<OrderResponse> orders = orderService.getRecentCustomerOrders(customerId, limit);
         return ResponseEntity.ok(orders);
     }
 
     /**
-     * Endpoint for retrieving orders related to the authenticated store owner.
-     * This endpoint returns a list of orders associated with the store owned by the authenticated user.
+     * Endpoint for retrieving orders related to the authenticated store owner, one page at a time.
+     * This endpoint returns the orders placed with the store owned by the authenticated user newest first, optionally filtered by order date range and status.
+     * When there are more orders, the X-Next-Cursor header carries an opaque cursor; passing it as the cursor parameter (with the same filters) returns the next page.
      *
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param cursor the cursor returned with the previous page, or none for the first page
+     * @param size the number of orders per page, between 1 and 100 (default is 20)
+     * @param from the earliest order date to include (inclusive), in ISO-8601 local date-time format
+     * @param to the latest order date to include (exclusive), in ISO-8601 local date-time format
+     * @param status the status of the orders to include, one of COMPLETED, CANCELLED or PENDING
+     * @param storeId the id of the authenticated user's store profile
      * @return ResponseEntity containing the list of OrderResponse with order details related to the store
      */
     @GetMapping("/store")
     @PreAuthorize("hasRole('STORE')")
-    public ResponseEntity<List<OrderResponse>> getStoreOrders(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Store store = storeRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Store profile not found"));
-
-        List<OrderResponse> orders = orderRepository.findByStoreOrderByOrderDateDesc(store)
-                .stream()
-                .map(order -> OrderResponse.builder()
-                        .orderId(order.getId())
-                        .customerId(order.getCustomer().getId())
-                        .customerName(order.getCustomer().getFirstName() + " " + order.getCustomer().getLastName())
-                        .storeId(order.getStore().getId())
-                        .storeName(order.getStore().getName())
-                        .totalPrice(order.getTotalPrice())
-                        .orderDate(order.getOrderDate())
-                        .status(order.getStatus().name())
-                        .items(order.getItems().stream()
-                                .map(orderItem -> OrderResponse.OrderItemResponse.builder()
-                                        .orderItemId(orderItem.getId())
-                                        .productId(orderItem.getProduct().getId())
-                                        .productTitle(orderItem.getProduct().getTitle())
-                                        .productBrand(orderItem.getProduct().getBrand())
-                                        .quantity(orderItem.getQuantity())
-                                        .priceAtPurchase(orderItem.getPriceAtPurchase())
-                                        .subtotal(orderItem.getSubtotal())
-                                        .build())
-                                .collect(Collectors.toList()))
-                        .build())
-                .collect(Collectors.toList());
+    public ResponseEntity<List<OrderResponse>> getStoreOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + OrderService.DEFAULT_HISTORY_PAGE_SIZE) int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            @CurrentStoreId Long storeId) {
+        OrderHistoryPage page = orderService.getStoreOrders(storeId, historyRequest(cursor, size, from, to, status));
+        return toResponse(page);
+    }
 
-        return ResponseEntity.ok(orders);
+    /**
+     * Endpoint for exporting the order book of the authenticated store owner's store as CSV, for accounting.
+     * This endpoint streams one line per order item, oldest order first, optionally limited to a date range. The response is sent with chunked
+     * transfer encoding as the rows are read, and gzip-compressed if the client accepts it, so exports of any size use constant memory.
+     *
+     * @param from the earliest order date to include (inclusive), in ISO-8601 local date-time format
+     * @param to the latest order date to include (exclusive), in ISO-8601 local date-time format
+     * @param acceptEncoding the Accept-Encoding header of the request
+     * @param storeId the id of the authenticated user's store profile
+     * @return ResponseEntity streaming the CSV export
+     */
+    @GetMapping("/store/export.csv")
+    @PreAuthorize("hasRole('STORE')")
+    public ResponseEntity<StreamingResponseBody> exportStoreOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @CurrentStoreId Long storeId) {
+        orderExportService.validateRange(from, to);
+
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("orders.csv").build().toString())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(out -> orderExportService.exportStoreOrders(storeId, from, to, out, gzip));
     }
 
     /**
@@ -168,6 +201,24 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    private static OrderHistoryRequest historyRequest(String cursor, int size, LocalDateTime from, LocalDateTime to, String status) {
+        return OrderHistoryRequest.builder()
+                .cursor(cursor)
+                .size(size)
+                .from(from)
+                .to(to)
+                .status(status)
+                .build();
+    }
+
+    private static ResponseEntity<List<OrderResponse>> toResponse(OrderHistoryPage page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getOrders());
+    }
+
     /**
      * Helper method that simulates payment processing for the given payment request.
      * This is a dummy implementation that always succeeds and generates a random transaction ID.
@@ -6,11 +6,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import uom.eshop.backend.dto.AddProductRequest;
 import uom.eshop.backend.dto.ProductResponse;
 import uom.eshop.backend.dto.ProductSearchRequest;
 import uom.eshop.backend.dto.UpdateProductStockRequest;
+import uom.eshop.backend.security.CurrentCustomerId;
+import uom.eshop.backend.security.CurrentStoreId;
 import uom.eshop.backend.service.ProductService;
 
 import java.util.List;
@@ -30,16 +33,16 @@ public class ProductController {
      * Endpoint for retrieving product recommendations for the authenticated customer.
      * This endpoint is accessible only to users with the CUSTOMER role.
      *
-     * @param limit the maximum number of recommended products to return (default is 10)
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param limit the maximum number of recommended products to return (default is 10, at most 50)
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing a list of ProductResponse objects representing the recommended products
      */
     @GetMapping("/recommendations")
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<List<ProductResponse>> getRecommendations(
             @RequestParam(defaultValue = "10") int limit,
-            Authentication authentication) {
-        List<ProductResponse> recommendations = productService.getRecommendedProducts(authentication, limit);
+            @CurrentCustomerId Long customerId) {
+        List<ProductResponse> recommendations = productService.getRecommendedProducts(customerId, limit);
         return ResponseEntity.ok(recommendations);
     }
 
@@ -48,15 +51,15 @@ public class ProductController {
      * This endpoint is accessible only to users with the STORE role.
      *
      * @param request the AddProductRequest containing the details of the product to be added
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param storeId the id of the authenticated user's store profile
      * @return ResponseEntity containing the ProductResponse representing the added product, with HTTP status 201 Created
      */
     @PostMapping
     @PreAuthorize("hasRole('STORE')")
     public ResponseEntity<ProductResponse> addProduct(
             @Valid @RequestBody AddProductRequest request,
-            Authentication authentication) {
-        ProductResponse response = productService.addProduct(request, authentication);
+            @CurrentStoreId Long storeId) {
+        ProductResponse response = productService.addProduct(request, storeId);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -66,7 +69,7 @@ public class ProductController {
      *
      * @param id the ID of the product to be updated
      * @param request the AddProductRequest containing the updated details of the product
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param storeId the id of the authenticated user's store profile
      * @return ResponseEntity containing the ProductResponse representing the updated product
      */
     @PutMapping("/{id}")
@@ -74,8 +77,8 @@ public class ProductController {
     public ResponseEntity<ProductResponse> updateProduct(
             @PathVariable Long id,
             @Valid @RequestBody AddProductRequest request,
-            Authentication authentication) {
-        ProductResponse response = productService.updateProduct(id, request, authentication);
+            @CurrentStoreId Long storeId) {
+        ProductResponse response = productService.updateProduct(id, request, storeId);
         return ResponseEntity.ok(response);
     }
 
@@ -85,7 +88,7 @@ public class ProductController {
      *
      * @param id the ID of the product whose stock is to be updated
      * @param request the UpdateProductStockRequest containing the new stock quantity
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param storeId the id of the authenticated user's store profile
      * @return ResponseEntity containing the ProductResponse representing the product with updated stock
      */
     @PatchMapping("/{id}/stock")
@@ -93,8 +96,8 @@ public class ProductController {
     public ResponseEntity<ProductResponse> updateProductStock(
             @PathVariable Long id,
             @Valid @RequestBody UpdateProductStockRequest request,
-            Authentication authentication) {
-        ProductResponse response = productService.updateProductStock(id, request, authentication);
+            @CurrentStoreId Long storeId) {
+        ProductResponse response = productService.updateProductStock(id, request, storeId);
         return ResponseEntity.ok(response);
     }
 
@@ -103,15 +106,15 @@ public class ProductController {
      * This endpoint is accessible only to users with the STORE role.
      *
      * @param id the ID of the product to be deleted
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param storeId the id of the authenticated user's store profile
      * @return ResponseEntity with HTTP status 204 No Content if the product is successfully deleted
      */
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('STORE')")
     public ResponseEntity<Void> deleteProduct(
             @PathVariable Long id,
-            Authentication authentication) {
-        productService.deleteProduct(id, authentication);
+            @CurrentStoreId Long storeId) {
+        productService.deleteProduct(id, storeId);
         return ResponseEntity.noContent().build();
     }
 
@@ -119,13 +122,13 @@ public class ProductController {
      * Endpoint for retrieving all products associated with the authenticated store.
      * This endpoint is accessible only to users with the STORE role.
      *
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param storeId the id of the authenticated user's store profile
      * @return ResponseEntity containing a list of ProductResponse objects representing the products of the store
      */
     @GetMapping("/store")
     @PreAuthorize("hasRole('STORE')")
-    public ResponseEntity<List<ProductResponse>> getStoreProducts(Authentication authentication) {
-        List<ProductResponse> products = productService.getStoreProducts(authentication);
+    public ResponseEntity<List<ProductResponse>> getStoreProducts(@CurrentStoreId Long storeId) {
+        List<ProductResponse> products = productService.getStoreProducts(storeId);
         return ResponseEntity.ok(products);
     }
 
@@ -139,6 +142,7 @@ public class ProductController {
      * @param minPrice the minimum price of the product to search for (optional)
      * @param maxPrice the maximum price of the product to search for (optional)
      * @param storeId the ID of the store whose products to search for (optional)
+     * @param excludePurchased whether to leave out products the authenticated customer has already purchased (default is false)
      * @return ResponseEntity containing a list of ProductResponse objects representing the products that match the search criteria
      */
     @GetMapping
@@ -148,8 +152,11 @@ public class ProductController {
             @RequestParam(required = false) String brand,
             @RequestParam(required = false) java.math.BigDecimal minPrice,
             @RequestParam(required = false) java.math.BigDecimal maxPrice,
-            @RequestParam(required = false) Long storeId) {
-        
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(defaultValue = "false") boolean excludePurchased) {
+        // Only a search that excludes purchases needs the caller, so plain searches never verify the token
+        Authentication authentication = excludePurchased ? SecurityContextHolder.getContext().getAuthentication() : null;
+
         ProductSearchRequest request = ProductSearchRequest.builder()
                 .title(title)
                 .type(type)
@@ -157,9 +164,10 @@ public class ProductController {
                 .minPrice(minPrice)
                 .maxPrice(maxPrice)
                 .storeId(storeId)
+                .excludePurchased(excludePurchased)
                 .build();
         
-        List<ProductResponse> products = productService.searchProducts(request);
+        List<ProductResponse> products = productService.searchProducts(request, authentication);
         return ResponseEntity.ok(products);
     }
 
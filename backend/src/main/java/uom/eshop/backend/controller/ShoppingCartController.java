@@ -5,11 +5,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import uom.eshop.backend.dto.AddToCartRequest;
 import uom.eshop.backend.dto.CartResponse;
 import uom.eshop.backend.exceptions.BadRequestException;
+import uom.eshop.backend.security.CurrentCustomerId;
 import uom.eshop.backend.service.ShoppingCartService;
 
 /**
@@ -29,16 +29,16 @@ public class ShoppingCartController {
      * This endpoint accepts an AddToCartRequest containing the product ID and quantity, and returns a CartResponse with the updated cart details.
      *
      * @param request the AddToCartRequest containing the product ID and quantity to add to the cart
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the CartResponse with the updated cart details, with HTTP status 201 Created
      */
     @PostMapping("/items")
     public ResponseEntity<CartResponse> addToCart(
             @Valid @RequestBody AddToCartRequest request,
-            Authentication authentication) {
+            @CurrentCustomerId Long customerId) {
 
         CartResponse response = shoppingCartService
-                .addProductToCart(request, authentication);
+                .addProductToCart(request, customerId);
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -49,12 +49,12 @@ public class ShoppingCartController {
      * Endpoint for retrieving the current shopping cart details for the authenticated customer.
      * This endpoint returns a CartResponse containing the items in the cart, total price, and other relevant information.
      *
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the CartResponse with the current cart details
      */
     @GetMapping
-    public ResponseEntity<CartResponse> getCart(Authentication authentication) {
-        CartResponse response = shoppingCartService.getCart(authentication);
+    public ResponseEntity<CartResponse> getCart(@CurrentCustomerId Long customerId) {
+        CartResponse response = shoppingCartService.getCart(customerId);
         return ResponseEntity.ok(response);
     }
 
@@ -64,7 +64,7 @@ public class ShoppingCartController {
      *
      * @param productId the ID of the product to update in the cart
      * @param quantity the new quantity for the specified product (must be at least 1)
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the CartResponse with the updated cart details
      * @throws BadRequestException if the provided quantity is less than 1
      */
@@ -72,13 +72,13 @@ public class ShoppingCartController {
     public ResponseEntity<CartResponse> updateCartItem(
             @PathVariable Long productId,
             @RequestParam Integer quantity,
-            Authentication authentication) {
+            @CurrentCustomerId Long customerId) {
 
         if (quantity < 1) {
             throw new BadRequestException("Quantity must be at least 1");
         }
         
-        CartResponse response = shoppingCartService.updateCartItemQuantity(productId, quantity, authentication);
+        CartResponse response = shoppingCartService.updateCartItemQuantity(productId, quantity, customerId);
         return ResponseEntity.ok(response);
     }
 
@@ -87,14 +87,14 @@ public class ShoppingCartController {
      * This endpoint accepts the product ID as a path variable and returns a CartResponse with the updated cart details after the item has been removed.
      *
      * @param productId the ID of the product to remove from the cart
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param customerId the id of the authenticated user's customer profile
      * @return ResponseEntity containing the CartResponse with the updated cart details after item removal
      */
     @DeleteMapping("/items/{productId}")
     public ResponseEntity<CartResponse> removeFromCart(
             @PathVariable Long productId,
-            Authentication authentication) {
-        CartResponse response = shoppingCartService.removeProductFromCart(productId, authentication);
+            @CurrentCustomerId Long customerId) {
+        CartResponse response = shoppingCartService.removeProductFromCart(productId, customerId);
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
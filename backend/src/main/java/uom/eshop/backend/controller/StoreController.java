@@ -1,20 +1,29 @@
 package uom.eshop.backend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import uom.eshop.backend.cache.CachedValue;
 import uom.eshop.backend.dto.OrderResponse;
+import uom.eshop.backend.dto.SalesTimeSeriesResponse;
+import uom.eshop.backend.dto.StoreDashboardResponse;
 import uom.eshop.backend.dto.StoreResponse;
 import uom.eshop.backend.dto.StoreStatsResponse;
+import uom.eshop.backend.dto.TopProductResponse;
 import uom.eshop.backend.exceptions.NotFoundException;
-import uom.eshop.backend.model.Store;
-import uom.eshop.backend.repository.StoreRepository;
+import uom.eshop.backend.security.CurrentStoreId;
+import uom.eshop.backend.service.DashboardService;
+import uom.eshop.backend.service.StoreDirectoryService;
 import uom.eshop.backend.service.StoreService;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Controller for handling store-related endpoints.
@@ -25,29 +34,54 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StoreController {
 
-    private final StoreRepository storeRepository;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final StoreService storeService;
+    private final StoreDirectoryService storeDirectoryService;
+    private final DashboardService dashboardService;
 
     /**
-     * Endpoint for retrieving a list of all stores.
-     * This endpoint returns a list of StoreResponse objects containing basic information about each store, including the number of products they have.
+     * Endpoint for retrieving a page of stores.
+     * This endpoint returns a list of StoreResponse objects containing basic information about each store, including the number of products they have,
+     * ordered by store ID.
+     * Pages of the default size are served from the pre-serialized store directory, gzip-compressed if the client accepts it, with an ETag;
+     * a request whose If-None-Match header lists the current ETag gets 304 Not Modified without a body.
+     * The X-Total-Count header carries the total number of stores, so clients can tell whether more pages follow.
      *
-     * @return ResponseEntity containing a list of StoreResponse objects representing all stores
+     * @param page the zero-based page number (default is 0)
+     * @param size the number of stores per page (default is 50, at most 100)
+     * @param ifNoneMatch the ETags of the copies the client already has, if any
+     * @param acceptEncoding the content codings the client accepts, if any
+     * @return ResponseEntity containing a list of StoreResponse objects representing the stores on the requested page
      */
     @GetMapping
-    public ResponseEntity<List<StoreResponse>> getAllStores() {
-        List<Store> stores = storeRepository.findAll();
-        
-        List<StoreResponse> response = stores.stream()
-                .map(store -> StoreResponse.builder()
-                        .id(store.getId())
-                        .name(store.getName())
-                        .owner(store.getOwner())
-                        .productCount(store.getProducts() != null ? store.getProducts().size() : 0)
-                        .build())
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> getAllStores(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + StoreService.DEFAULT_PAGE_SIZE) int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        StoreDirectoryService.Page snapshot = size == StoreService.DEFAULT_PAGE_SIZE ? storeDirectoryService.getPage(page) : null;
+        if (snapshot == null) {
+            List<StoreResponse> response = storeService.getStores(page, size);
+            return ResponseEntity.ok()
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(storeService.countStores()))
+                    .body(response);
+        }
+
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+        boolean notModified = snapshot.matches(ifNoneMatch);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .header(TOTAL_COUNT_HEADER, String.valueOf(snapshot.totalStores()))
+                .eTag(gzip ? snapshot.gzipEtag() : snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (notModified) {
+            return builder.build();
+        }
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(gzip ? snapshot.gzip() : snapshot.json());
     }
 
     /**
@@ -60,31 +94,91 @@ public class StoreController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<StoreResponse> getStoreById(@PathVariable Long id) {
-        Store store = storeRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Store not found"));
-        
-        StoreResponse response = StoreResponse.builder()
-                .id(store.getId())
-                .name(store.getName())
-                .owner(store.getOwner())
-                .productCount(store.getProducts() != null ? store.getProducts().size() : 0)
-                .build();
-        
+        StoreResponse response = storeService.getStore(id);
         return ResponseEntity.ok(response);
     }
 
     /**
      * Endpoint for retrieving statistics related to the authenticated store owner.
      * This endpoint is accessible only to users with the STORE role and returns a StoreStatsResponse containing various statistics about the store, such as total sales, number of orders, and average order value.
+     * The number of unique customers is estimated from a HyperLogLog sketch (about 2% error) unless an exact count is requested.
+     * Estimated statistics are served from a short-lived cache; the X-Cache header tells whether they were a HIT, STALE (refreshing in the background) or MISS,
+     * and X-Cache-Age how many seconds ago they were computed.
      *
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param exact whether to count unique customers exactly with a COUNT(DISTINCT) query instead of the sketch (default is false)
+     * @param storeId the id of the authenticated user's store profile
      * @return ResponseEntity containing the StoreStatsResponse with store statistics
      */
     @GetMapping("/stats")
     @PreAuthorize("hasRole('STORE')")
-    public ResponseEntity<StoreStatsResponse> getStoreStats(Authentication authentication) {
-        StoreStatsResponse stats = storeService.getStoreStats(authentication);
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<StoreStatsResponse> getStoreStats(
+            @RequestParam(defaultValue = "false") boolean exact,
+            @CurrentStoreId Long storeId) {
+        CachedValue<StoreStatsResponse> stats = storeService.getStoreStats(storeId, exact);
+        return ResponseEntity.ok()
+                .header("X-Cache", stats.status().name())
+                .header("X-Cache-Age", String.valueOf(stats.age().toSeconds()))
+                .body(stats.value());
+    }
+
+    /**
+     * Endpoint for retrieving everything the store dashboard shows in a single request: statistics, recent orders, products and best sellers.
+     * This endpoint is accessible only to users with the STORE role. The sections are gathered concurrently and each one carries its own status
+     * and the time it took; a section that failed or timed out is UNAVAILABLE without data, and statistics missing some counters are PARTIAL.
+     *
+     * @param limit the number of recent orders and best sellers to include, between 1 and 50 (default is 10)
+     * @param storeId the id of the authenticated user's store profile
+     * @return ResponseEntity containing the StoreDashboardResponse with one entry per dashboard section
+     */
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('STORE')")
+    public ResponseEntity<StoreDashboardResponse> getStoreDashboard(
+            @RequestParam(defaultValue = "10") int limit,
+            @CurrentStoreId Long storeId) {
+        StoreDashboardResponse dashboard = dashboardService.getStoreDashboard(storeId, limit);
+        return ResponseEntity.ok(dashboard);
+    }
+
+    /**
+     * Endpoint for retrieving the sales time series of the authenticated store owner.
+     * This endpoint is accessible only to users with the STORE role and answers from pre-aggregated hourly or daily buckets,
+     * returning one entry per bucket in the range (including buckets without sales) and the totals over the whole range.
+     *
+     * @param from the start of the range (inclusive, rounded down to the start of its bucket), in ISO-8601 local date-time format
+     * @param to the end of the range (exclusive), in ISO-8601 local date-time format
+     * @param granularity the bucket size, either HOUR or DAY (default is DAY)
+     * @param storeId the id of the authenticated user's store profile
+     * @return ResponseEntity containing the SalesTimeSeriesResponse with the store's sales per bucket
+     */
+    @GetMapping("/stats/timeseries")
+    @PreAuthorize("hasRole('STORE')")
+    public ResponseEntity<SalesTimeSeriesResponse> getSalesTimeSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @CurrentStoreId Long storeId) {
+        SalesTimeSeriesResponse timeSeries = storeService.getSalesTimeSeries(storeId, from, to, granularity);
+        return ResponseEntity.ok(timeSeries);
+    }
+
+    /**
+     * Endpoint for retrieving the best-selling products of the authenticated store owner.
+     * This endpoint is accessible only to users with the STORE role and answers from a Space-Saving sketch updated at checkout and rebuilt exactly every night,
+     * reporting for each product how much its quantity may be overestimated, unless an exact ranking is requested.
+     *
+     * @param limit the number of products to return, between 1 and 64 (default is 10)
+     * @param exact whether to rank products with a GROUP BY over the order items instead of the sketch (default is false)
+     * @param storeId the id of the authenticated user's store profile
+     * @return ResponseEntity containing a list of TopProductResponse objects, best seller first
+     */
+    @GetMapping("/stats/top-products")
+    @PreAuthorize("hasRole('STORE')")
+    public ResponseEntity<List<TopProductResponse>> getTopProducts(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean exact,
+            @CurrentStoreId Long storeId) {
+        List<TopProductResponse> topProducts = storeService.getTopProducts(storeId, limit, exact);
+        return ResponseEntity.ok(topProducts);
     }
 
     /**
@@ -92,15 +186,15 @@ public class StoreController {
      * This endpoint is accessible only to users with the STORE role and returns a list of OrderResponse objects representing the most recent orders associated with the store owned by the authenticated user.
      *
      * @param limit the maximum number of recent orders to retrieve (default is 10)
-     * @param authentication the authentication object containing the authenticated user's details
+     * @param storeId the id of the authenticated user's store profile
      * @return ResponseEntity containing a list of OrderResponse objects representing recent orders related to the store
      */
     @GetMapping("/orders/recent")
     @PreAuthorize("hasRole('STORE')")
     public ResponseEntity<List<OrderResponse>> getRecentOrders(
             @RequestParam(defaultValue = "10") int limit,
-            Authentication authentication) {
-        List<OrderResponse> orders = storeService.getRecentStoreOrders(authentication, limit);
+            @CurrentStoreId Long storeId) {
+        List<OrderResponse> orders = storeService.getRecentStoreOrders(storeId, limit);
         return ResponseEntity.ok(orders);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package uom.eshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for representing everything the customer dashboard shows, gathered in a single request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerDashboardResponse {
+
+    private DashboardSection<CustomerStatsResponse> stats;
+    private DashboardSection<List<OrderResponse>> recentOrders;
+    private DashboardSection<List<ProductResponse>> recommendations;
+}
@@ -24,4 +24,9 @@ public class CustomerStatsResponse {
     private Long uniqueStoresPurchasedFrom;
     private BigDecimal totalAmountSpent;
     private Long totalItemsPurchased;
+
+    /**
+     * Whether some statistics could not be computed in time and were left empty.
+     */
+    private boolean partial;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package uom.eshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO wrapping one section of a composite dashboard response.
+ * Sections are gathered independently, so a section that failed or did not finish in time is reported as UNAVAILABLE with no data
+ * while the others are still returned; elapsedMs is the time spent on the section.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardSection<T> {
+
+    public enum Status {
+        OK,
+        PARTIAL,
+        UNAVAILABLE
+    }
+
+    private Status status;
+    private T data;
+    private long elapsedMs;
+}
@@ -0,0 +1,22 @@
+package uom.eshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for representing one page of an order history.
+ * This class contains the orders of the page, newest first, and the opaque cursor of the next page, which is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderHistoryPage {
+
+    private List<OrderResponse> orders;
+    private String nextCursor;
+}
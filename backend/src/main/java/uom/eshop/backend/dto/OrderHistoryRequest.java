@@ -0,0 +1,25 @@
+package uom.eshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for representing a request for one page of an order history.
+ * This class contains the optional filters (order date range and status), the cursor returned with the previous page, if any, and the page size.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderHistoryRequest {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String status;
+    private String cursor;
+    private int size;
+}
@@ -9,7 +9,7 @@ import java.math.BigDecimal;
 
 /**
  * DTO for representing a product search request.
- * This class contains fields for the search criteria, including the product title, type, brand, minimum price, maximum price, and store ID. It is used to transfer search parameters from the frontend to the backend when searching for products.
+ * This class contains fields for the search criteria, including the product title, type, brand, minimum price, maximum price, store ID, and whether products the customer already bought should be left out. It is used to transfer search parameters from the frontend to the backend when searching for products.
  */
 @Data
 @NoArgsConstructor
@@ -23,4 +23,5 @@ public class ProductSearchRequest {
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
     private Long storeId;
+    private boolean excludePurchased;
 }
\ No newline at end of file
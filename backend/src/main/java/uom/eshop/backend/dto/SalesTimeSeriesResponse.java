@@ -0,0 +1,43 @@
+package uom.eshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for representing a store's sales over time.
+ * This class contains the requested range and granularity, totals over the whole range, and one entry per bucket in chronological order.
+ * Buckets without sales are included with zero values, and unique customer counts are HyperLogLog estimates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesTimeSeriesResponse {
+
+    private String granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal totalRevenue;
+    private Long totalOrders;
+    private Long totalItemsSold;
+    private Long uniqueCustomers;
+    private List<SalesBucketResponse> buckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SalesBucketResponse {
+        private LocalDateTime bucketStart;
+        private BigDecimal revenue;
+        private Long orders;
+        private Long itemsSold;
+        private Long uniqueCustomers;
+    }
+}
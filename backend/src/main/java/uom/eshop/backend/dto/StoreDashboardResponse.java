@@ -0,0 +1,23 @@
+package uom.eshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for representing everything the store dashboard shows, gathered in a single request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoreDashboardResponse {
+
+    private DashboardSection<StoreStatsResponse> stats;
+    private DashboardSection<List<OrderResponse>> recentOrders;
+    private DashboardSection<List<ProductResponse>> products;
+    private DashboardSection<List<TopProductResponse>> topProducts;
+}
@@ -25,4 +25,10 @@ public class StoreStatsResponse {
     private Long uniqueCustomers;
     private BigDecimal totalRevenue;
     private Long totalItemsSold;
+
+    /**
+     * Whether some statistics could not be computed in time and were left empty,
+     * or estimated from the sketch although an exact count was requested.
+     */
+    private boolean partial;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package uom.eshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for representing one of a store's best-selling products.
+ * When the list comes from the streaming sketch, the true quantity sold lies between quantitySold - maxOverestimate and quantitySold,
+ * and guaranteed tells whether the product belongs to the true top list regardless of that error.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopProductResponse {
+
+    private Long productId;
+    private String title;
+    private String brand;
+    private Long quantitySold;
+    private Long maxOverestimate;
+    private boolean guaranteed;
+}
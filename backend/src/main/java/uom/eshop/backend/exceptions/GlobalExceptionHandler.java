@@ -1,6 +1,7 @@
 package uom.eshop.backend.exceptions;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -14,7 +15,7 @@ import java.util.stream.Collectors;
 /**
  * Global exception handler for the e-shop backend application.
  * This class uses @ControllerAdvice to handle exceptions thrown by controllers and return consistent error responses in the form of ApiError objects.
- * It includes handlers for specific exceptions such as NotFoundException, BadRequestException, ConflictException, ForbiddenException, BusinessRuleException, InsufficientStockException,
+ * It includes handlers for specific exceptions such as NotFoundException, BadRequestException, ConflictException, ForbiddenException, ServiceUnavailableException, BusinessRuleException, InsufficientStockException,
  * as well as a generic handler for any unhandled exceptions.
  */
 @ControllerAdvice
@@ -48,6 +49,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(body);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailable(ServiceUnavailableException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ApiError body = ApiError.of(status, ex.getCode(), ex.getMessage(), request);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(body);
+    }
+
     @ExceptionHandler({BusinessRuleException.class, InsufficientStockException.class})
     public ResponseEntity<ApiError> handleBusinessRule(EshopException ex, HttpServletRequest request) {
         HttpStatus status = HttpStatus.BAD_REQUEST;
@@ -0,0 +1,21 @@
+package uom.eshop.backend.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request is shed because a bounded resource, such as the password hashing pool, is saturated.
+ * This exception typically corresponds to HTTP status code 503 (Service Unavailable), with a Retry-After header telling the client when to try again.
+ */
+public class ServiceUnavailableException extends EshopException {
+
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
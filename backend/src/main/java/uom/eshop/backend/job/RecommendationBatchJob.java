@@ -0,0 +1,254 @@
+package uom.eshop.backend.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import uom.eshop.backend.config.RecommendationProperties;
+import uom.eshop.backend.model.BatchJobCheckpoint;
+import uom.eshop.backend.model.CustomerRecommendation;
+import uom.eshop.backend.repository.BatchJobCheckpointRepository;
+import uom.eshop.backend.repository.CustomerRecommendationRepository;
+import uom.eshop.backend.repository.OrderRepository;
+import uom.eshop.backend.repository.ProductRepository;
+import uom.eshop.backend.repository.projection.CustomerPurchaseView;
+import uom.eshop.backend.repository.projection.ProductCandidateView;
+import uom.eshop.backend.sketch.RoaringBitmap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly batch job that precomputes the top-N recommended product ids of every customer with at least one order.
+ * Customers are read in keyset-paginated chunks ordered by id, scored in parallel on a dedicated fork-join pool,
+ * and written to customer_recommendations with a JDBC batch upsert.
+ * All chunks are scored against one snapshot of the newest in-stock products, capped at the configured number of candidates,
+ * so the memory the job holds for the catalog is bounded by that cap rather than by the size of the catalog.
+ * Each chunk is committed together with the job checkpoint, so a run that is interrupted resumes from the last committed customer.
+ */
+@Component
+@Slf4j
+public class RecommendationBatchJob {
+
+    static final String JOB_NAME = "customer-recommendations";
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final BatchJobCheckpointRepository checkpointRepository;
+    private final CustomerRecommendationRepository customerRecommendationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RecommendationProperties.Batch properties;
+    private final Counter customersCounter;
+    private final Timer runTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile double lastThroughput;
+
+    public RecommendationBatchJob(OrderRepository orderRepository,
+                                  ProductRepository productRepository,
+                                  BatchJobCheckpointRepository checkpointRepository,
+                                  CustomerRecommendationRepository customerRecommendationRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  RecommendationProperties recommendationProperties,
+                                  MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.customerRecommendationRepository = customerRecommendationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = recommendationProperties.getBatch();
+        this.customersCounter = Counter.builder("eshop.recommendation.batch.customers")
+                .description("Customers whose recommendations were precomputed")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("eshop.recommendation.batch.duration")
+                .description("Duration of recommendation batch runs")
+                .register(meterRegistry);
+        Gauge.builder("eshop.recommendation.batch.throughput", this, job -> job.lastThroughput)
+                .description("Customers processed per second by the last recommendation batch run")
+                .baseUnit("customers/s")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${eshop.recommendation.batch.cron:0 0 3 * * *}")
+    public void runScheduled() {
+        run();
+    }
+
+    /**
+     * Runs the job, resuming from the checkpoint of an earlier interrupted run if there is one.
+     *
+     * @return the number of customers processed by this invocation, or -1 if another run was already in progress
+     */
+    public long run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Recommendation batch job is already running, skipping this trigger");
+            return -1;
+        }
+        try {
+            return execute();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long execute() {
+        BatchJobCheckpoint checkpoint = startOrResume();
+        RecommendationScorer scorer = loadScorer();
+        int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        long startedAt = System.nanoTime();
+        long processed = 0;
+        try {
+            while (true) {
+                List<Long> customerIds = orderRepository.findCustomerIdsWithOrdersAfter(
+                        checkpoint.getLastProcessedId(), PageRequest.of(0, properties.getChunkSize()));
+                if (customerIds.isEmpty()) {
+                    break;
+                }
+
+                List<RecommendationScorer.CustomerProfile> profiles = loadProfiles(customerIds);
+                List<CustomerRecommendation> recommendations = pool.invoke(new ScoringTask(scorer, profiles, 0, profiles.size()));
+
+                checkpoint = writeChunk(recommendations, checkpoint, customerIds.get(customerIds.size() - 1));
+                processed += customerIds.size();
+                customersCounter.increment(customerIds.size());
+
+                if (customerIds.size() < properties.getChunkSize()) {
+                    break;
+                }
+            }
+
+            checkpoint.setRunning(false);
+            checkpoint.setLastProcessedId(0L);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        } finally {
+            pool.shutdown();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        runTimer.record(elapsed);
+        lastThroughput = processed / Math.max(elapsed.toNanos() / 1e9, 1e-9);
+        log.info("Recommendation batch job processed {} customers against {} products in {} ms ({} customers/sec)",
+                processed, scorer.catalogSize(), elapsed.toMillis(), String.format("%.1f", lastThroughput));
+        return processed;
+    }
+
+    private RecommendationScorer loadScorer() {
+        List<ProductCandidateView> candidates = productRepository.findInStockCandidates(PageRequest.of(0, properties.getMaxCandidates()));
+        if (candidates.size() == properties.getMaxCandidates()) {
+            log.warn("Recommendation catalog snapshot capped at the {} newest in-stock products", properties.getMaxCandidates());
+        }
+        return new RecommendationScorer(candidates, properties.getTopN());
+    }
+
+    private BatchJobCheckpoint startOrResume() {
+        BatchJobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> BatchJobCheckpoint.builder().jobName(JOB_NAME).build());
+
+        if (checkpoint.isRunning()) {
+            log.info("Resuming recommendation batch job after customer {} ({} customers already processed)",
+                    checkpoint.getLastProcessedId(), checkpoint.getProcessedCount());
+        } else {
+            checkpoint.setLastProcessedId(0L);
+            checkpoint.setProcessedCount(0L);
+            checkpoint.setStartedAt(LocalDateTime.now());
+            checkpoint.setRunning(true);
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private List<RecommendationScorer.CustomerProfile> loadProfiles(List<Long> customerIds) {
+        Map<Long, Set<String>> types = new HashMap<>();
+        Map<Long, Set<String>> brands = new HashMap<>();
+        Map<Long, List<Long>> productIds = new HashMap<>();
+
+        for (CustomerPurchaseView purchase : orderRepository.findPurchasesByCustomerIds(customerIds)) {
+            Long customerId = purchase.getCustomerId();
+            types.computeIfAbsent(customerId, id -> new HashSet<>()).add(purchase.getType());
+            brands.computeIfAbsent(customerId, id -> new HashSet<>()).add(purchase.getBrand());
+            productIds.computeIfAbsent(customerId, id -> new ArrayList<>()).add(purchase.getProductId());
+        }
+
+        List<RecommendationScorer.CustomerProfile> profiles = new ArrayList<>(customerIds.size());
+        for (Long customerId : customerIds) {
+            profiles.add(new RecommendationScorer.CustomerProfile(
+                    customerId,
+                    types.getOrDefault(customerId, Set.of()),
+                    brands.getOrDefault(customerId, Set.of()),
+                    RoaringBitmap.of(productIds.getOrDefault(customerId, List.of()))
+            ));
+        }
+        return profiles;
+    }
+
+    private BatchJobCheckpoint writeChunk(List<CustomerRecommendation> recommendations,
+                                          BatchJobCheckpoint checkpoint,
+                                          Long lastCustomerId) {
+        return transactionTemplate.execute(status -> {
+            customerRecommendationRepository.upsertAll(recommendations);
+
+            checkpoint.setLastProcessedId(lastCustomerId);
+            checkpoint.setProcessedCount(checkpoint.getProcessedCount() + recommendations.size());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            return checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Scores a slice of customer profiles, splitting it in half until slices are small enough to score directly.
+     */
+    private static class ScoringTask extends RecursiveTask<List<CustomerRecommendation>> {
+
+        private static final int THRESHOLD = 32;
+
+        private final RecommendationScorer scorer;
+        private final List<RecommendationScorer.CustomerProfile> profiles;
+        private final int from;
+        private final int to;
+
+        ScoringTask(RecommendationScorer scorer, List<RecommendationScorer.CustomerProfile> profiles, int from, int to) {
+            this.scorer = scorer;
+            this.profiles = profiles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<CustomerRecommendation> compute() {
+            if (to - from <= THRESHOLD) {
+                LocalDateTime now = LocalDateTime.now();
+                List<CustomerRecommendation> result = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    RecommendationScorer.CustomerProfile profile = profiles.get(i);
+                    result.add(CustomerRecommendation.builder()
+                            .customerId(profile.customerId())
+                            .productIds(scorer.score(profile))
+                            .computedAt(now)
+                            .build());
+                }
+                return result;
+            }
+
+            int middle = (from + to) >>> 1;
+            ScoringTask left = new ScoringTask(scorer, profiles, from, middle);
+            left.fork();
+            List<CustomerRecommendation> right = new ScoringTask(scorer, profiles, middle, to).compute();
+            List<CustomerRecommendation> result = new ArrayList<>(left.join());
+            result.addAll(right);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package uom.eshop.backend.job;
+
+import uom.eshop.backend.repository.projection.ProductCandidateView;
+import uom.eshop.backend.sketch.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ranks in-stock products for a customer using the same rule as the live recommendation query:
+ * products sharing a type or brand with the customer's past purchases, not bought before, newest first.
+ * The catalog snapshot is held in flat arrays and is read-only, so one scorer can be shared by all fork-join workers.
+ */
+public class RecommendationScorer {
+
+    private final long[] ids;
+    private final String[] types;
+    private final String[] brands;
+    private final int topN;
+
+    /**
+     * @param candidates in-stock products ordered by id descending
+     * @param topN maximum number of product ids returned per customer
+     */
+    public RecommendationScorer(List<ProductCandidateView> candidates, int topN) {
+        this.ids = new long[candidates.size()];
+        this.types = new String[candidates.size()];
+        this.brands = new String[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            ProductCandidateView candidate = candidates.get(i);
+            ids[i] = candidate.getId();
+            types[i] = candidate.getType();
+            brands[i] = candidate.getBrand();
+        }
+        this.topN = topN;
+    }
+
+    public Long[] score(CustomerProfile profile) {
+        Long[] result = new Long[topN];
+        int count = 0;
+        for (int i = 0; i < ids.length && count < topN; i++) {
+            boolean matches = profile.types().contains(types[i]) || profile.brands().contains(brands[i]);
+            if (matches && !profile.purchasedProducts().contains(ids[i])) {
+                result[count++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public int catalogSize() {
+        return ids.length;
+    }
+
+    /**
+     * Purchase history of a single customer, as needed for scoring.
+     */
+    public record CustomerProfile(Long customerId, Set<String> types, Set<String> brands, RoaringBitmap purchasedProducts) {
+    }
+}
@@ -0,0 +1,163 @@
+package uom.eshop.backend.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import uom.eshop.backend.config.StatsProperties;
+import uom.eshop.backend.model.StoreStats;
+import uom.eshop.backend.repository.StoreRepository;
+import uom.eshop.backend.repository.StoreStatsRepository;
+import uom.eshop.backend.service.StoreStatsService;
+import uom.eshop.backend.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scheduled job that recomputes every store's materialized counters from the products and orders tables and reports drift.
+ * Each store is reconciled in its own short transaction that first locks the store_stats row, so checkouts running at the same time
+ * either commit before the recomputation reads the source tables or apply their increments on top of the corrected row.
+ * A store that fails to reconcile is logged and counted, and the run carries on with the next one.
+ */
+@Component
+@Slf4j
+public class StoreStatsReconciliationJob {
+
+    private final StoreRepository storeRepository;
+    private final StoreStatsRepository storeStatsRepository;
+    private final StoreStatsService storeStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final StatsProperties.Reconciliation properties;
+    private final Counter driftCounter;
+    private final Counter failureCounter;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile int lastDriftedStores;
+
+    public StoreStatsReconciliationJob(StoreRepository storeRepository,
+                                       StoreStatsRepository storeStatsRepository,
+                                       StoreStatsService storeStatsService,
+                                       TransactionTemplate transactionTemplate,
+                                       StatsProperties statsProperties,
+                                       MeterRegistry meterRegistry) {
+        this.storeRepository = storeRepository;
+        this.storeStatsRepository = storeStatsRepository;
+        this.storeStatsService = storeStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = statsProperties.getReconciliation();
+        this.driftCounter = Counter.builder("eshop.stats.reconciliation.drift")
+                .description("Stores whose materialized counters differed from the source tables")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("eshop.stats.reconciliation.failures")
+                .description("Stores whose reconciliation failed and was skipped until the next run")
+                .register(meterRegistry);
+        Gauge.builder("eshop.stats.reconciliation.drifted.stores", this, job -> job.lastDriftedStores)
+                .description("Stores found with drifted counters by the last reconciliation run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${eshop.stats.reconciliation.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        run();
+    }
+
+    /**
+     * Reconciles the counters of every store with the source tables.
+     *
+     * @return the number of stores whose counters had drifted, or -1 if another run was already in progress
+     */
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Store stats reconciliation is already running, skipping this trigger");
+            return -1;
+        }
+        try {
+            int checked = 0;
+            int drifted = 0;
+            int failed = 0;
+            long afterId = 0L;
+
+            while (true) {
+                List<Long> storeIds = storeRepository.findIdsAfter(afterId, PageRequest.of(0, properties.getChunkSize()));
+                if (storeIds.isEmpty()) {
+                    break;
+                }
+                for (Long storeId : storeIds) {
+                    checked++;
+                    try {
+                        if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcile(storeId)))) {
+                            drifted++;
+                        }
+                    } catch (RuntimeException e) {
+                        // E.g. a checkout created the missing row first; the next run picks the store up again
+                        failed++;
+                        failureCounter.increment();
+                        log.warn("Failed to reconcile the stats of store {}, skipping it", storeId, e);
+                    }
+                }
+                afterId = storeIds.get(storeIds.size() - 1);
+            }
+
+            lastDriftedStores = drifted;
+            log.info("Store stats reconciliation checked {} stores, {} had drifted, {} failed", checked, drifted, failed);
+            return drifted;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean reconcile(Long storeId) {
+        Optional<StoreStats> stored = storeStatsRepository.findByIdForUpdate(storeId);
+        StoreStats actual = storeStatsService.computeFromSource(storeId);
+        actual.setReconciledAt(LocalDateTime.now());
+
+        boolean drifted = false;
+        if (stored.isEmpty()) {
+            log.info("Store {} had no stats row, created it from the source tables", storeId);
+        } else {
+            List<String> differences = describeDrift(stored.get(), actual);
+            if (!differences.isEmpty()) {
+                log.warn("Store {} stats drifted: {}", storeId, String.join(", ", differences));
+                driftCounter.increment();
+                drifted = true;
+            }
+        }
+
+        storeStatsRepository.save(actual);
+        return drifted;
+    }
+
+    static List<String> describeDrift(StoreStats stored, StoreStats actual) {
+        List<String> differences = new ArrayList<>();
+        compare(differences, "totalOrders", stored.getTotalOrders(), actual.getTotalOrders());
+        compare(differences, "totalOrdersCompleted", stored.getTotalOrdersCompleted(), actual.getTotalOrdersCompleted());
+        compare(differences, "totalItemsSold", stored.getTotalItemsSold(), actual.getTotalItemsSold());
+        compare(differences, "productsInStock", stored.getProductsInStock(), actual.getProductsInStock());
+        compare(differences, "productsOutOfStock", stored.getProductsOutOfStock(), actual.getProductsOutOfStock());
+        if (stored.getTotalRevenue().compareTo(actual.getTotalRevenue()) != 0) {
+            differences.add("totalRevenue " + stored.getTotalRevenue() + " -> " + actual.getTotalRevenue());
+        }
+        // Sketches are deterministic, so one rebuilt from the exact customer ids must match register for register
+        if (!Arrays.equals(stored.getCustomerSketch(), actual.getCustomerSketch())) {
+            differences.add("customerSketch estimate " + HyperLogLog.fromBytes(stored.getCustomerSketch()).estimate()
+                    + " -> " + HyperLogLog.fromBytes(actual.getCustomerSketch()).estimate());
+        }
+        // The top-products sketch legitimately differs from an exact rebuild once evictions happened; saving the rebuild resets it
+        return differences;
+    }
+
+    private static void compare(List<String> differences, String field, Long stored, Long actual) {
+        if (!Objects.equals(stored, actual)) {
+            differences.add(field + " " + stored + " -> " + actual);
+        }
+    }
+}
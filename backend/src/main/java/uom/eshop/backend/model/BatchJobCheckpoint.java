@@ -0,0 +1,44 @@
+package uom.eshop.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the progress of a batch job.
+ * The job stores the last key it fully processed after every chunk, so an interrupted run can resume where it stopped instead of starting over.
+ */
+@Entity
+@Table(name = "batch_job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchJobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "last_processed_id", nullable = false)
+    @Builder.Default
+    private Long lastProcessedId = 0L;
+
+    @Column(name = "processed_count", nullable = false)
+    @Builder.Default
+    private Long processedCount = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean running = false;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
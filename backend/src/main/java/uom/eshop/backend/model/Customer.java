@@ -15,7 +15,7 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "customers", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "tax_id")
+    @UniqueConstraint(name = Customer.TAX_ID_CONSTRAINT, columnNames = "tax_id")
 })
 @Data
 @NoArgsConstructor
@@ -23,13 +23,15 @@ import lombok.NoArgsConstructor;
 @Builder
 public class Customer {
 
+    public static final String TAX_ID_CONSTRAINT = "uk_customers_tax_id";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotBlank
     @Size(min = 9, max = 12)
-    @Column(name = "tax_id", nullable = false, unique = true)
+    @Column(name = "tax_id", nullable = false)
     private String taxId;
 
     @NotBlank
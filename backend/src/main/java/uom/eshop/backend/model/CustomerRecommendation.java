@@ -0,0 +1,33 @@
+package uom.eshop.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the precomputed product recommendations of a customer.
+ * Rows are written by the nightly recommendation batch job and hold the ranked product ids as a single array column,
+ * so serving a customer's recommendations is one primary-key lookup.
+ */
+@Entity
+@Table(name = "customer_recommendations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerRecommendation {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "product_ids", nullable = false)
+    private Long[] productIds;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
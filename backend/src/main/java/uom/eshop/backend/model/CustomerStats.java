@@ -0,0 +1,35 @@
+package uom.eshop.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the materialized statistics of a customer that cannot be derived cheaply from their orders.
+ * It currently keeps a HyperLogLog sketch of the stores the customer ordered from, updated at checkout.
+ */
+@Entity
+@Table(name = "customer_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerStats {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    /**
+     * Serialized HyperLogLog sketch of the ids of stores the customer ordered from, estimating their unique stores.
+     */
+    @Column(name = "store_sketch", length = 4096)
+    private byte[] storeSketch;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
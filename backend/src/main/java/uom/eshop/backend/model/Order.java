@@ -18,7 +18,10 @@ import java.util.List;
  * It uses JPA annotations to define the entity and its relationships with other entities in the system.
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_store_date", columnList = "store_id, order_date, id"),
+        @Index(name = "idx_orders_customer_date", columnList = "customer_id, order_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +16,7 @@ import java.math.BigDecimal;
  * It also includes a helper method to calculate the subtotal based on the price and quantity.
  */
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_order_id", columnList = "order_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +14,7 @@ import java.math.BigDecimal;
  * This class is annotated with JPA annotations to define the mapping between the class and the database table. It includes fields for the product's title, type, brand, description, price, stock quantity, and a reference to the store it belongs to. Validation annotations are used to ensure that the data is valid when creating or updating a product.
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_store_id", columnList = "store_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,39 @@
+package uom.eshop.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity recording a tax ID taken by a customer or a store.
+ * Customers and stores keep their tax IDs in separate tables, so a tax ID is unique across both only through this table:
+ * registration inserts a row here and a second registration with the same tax ID violates its unique constraint.
+ */
+@Entity
+@Table(name = "tax_ids", uniqueConstraints = {
+    @UniqueConstraint(name = RegisteredTaxId.TAX_ID_CONSTRAINT, columnNames = "tax_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RegisteredTaxId {
+
+    public static final String TAX_ID_CONSTRAINT = "uk_tax_ids_tax_id";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tax_id", nullable = false, length = 12)
+    private String taxId;
+
+    /**
+     * Whether a customer or a store holds the tax ID.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Role role;
+}
@@ -0,0 +1,39 @@
+package uom.eshop.backend.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Enum representing the bucket size of the pre-aggregated store sales time series.
+ * Each granularity also fixes the HyperLogLog precision of its bucket sketches: hourly buckets are far more numerous,
+ * so they trade some accuracy (about 4.6% error, 513 bytes) for size, while daily buckets keep the default precision.
+ */
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS, 9),
+    DAY(ChronoUnit.DAYS, 11);
+
+    private final ChronoUnit unit;
+    private final int sketchPrecision;
+
+    RollupGranularity(ChronoUnit unit, int sketchPrecision) {
+        this.unit = unit;
+        this.sketchPrecision = sketchPrecision;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+
+    public Duration step() {
+        return unit.getDuration();
+    }
+
+    public int sketchPrecision() {
+        return sketchPrecision;
+    }
+}
@@ -18,7 +18,7 @@ import java.util.List;
  */
 @Entity
 @Table(name = "stores", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "tax_id")
+    @UniqueConstraint(name = Store.TAX_ID_CONSTRAINT, columnNames = "tax_id")
 })
 @Data
 @NoArgsConstructor
@@ -26,13 +26,15 @@ import java.util.List;
 @Builder
 public class Store {
 
+    public static final String TAX_ID_CONSTRAINT = "uk_stores_tax_id";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotBlank
     @Size(min = 9, max = 12)
-    @Column(name = "tax_id", nullable = false, unique = true)
+    @Column(name = "tax_id", nullable = false)
     private String taxId;
 
     @NotBlank
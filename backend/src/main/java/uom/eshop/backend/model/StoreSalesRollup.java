@@ -0,0 +1,59 @@
+package uom.eshop.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing one bucket of a store's pre-aggregated sales time series.
+ * Checkout adds every order to the hourly and the daily bucket it falls into, so analytics queries read one row per bucket
+ * instead of scanning the orders table.
+ */
+@Entity
+@Table(name = "store_sales_rollups", uniqueConstraints = @UniqueConstraint(
+        name = "uk_store_sales_rollups_bucket",
+        columnNames = {"store_id", "granularity", "bucket_start"}
+))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoreSalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "order_count", nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Column(name = "items_sold", nullable = false)
+    @Builder.Default
+    private Long itemsSold = 0L;
+
+    /**
+     * Serialized HyperLogLog sketch of the customers who ordered in this bucket; null until the first order.
+     */
+    @Column(name = "customer_sketch", length = 4096)
+    private byte[] customerSketch;
+}
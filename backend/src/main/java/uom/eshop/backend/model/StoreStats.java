@@ -0,0 +1,67 @@
+package uom.eshop.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the materialized dashboard counters of a store.
+ * The counters are incremented in the same transaction as the checkout or product change that affects them,
+ * so reading the dashboard costs a single primary key lookup regardless of how many orders the store has.
+ */
+@Entity
+@Table(name = "store_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoreStats {
+
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @Column(name = "total_orders", nullable = false)
+    @Builder.Default
+    private Long totalOrders = 0L;
+
+    @Column(name = "total_orders_completed", nullable = false)
+    @Builder.Default
+    private Long totalOrdersCompleted = 0L;
+
+    @Column(name = "total_revenue", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+
+    @Column(name = "total_items_sold", nullable = false)
+    @Builder.Default
+    private Long totalItemsSold = 0L;
+
+    @Column(name = "products_in_stock", nullable = false)
+    @Builder.Default
+    private Long productsInStock = 0L;
+
+    @Column(name = "products_out_of_stock", nullable = false)
+    @Builder.Default
+    private Long productsOutOfStock = 0L;
+
+    /**
+     * Serialized HyperLogLog sketch of the ids of customers who ordered from the store, estimating its unique customers.
+     */
+    @Column(name = "customer_sketch", length = 4096)
+    private byte[] customerSketch;
+
+    /**
+     * Serialized Space-Saving sketch of the quantities sold per product id, tracking the store's best sellers.
+     */
+    @Column(name = "top_products_sketch", length = 2048)
+    private byte[] topProductsSketch;
+
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+}
@@ -22,8 +22,8 @@ import java.util.Collections;
  */
 @Entity
 @Table(name = "users", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "username"),
-    @UniqueConstraint(columnNames = "email")
+    @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
 })
 @Data
 @NoArgsConstructor
@@ -31,6 +31,9 @@ import java.util.Collections;
 @Builder
 public class User implements UserDetails {
 
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -52,6 +55,13 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Role role;
 
+    /**
+     * Version stamped into every token issued to the user; incrementing it revokes all tokens issued so far.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private long tokenVersion = 0;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
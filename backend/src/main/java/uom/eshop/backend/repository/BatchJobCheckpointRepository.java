@@ -0,0 +1,12 @@
+package uom.eshop.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import uom.eshop.backend.model.BatchJobCheckpoint;
+
+/**
+ * Repository interface for managing BatchJobCheckpoint entities.
+ */
+@Repository
+public interface BatchJobCheckpointRepository extends JpaRepository<BatchJobCheckpoint, String> {
+}
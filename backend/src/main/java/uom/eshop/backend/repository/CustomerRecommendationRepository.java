@@ -0,0 +1,12 @@
+package uom.eshop.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import uom.eshop.backend.model.CustomerRecommendation;
+
+/**
+ * Repository interface for managing precomputed CustomerRecommendation entities.
+ */
+@Repository
+public interface CustomerRecommendationRepository extends JpaRepository<CustomerRecommendation, Long>, CustomerRecommendationRepositoryCustom {
+}
@@ -0,0 +1,17 @@
+package uom.eshop.backend.repository;
+
+import uom.eshop.backend.model.CustomerRecommendation;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for writing precomputed CustomerRecommendation rows in bulk.
+ */
+public interface CustomerRecommendationRepositoryCustom {
+
+    /**
+     * Inserts the recommendations, replacing the stored list and computation time of customers that already have one,
+     * with a single JDBC batch.
+     */
+    void upsertAll(List<CustomerRecommendation> recommendations);
+}
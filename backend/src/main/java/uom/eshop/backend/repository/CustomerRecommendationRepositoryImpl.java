@@ -0,0 +1,33 @@
+package uom.eshop.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uom.eshop.backend.model.CustomerRecommendation;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC implementation of the CustomerRecommendation bulk upsert, which a batched JPA merge would turn into a select per row.
+ */
+@RequiredArgsConstructor
+class CustomerRecommendationRepositoryImpl implements CustomerRecommendationRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "MERGE INTO customer_recommendations r " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT ARRAY), CAST(? AS TIMESTAMP))) AS s (customer_id, product_ids, computed_at) " +
+            "ON r.customer_id = s.customer_id " +
+            "WHEN MATCHED THEN UPDATE SET product_ids = s.product_ids, computed_at = s.computed_at " +
+            "WHEN NOT MATCHED THEN INSERT (customer_id, product_ids, computed_at) VALUES (s.customer_id, s.product_ids, s.computed_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertAll(List<CustomerRecommendation> recommendations) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, recommendations, recommendations.size(), (ps, recommendation) -> {
+            ps.setLong(1, recommendation.getCustomerId());
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", recommendation.getProductIds()));
+            ps.setTimestamp(3, Timestamp.valueOf(recommendation.getComputedAt()));
+        });
+    }
+}
@@ -17,7 +17,5 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     
     Optional<Customer> findByUserId(Long userId);
     
-    boolean existsByTaxId(String taxId);
-    
     Optional<Customer> findByTaxId(String taxId);
 }
\ No newline at end of file
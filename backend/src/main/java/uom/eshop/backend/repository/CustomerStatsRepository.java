@@ -0,0 +1,31 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uom.eshop.backend.model.CustomerStats;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for managing CustomerStats entities.
+ */
+@Repository
+public interface CustomerStatsRepository extends JpaRepository<CustomerStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CustomerStats c WHERE c.customerId = :customerId")
+    Optional<CustomerStats> findByIdForUpdate(@Param("customerId") Long customerId);
+
+    /**
+     * Inserts the row unless another transaction has created it first, which returns 0 so the caller can lock and update that row instead.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO customer_stats (customer_id, store_sketch, updated_at) " +
+                   "VALUES (:#{#stats.customerId}, :#{#stats.storeSketch}, :#{#stats.updatedAt}) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("stats") CustomerStats stats);
+}
@@ -1,10 +1,13 @@
 package uom.eshop.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uom.eshop.backend.model.Order;
 import uom.eshop.backend.model.OrderItem;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,4 +19,7 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
     
     List<OrderItem> findByOrderId(Long orderId);
+    
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItem> findWithProductByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
\ No newline at end of file
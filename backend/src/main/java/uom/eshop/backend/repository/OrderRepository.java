@@ -2,6 +2,7 @@ package uom.eshop.backend.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -9,15 +10,19 @@ import uom.eshop.backend.model.Customer;
 import uom.eshop.backend.model.Order;
 import uom.eshop.backend.model.OrderStatus;
 import uom.eshop.backend.model.Store;
+import uom.eshop.backend.repository.projection.CustomerOrderStatsView;
+import uom.eshop.backend.repository.projection.CustomerPurchaseView;
+import uom.eshop.backend.repository.projection.ProductSalesView;
+import uom.eshop.backend.repository.projection.StoreOrderStatsView;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for managing Order entities in the e-commerce system.
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
     
     List<Order> findByCustomer(Customer customer);
     
@@ -27,29 +32,36 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     List<Order> findByStoreId(Long storeId);
     
-    List<Order> findByCustomerOrderByOrderDateDesc(Customer customer);
+    @Query("SELECT o.id FROM Order o WHERE o.customer.id = :customerId ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
     
-    List<Order> findByCustomerOrderByOrderDateDesc(Customer customer, Pageable pageable);
+    @Query("SELECT o.id FROM Order o WHERE o.store.id = :storeId ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findIdsByStoreId(@Param("storeId") Long storeId, Pageable pageable);
     
-    List<Order> findByStoreOrderByOrderDateDesc(Store store);
+    // The cart is the inverse side of a one-to-one, which Hibernate loads eagerly, so it is fetched here instead of once per customer
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer c LEFT JOIN FETCH c.shoppingCart JOIN FETCH o.store WHERE o.id IN :ids")
+    List<Order> findWithCustomerAndStoreByIdIn(@Param("ids") Collection<Long> ids);
     
-    List<Order> findByStoreOrderByOrderDateDesc(Store store, Pageable pageable);
+    @Query("SELECT COUNT(o) AS totalOrders, " +
+           "COUNT(o) FILTER (WHERE o.status = :completed) AS totalOrdersCompleted, " +
+           "COALESCE(SUM(o.totalPrice), 0) AS totalAmountSpent, " +
+           "(SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.order.customer.id = :customerId) AS totalItemsPurchased " +
+           "FROM Order o WHERE o.customer.id = :customerId")
+    CustomerOrderStatsView aggregateStatsByCustomerId(@Param("customerId") Long customerId,
+                                                      @Param("completed") OrderStatus completed);
     
-    Long countByCustomer(Customer customer);
-    
-    Long countByCustomerAndStatus(Customer customer, OrderStatus status);
+    @Query("SELECT DISTINCT oi.product.id FROM OrderItem oi WHERE oi.order.customer = :customer")
+    List<Long> findDistinctProductIdsByCustomer(@Param("customer") Customer customer);
     
-    @Query("SELECT COUNT(DISTINCT o.store) FROM Order o WHERE o.customer = :customer")
-    Long countDistinctStoresByCustomer(@Param("customer") Customer customer);
+    @Query("SELECT DISTINCT oi.product.id FROM OrderItem oi WHERE oi.order.customer.id = :customerId")
+    List<Long> findDistinctProductIdsByCustomerId(@Param("customerId") Long customerId);
     
-    @Query("SELECT COALESCE(SUM(o.totalPrice), 0) FROM Order o WHERE o.customer = :customer")
-    BigDecimal sumTotalPriceByCustomer(@Param("customer") Customer customer);
+    @Query("SELECT DISTINCT o.customer.id FROM Order o WHERE o.customer.id > :afterCustomerId ORDER BY o.customer.id")
+    List<Long> findCustomerIdsWithOrdersAfter(@Param("afterCustomerId") Long afterCustomerId, Pageable pageable);
     
-    @Query("SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.order.customer = :customer")
-    Long sumItemQuantitiesByCustomer(@Param("customer") Customer customer);
-    
-    @Query("SELECT DISTINCT oi.product.id FROM OrderItem oi WHERE oi.order.customer = :customer")
-    List<Long> findDistinctProductIdsByCustomer(@Param("customer") Customer customer);
+    @Query("SELECT o.customer.id AS customerId, p.id AS productId, p.type AS type, p.brand AS brand " +
+           "FROM OrderItem oi JOIN oi.order o JOIN oi.product p WHERE o.customer.id IN :customerIds")
+    List<CustomerPurchaseView> findPurchasesByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
     
     @Query("SELECT DISTINCT oi.product.type FROM OrderItem oi WHERE oi.order.customer = :customer")
     List<String> findDistinctProductTypesByCustomer(@Param("customer") Customer customer);
@@ -57,16 +69,27 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT DISTINCT oi.product.brand FROM OrderItem oi WHERE oi.order.customer = :customer")
     List<String> findDistinctProductBrandsByCustomer(@Param("customer") Customer customer);
     
-    Long countByStore(Store store);
+    @Query("SELECT DISTINCT o.customer.id FROM Order o WHERE o.store.id = :storeId")
+    List<Long> findDistinctCustomerIdsByStoreId(@Param("storeId") Long storeId);
+    
+    @Query("SELECT DISTINCT o.store.id FROM Order o WHERE o.customer.id = :customerId")
+    List<Long> findDistinctStoreIdsByCustomerId(@Param("customerId") Long customerId);
     
-    Long countByStoreAndStatus(Store store, OrderStatus status);
+    @Query("SELECT COUNT(DISTINCT o.customer.id) FROM Order o WHERE o.store.id = :storeId")
+    long countDistinctCustomersByStoreId(@Param("storeId") Long storeId);
     
-    @Query("SELECT COUNT(DISTINCT o.customer) FROM Order o WHERE o.store = :store")
-    Long countDistinctCustomersByStore(@Param("store") Store store);
+    @Query("SELECT COUNT(DISTINCT o.store.id) FROM Order o WHERE o.customer.id = :customerId")
+    long countDistinctStoresByCustomerId(@Param("customerId") Long customerId);
     
-    @Query("SELECT COALESCE(SUM(o.totalPrice), 0) FROM Order o WHERE o.store = :store")
-    BigDecimal sumTotalPriceByStore(@Param("store") Store store);
+    @Query("SELECT COUNT(o) AS totalOrders, " +
+           "COUNT(o) FILTER (WHERE o.status = :completed) AS totalOrdersCompleted, " +
+           "COALESCE(SUM(o.totalPrice), 0) AS totalRevenue, " +
+           "(SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.order.store.id = :storeId) AS totalItemsSold " +
+           "FROM Order o WHERE o.store.id = :storeId")
+    StoreOrderStatsView aggregateStatsByStoreId(@Param("storeId") Long storeId,
+                                                @Param("completed") OrderStatus completed);
     
-    @Query("SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.order.store = :store")
-    Long sumItemQuantitiesByStore(@Param("store") Store store);
+    @Query("SELECT oi.product.id AS productId, SUM(oi.quantity) AS quantitySold FROM OrderItem oi " +
+           "WHERE oi.order.store.id = :storeId GROUP BY oi.product.id ORDER BY SUM(oi.quantity) DESC, oi.product.id")
+    List<ProductSalesView> findTopSellingProductsByStoreId(@Param("storeId") Long storeId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package uom.eshop.backend.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import uom.eshop.backend.model.Order;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for selecting pages of order ids by a dynamic specification.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Returns the ids of at most limit orders matching the specification, in the given order, without loading the orders themselves.
+     */
+    List<Long> findIds(Specification<Order> specification, Sort sort, int limit);
+}
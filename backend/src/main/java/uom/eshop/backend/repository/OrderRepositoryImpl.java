@@ -0,0 +1,41 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import uom.eshop.backend.model.Order;
+
+import java.util.List;
+
+/**
+ * Criteria implementation of the order id selection, which the fluent specification queries cannot project to a single column.
+ */
+@RequiredArgsConstructor
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Order> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+
+        query.select(root.get("id"));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -8,7 +8,10 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uom.eshop.backend.model.Product;
 import uom.eshop.backend.model.Store;
+import uom.eshop.backend.repository.projection.ProductCandidateView;
+import uom.eshop.backend.repository.projection.StoreProductStatsView;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,12 +22,18 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     
     List<Product> findByStore(Store store);
 
-    @Query("SELECT p FROM Product p WHERE (p.type IN :types OR p.brand IN :brands) AND p.id NOT IN :excludeIds AND p.stockQuantity > 0 ORDER BY p.id DESC")
-    List<Product> findRecommendedProducts(@Param("types") List<String> types, @Param("brands") List<String> brands, @Param("excludeIds") List<Long> excludeIds, Pageable pageable);
+    @Query("SELECT p FROM Product p JOIN FETCH p.store WHERE (p.type IN :types OR p.brand IN :brands) AND p.id < :beforeId AND p.stockQuantity > 0 ORDER BY p.id DESC")
+    List<Product> findRecommendationCandidates(@Param("types") List<String> types, @Param("brands") List<String> brands, @Param("beforeId") Long beforeId, Pageable pageable);
     
-    Long countByStore(Store store);
-    
-    Long countByStoreAndStockQuantityGreaterThan(Store store, Integer stockQuantity);
+    @Query("SELECT p FROM Product p JOIN FETCH p.store WHERE p.id IN :ids")
+    List<Product> findAllWithStoreByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id AS id, p.type AS type, p.brand AS brand FROM Product p WHERE p.stockQuantity > 0 ORDER BY p.id DESC")
+    List<ProductCandidateView> findInStockCandidates(Pageable pageable);
     
-    Long countByStoreAndStockQuantity(Store store, Integer stockQuantity);
+    @Query("SELECT COUNT(p) AS totalProducts, " +
+           "COUNT(p) FILTER (WHERE p.stockQuantity > 0) AS productsInStock, " +
+           "COUNT(p) FILTER (WHERE p.stockQuantity = 0) AS productsOutOfStock " +
+           "FROM Product p WHERE p.store.id = :storeId")
+    StoreProductStatsView aggregateStatsByStoreId(@Param("storeId") Long storeId);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package uom.eshop.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import uom.eshop.backend.model.RegisteredTaxId;
+
+/**
+ * Repository interface for managing RegisteredTaxId entities in the e-shop application.
+ */
+@Repository
+public interface RegisteredTaxIdRepository extends JpaRepository<RegisteredTaxId, Long> {
+}
@@ -1,9 +1,12 @@
 package uom.eshop.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uom.eshop.backend.model.Customer;
 import uom.eshop.backend.model.ShoppingCart;
+import uom.eshop.backend.repository.projection.CartStatsView;
 
 import java.util.Optional;
 
@@ -16,4 +19,8 @@ public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long
     Optional<ShoppingCart> findByCustomer(Customer customer);
     
     Optional<ShoppingCart> findByCustomerId(Long customerId);
+    
+    @Query("SELECT COALESCE(SUM(ci.quantity), 0) AS itemsInCart, c.totalPrice AS totalPrice " +
+           "FROM ShoppingCart c LEFT JOIN c.items ci WHERE c.customer.id = :customerId GROUP BY c.id, c.totalPrice")
+    Optional<CartStatsView> findStatsByCustomerId(@Param("customerId") Long customerId);
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package uom.eshop.backend.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uom.eshop.backend.model.Store;
 import uom.eshop.backend.model.User;
+import uom.eshop.backend.repository.projection.StoreSummaryView;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,7 +22,20 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
     
     Optional<Store> findByUserId(Long userId);
     
-    boolean existsByTaxId(String taxId);
-    
     Optional<Store> findByTaxId(String taxId);
+    
+    @Query("SELECT s.id AS id, s.name AS name, s.owner AS owner, COUNT(p.id) AS productCount " +
+           "FROM Store s LEFT JOIN s.products p " +
+           "GROUP BY s.id, s.name, s.owner " +
+           "ORDER BY s.id")
+    List<StoreSummaryView> findSummaries(Pageable pageable);
+
+    @Query("SELECT s.id AS id, s.name AS name, s.owner AS owner, COUNT(p.id) AS productCount " +
+           "FROM Store s LEFT JOIN s.products p " +
+           "WHERE s.id = :id " +
+           "GROUP BY s.id, s.name, s.owner")
+    Optional<StoreSummaryView> findSummaryById(@Param("id") Long id);
+
+    @Query("SELECT s.id FROM Store s WHERE s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uom.eshop.backend.model.RollupGranularity;
+import uom.eshop.backend.model.StoreSalesRollup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing StoreSalesRollup entities.
+ */
+@Repository
+public interface StoreSalesRollupRepository extends JpaRepository<StoreSalesRollup, Long> {
+
+    /**
+     * Creates an empty bucket unless it already exists, so concurrent checkouts opening the same bucket do not fail on the unique key.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO store_sales_rollups (store_id, granularity, bucket_start, revenue, order_count, items_sold) " +
+                   "VALUES (:storeId, :granularity, :bucketStart, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertBucketIfAbsent(@Param("storeId") Long storeId,
+                             @Param("granularity") String granularity,
+                             @Param("bucketStart") LocalDateTime bucketStart);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StoreSalesRollup r WHERE r.storeId = :storeId AND r.granularity = :granularity AND r.bucketStart = :bucketStart")
+    Optional<StoreSalesRollup> findBucketForUpdate(@Param("storeId") Long storeId,
+                                                   @Param("granularity") RollupGranularity granularity,
+                                                   @Param("bucketStart") LocalDateTime bucketStart);
+
+    List<StoreSalesRollup> findByStoreIdAndGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+            Long storeId, RollupGranularity granularity, LocalDateTime from, LocalDateTime to);
+}
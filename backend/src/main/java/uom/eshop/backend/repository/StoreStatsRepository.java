@@ -0,0 +1,77 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uom.eshop.backend.model.StoreStats;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing StoreStats entities.
+ * Counters are changed with relative UPDATE statements, so concurrent transactions serialize on the row lock instead of overwriting each other.
+ */
+@Repository
+public interface StoreStatsRepository extends JpaRepository<StoreStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StoreStats s WHERE s.storeId = :storeId")
+    Optional<StoreStats> findByIdForUpdate(@Param("storeId") Long storeId);
+
+    /**
+     * Inserts the row unless another transaction has created it first, which returns 0 so the caller can retry its relative update.
+     * On PostgreSQL a conflicting insert that is not committed yet makes this wait for it, so the retry sees the committed row.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO store_stats (store_id, total_orders, total_orders_completed, total_revenue, total_items_sold, " +
+                   "products_in_stock, products_out_of_stock, customer_sketch, top_products_sketch) " +
+                   "VALUES (:#{#stats.storeId}, :#{#stats.totalOrders}, :#{#stats.totalOrdersCompleted}, :#{#stats.totalRevenue}, " +
+                   ":#{#stats.totalItemsSold}, :#{#stats.productsInStock}, :#{#stats.productsOutOfStock}, " +
+                   ":#{#stats.customerSketch}, :#{#stats.topProductsSketch}) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("stats") StoreStats stats);
+
+    @Modifying
+    @Query("UPDATE StoreStats s SET s.totalOrders = s.totalOrders + 1, " +
+           "s.totalOrdersCompleted = s.totalOrdersCompleted + :completed, " +
+           "s.totalRevenue = s.totalRevenue + :revenue, " +
+           "s.totalItemsSold = s.totalItemsSold + :itemsSold, " +
+           "s.productsInStock = s.productsInStock - :soldOut, " +
+           "s.productsOutOfStock = s.productsOutOfStock + :soldOut " +
+           "WHERE s.storeId = :storeId")
+    int incrementOrder(@Param("storeId") Long storeId,
+                       @Param("completed") long completed,
+                       @Param("revenue") BigDecimal revenue,
+                       @Param("itemsSold") long itemsSold,
+                       @Param("soldOut") long soldOut);
+
+    /**
+     * Reads the sketch straight from the database rather than from a possibly stale managed entity;
+     * callers hold the row lock taken by a preceding increment.
+     */
+    @Query("SELECT s.customerSketch FROM StoreStats s WHERE s.storeId = :storeId")
+    byte[] findCustomerSketch(@Param("storeId") Long storeId);
+
+    @Modifying
+    @Query("UPDATE StoreStats s SET s.customerSketch = :sketch WHERE s.storeId = :storeId")
+    int updateCustomerSketch(@Param("storeId") Long storeId, @Param("sketch") byte[] sketch);
+
+    @Query("SELECT s.topProductsSketch FROM StoreStats s WHERE s.storeId = :storeId")
+    byte[] findTopProductsSketch(@Param("storeId") Long storeId);
+
+    @Modifying
+    @Query("UPDATE StoreStats s SET s.topProductsSketch = :sketch WHERE s.storeId = :storeId")
+    int updateTopProductsSketch(@Param("storeId") Long storeId, @Param("sketch") byte[] sketch);
+
+    @Modifying
+    @Query("UPDATE StoreStats s SET s.productsInStock = s.productsInStock + :inStockDelta, " +
+           "s.productsOutOfStock = s.productsOutOfStock + :outOfStockDelta " +
+           "WHERE s.storeId = :storeId")
+    int incrementProducts(@Param("storeId") Long storeId,
+                          @Param("inStockDelta") long inStockDelta,
+                          @Param("outOfStockDelta") long outOfStockDelta);
+}
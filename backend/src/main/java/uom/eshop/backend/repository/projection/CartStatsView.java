@@ -0,0 +1,13 @@
+package uom.eshop.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of a shopping cart's item count and total price, computed without loading the cart items.
+ */
+public interface CartStatsView {
+
+    Long getItemsInCart();
+
+    BigDecimal getTotalPrice();
+}
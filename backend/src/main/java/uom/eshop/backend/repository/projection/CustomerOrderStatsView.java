@@ -0,0 +1,17 @@
+package uom.eshop.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the order counters shown on the customer dashboard, computed in a single aggregate query.
+ */
+public interface CustomerOrderStatsView {
+
+    Long getTotalOrders();
+
+    Long getTotalOrdersCompleted();
+
+    BigDecimal getTotalAmountSpent();
+
+    Long getTotalItemsPurchased();
+}
@@ -0,0 +1,15 @@
+package uom.eshop.backend.repository.projection;
+
+/**
+ * Projection of a single purchased order line, reduced to what recommendation scoring needs.
+ */
+public interface CustomerPurchaseView {
+
+    Long getCustomerId();
+
+    Long getProductId();
+
+    String getType();
+
+    String getBrand();
+}
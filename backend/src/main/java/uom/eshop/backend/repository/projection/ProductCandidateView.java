@@ -0,0 +1,13 @@
+package uom.eshop.backend.repository.projection;
+
+/**
+ * Projection of an in-stock product, reduced to the attributes used to match it against a customer's purchase history.
+ */
+public interface ProductCandidateView {
+
+    Long getId();
+
+    String getType();
+
+    String getBrand();
+}
@@ -0,0 +1,11 @@
+package uom.eshop.backend.repository.projection;
+
+/**
+ * Projection of the total quantity sold of one product.
+ */
+public interface ProductSalesView {
+
+    Long getProductId();
+
+    Long getQuantitySold();
+}
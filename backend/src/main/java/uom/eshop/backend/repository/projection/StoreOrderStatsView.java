@@ -0,0 +1,17 @@
+package uom.eshop.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the order counters shown on the store dashboard, computed in a single aggregate query.
+ */
+public interface StoreOrderStatsView {
+
+    Long getTotalOrders();
+
+    Long getTotalOrdersCompleted();
+
+    BigDecimal getTotalRevenue();
+
+    Long getTotalItemsSold();
+}
@@ -0,0 +1,13 @@
+package uom.eshop.backend.repository.projection;
+
+/**
+ * Projection of the product counters shown on the store dashboard, computed in a single aggregate query.
+ */
+public interface StoreProductStatsView {
+
+    Long getTotalProducts();
+
+    Long getProductsInStock();
+
+    Long getProductsOutOfStock();
+}
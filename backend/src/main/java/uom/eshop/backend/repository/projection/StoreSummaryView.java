@@ -0,0 +1,15 @@
+package uom.eshop.backend.repository.projection;
+
+/**
+ * Projection of a store's listing details and product count, computed without loading the store's products.
+ */
+public interface StoreSummaryView {
+
+    Long getId();
+
+    String getName();
+
+    String getOwner();
+
+    Long getProductCount();
+}
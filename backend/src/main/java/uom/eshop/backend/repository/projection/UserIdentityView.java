@@ -0,0 +1,11 @@
+package uom.eshop.backend.repository.projection;
+
+/**
+ * Projection of the unique identifiers of a user, read without loading the rest of the user record.
+ */
+public interface UserIdentityView {
+
+    String getUsername();
+
+    String getEmail();
+}
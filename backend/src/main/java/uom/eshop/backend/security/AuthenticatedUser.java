@@ -0,0 +1,81 @@
+package uom.eshop.backend.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import uom.eshop.backend.exceptions.NotFoundException;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.model.User;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal of a request authenticated with a JWT, built from the verified token claims without a database lookup.
+ * Besides the user id and role it carries the id of the user's customer or store profile, so services can scope
+ * their queries to the caller directly instead of loading the user and looking up the profile on every request.
+ * The token version is the one the token was issued with and is checked against the user's current version to honour revocation.
+ * The token id and expiry identify the token the request was made with, so that single token can be revoked; both are null for
+ * principals that were not parsed from a token.
+ */
+public record AuthenticatedUser(Long userId,
+                                String username,
+                                Role role,
+                                Long customerId,
+                                Long storeId,
+                                long tokenVersion,
+                                String tokenId,
+                                Instant expiresAt) implements UserDetails {
+
+    public AuthenticatedUser(Long userId, String username, Role role, Long customerId, Long storeId, long tokenVersion) {
+        this(userId, username, role, customerId, storeId, tokenVersion, null, null);
+    }
+
+    public static AuthenticatedUser of(User user, Long customerId, Long storeId) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), customerId, storeId, user.getTokenVersion());
+    }
+
+    public static AuthenticatedUser from(Authentication authentication) {
+        return (AuthenticatedUser) authentication.getPrincipal();
+    }
+
+    /**
+     * @throws NotFoundException if the user has no customer profile
+     */
+    public Long requireCustomerId() {
+        if (customerId == null) {
+            throw new NotFoundException("Customer profile not found");
+        }
+        return customerId;
+    }
+
+    /**
+     * @throws NotFoundException if the user has no store profile
+     */
+    public Long requireStoreId() {
+        if (storeId == null) {
+            throw new NotFoundException("Store profile not found");
+        }
+        return storeId;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    /**
+     * Tokens never carry the password hash, so the principal has none.
+     */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+}
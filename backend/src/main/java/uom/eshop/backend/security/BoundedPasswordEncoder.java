@@ -0,0 +1,124 @@
+package uom.eshop.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import uom.eshop.backend.exceptions.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Password encoder that runs the hashing of its delegate on a dedicated, bounded pool instead of the request thread.
+ * At most the configured number of hashes run at once, so a burst of logins cannot take every core away from other traffic.
+ * When the pool and its queue are full, or a hash is not done within the timeout, the call fails fast with ServiceUnavailableException (503)
+ * instead of piling up more work. upgradeEncoding only inspects the stored hash and still runs on the calling thread.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final String OVERLOADED_MESSAGE = "Too many logins in progress, please try again shortly";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Duration retryAfter;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  int threads,
+                                  int queueCapacity,
+                                  Duration timeout,
+                                  Duration retryAfter,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+        this.timeout = timeout;
+        this.retryAfter = retryAfter;
+
+        this.encodeTimer = Timer.builder("eshop.auth.password.hash")
+                .description("Time spent computing password hashes, excluding the time queued")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("eshop.auth.password.hash")
+                .description("Time spent computing password hashes, excluding the time queued")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("eshop.auth.password.rejected")
+                .description("Password hashes rejected because the hashing pool was saturated or too slow")
+                .register(meterRegistry);
+        meterRegistry.gauge("eshop.auth.password.queue.depth", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("eshop.auth.password.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        // Copied, since callers may clear their buffer once they stop waiting
+        String raw = rawPassword == null ? null : rawPassword.toString();
+        return run(encodeTimer, () -> delegate.encode(raw));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        String raw = rawPassword == null ? null : rawPassword.toString();
+        return run(matchesTimer, () -> delegate.matches(raw, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Supplier<T> hash) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(hash));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException(OVERLOADED_MESSAGE, retryAfter);
+        }
+
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            log.warn("Password hash not done within {} ms, shedding the request", timeout.toMillis());
+            throw new ServiceUnavailableException(OVERLOADED_MESSAGE, retryAfter);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceUnavailableException(OVERLOADED_MESSAGE, retryAfter);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package uom.eshop.backend.security;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import uom.eshop.backend.exceptions.ForbiddenException;
+import uom.eshop.backend.exceptions.NotFoundException;
+import uom.eshop.backend.model.Role;
+
+/**
+ * Resolves {@link CurrentCustomerId} and {@link CurrentStoreId} controller parameters from the request principal.
+ * The profile ids are looked up once at login and carried in the token, so resolving them costs no database access,
+ * and services receive the id directly instead of the Authentication they would otherwise unpack on every call.
+ * Arguments are resolved before method security runs, so the resolver checks the role itself:
+ * an unauthenticated request is rejected with 401, a user of the other role with 403,
+ * and a user of the right role without a profile with 404, as the services did before.
+ */
+@Component
+public class CurrentProfileArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return Long.class.equals(parameter.getParameterType())
+                && (parameter.hasParameterAnnotation(CurrentCustomerId.class) || parameter.hasParameterAnnotation(CurrentStoreId.class));
+    }
+
+    @Override
+    public Long resolveArgument(MethodParameter parameter,
+                                ModelAndViewContainer mavContainer,
+                                NativeWebRequest webRequest,
+                                WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+            throw new AuthenticationCredentialsNotFoundException("Authentication is required to access this resource.");
+        }
+
+        if (parameter.hasParameterAnnotation(CurrentCustomerId.class)) {
+            requireRole(principal, Role.CUSTOMER);
+            return principal.requireCustomerId();
+        }
+        requireRole(principal, Role.STORE);
+        return principal.requireStoreId();
+    }
+
+    /**
+     * @throws ForbiddenException if the user has another role; a missing profile of the right role is a {@link NotFoundException} instead
+     */
+    private static void requireRole(AuthenticatedUser principal, Role role) {
+        if (principal.role() != role) {
+            throw new ForbiddenException("Access denied");
+        }
+    }
+}
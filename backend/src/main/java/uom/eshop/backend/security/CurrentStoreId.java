@@ -0,0 +1,13 @@
+package uom.eshop.backend.security;
+
+import java.lang.annotation.*;
+
+/**
+ * Binds a controller method parameter of type Long to the id of the authenticated user's store profile,
+ * taken from the request principal without a database lookup. Resolved by {@link CurrentProfileArgumentResolver}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentStoreId {
+}
@@ -6,20 +6,36 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.filter.OncePerRequestFilter;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.User;
 
 import java.io.IOException;
+import java.util.function.Supplier;
+
+import static org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher.pathPattern;
 
 /**
  * Filter that intercepts incoming HTTP requests to extract and validate JWT tokens.
  * If a valid token is found, it sets the authentication in the security context.
+ * The principal is built from the token claims instead of loading the user, and the token is rejected if it was revoked,
+ * either on its own (checked against the Bloom filter of TokenRevocationService first) or with all of the user's tokens.
+ * With jwt.database-principals enabled the role and token version come from the user record instead, through the cached UserDetailsService.
+ * On the public catalog routes the token is verified lazily, the first time something reads the security context,
+ * so browsing with a token costs nothing unless an endpoint or a method security check actually needs the caller.
  */
 @Component
 @RequiredArgsConstructor
@@ -27,31 +43,98 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
+    private final TokenVersionService tokenVersionService;
+    private final TokenRevocationService tokenRevocationService;
     private final UserDetailsService userDetailsService;
+    private final JwtProperties jwtProperties;
+
+    /**
+     * Routes that are open to everyone; kept in line with the permitAll rules of SecurityConfig.
+     */
+    private static final RequestMatcher PUBLIC_CATALOG = new OrRequestMatcher(
+            pathPattern(HttpMethod.GET, "/api/products"),
+            pathPattern(HttpMethod.GET, "/api/products/**"),
+            pathPattern(HttpMethod.GET, "/api/stores"),
+            pathPattern(HttpMethod.GET, "/api/stores/**")
+    );
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                     HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
-        try {
-            String jwt = getJwtFromRequest(request);
+        String jwt = getJwtFromRequest(request);
+
+        if (StringUtils.hasText(jwt)) {
+            if (PUBLIC_CATALOG.matches(request)) {
+                deferAuthentication(jwt, request);
+            } else {
+                authenticate(jwt, request, SecurityContextHolder.getContext());
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Replaces the deferred security context with one that verifies the token when it is first resolved.
+     * Method security (@PreAuthorize) and Authentication controller arguments resolve it, the permitAll rule does not.
+     */
+    private void deferAuthentication(String jwt, HttpServletRequest request) {
+        SecurityContextHolderStrategy strategy = SecurityContextHolder.getContextHolderStrategy();
+        Supplier<SecurityContext> deferredContext = strategy.getDeferredContext();
+        strategy.setDeferredContext(SingletonSupplier.of(() -> {
+            SecurityContext context = deferredContext.get();
+            authenticate(jwt, request, context);
+            return context;
+        }));
+    }
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+    private void authenticate(String jwt, HttpServletRequest request, SecurityContext context) {
+        try {
+            // The token is verified and its claims extracted in a single parse
+            AuthenticatedUser claims = tokenProvider.parseToken(jwt).orElse(null);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (claims != null) {
+                AuthenticatedUser principal = resolvePrincipal(claims);
+                if (principal != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Set authentication for user: {}", username);
+                    context.setAuthentication(authentication);
+                    log.debug("Set authentication for user: {}", principal.getUsername());
+                } else {
+                    log.debug("Rejected revoked token of user: {}", claims.getUsername());
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
         }
+    }
 
-        filterChain.doFilter(request, response);
+    /**
+     * @return the principal to authenticate the request with, or null if the token was revoked or its user no longer exists
+     */
+    private AuthenticatedUser resolvePrincipal(AuthenticatedUser claims) {
+        if (tokenRevocationService.isRevoked(claims.tokenId())) {
+            return null;
+        }
+        if (!jwtProperties.isDatabasePrincipals()) {
+            return tokenVersionService.isCurrent(claims.userId(), claims.tokenVersion()) ? claims : null;
+        }
+
+        User user;
+        try {
+            user = (User) userDetailsService.loadUserByUsername(claims.getUsername());
+        } catch (UsernameNotFoundException ex) {
+            return null;
+        }
+        // A username taken over by a new account after the old one was removed must not inherit its tokens
+        if (!user.getId().equals(claims.userId()) || user.getTokenVersion() != claims.tokenVersion()) {
+            return null;
+        }
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), claims.customerId(), claims.storeId(),
+                user.getTokenVersion(), claims.tokenId(), claims.expiresAt());
     }
 
     private String getJwtFromRequest(HttpServletRequest request) {
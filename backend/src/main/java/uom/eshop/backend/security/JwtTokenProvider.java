@@ -2,66 +2,118 @@ package uom.eshop.backend.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.Role;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Utility class for generating and validating JWT tokens.
  * It uses the secret key and expiration time defined in JwtProperties.
+ * Tokens carry the user id, role, profile id and token version as claims, so a request can be authenticated from the token alone,
+ * and a random id (jti) by which a single token can be revoked.
+ * The signing key and the parser are built once and shared; both are immutable and safe to use from concurrent requests.
+ * Invalid tokens are reported at most once per jwt.invalid-token-log-interval, with the number of further ones seen since,
+ * so a client replaying a bad token cannot flood the log.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String CUSTOMER_ID_CLAIM = "cid";
+    private static final String STORE_ID_CLAIM = "sid";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
     private final JwtProperties jwtProperties;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long invalidTokenLogIntervalNanos;
+    private final AtomicLong nextInvalidTokenReportAt = new AtomicLong(System.nanoTime());
+    private final LongAdder unreportedInvalidTokens = new LongAdder();
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtTokenProvider(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.invalidTokenLogIntervalNanos = jwtProperties.getInvalidTokenLogInterval().toNanos();
+        this.signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public String generateToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+    public String generateToken(AuthenticatedUser principal) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtProperties.getExpiration());
 
-        return Jwts.builder()
-                .subject(userDetails.getUsername())
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(principal.getUsername())
+                .claim(USER_ID_CLAIM, principal.userId())
+                .claim(ROLE_CLAIM, principal.role().name())
+                .claim(TOKEN_VERSION_CLAIM, principal.tokenVersion());
+        if (principal.customerId() != null) {
+            builder.claim(CUSTOMER_ID_CLAIM, principal.customerId());
+        }
+        if (principal.storeId() != null) {
+            builder.claim(STORE_ID_CLAIM, principal.storeId());
+        }
+
+        return builder
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verifies the token and builds the request principal from its claims, parsing the token only once.
+     *
+     * @return the principal, or empty if the token is invalid, expired or lacks the principal claims (e.g. because it was issued before they existed)
+     */
+    public Optional<AuthenticatedUser> parseToken(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+
+            Long userId = claims.get(USER_ID_CLAIM, Long.class);
+            String role = claims.get(ROLE_CLAIM, String.class);
+            Long tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Long.class);
+            if (userId == null || role == null || tokenVersion == null) {
+                throw new MalformedJwtException("Token is missing the principal claims");
+            }
 
-        return claims.getSubject();
+            return Optional.of(new AuthenticatedUser(
+                    userId,
+                    claims.getSubject(),
+                    Role.valueOf(role),
+                    claims.get(CUSTOMER_ID_CLAIM, Long.class),
+                    claims.get(STORE_ID_CLAIM, Long.class),
+                    tokenVersion,
+                    claims.getId(),
+                    claims.getExpiration().toInstant()
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            logInvalidToken(e);
+        }
+        return Optional.empty();
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
+    private void logInvalidToken(RuntimeException e) {
+        long now = System.nanoTime();
+        long reportAt = nextInvalidTokenReportAt.get();
+        if (now - reportAt >= 0 && nextInvalidTokenReportAt.compareAndSet(reportAt, now + invalidTokenLogIntervalNanos)) {
+            log.warn("Invalid JWT token: {} ({} more since the last report)", e.getMessage(), unreportedInvalidTokens.sumThenReset());
+        } else {
+            unreportedInvalidTokens.increment();
+            log.debug("Invalid JWT token: {}", e.getMessage());
         }
-        return false;
     }
-}
\ No newline at end of file
+}
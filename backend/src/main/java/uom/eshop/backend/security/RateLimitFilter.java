@@ -0,0 +1,200 @@
+package uom.eshop.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+import uom.eshop.backend.config.RateLimitProperties;
+import uom.eshop.backend.dto.ApiError;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher.pathPattern;
+
+/**
+ * Filter that limits how fast a single client may call the login, catalog and checkout endpoints, each with its own token bucket policy.
+ * It runs after JwtAuthenticationFilter, so checkout is limited per user. Login, registration and the catalog are limited per client address;
+ * the catalog verifies tokens lazily, and keying it by user would verify every token up front again.
+ * Username and email availability checks, sent as a sign-up form is typed into, share the more generous catalog policy.
+ * Behind a trusted reverse proxy the client address is read from X-Forwarded-For, so clients behind the proxy do not share one bucket.
+ * Limited requests get 429 with a Retry-After header.
+ * Other endpoints are not limited.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern IP_ADDRESS = Pattern.compile("[0-9A-Fa-f.:]+");
+
+    private final boolean enabled;
+    private final List<Route> routes;
+    private final List<IpAddressMatcher> trustedProxies;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.objectMapper = objectMapper;
+        this.trustedProxies = properties.getTrustedProxies().stream()
+                .map(IpAddressMatcher::new)
+                .toList();
+        this.routes = List.of(
+                route("auth", properties.getAuth(), true, properties, meterRegistry,
+                        pathPattern(HttpMethod.POST, "/api/auth/login"),
+                        pathPattern(HttpMethod.POST, "/api/auth/register")),
+                route("checkout", properties.getCheckout(), false, properties, meterRegistry,
+                        pathPattern(HttpMethod.POST, "/api/orders/checkout")),
+                route("browse", properties.getBrowse(), true, properties, meterRegistry,
+                        pathPattern(HttpMethod.GET, "/api/products"),
+                        pathPattern(HttpMethod.GET, "/api/products/**"),
+                        pathPattern(HttpMethod.GET, "/api/stores"),
+                        pathPattern(HttpMethod.GET, "/api/stores/**"),
+                        pathPattern(HttpMethod.GET, "/api/auth/availability"))
+        );
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Route route = findRoute(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = route.limiter().tryAcquire(clientKey(request, route.byClientAddress()));
+        if (waitNanos == 0) {
+            route.allowed().increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        route.limited().increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        ApiError body = ApiError.of(status, "RateLimited", "Too many requests, please try again later.", request);
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    @Scheduled(fixedDelayString = "${eshop.rate-limit.sweep-interval:30s}")
+    public void sweepIdleBuckets() {
+        for (Route route : routes) {
+            int removed = route.limiter().sweep();
+            log.debug("Dropped {} idle {} rate limit buckets, {} left", removed, route.name(), route.limiter().size());
+        }
+    }
+
+    private Route findRoute(HttpServletRequest request) {
+        for (Route route : routes) {
+            if (route.matcher().matches(request)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request, boolean byClientAddress) {
+        if (!byClientAddress) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+                return "user:" + principal.userId();
+            }
+        }
+        return "ip:" + clientAddress(request);
+    }
+
+    /**
+     * Resolves the address of the client. X-Forwarded-For is walked from the nearest hop and only while the hops are trusted proxies,
+     * since every entry before the first untrusted one may have been written by the client itself.
+     */
+    private String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor == null || !isTrustedProxy(address)) {
+            return address;
+        }
+
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!IP_ADDRESS.matcher(hop).matches()) {
+                break;
+            }
+            address = hop;
+            if (!isTrustedProxy(hop)) {
+                break;
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            if (proxy.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Route route(String name,
+                               RateLimitProperties.Policy policy,
+                               boolean byClientAddress,
+                               RateLimitProperties properties,
+                               MeterRegistry meterRegistry,
+                               RequestMatcher... matchers) {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(policy.getCapacity(), policy.getRefillPerSecond(), properties.getMaxKeys());
+        Gauge.builder("eshop.ratelimit.buckets", limiter, TokenBucketRateLimiter::size)
+                .description("Clients with a partially drained bucket")
+                .tag("policy", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("eshop.ratelimit.overflows", limiter, TokenBucketRateLimiter::overflows)
+                .description("Requests let through unlimited because the maximum number of tracked clients was reached")
+                .tag("policy", name)
+                .register(meterRegistry);
+        return new Route(name,
+                new OrRequestMatcher(matchers),
+                limiter,
+                byClientAddress,
+                meterRegistry.counter("eshop.ratelimit.requests", "policy", name, "result", "allowed"),
+                meterRegistry.counter("eshop.ratelimit.requests", "policy", name, "result", "limited"));
+    }
+
+    private record Route(String name,
+                         RequestMatcher matcher,
+                         TokenBucketRateLimiter limiter,
+                         boolean byClientAddress,
+                         Counter allowed,
+                         Counter limited) {
+    }
+}
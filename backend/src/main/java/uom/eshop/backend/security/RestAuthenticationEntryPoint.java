@@ -1,12 +1,13 @@
 package uom.eshop.backend.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
 import uom.eshop.backend.dto.ApiError;
 
 import java.io.IOException;
@@ -14,11 +15,13 @@ import java.io.IOException;
 /**
  * Authentication entry point that returns a JSON {@link ApiError} payload instead of
  * the default HTML/error page when a request is unauthenticated.
+ * The payload is written with the application's ObjectMapper, which knows how to serialize its timestamp.
  */
 @Component
+@RequiredArgsConstructor
 public class RestAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper;
 
     @Override
     public void commence(
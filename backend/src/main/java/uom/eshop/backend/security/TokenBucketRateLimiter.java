@@ -0,0 +1,93 @@
+package uom.eshop.backend.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket per key, implemented as the generic cell rate algorithm: instead of a token count and a refill timestamp,
+ * each bucket is a single long holding the time at which it will be full again, updated with compare-and-set.
+ * A bucket whose time lies in the past is full and behaves exactly like a missing one, so idle buckets can be swept without losing state.
+ * A request racing with the sweep of its bucket may be counted against the dropped bucket; the error is at most one request.
+ */
+public class TokenBucketRateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final LongAdder overflows = new LongAdder();
+
+    public TokenBucketRateLimiter(int capacity, double refillPerSecond, int maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, double refillPerSecond, int maxKeys, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                // Under a flood of distinct clients memory wins over limiting; the sweep makes room again
+                overflows.increment();
+                return 0;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long next = (fullAt - now > 0 ? fullAt : now) + emissionIntervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled completely.
+     *
+     * @return the number of buckets dropped
+     */
+    public int sweep() {
+        long now = nanoClock.getAsLong();
+        int removed = 0;
+        for (var entry : buckets.entrySet()) {
+            if (entry.getValue().get() - now <= 0 && buckets.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * @return the number of requests let through unlimited because maxKeys clients were already tracked
+     */
+    public long overflows() {
+        return overflows.sum();
+    }
+}
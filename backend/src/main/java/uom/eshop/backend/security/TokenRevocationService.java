@@ -0,0 +1,133 @@
+package uom.eshop.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.RevokedToken;
+import uom.eshop.backend.repository.RevokedTokenRepository;
+import uom.eshop.backend.sketch.BloomFilter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Component that revokes individual tokens by their jti claim and tells whether a token was revoked.
+ * Revoked token ids are stored in the revoked_tokens table until the token expires, and mirrored in an in-memory Bloom filter,
+ * so checking a token that was not revoked (almost every token) costs a few hashes and no database access;
+ * only a filter hit, i.e. a revoked token or a rare false positive, is confirmed with an exact lookup.
+ * The filter is rebuilt from the table periodically, which drops expired ids, and tops itself up in between by polling the table
+ * for ids revoked on other instances, so a revocation made elsewhere takes effect within the poll interval.
+ * Until the first rebuild every token is looked up exactly.
+ */
+@Component
+@Slf4j
+public class TokenRevocationService {
+
+    /**
+     * Rows are polled with this much overlap, so revocations that committed late or were stamped by a clock running behind are not missed.
+     */
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedTokens;
+    private final double falsePositiveProbability;
+    private final Counter revokedCounter;
+    private final Counter falsePositiveCounter;
+
+    private volatile BloomFilter filter;
+    private volatile boolean ready;
+    private LocalDateTime pollWatermark;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedTokens = jwtProperties.getRevocationExpectedTokens();
+        this.falsePositiveProbability = jwtProperties.getRevocationFalsePositiveProbability();
+        this.filter = BloomFilter.create(expectedTokens, falsePositiveProbability);
+        this.pollWatermark = LocalDateTime.now();
+
+        this.revokedCounter = meterRegistry.counter("eshop.auth.revocation.lookups", "result", "revoked");
+        this.falsePositiveCounter = meterRegistry.counter("eshop.auth.revocation.lookups", "result", "false_positive");
+        Gauge.builder("eshop.auth.revocation.filter.bytes", this, service -> service.filter.sizeInBytes())
+                .description("Memory used by the Bloom filter of revoked token ids")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether the token was revoked; tokens without an id (issued before ids existed) can only be revoked all at once
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || (ready && !filter.mightContain(tokenId))) {
+            return false;
+        }
+        boolean revoked = revokedTokenRepository.existsById(tokenId);
+        (revoked ? revokedCounter : falsePositiveCounter).increment();
+        return revoked;
+    }
+
+    /**
+     * Revokes a single token until it expires. The id is added to the local filter once the row is committed.
+     */
+    @Transactional
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .revokedAt(LocalDateTime.now())
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    filter.add(tokenId);
+                }
+            });
+        } else {
+            filter.add(tokenId);
+        }
+    }
+
+    /**
+     * Adds the ids revoked since the last poll, including those revoked on other instances, to the current filter.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-poll-interval:10s}", initialDelayString = "${jwt.revocation-poll-interval:10s}")
+    public synchronized void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> tokenIds = revokedTokenRepository.findTokenIdsRevokedSince(pollWatermark.minus(POLL_OVERLAP), now);
+        BloomFilter current = filter;
+        tokenIds.forEach(current::add);
+        pollWatermark = now;
+    }
+
+    /**
+     * Purges expired rows and replaces the filter with one built from the remaining ids, sized for at least twice their number.
+     * Ids revoked while the new filter was being built are caught up by the poll that follows the swap.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-rebuild-interval:1h}")
+    @Transactional
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        List<String> tokenIds = revokedTokenRepository.findUnexpiredTokenIds(now);
+
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedTokens, 2L * tokenIds.size()), falsePositiveProbability);
+        tokenIds.forEach(rebuilt::add);
+        filter = rebuilt;
+        pollWatermark = now;
+        ready = true;
+        poll();
+
+        log.info("Rebuilt the revoked token filter with {} ids ({} KiB), purged {} expired", tokenIds.size(), rebuilt.sizeInBytes() / 1024, purged);
+    }
+}
@@ -0,0 +1,76 @@
+package uom.eshop.backend.security;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uom.eshop.backend.cache.BoundedLruCache;
+import uom.eshop.backend.cache.UserDetailsCache;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.exceptions.NotFoundException;
+import uom.eshop.backend.repository.UserRepository;
+
+/**
+ * Component that decides whether a token is still valid for its user by comparing the version it was issued with
+ * against the user's current token version. Current versions are cached for a short time, so a revocation on this instance
+ * takes effect immediately and one made on another instance within the configured cache TTL.
+ */
+@Component
+public class TokenVersionService {
+
+    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final long cacheTtlNanos;
+    private final BoundedLruCache<Long, CachedVersion> versions;
+
+    public TokenVersionService(UserRepository userRepository, UserDetailsCache userDetailsCache, JwtProperties jwtProperties) {
+        this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.cacheTtlNanos = jwtProperties.getTokenVersionCacheTtl().toNanos();
+        this.versions = new BoundedLruCache<>(jwtProperties.getTokenVersionCacheMaxEntries());
+    }
+
+    /**
+     * @return whether the token version is the user's current one; false if the user no longer exists
+     */
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        long now = System.nanoTime();
+        CachedVersion cached = versions.get(userId);
+        if (cached == null || now - cached.loadedAt() >= cacheTtlNanos) {
+            // A revocation that lands while the version is loading keeps the result out of the cache, as it may predate the change
+            cached = versions.load(userId, id -> userRepository.findTokenVersionById(id)
+                    .map(current -> new CachedVersion(current, now))
+                    .orElse(null));
+            if (cached == null) {
+                return false;
+            }
+        }
+        return cached.version() == tokenVersion;
+    }
+
+    /**
+     * Revokes every token issued to the user so far. Tokens issued afterwards carry the new version and stay valid.
+     */
+    @Transactional
+    public void revokeAll(Long userId, String username) {
+        if (userRepository.incrementTokenVersion(userId) == 0) {
+            throw new NotFoundException("User not found");
+        }
+        // The cached user record carries the version new tokens are issued with
+        userDetailsCache.evict(username);
+        // Drop the cached version once the new one is visible, so the next request of the user reloads it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.invalidate(userId);
+                }
+            });
+        } else {
+            versions.invalidate(userId);
+        }
+    }
+
+    private record CachedVersion(long version, long loadedAt) {
+    }
+}
@@ -8,18 +8,32 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import uom.eshop.backend.dto.LoginRequest;
 import uom.eshop.backend.dto.LoginResponse;
+import uom.eshop.backend.exceptions.BadRequestException;
+import uom.eshop.backend.model.Customer;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.model.Store;
 import uom.eshop.backend.model.User;
+import uom.eshop.backend.repository.CustomerRepository;
+import uom.eshop.backend.repository.StoreRepository;
+import uom.eshop.backend.security.AuthenticatedUser;
 import uom.eshop.backend.security.JwtTokenProvider;
+import uom.eshop.backend.security.TokenRevocationService;
+import uom.eshop.backend.security.TokenVersionService;
 
 /**
  * Service responsible for handling authentication logic.
  * It uses the AuthenticationManager to authenticate user credentials and the JwtTokenProvider to generate JWT tokens.
+ * The customer or store profile is looked up once at login and its id is stored in the token, so later requests do not need to look it up.
  */
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final TokenVersionService tokenVersionService;
+    private final TokenRevocationService tokenRevocationService;
+    private final CustomerRepository customerRepository;
+    private final StoreRepository storeRepository;
 
     public LoginResponse login(LoginRequest request) {
         Authentication authentication = authenticationManager.authenticate(
@@ -32,7 +46,13 @@ public class AuthService {
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         User user = (User) authentication.getPrincipal();
-        String jwt = tokenProvider.generateToken(authentication);
+        Long customerId = user.getRole() == Role.CUSTOMER
+                ? customerRepository.findByUser(user).map(Customer::getId).orElse(null)
+                : null;
+        Long storeId = user.getRole() == Role.STORE
+                ? storeRepository.findByUser(user).map(Store::getId).orElse(null)
+                : null;
+        String jwt = tokenProvider.generateToken(AuthenticatedUser.of(user, customerId, storeId));
 
         return LoginResponse.builder()
                 .id(user.getId())
@@ -42,4 +62,25 @@ public class AuthService {
                 .role(user.getRole().name())
                 .build();
     }
+
+    /**
+     * Revokes the token used for this request only; the user's other sessions stay signed in.
+     *
+     * @throws BadRequestException if the token has no id, because it was issued before tokens had one
+     */
+    public void logout(Authentication authentication) {
+        AuthenticatedUser principal = AuthenticatedUser.from(authentication);
+        if (principal.tokenId() == null) {
+            throw new BadRequestException("This token cannot be revoked on its own, sign out of every device instead");
+        }
+        tokenRevocationService.revoke(principal.tokenId(), principal.expiresAt());
+    }
+
+    /**
+     * Revokes every token issued to the authenticated user, including the one used for this request.
+     */
+    public void logoutEverywhere(Authentication authentication) {
+        AuthenticatedUser principal = AuthenticatedUser.from(authentication);
+        tokenVersionService.revokeAll(principal.userId(), principal.getUsername());
+    }
 }
@@ -1,20 +1,19 @@
 package uom.eshop.backend.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.cache.CachedValue;
+import uom.eshop.backend.cache.DashboardStatsCache;
+import uom.eshop.backend.concurrent.ParallelQueryRunner;
 import uom.eshop.backend.dto.CustomerStatsResponse;
-import uom.eshop.backend.exceptions.NotFoundException;
-import uom.eshop.backend.model.Customer;
 import uom.eshop.backend.model.OrderStatus;
-import uom.eshop.backend.model.ShoppingCart;
-import uom.eshop.backend.model.User;
-import uom.eshop.backend.repository.CustomerRepository;
 import uom.eshop.backend.repository.OrderRepository;
 import uom.eshop.backend.repository.ShoppingCartRepository;
+import uom.eshop.backend.repository.projection.CartStatsView;
+import uom.eshop.backend.repository.projection.CustomerOrderStatsView;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
 /**
  * Service responsible for handling customer-related business logic.
@@ -24,46 +23,58 @@ import java.math.BigDecimal;
 @RequiredArgsConstructor
 public class CustomerService {
 
-    private final CustomerRepository customerRepository;
     private final OrderRepository orderRepository;
     private final ShoppingCartRepository shoppingCartRepository;
+    private final CustomerStatsService customerStatsService;
+    private final ParallelQueryRunner parallelQueryRunner;
+    private final DashboardStatsCache dashboardStatsCache;
 
-    @Transactional(readOnly = true)
-    public CustomerStatsResponse getCustomerStats(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
-
-        // Get shopping cart stats
-        ShoppingCart cart = shoppingCartRepository.findByCustomer(customer)
-                .orElse(null);
-        
-        Integer itemsInCart = 0;
-        BigDecimal cartTotalPrice = BigDecimal.ZERO;
-        
-        if (cart != null) {
-            itemsInCart = cart.getItems().stream()
-                    .mapToInt(item -> item.getQuantity())
-                    .sum();
-            cartTotalPrice = cart.getTotalPrice();
+    /**
+     * Returns the customer's dashboard statistics through the stats cache, so concurrent dashboards share one computation.
+     * Not transactional on purpose: the three aggregates are independent and run concurrently in their own read-only transactions,
+     * and the requesting thread should not hold a connection of its own while it waits for them.
+     */
+    public CachedValue<CustomerStatsResponse> getCustomerStats(Long customerId, boolean exact) {
+        // An exact count is an explicit request for current numbers, so it bypasses the cache
+        if (exact) {
+            return CachedValue.bypass(computeCustomerStats(customerId, true));
         }
+        return dashboardStatsCache.getCustomerStats(customerId, () -> computeCustomerStats(customerId, false));
+    }
+
+    private CustomerStatsResponse computeCustomerStats(Long customerId, boolean exact) {
+        // Cart totals are summed in the database instead of loading every cart item
+        ParallelQueryRunner.Branch<Optional<CartStatsView>> cartBranch = parallelQueryRunner.submit("customer-cart",
+                () -> shoppingCartRepository.findStatsByCustomerId(customerId));
+
+        // All order counters come from a single conditional aggregation over the customer's orders
+        ParallelQueryRunner.Branch<CustomerOrderStatsView> orderBranch = parallelQueryRunner.submit("customer-orders",
+                () -> orderRepository.aggregateStatsByCustomerId(customerId, OrderStatus.COMPLETED));
+
+        // Unique stores come from the HyperLogLog sketch unless the caller asks for an exact COUNT(DISTINCT)
+        ParallelQueryRunner.Branch<Long> storesBranch = parallelQueryRunner.submit("customer-unique-stores", exact
+                ? () -> orderRepository.countDistinctStoresByCustomerId(customerId)
+                : () -> customerStatsService.estimateUniqueStores(customerId));
+
+        Optional<Optional<CartStatsView>> cartStats = cartBranch.join();
+        Optional<CustomerOrderStatsView> orderStats = orderBranch.join();
+        Optional<Long> uniqueStores = storesBranch.join();
+
+        CustomerStatsResponse.CustomerStatsResponseBuilder response = CustomerStatsResponse.builder()
+                .uniqueStoresPurchasedFrom(uniqueStores.orElse(null))
+                .partial(cartStats.isEmpty() || orderStats.isEmpty() || uniqueStores.isEmpty());
+
+        // A customer without a cart simply has nothing in it
+        cartStats.ifPresent(cart -> response
+                .itemsInCart(cart.map(view -> view.getItemsInCart().intValue()).orElse(0))
+                .cartTotalPrice(cart.map(CartStatsView::getTotalPrice).orElse(BigDecimal.ZERO)));
 
-        // Get order statistics
-        Long totalOrders = orderRepository.countByCustomer(customer);
-        Long totalOrdersCompleted = orderRepository.countByCustomerAndStatus(customer, OrderStatus.COMPLETED);
-        Long uniqueStoresPurchasedFrom = orderRepository.countDistinctStoresByCustomer(customer);
-        BigDecimal totalAmountSpent = orderRepository.sumTotalPriceByCustomer(customer);
-        Long totalItemsPurchased = orderRepository.sumItemQuantitiesByCustomer(customer);
+        orderStats.ifPresent(orders -> response
+                .totalOrders(orders.getTotalOrders())
+                .totalOrdersCompleted(orders.getTotalOrdersCompleted())
+                .totalAmountSpent(orders.getTotalAmountSpent())
+                .totalItemsPurchased(orders.getTotalItemsPurchased()));
 
-        return CustomerStatsResponse.builder()
-                .itemsInCart(itemsInCart)
-                .cartTotalPrice(cartTotalPrice)
-                .totalOrders(totalOrders)
-                .totalOrdersCompleted(totalOrdersCompleted)
-                .uniqueStoresPurchasedFrom(uniqueStoresPurchasedFrom)
-                .totalAmountSpent(totalAmountSpent)
-                .totalItemsPurchased(totalItemsPurchased)
-                .build();
+        return response.build();
     }
-}
\ No newline at end of file
+}
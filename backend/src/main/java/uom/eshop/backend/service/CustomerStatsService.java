@@ -0,0 +1,81 @@
+package uom.eshop.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.model.CustomerStats;
+import uom.eshop.backend.repository.CustomerStatsRepository;
+import uom.eshop.backend.repository.OrderRepository;
+import uom.eshop.backend.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Service responsible for maintaining the materialized statistics of customers.
+ * Checkout records the stores a customer ordered from in a HyperLogLog sketch, so the customer dashboard
+ * can show the number of unique stores without a COUNT(DISTINCT) over the customer's orders.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerStatsService {
+
+    private final CustomerStatsRepository customerStatsRepository;
+    private final OrderRepository orderRepository;
+
+    @Transactional
+    public void initialize(Long customerId) {
+        customerStatsRepository.save(CustomerStats.builder()
+                .customerId(customerId)
+                .storeSketch(new HyperLogLog().toBytes())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Adds the stores of a completed checkout to the customer's unique-store sketch.
+     * The row is locked for the rest of the transaction; a customer without a row gets it rebuilt from their orders,
+     * which already include the ones created by this checkout. If a concurrent checkout creates the row first,
+     * the stores are added to that row instead.
+     */
+    @Transactional
+    public void recordStores(Long customerId, Collection<Long> storeIds) {
+        CustomerStats stats = customerStatsRepository.findByIdForUpdate(customerId).orElse(null);
+        if (stats == null) {
+            if (customerStatsRepository.insertIfAbsent(computeFromSource(customerId)) == 1) {
+                return;
+            }
+            stats = customerStatsRepository.findByIdForUpdate(customerId).orElseThrow();
+        }
+
+        HyperLogLog sketch = HyperLogLog.fromBytes(stats.getStoreSketch());
+        boolean changed = false;
+        for (Long storeId : storeIds) {
+            changed |= sketch.add(storeId);
+        }
+        if (changed) {
+            stats.setStoreSketch(sketch.toBytes());
+            stats.setUpdatedAt(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Estimates the number of distinct stores the customer ordered from, computing the sketch from their orders if the row has not been created yet.
+     */
+    @Transactional(readOnly = true)
+    public long estimateUniqueStores(Long customerId) {
+        CustomerStats stats = customerStatsRepository.findById(customerId)
+                .orElseGet(() -> computeFromSource(customerId));
+        return HyperLogLog.fromBytes(stats.getStoreSketch()).estimate();
+    }
+
+    private CustomerStats computeFromSource(Long customerId) {
+        HyperLogLog sketch = new HyperLogLog();
+        orderRepository.findDistinctStoreIdsByCustomerId(customerId).forEach(sketch::add);
+        return CustomerStats.builder()
+                .customerId(customerId)
+                .storeSketch(sketch.toBytes())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package uom.eshop.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import uom.eshop.backend.cache.CachedValue;
+import uom.eshop.backend.concurrent.ParallelQueryRunner;
+import uom.eshop.backend.dto.*;
+import uom.eshop.backend.exceptions.BadRequestException;
+import uom.eshop.backend.sketch.SpaceSaving;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Service responsible for assembling the store and customer dashboards in a single request.
+ * The profile id is taken from the token once, and the list sections are queried concurrently, each in its own read-only transaction.
+ * A section that fails or does not finish within the query timeout is returned as UNAVAILABLE while the others are still returned.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final StoreService storeService;
+    private final CustomerService customerService;
+    private final ProductService productService;
+    private final OrderService orderService;
+    private final ParallelQueryRunner parallelQueryRunner;
+
+    /**
+     * Not transactional on purpose, like the stats endpoints: the requesting thread should not hold a connection while it waits for the sections.
+     */
+    public StoreDashboardResponse getStoreDashboard(Long storeId, int limit) {
+        validateLimit(limit);
+
+        Supplier<DashboardSection<List<OrderResponse>>> recentOrders = submit("dashboard-store-orders",
+                () -> storeService.getRecentStoreOrders(storeId, limit));
+        Supplier<DashboardSection<List<ProductResponse>>> products = submit("dashboard-store-products",
+                () -> productService.getStoreProducts(storeId));
+        Supplier<DashboardSection<List<TopProductResponse>>> topProducts = submit("dashboard-store-top-products",
+                () -> storeService.getTopProducts(storeId, limit, false));
+
+        // Statistics fan out on the same pool themselves, so they are gathered on this thread rather than from a worker waiting on other workers
+        long statsStartedAt = System.nanoTime();
+        CachedValue<StoreStatsResponse> stats = storeService.getStoreStats(storeId, false);
+
+        return StoreDashboardResponse.builder()
+                .stats(section(stats.value(), stats.value().isPartial(), statsStartedAt))
+                .recentOrders(recentOrders.get())
+                .products(products.get())
+                .topProducts(topProducts.get())
+                .build();
+    }
+
+    public CustomerDashboardResponse getCustomerDashboard(Long customerId, int limit) {
+        validateLimit(limit);
+
+        Supplier<DashboardSection<List<OrderResponse>>> recentOrders = submit("dashboard-customer-orders",
+                () -> orderService.getRecentCustomerOrders(customerId, limit));
+        Supplier<DashboardSection<List<ProductResponse>>> recommendations = submit("dashboard-customer-recommendations",
+                () -> productService.getRecommendedProducts(customerId, limit));
+
+        long statsStartedAt = System.nanoTime();
+        CachedValue<CustomerStatsResponse> stats = customerService.getCustomerStats(customerId, false);
+
+        return CustomerDashboardResponse.builder()
+                .stats(section(stats.value(), stats.value().isPartial(), statsStartedAt))
+                .recentOrders(recentOrders.get())
+                .recommendations(recommendations.get())
+                .build();
+    }
+
+    private static void validateLimit(int limit) {
+        // Top products come from the sketch, so the limit cannot exceed its capacity either
+        if (limit < 1 || limit > Math.min(MAX_LIMIT, SpaceSaving.DEFAULT_CAPACITY)) {
+            throw new BadRequestException("Limit must be between 1 and " + Math.min(MAX_LIMIT, SpaceSaving.DEFAULT_CAPACITY));
+        }
+    }
+
+    /**
+     * Starts a section query and returns a handle that waits for it. The elapsed time counts from submission to completion,
+     * including any wait for a free worker, which is what the section adds to the response time.
+     */
+    private <T> Supplier<DashboardSection<T>> submit(String name, Supplier<T> query) {
+        long submittedAt = System.nanoTime();
+        AtomicLong completedAt = new AtomicLong();
+        ParallelQueryRunner.Branch<T> branch = parallelQueryRunner.submit(name, () -> {
+            try {
+                return query.get();
+            } finally {
+                completedAt.set(System.nanoTime());
+            }
+        });
+
+        return () -> branch.join()
+                .map(data -> DashboardSection.<T>builder()
+                        .status(DashboardSection.Status.OK)
+                        .data(data)
+                        .elapsedMs(TimeUnit.NANOSECONDS.toMillis(completedAt.get() - submittedAt))
+                        .build())
+                .orElseGet(() -> DashboardSection.<T>builder()
+                        .status(DashboardSection.Status.UNAVAILABLE)
+                        .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt))
+                        .build());
+    }
+
+    private static <T> DashboardSection<T> section(T data, boolean partial, long startedAt) {
+        return DashboardSection.<T>builder()
+                .status(partial ? DashboardSection.Status.PARTIAL : DashboardSection.Status.OK)
+                .data(data)
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt))
+                .build();
+    }
+}
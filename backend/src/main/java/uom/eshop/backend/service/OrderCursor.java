@@ -0,0 +1,39 @@
+package uom.eshop.backend.service;
+
+import uom.eshop.backend.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in an order history: the date and id of the last order of a page, which the next page starts after.
+ * Clients get it as an opaque URL-safe token and send it back unchanged.
+ */
+public record OrderCursor(LocalDateTime orderDate, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String position = orderDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the position the token stands for
+     * @throws BadRequestException if the token was not produced by {@link #encode()}
+     */
+    public static OrderCursor decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new OrderCursor(LocalDateTime.parse(position.substring(0, separator)), Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package uom.eshop.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.exceptions.BadRequestException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service that exports the order book of a store as CSV for accounting, one line per order item, oldest order first.
+ * Rows are read through a forward-only JDBC cursor that fetches a bounded number of rows at a time and are written straight to
+ * the response through a buffered writer, optionally gzip-compressed, so memory use does not grow with the number of orders.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+
+    static final String HEADER = "order_id,order_date,status,customer_id,customer_name,order_total," +
+            "order_item_id,product_id,product_title,product_brand,quantity,price_at_purchase,subtotal";
+
+    private static final String EXPORT_SQL =
+            "SELECT o.id AS order_id, o.order_date, o.status, c.id AS customer_id, c.first_name, c.last_name, o.total_price, " +
+            "oi.id AS order_item_id, p.id AS product_id, p.title, p.brand, oi.quantity, oi.price_at_purchase, oi.subtotal " +
+            "FROM orders o JOIN customers c ON c.id = o.customer_id JOIN order_items oi ON oi.order_id = o.id " +
+            "JOIN products p ON p.id = oi.product_id WHERE o.store_id = ?";
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Checks the date range before the response is committed, as errors can no longer change its status once the export streams.
+     */
+    public void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+    }
+
+    /**
+     * Writes the items of the store's orders placed in the range as CSV to the stream, gzip-compressed if requested.
+     * Runs in a read-only transaction, without which the PostgreSQL driver reads the whole result into memory instead of through a cursor.
+     *
+     * @param from the earliest order date to include (inclusive), or null for no lower bound
+     * @param to the latest order date to include (exclusive), or null for no upper bound
+     * @return the number of order items written
+     */
+    @Transactional(readOnly = true)
+    public long exportStoreOrders(Long storeId, LocalDateTime from, LocalDateTime to, OutputStream out, boolean gzip) throws IOException {
+        validateRange(from, to);
+
+        StringBuilder sql = new StringBuilder(EXPORT_SQL);
+        List<Object> args = new ArrayList<>(List.of(storeId));
+        if (from != null) {
+            sql.append(" AND o.order_date >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND o.order_date < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY o.order_date, o.id, oi.id");
+
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+        writer.write("\r\n");
+
+        CsvRowWriter rows = new CsvRowWriter(writer);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, rows);
+        } catch (UncheckedIOException e) {
+            // The client went away or the connection broke, nothing more can be sent
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+
+        log.debug("Exported {} order items of store {}", rows.count, storeId);
+        return rows.count;
+    }
+
+    /**
+     * Writes each row as one CSV line, quoting fields as RFC 4180 requires and neutralising text that a spreadsheet would run as a formula.
+     */
+    private static class CsvRowWriter implements RowCallbackHandler {
+
+        private final Writer writer;
+        private long count;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                writer.write(Long.toString(rs.getLong("order_id")));
+                writer.write(',');
+                writer.write(rs.getTimestamp("order_date").toLocalDateTime().toString());
+                writer.write(',');
+                writer.write(rs.getString("status"));
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong("customer_id")));
+                writer.write(',');
+                writeText(rs.getString("first_name") + " " + rs.getString("last_name"));
+                writer.write(',');
+                writer.write(rs.getBigDecimal("total_price").toPlainString());
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong("order_item_id")));
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong("product_id")));
+                writer.write(',');
+                writeText(rs.getString("title"));
+                writer.write(',');
+                writeText(rs.getString("brand"));
+                writer.write(',');
+                writer.write(Integer.toString(rs.getInt("quantity")));
+                writer.write(',');
+                writer.write(rs.getBigDecimal("price_at_purchase").toPlainString());
+                writer.write(',');
+                writer.write(rs.getBigDecimal("subtotal").toPlainString());
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+        }
+
+        private void writeText(String value) throws IOException {
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -2,10 +2,15 @@ package uom.eshop.backend.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.cache.DashboardStatsCache;
+import uom.eshop.backend.cache.PurchasedProductCache;
+import uom.eshop.backend.dto.OrderHistoryPage;
+import uom.eshop.backend.dto.OrderHistoryRequest;
 import uom.eshop.backend.dto.OrderResponse;
 import uom.eshop.backend.exceptions.BadRequestException;
 import uom.eshop.backend.exceptions.ForbiddenException;
@@ -13,11 +18,18 @@ import uom.eshop.backend.exceptions.InsufficientStockException;
 import uom.eshop.backend.exceptions.NotFoundException;
 import uom.eshop.backend.model.*;
 import uom.eshop.backend.repository.*;
+import uom.eshop.backend.security.AuthenticatedUser;
+import uom.eshop.backend.specification.OrderSpecification;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -29,19 +41,26 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderService {
 
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Order.desc("orderDate"), Sort.Order.desc("id"));
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final CustomerRepository customerRepository;
     private final ShoppingCartRepository shoppingCartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
+    private final PurchasedProductCache purchasedProductCache;
+    private final StoreStatsService storeStatsService;
+    private final CustomerStatsService customerStatsService;
+    private final SalesRollupService salesRollupService;
+    private final DashboardStatsCache dashboardStatsCache;
 
     @Transactional
-    public List<OrderResponse> completeOrder(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
+    public List<OrderResponse> completeOrder(Long customerId) {
+        Customer customer = customerRepository.getReferenceById(customerId);
 
         ShoppingCart cart = shoppingCartRepository.findByCustomer(customer)
                 .orElseThrow(() -> new NotFoundException("Shopping cart not found"));
@@ -51,9 +70,13 @@ public class OrderService {
             throw new BadRequestException("Cart is empty");
         }
 
-        // Group cart items by store
+        // Group cart items by store, in store id order so concurrent checkouts lock the store counters in the same order
         Map<Store, List<CartItem>> itemsByStore = cart.getItems().stream()
-                .collect(Collectors.groupingBy(cartItem -> cartItem.getProduct().getStore()));
+                .collect(Collectors.groupingBy(
+                        cartItem -> cartItem.getProduct().getStore(),
+                        () -> new TreeMap<>(Comparator.comparing(Store::getId)),
+                        Collectors.toList()
+                ));
 
         List<Order> createdOrders = new ArrayList<>();
 
@@ -90,6 +113,9 @@ public class OrderService {
             order = orderRepository.save(order);
 
             // Create order items and update stock
+            Map<Long, Long> quantitiesByProduct = new HashMap<>();
+            long itemsSold = 0;
+            long soldOut = 0;
             for (CartItem cartItem : storeItems) {
                 Product product = cartItem.getProduct();
 
@@ -106,11 +132,35 @@ public class OrderService {
                 // Update product stock
                 product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
                 productRepository.save(product);
+
+                quantitiesByProduct.merge(product.getId(), (long) cartItem.getQuantity(), Long::sum);
+                itemsSold += cartItem.getQuantity();
+                if (product.getStockQuantity() == 0) {
+                    soldOut++;
+                }
             }
 
+            storeStatsService.recordOrder(store.getId(), customer.getId(), order.getStatus(), orderTotal, quantitiesByProduct, soldOut);
+            salesRollupService.recordOrder(store.getId(), customer.getId(), order.getOrderDate(), orderTotal, itemsSold);
+
             createdOrders.add(order);
         }
 
+        customerStatsService.recordStores(customer.getId(), itemsByStore.keySet().stream()
+                .map(Store::getId)
+                .collect(Collectors.toList()));
+
+        // Dashboards of the customer and of every store involved show outdated numbers once the orders are committed
+        dashboardStatsCache.markCustomerDirty(customer.getId());
+        dashboardStatsCache.markStoresDirty(itemsByStore.keySet().stream()
+                .map(Store::getId)
+                .collect(Collectors.toList()));
+
+        // Keep the purchased-product index in sync once the orders are committed
+        purchasedProductCache.recordPurchases(customer.getId(), cart.getItems().stream()
+                .map(cartItem -> cartItem.getProduct().getId())
+                .collect(Collectors.toSet()));
+
         // Clear the shopping cart
         cartItemRepository.deleteAll(cart.getItems());
         cart.getItems().clear();
@@ -123,48 +173,99 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns one page of the customer's orders, newest first, optionally filtered by order date range and status.
+     */
     @Transactional(readOnly = true)
-    public List<OrderResponse> getCustomerOrders(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
-
-        List<Order> orders = orderRepository.findByCustomerOrderByOrderDateDesc(customer);
-        
-        return orders.stream()
-                .map(this::mapToOrderResponse)
-                .collect(Collectors.toList());
+    public OrderHistoryPage getCustomerOrders(Long customerId, OrderHistoryRequest request) {
+        return getOrderHistory(OrderSpecification.placedBy(customerId), request);
     }
 
     @Transactional(readOnly = true)
-    public List<OrderResponse> getRecentCustomerOrders(Authentication authentication, int limit) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
-
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Order> orders = orderRepository.findByCustomerOrderByOrderDateDesc(customer, pageable);
-        
-        return orders.stream()
-                .map(this::mapToOrderResponse)
+    public List<OrderResponse> getRecentCustomerOrders(Long customerId, int limit) {
+        return getOrders(orderRepository.findIdsByCustomerId(customerId, PageRequest.of(0, limit)));
+    }
+
+    /**
+     * Returns one page of the store's orders, newest first, optionally filtered by order date range and status.
+     */
+    @Transactional(readOnly = true)
+    public OrderHistoryPage getStoreOrders(Long storeId, OrderHistoryRequest request) {
+        return getOrderHistory(OrderSpecification.receivedBy(storeId), request);
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getRecentStoreOrders(Long storeId, int limit) {
+        return getOrders(orderRepository.findIdsByStoreId(storeId, PageRequest.of(0, limit)));
+    }
+
+    /**
+     * Returns the orders with the given ids, in the order of the ids, in two more queries however many there are:
+     * one fetching the orders with their customer and store, one fetching all their items with their products.
+     * Mapping entities one by one instead would load the customer, store, items and each item's product lazily, about 1 + 4N queries.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrders(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Order> ordersById = orderRepository.findWithCustomerAndStoreByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, order -> order));
+        Map<Long, List<OrderItem>> itemsByOrderId = orderItemRepository.findWithProductByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+
+        return orderIds.stream()
+                .filter(ordersById::containsKey)
+                .map(id -> mapToOrderResponse(ordersById.get(id), itemsByOrderId.getOrDefault(id, List.of())))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Pages through orders with a keyset on (order date, id) rather than an offset: the cursor holds the date and id of the last order
+     * of the previous page, so each page is one range scan of the owner's (order date, id) index and costs the same however deep it is.
+     * Only the ids of the page are selected, plus one more to tell whether there is a next page, and the orders are then fetched by id.
+     */
+    private OrderHistoryPage getOrderHistory(Specification<Order> owner, OrderHistoryRequest request) {
+        int size = request.getSize();
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        OrderStatus status = request.getStatus() == null ? null : parseStatus(request.getStatus());
+        OrderCursor cursor = request.getCursor() == null ? null : OrderCursor.decode(request.getCursor());
+
+        Specification<Order> specification = owner.and(OrderSpecification.filterOrders(request.getFrom(), request.getTo(), status));
+        if (cursor != null) {
+            specification = specification.and(OrderSpecification.after(cursor.orderDate(), cursor.id()));
+        }
+        List<Long> ids = orderRepository.findIds(specification, HISTORY_ORDER, size + 1);
+
+        List<OrderResponse> orders = getOrders(ids.subList(0, Math.min(size, ids.size())));
+        String nextCursor = null;
+        if (ids.size() > size && !orders.isEmpty()) {
+            OrderResponse last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getOrderId()).encode();
+        }
+
+        return OrderHistoryPage.builder()
+                .orders(orders)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long orderId, Authentication authentication) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new NotFoundException("Order not found"));
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser principal = AuthenticatedUser.from(authentication);
 
         // Authorization check - verify user has access to this order
-        if (user.getRole() == Role.CUSTOMER) {
-            Customer customer = customerRepository.findByUser(user)
-                    .orElseThrow(() -> new NotFoundException("Customer profile not found"));
-            
-            if (!order.getCustomer().getId().equals(customer.getId())) {
+        if (principal.role() == Role.CUSTOMER) {
+            if (!order.getCustomer().getId().equals(principal.requireCustomerId())) {
                 throw new ForbiddenException("You don't have permission to view this order");
             }
         }
@@ -172,7 +273,19 @@ public class OrderService {
         return mapToOrderResponse(order);
     }
 
+    private static OrderStatus parseStatus(String status) {
+        try {
+            return OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported status '" + status + "', expected one of " + Arrays.toString(OrderStatus.values()));
+        }
+    }
+
     private OrderResponse mapToOrderResponse(Order order) {
+        return mapToOrderResponse(order, order.getItems());
+    }
+
+    private OrderResponse mapToOrderResponse(Order order, List<OrderItem> items) {
         return OrderResponse.builder()
                 .orderId(order.getId())
                 .customerId(order.getCustomer().getId())
@@ -182,7 +295,7 @@ public class OrderService {
                 .totalPrice(order.getTotalPrice())
                 .orderDate(order.getOrderDate())
                 .status(order.getStatus().name())
-                .items(order.getItems().stream()
+                .items(items.stream()
                         .map(this::mapToOrderItemResponse)
                         .collect(Collectors.toList()))
                 .build();
@@ -7,24 +7,36 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.cache.DashboardStatsCache;
+import uom.eshop.backend.cache.PurchasedProductCache;
+import uom.eshop.backend.config.RecommendationProperties;
 import uom.eshop.backend.dto.AddProductRequest;
 import uom.eshop.backend.dto.ProductResponse;
 import uom.eshop.backend.dto.ProductSearchRequest;
 import uom.eshop.backend.dto.UpdateProductStockRequest;
+import uom.eshop.backend.exceptions.BadRequestException;
 import uom.eshop.backend.exceptions.ForbiddenException;
 import uom.eshop.backend.exceptions.NotFoundException;
 import uom.eshop.backend.model.Customer;
+import uom.eshop.backend.model.CustomerRecommendation;
 import uom.eshop.backend.model.Product;
 import uom.eshop.backend.model.Store;
-import uom.eshop.backend.model.User;
+import uom.eshop.backend.repository.CustomerRecommendationRepository;
 import uom.eshop.backend.repository.CustomerRepository;
 import uom.eshop.backend.repository.OrderRepository;
 import uom.eshop.backend.repository.ProductRepository;
 import uom.eshop.backend.repository.StoreRepository;
+import uom.eshop.backend.security.AuthenticatedUser;
+import uom.eshop.backend.sketch.RoaringBitmap;
 import uom.eshop.backend.specification.ProductSpecification;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -36,17 +48,22 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductService {
 
+    static final int MAX_RECOMMENDATIONS = 50;
+
     private final ProductRepository productRepository;
     private final StoreRepository storeRepository;
     private final CustomerRepository customerRepository;
     private final OrderRepository orderRepository;
+    private final CustomerRecommendationRepository customerRecommendationRepository;
+    private final PurchasedProductCache purchasedProductCache;
+    private final StoreStatsService storeStatsService;
+    private final DashboardStatsCache dashboardStatsCache;
+    private final StoreDirectoryService storeDirectoryService;
+    private final RecommendationProperties recommendationProperties;
 
     @Transactional
-    public ProductResponse addProduct(AddProductRequest request, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Store store = storeRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Store profile not found for user"));
+    public ProductResponse addProduct(AddProductRequest request, Long storeId) {
+        Store store = storeRepository.getReferenceById(storeId);
 
         Product product = Product.builder()
                 .title(request.getTitle())
@@ -59,37 +76,36 @@ public class ProductService {
                 .build();
 
         product = productRepository.save(product);
+        storeStatsService.recordStockChange(store.getId(), null, product.getStockQuantity());
+        dashboardStatsCache.markStoresDirty(List.of(store.getId()));
+        // The store's product count in the public directory changed
+        storeDirectoryService.markChanged();
         
         return mapToResponse(product);
     }
 
     @Transactional
-    public ProductResponse updateProductStock(Long productId, UpdateProductStockRequest request, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Store store = storeRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Store profile not found for user"));
-
+    public ProductResponse updateProductStock(Long productId, UpdateProductStockRequest request, Long storeId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new NotFoundException("Product not found"));
 
         // Verify that the product belongs to the authenticated store
-        if (!product.getStore().getId().equals(store.getId())) {
+        if (!product.getStore().getId().equals(storeId)) {
             throw new ForbiddenException("You can only update products from your own store");
         }
 
+        Integer previousStock = product.getStockQuantity();
         product.setStockQuantity(request.getStockQuantity());
         product = productRepository.save(product);
+        storeStatsService.recordStockChange(storeId, previousStock, product.getStockQuantity());
+        dashboardStatsCache.markStoresDirty(List.of(storeId));
         
         return mapToResponse(product);
     }
 
     @Transactional(readOnly = true)
-    public List<ProductResponse> getStoreProducts(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Store store = storeRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Store profile not found for user"));
+    public List<ProductResponse> getStoreProducts(Long storeId) {
+        Store store = storeRepository.getReferenceById(storeId);
 
         List<Product> products = productRepository.findByStore(store);
         
@@ -107,30 +123,29 @@ public class ProductService {
     }
 
     @Transactional(readOnly = true)
-    public List<ProductResponse> searchProducts(ProductSearchRequest request) {
+    public List<ProductResponse> searchProducts(ProductSearchRequest request, Authentication authentication) {
         Specification<Product> specification = ProductSpecification.filterProducts(request);
         List<Product> products = productRepository.findAll(specification);
-        
+
+        RoaringBitmap purchased = request.isExcludePurchased() ? findPurchasedProducts(authentication) : null;
+
         return products.stream()
+                .filter(product -> purchased == null || !purchased.contains(product.getId()))
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     @Transactional
-    public ProductResponse updateProduct(Long productId, AddProductRequest request, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Store store = storeRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Store profile not found for user"));
-
+    public ProductResponse updateProduct(Long productId, AddProductRequest request, Long storeId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new NotFoundException("Product not found"));
 
         // Verify that the product belongs to the authenticated store
-        if (!product.getStore().getId().equals(store.getId())) {
+        if (!product.getStore().getId().equals(storeId)) {
             throw new ForbiddenException("You can only update products from your own store");
         }
 
+        Integer previousStock = product.getStockQuantity();
         product.setTitle(request.getTitle());
         product.setType(request.getType());
         product.setBrand(request.getBrand());
@@ -139,46 +154,67 @@ public class ProductService {
         product.setStockQuantity(request.getStockQuantity());
 
         product = productRepository.save(product);
+        storeStatsService.recordStockChange(storeId, previousStock, product.getStockQuantity());
+        dashboardStatsCache.markStoresDirty(List.of(storeId));
         
         return mapToResponse(product);
     }
 
     @Transactional
-    public void deleteProduct(Long productId, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Store store = storeRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Store profile not found for user"));
-
+    public void deleteProduct(Long productId, Long storeId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new NotFoundException("Product not found"));
 
         // Verify that the product belongs to the authenticated store
-        if (!product.getStore().getId().equals(store.getId())) {
+        if (!product.getStore().getId().equals(storeId)) {
             throw new ForbiddenException("You can only delete products from your own store");
         }
 
         productRepository.delete(product);
+        storeStatsService.recordStockChange(storeId, product.getStockQuantity(), null);
+        dashboardStatsCache.markStoresDirty(List.of(storeId));
+        storeDirectoryService.markChanged();
     }
 
     @Transactional(readOnly = true)
-    public List<ProductResponse> getRecommendedProducts(Authentication authentication, int limit) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
+    public List<ProductResponse> getRecommendedProducts(Long customerId, int limit) {
+        if (limit < 1 || limit > MAX_RECOMMENDATIONS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_RECOMMENDATIONS);
+        }
+        Customer customer = customerRepository.getReferenceById(customerId);
+
+        // Serve the list precomputed by the nightly batch job when this customer has already been processed
+        Optional<CustomerRecommendation> precomputed = customerRecommendationRepository.findById(customer.getId());
+        if (precomputed.isEmpty()) {
+            return scoreRecommendations(customer, limit, Set.of());
+        }
+
+        List<ProductResponse> recommendations = mapPrecomputedRecommendations(precomputed.get(), limit);
+        if (recommendations.size() < limit) {
+            // The stored list holds only the batch job's top N and loses products that sold out or were bought since,
+            // so fill the rest from live scoring
+            Set<Long> served = recommendations.stream().map(ProductResponse::getId).collect(Collectors.toSet());
+            recommendations = new ArrayList<>(recommendations);
+            recommendations.addAll(scoreRecommendations(customer, limit - recommendations.size(), served));
+        }
+        return recommendations;
+    }
 
+    /**
+     * Scores recommendations live from the customer's purchase history, leaving out the excluded product ids.
+     */
+    private List<ProductResponse> scoreRecommendations(Customer customer, int limit, Set<Long> excluded) {
         // Get customer's purchase history
         List<String> purchasedTypes = orderRepository.findDistinctProductTypesByCustomer(customer);
         List<String> purchasedBrands = orderRepository.findDistinctProductBrandsByCustomer(customer);
-        List<Long> purchasedProductIds = orderRepository.findDistinctProductIdsByCustomer(customer);
 
         // If customer has no purchase history, return popular/recent products
         if (purchasedTypes.isEmpty() && purchasedBrands.isEmpty()) {
-            Pageable pageable = PageRequest.of(0, limit);
+            Pageable pageable = PageRequest.of(0, limit + excluded.size());
             List<Product> products = productRepository.findAll(pageable).getContent();
             return products.stream()
-                    .filter(p -> p.getStockQuantity() > 0)
+                    .filter(p -> p.getStockQuantity() > 0 && !excluded.contains(p.getId()))
+                    .limit(limit)
                     .map(this::mapToResponse)
                     .collect(Collectors.toList());
         }
@@ -192,25 +228,74 @@ public class ProductService {
             purchasedBrands = new ArrayList<>();
             purchasedBrands.add(""); // Add empty string to avoid SQL errors
         }
-        if (purchasedProductIds.isEmpty()) {
-            purchasedProductIds = new ArrayList<>();
-            purchasedProductIds.add(-1L); // Add non-existent ID
-        }
 
-        // Find products based on customer's preferred types and brands
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Product> recommendedProducts = productRepository.findRecommendedProducts(
-                purchasedTypes,
-                purchasedBrands,
-                purchasedProductIds,
-                pageable
-        );
+        // Walk candidates newest first and drop already purchased products in memory,
+        // instead of shipping the full purchased id list to the database on every call
+        RoaringBitmap purchased = purchasedProductCache.getPurchasedProducts(customer.getId());
+        int batchSize = Math.max(limit, recommendationProperties.getCandidateBatchSize());
+        List<Product> recommendedProducts = new ArrayList<>();
+        long beforeId = Long.MAX_VALUE;
+
+        while (recommendedProducts.size() < limit) {
+            List<Product> candidates = productRepository.findRecommendationCandidates(
+                    purchasedTypes,
+                    purchasedBrands,
+                    beforeId,
+                    PageRequest.of(0, batchSize)
+            );
+
+            for (Product candidate : candidates) {
+                if (!purchased.contains(candidate.getId()) && !excluded.contains(candidate.getId())) {
+                    recommendedProducts.add(candidate);
+                    if (recommendedProducts.size() == limit) {
+                        break;
+                    }
+                }
+            }
+
+            if (candidates.size() < batchSize) {
+                break;
+            }
+            beforeId = candidates.get(candidates.size() - 1).getId();
+        }
 
         return recommendedProducts.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Loads the products of a precomputed recommendation list in ranked order, dropping products that went out of stock
+     * or were purchased since the list was computed.
+     */
+    private List<ProductResponse> mapPrecomputedRecommendations(CustomerRecommendation recommendation, int limit) {
+        List<Long> productIds = Arrays.asList(recommendation.getProductIds());
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        RoaringBitmap purchased = purchasedProductCache.getPurchasedProducts(recommendation.getCustomerId());
+        Map<Long, Product> productsById = productRepository.findAllWithStoreByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(product -> product != null && product.getStockQuantity() > 0 && !purchased.contains(product.getId()))
+                .limit(limit)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolves the purchased-product bitmap of the authenticated customer, or null for anonymous users and stores.
+     */
+    private RoaringBitmap findPurchasedProducts(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal) || principal.customerId() == null) {
+            return null;
+        }
+        return purchasedProductCache.getPurchasedProducts(principal.customerId());
+    }
+
     private ProductResponse mapToResponse(Product product) {
         return ProductResponse.builder()
                 .id(product.getId())
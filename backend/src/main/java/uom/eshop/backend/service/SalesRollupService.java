@@ -0,0 +1,139 @@
+package uom.eshop.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.config.StatsProperties;
+import uom.eshop.backend.dto.SalesTimeSeriesResponse;
+import uom.eshop.backend.exceptions.BadRequestException;
+import uom.eshop.backend.model.RollupGranularity;
+import uom.eshop.backend.model.StoreSalesRollup;
+import uom.eshop.backend.repository.StoreSalesRollupRepository;
+import uom.eshop.backend.sketch.HyperLogLog;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service responsible for the pre-aggregated store sales time series.
+ * Checkout adds each order to its hourly and daily bucket inside the checkout transaction,
+ * and time series queries read at most one row per bucket, filling buckets without sales with zeros.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    private final StoreSalesRollupRepository rollupRepository;
+    private final StatsProperties statsProperties;
+
+    /**
+     * Adds an order to the hourly and daily buckets of its store.
+     * Each bucket is created if needed and then locked, so concurrent checkouts of the same store apply their increments one after the other.
+     */
+    @Transactional
+    public void recordOrder(Long storeId, Long customerId, LocalDateTime orderDate, BigDecimal revenue, long itemsSold) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDateTime bucketStart = granularity.bucketStart(orderDate);
+            rollupRepository.insertBucketIfAbsent(storeId, granularity.name(), bucketStart);
+            StoreSalesRollup bucket = rollupRepository.findBucketForUpdate(storeId, granularity, bucketStart)
+                    .orElseThrow(() -> new IllegalStateException("Sales rollup bucket was not created for store " + storeId));
+
+            bucket.setRevenue(bucket.getRevenue().add(revenue));
+            bucket.setOrderCount(bucket.getOrderCount() + 1);
+            bucket.setItemsSold(bucket.getItemsSold() + itemsSold);
+
+            HyperLogLog sketch = sketchOf(bucket);
+            if (sketch.add(customerId)) {
+                bucket.setCustomerSketch(sketch.toBytes());
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public SalesTimeSeriesResponse getTimeSeries(Long storeId, LocalDateTime from, LocalDateTime to, String granularityName) {
+        RollupGranularity granularity = parseGranularity(granularityName);
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+
+        LocalDateTime start = granularity.bucketStart(from);
+        Duration range = Duration.between(start, to);
+        long bucketCount = (range.toMillis() + granularity.step().toMillis() - 1) / granularity.step().toMillis();
+        int maxBuckets = statsProperties.getTimeSeries().getMaxBuckets();
+        if (bucketCount > maxBuckets) {
+            throw new BadRequestException("Requested range spans " + bucketCount + " " + granularity.name().toLowerCase(Locale.ROOT) +
+                    " buckets, the maximum is " + maxBuckets);
+        }
+
+        Map<LocalDateTime, StoreSalesRollup> rollups = rollupRepository
+                .findByStoreIdAndGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(storeId, granularity, start, to)
+                .stream()
+                .collect(Collectors.toMap(StoreSalesRollup::getBucketStart, Function.identity()));
+
+        List<SalesTimeSeriesResponse.SalesBucketResponse> buckets = new ArrayList<>((int) bucketCount);
+        HyperLogLog rangeCustomers = new HyperLogLog(granularity.sketchPrecision());
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long totalOrders = 0;
+        long totalItemsSold = 0;
+
+        for (LocalDateTime bucketStart = start; bucketStart.isBefore(to); bucketStart = granularity.next(bucketStart)) {
+            StoreSalesRollup rollup = rollups.get(bucketStart);
+            if (rollup == null) {
+                buckets.add(SalesTimeSeriesResponse.SalesBucketResponse.builder()
+                        .bucketStart(bucketStart)
+                        .revenue(BigDecimal.ZERO)
+                        .orders(0L)
+                        .itemsSold(0L)
+                        .uniqueCustomers(0L)
+                        .build());
+                continue;
+            }
+
+            HyperLogLog sketch = sketchOf(rollup);
+            rangeCustomers.merge(sketch);
+            totalRevenue = totalRevenue.add(rollup.getRevenue());
+            totalOrders += rollup.getOrderCount();
+            totalItemsSold += rollup.getItemsSold();
+
+            buckets.add(SalesTimeSeriesResponse.SalesBucketResponse.builder()
+                    .bucketStart(bucketStart)
+                    .revenue(rollup.getRevenue())
+                    .orders(rollup.getOrderCount())
+                    .itemsSold(rollup.getItemsSold())
+                    .uniqueCustomers(sketch.estimate())
+                    .build());
+        }
+
+        return SalesTimeSeriesResponse.builder()
+                .granularity(granularity.name())
+                .from(start)
+                .to(to)
+                .totalRevenue(totalRevenue)
+                .totalOrders(totalOrders)
+                .totalItemsSold(totalItemsSold)
+                .uniqueCustomers(rangeCustomers.estimate())
+                .buckets(buckets)
+                .build();
+    }
+
+    private static HyperLogLog sketchOf(StoreSalesRollup rollup) {
+        return rollup.getCustomerSketch() == null
+                ? new HyperLogLog(rollup.getGranularity().sketchPrecision())
+                : HyperLogLog.fromBytes(rollup.getCustomerSketch());
+    }
+
+    private static RollupGranularity parseGranularity(String granularity) {
+        try {
+            return RollupGranularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported granularity '" + granularity + "', expected HOUR or DAY");
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package uom.eshop.backend.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.cache.DashboardStatsCache;
 import uom.eshop.backend.dto.AddToCartRequest;
 import uom.eshop.backend.dto.CartResponse;
 import uom.eshop.backend.exceptions.InsufficientStockException;
@@ -26,13 +26,11 @@ public class ShoppingCartService {
     private final CartItemRepository cartItemRepository;
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
+    private final DashboardStatsCache dashboardStatsCache;
 
     @Transactional
-    public CartResponse addProductToCart(AddToCartRequest request, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
+    public CartResponse addProductToCart(AddToCartRequest request, Long customerId) {
+        Customer customer = customerRepository.getReferenceById(customerId);
 
         ShoppingCart cart = shoppingCartRepository.findByCustomer(customer)
                 .orElseThrow(() -> new NotFoundException("Shopping cart not found"));
@@ -74,16 +72,14 @@ public class ShoppingCartService {
         cartItemRepository.save(cartItem);
         cart.calculateTotalPrice();
         shoppingCartRepository.save(cart);
+        dashboardStatsCache.markCustomerDirty(customer.getId());
 
         return mapToCartResponse(cart);
     }
 
     @Transactional(readOnly = true)
-    public CartResponse getCart(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
+    public CartResponse getCart(Long customerId) {
+        Customer customer = customerRepository.getReferenceById(customerId);
 
         ShoppingCart cart = shoppingCartRepository.findByCustomer(customer)
                 .orElseThrow(() -> new NotFoundException("Shopping cart not found"));
@@ -92,11 +88,8 @@ public class ShoppingCartService {
     }
 
     @Transactional
-    public CartResponse updateCartItemQuantity(Long productId, Integer quantity, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
+    public CartResponse updateCartItemQuantity(Long productId, Integer quantity, Long customerId) {
+        Customer customer = customerRepository.getReferenceById(customerId);
 
         ShoppingCart cart = shoppingCartRepository.findByCustomer(customer)
                 .orElseThrow(() -> new NotFoundException("Shopping cart not found"));
@@ -118,16 +111,14 @@ public class ShoppingCartService {
 
         cart.calculateTotalPrice();
         shoppingCartRepository.save(cart);
+        dashboardStatsCache.markCustomerDirty(customer.getId());
 
         return mapToCartResponse(cart);
     }
 
     @Transactional
-    public CartResponse removeProductFromCart(Long productId, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Customer customer = customerRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Customer profile not found"));
+    public CartResponse removeProductFromCart(Long productId, Long customerId) {
+        Customer customer = customerRepository.getReferenceById(customerId);
 
         ShoppingCart cart = shoppingCartRepository.findByCustomer(customer)
                 .orElseThrow(() -> new NotFoundException("Shopping cart not found"));
@@ -143,6 +134,7 @@ public class ShoppingCartService {
 
         cart.calculateTotalPrice();
         shoppingCartRepository.save(cart);
+        dashboardStatsCache.markCustomerDirty(customer.getId());
 
         return mapToCartResponse(cart);
     }
@@ -0,0 +1,194 @@
+package uom.eshop.backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+import uom.eshop.backend.dto.StoreResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service that keeps the public store directory (GET /api/stores with the default page size) as pre-serialized pages,
+ * each held both as JSON and gzip-compressed bytes with a strong ETag derived from the content, so a listing is served
+ * without database access or JSON serialization and a revalidation with a matching ETag costs nothing but a header comparison.
+ * Every page also carries the total number of stores, which is part of its ETag, so clients know how many pages to request.
+ * The snapshot is built once the application is ready and rebuilt in the background after a store registers or a product is
+ * added or deleted, once that transaction commits; changes arriving during a rebuild are coalesced into one more rebuild.
+ * A periodic rebuild picks up changes made on other instances. Until the first build the listing is read from the database.
+ */
+@Service
+@Slf4j
+public class StoreDirectoryService implements DisposableBean {
+
+    private static final byte[] EMPTY_LIST = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private final StoreService storeService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+
+    public StoreDirectoryService(StoreService storeService, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.storeService = storeService;
+        this.objectMapper = objectMapper;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "store-directory-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("eshop.stores.directory.bytes", this, service -> service.sizeInBytes())
+                .description("Memory used by the pre-serialized store directory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the pre-serialized page of the directory with the default page size, an empty list past the last store,
+     * or null if the snapshot is not built yet or the page number is negative
+     */
+    public Page getPage(int page) {
+        Snapshot current = snapshot;
+        if (current == null || page < 0) {
+            return null;
+        }
+        return page < current.pages().size() ? current.pages().get(page) : current.pastLastPage();
+    }
+
+    /**
+     * Schedules a rebuild of the snapshot, after the current transaction commits if there is one.
+     */
+    public void markChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Replaces the snapshot with one built from the current stores and product counts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${eshop.stores.directory.rebuild-interval:5m}", initialDelayString = "${eshop.stores.directory.rebuild-interval:5m}")
+    public synchronized void rebuild() {
+        List<StoreResponse> stores = storeService.getAllStores();
+
+        List<Page> rebuilt = new ArrayList<>();
+        for (int from = 0; from < stores.size(); from += StoreService.DEFAULT_PAGE_SIZE) {
+            List<StoreResponse> page = stores.subList(from, Math.min(from + StoreService.DEFAULT_PAGE_SIZE, stores.size()));
+            rebuilt.add(Page.of(objectMapper.writeValueAsBytes(page), stores.size()));
+        }
+        snapshot = new Snapshot(List.copyOf(rebuilt), Page.of(EMPTY_LIST, stores.size()));
+
+        log.debug("Rebuilt the store directory with {} stores in {} pages", stores.size(), rebuilt.size());
+    }
+
+    @Override
+    public void destroy() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        // The flag is cleared before the rebuild reads the stores, so a change committed while it runs schedules another one
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to rebuild the store directory, serving the previous snapshot", e);
+                }
+            });
+        }
+    }
+
+    private long sizeInBytes() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.pages().stream().mapToLong(page -> page.json().length + page.gzip().length).sum();
+    }
+
+    /**
+     * The pages of one build, replaced together, and the empty page served past the last store.
+     */
+    private record Snapshot(List<Page> pages, Page pastLastPage) {
+    }
+
+    /**
+     * One page of the directory: the JSON body, the same body gzip-compressed, the strong ETag of each encoding,
+     * and the total number of stores in the directory. The two encodings are different byte sequences, so they carry different strong ETags.
+     */
+    public record Page(byte[] json, byte[] gzip, String etag, String gzipEtag, long totalStores) {
+
+        static Page of(byte[] json, long totalStores) {
+            String hash = HexFormat.of().formatHex(Arrays.copyOf(sha256(json, totalStores), 16));
+            return new Page(json, gzip(json), "\"" + hash + "\"", "\"" + hash + "-gzip\"", totalStores);
+        }
+
+        /**
+         * @return whether the If-None-Match header lists the ETag of either encoding, or is "*"; weak tags match by their opaque part
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static byte[] sha256(byte[] json, long totalStores) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(json);
+                return digest.digest(Long.toString(totalStores).getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 32);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -3,104 +3,192 @@ package uom.eshop.backend.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.cache.CachedValue;
+import uom.eshop.backend.cache.DashboardStatsCache;
+import uom.eshop.backend.concurrent.ParallelQueryRunner;
 import uom.eshop.backend.dto.OrderResponse;
+import uom.eshop.backend.dto.SalesTimeSeriesResponse;
+import uom.eshop.backend.dto.StoreResponse;
 import uom.eshop.backend.dto.StoreStatsResponse;
+import uom.eshop.backend.dto.TopProductResponse;
+import uom.eshop.backend.exceptions.BadRequestException;
 import uom.eshop.backend.exceptions.NotFoundException;
-import uom.eshop.backend.model.Order;
-import uom.eshop.backend.model.OrderStatus;
+import uom.eshop.backend.model.Product;
 import uom.eshop.backend.model.Store;
-import uom.eshop.backend.model.User;
+import uom.eshop.backend.model.StoreStats;
 import uom.eshop.backend.repository.OrderRepository;
 import uom.eshop.backend.repository.ProductRepository;
 import uom.eshop.backend.repository.StoreRepository;
+import uom.eshop.backend.repository.projection.StoreSummaryView;
+import uom.eshop.backend.sketch.SpaceSaving;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service responsible for handling store-related business logic.
- * It provides methods to retrieve store statistics and recent orders.
+ * It provides methods to list stores and retrieve store statistics and recent orders.
  * The service ensures that only authenticated store owners can access their store data.
  */
 @Service
 @RequiredArgsConstructor
 public class StoreService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final StoreRepository storeRepository;
-    private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final ProductRepository productRepository;
+    private final StoreStatsService storeStatsService;
+    private final SalesRollupService salesRollupService;
+    private final ParallelQueryRunner parallelQueryRunner;
+    private final DashboardStatsCache dashboardStatsCache;
+
+    /**
+     * Returns one page of the store listing, ordered by id. Product counts come from the same grouped query,
+     * so listing the stores takes a single statement and loads no products.
+     */
+    @Transactional(readOnly = true)
+    public List<StoreResponse> getStores(int page, int size) {
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        return storeRepository.findSummaries(PageRequest.of(page, size)).stream()
+                .map(this::mapToStoreResponse)
+                .collect(Collectors.toList());
+    }
 
     @Transactional(readOnly = true)
-    public StoreStatsResponse getStoreStats(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        
-        Store store = storeRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Store profile not found"));
-
-        // Get product statistics
-        Long totalProducts = productRepository.countByStore(store);
-        Long productsInStock = productRepository.countByStoreAndStockQuantityGreaterThan(store, 0);
-        Long productsOutOfStock = productRepository.countByStoreAndStockQuantity(store, 0);
-
-        // Get order statistics
-        Long totalOrders = orderRepository.countByStore(store);
-        Long totalOrdersCompleted = orderRepository.countByStoreAndStatus(store, OrderStatus.COMPLETED);
-        Long uniqueCustomers = orderRepository.countDistinctCustomersByStore(store);
-        BigDecimal totalRevenue = orderRepository.sumTotalPriceByStore(store);
-        Long totalItemsSold = orderRepository.sumItemQuantitiesByStore(store);
+    public long countStores() {
+        return storeRepository.count();
+    }
+
+    /**
+     * Returns every store, ordered by id, in a single statement; used to build the pre-serialized store directory.
+     */
+    @Transactional(readOnly = true)
+    public List<StoreResponse> getAllStores() {
+        return storeRepository.findSummaries(Pageable.unpaged()).stream()
+                .map(this::mapToStoreResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public StoreResponse getStore(Long id) {
+        return storeRepository.findSummaryById(id)
+                .map(this::mapToStoreResponse)
+                .orElseThrow(() -> new NotFoundException("Store not found"));
+    }
+
+    /**
+     * Returns the store's dashboard statistics through the stats cache, so concurrent dashboards share one computation.
+     * Not transactional on purpose: the queries run concurrently in their own read-only transactions,
+     * and the requesting thread should not hold a connection of its own while it waits for them.
+     */
+    public CachedValue<StoreStatsResponse> getStoreStats(Long storeId, boolean exact) {
+        // An exact count is an explicit request for current numbers, so it bypasses the cache
+        if (exact) {
+            return CachedValue.bypass(computeStoreStats(storeId, true));
+        }
+        return dashboardStatsCache.getStoreStats(storeId, () -> computeStoreStats(storeId, false));
+    }
+
+    private StoreStatsResponse computeStoreStats(Long storeId, boolean exact) {
+        // Counters are maintained by checkout and product changes, so this is a single row lookup;
+        // the exact COUNT(DISTINCT) is independent of it and runs alongside on a second connection
+        ParallelQueryRunner.Branch<StoreStats> counters = parallelQueryRunner.submit("store-counters",
+                () -> storeStatsService.getStats(storeId));
+        ParallelQueryRunner.Branch<Long> exactCustomers = exact
+                ? parallelQueryRunner.submit("store-unique-customers", () -> orderRepository.countDistinctCustomersByStoreId(storeId))
+                : null;
+
+        StoreStats stats = counters.join().orElse(null);
+        // Unique customers come from the HyperLogLog sketch unless the caller asks for an exact count, which falls back to the sketch if it does not finish
+        Long uniqueCustomers = exactCustomers != null ? exactCustomers.join().orElse(null) : null;
+        boolean exactMissing = exactCustomers != null && uniqueCustomers == null;
+        if (uniqueCustomers == null && stats != null) {
+            uniqueCustomers = storeStatsService.estimateUniqueCustomers(stats);
+        }
+
+        if (stats == null) {
+            return StoreStatsResponse.builder()
+                    .uniqueCustomers(uniqueCustomers)
+                    .partial(true)
+                    .build();
+        }
 
         return StoreStatsResponse.builder()
-                .totalProducts(totalProducts)
-                .productsInStock(productsInStock)
-                .productsOutOfStock(productsOutOfStock)
-                .totalOrders(totalOrders)
-                .totalOrdersCompleted(totalOrdersCompleted)
+                .totalProducts(stats.getProductsInStock() + stats.getProductsOutOfStock())
+                .productsInStock(stats.getProductsInStock())
+                .productsOutOfStock(stats.getProductsOutOfStock())
+                .totalOrders(stats.getTotalOrders())
+                .totalOrdersCompleted(stats.getTotalOrdersCompleted())
                 .uniqueCustomers(uniqueCustomers)
-                .totalRevenue(totalRevenue)
-                .totalItemsSold(totalItemsSold)
+                .totalRevenue(stats.getTotalRevenue())
+                .totalItemsSold(stats.getTotalItemsSold())
+                .partial(exactMissing)
                 .build();
     }
 
     @Transactional(readOnly = true)
-    public List<OrderResponse> getRecentStoreOrders(Authentication authentication, int limit) {
-        User user = (User) authentication.getPrincipal();
-        
-        Store store = storeRepository.findByUser(user)
-                .orElseThrow(() -> new NotFoundException("Store profile not found"));
-
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Order> orders = orderRepository.findByStoreOrderByOrderDateDesc(store, pageable);
-        
-        return orders.stream()
-                .map(this::mapToOrderResponse)
-                .collect(Collectors.toList());
+    public SalesTimeSeriesResponse getSalesTimeSeries(Long storeId, LocalDateTime from, LocalDateTime to, String granularity) {
+        return salesRollupService.getTimeSeries(storeId, from, to, granularity);
     }
 
-    private OrderResponse mapToOrderResponse(Order order) {
-        return OrderResponse.builder()
-                .orderId(order.getId())
-                .customerId(order.getCustomer().getId())
-                .customerName(order.getCustomer().getFirstName() + " " + order.getCustomer().getLastName())
-                .storeId(order.getStore().getId())
-                .storeName(order.getStore().getName())
-                .totalPrice(order.getTotalPrice())
-                .orderDate(order.getOrderDate())
-                .status(order.getStatus().name())
-                .items(order.getItems().stream()
-                        .map(orderItem -> OrderResponse.OrderItemResponse.builder()
-                                .orderItemId(orderItem.getId())
-                                .productId(orderItem.getProduct().getId())
-                                .productTitle(orderItem.getProduct().getTitle())
-                                .productBrand(orderItem.getProduct().getBrand())
-                                .quantity(orderItem.getQuantity())
-                                .priceAtPurchase(orderItem.getPriceAtPurchase())
-                                .subtotal(orderItem.getSubtotal())
-                                .build())
+    @Transactional(readOnly = true)
+    public List<TopProductResponse> getTopProducts(Long storeId, int limit, boolean exact) {
+        if (limit < 1 || limit > SpaceSaving.DEFAULT_CAPACITY) {
+            throw new BadRequestException("Limit must be between 1 and " + SpaceSaving.DEFAULT_CAPACITY);
+        }
+
+        // Best sellers come from the sketch maintained at checkout unless the caller asks for the exact GROUP BY
+        List<SpaceSaving.Entry> entries = exact
+                ? orderRepository.findTopSellingProductsByStoreId(storeId, PageRequest.of(0, limit)).stream()
+                        .map(sales -> new SpaceSaving.Entry(sales.getProductId(), sales.getQuantitySold(), 0, true))
+                        .collect(Collectors.toList())
+                : storeStatsService.estimateTopProducts(storeStatsService.getStats(storeId), limit);
+
+        Map<Long, Product> productsById = productRepository.findAllById(entries.stream()
+                        .map(SpaceSaving.Entry::item)
                         .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Products deleted since they were sold are left out
+        return entries.stream()
+                .filter(entry -> productsById.containsKey(entry.item()))
+                .map(entry -> TopProductResponse.builder()
+                        .productId(entry.item())
+                        .title(productsById.get(entry.item()).getTitle())
+                        .brand(productsById.get(entry.item()).getBrand())
+                        .quantitySold(entry.count())
+                        .maxOverestimate(entry.error())
+                        .guaranteed(entry.guaranteed())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    public List<OrderResponse> getRecentStoreOrders(Long storeId, int limit) {
+        return orderService.getRecentStoreOrders(storeId, limit);
+    }
+
+    private StoreResponse mapToStoreResponse(StoreSummaryView summary) {
+        return StoreResponse.builder()
+                .id(summary.getId())
+                .name(summary.getName())
+                .owner(summary.getOwner())
+                .productCount(summary.getProductCount().intValue())
                 .build();
     }
-}
\ No newline at end of file
+}
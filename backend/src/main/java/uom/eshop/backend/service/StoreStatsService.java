@@ -0,0 +1,166 @@
+package uom.eshop.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.model.OrderStatus;
+import uom.eshop.backend.model.StoreStats;
+import uom.eshop.backend.repository.OrderRepository;
+import uom.eshop.backend.repository.ProductRepository;
+import uom.eshop.backend.repository.StoreStatsRepository;
+import uom.eshop.backend.repository.projection.ProductSalesView;
+import uom.eshop.backend.repository.projection.StoreOrderStatsView;
+import uom.eshop.backend.repository.projection.StoreProductStatsView;
+import uom.eshop.backend.sketch.HyperLogLog;
+import uom.eshop.backend.sketch.SpaceSaving;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service responsible for maintaining the materialized per-store dashboard counters.
+ * Checkout and product mutations call it inside their own transaction with the change they made, and the counters are adjusted by increments.
+ * A store whose row does not exist yet (e.g. created before the counters were introduced) gets it rebuilt from the source tables on its first write.
+ * If a concurrent write creates the row first, the rebuilt row is dropped and the change is applied as an increment after all.
+ */
+@Service
+@RequiredArgsConstructor
+public class StoreStatsService {
+
+    private final StoreStatsRepository storeStatsRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+
+    @Transactional
+    public void initialize(Long storeId) {
+        storeStatsRepository.save(StoreStats.builder()
+                .storeId(storeId)
+                .build());
+    }
+
+    /**
+     * Adds a newly placed order to the store counters, the customer to the store's unique-customer sketch
+     * and the quantities sold to the store's top-products sketch.
+     *
+     * @param quantitiesByProduct quantity ordered per product id
+     * @param soldOut number of the order's products whose stock dropped to zero
+     */
+    @Transactional
+    public void recordOrder(Long storeId, Long customerId, OrderStatus status, BigDecimal revenue,
+                            Map<Long, Long> quantitiesByProduct, long soldOut) {
+        long itemsSold = quantitiesByProduct.values().stream().mapToLong(Long::longValue).sum();
+        long completed = status == OrderStatus.COMPLETED ? 1 : 0;
+        int updated = storeStatsRepository.incrementOrder(storeId, completed, revenue, itemsSold, soldOut);
+        if (updated == 0) {
+            if (rebuild(storeId)) {
+                // The rebuilt row already counts this order
+                return;
+            }
+            storeStatsRepository.incrementOrder(storeId, completed, revenue, itemsSold, soldOut);
+        }
+
+        // The increment above holds the row lock, so reading and writing back the sketch cannot lose a concurrent update.
+        // Repeat customers usually leave every register unchanged, in which case nothing is written.
+        HyperLogLog sketch = HyperLogLog.fromBytes(storeStatsRepository.findCustomerSketch(storeId));
+        if (sketch.add(customerId)) {
+            storeStatsRepository.updateCustomerSketch(storeId, sketch.toBytes());
+        }
+
+        SpaceSaving topProducts = SpaceSaving.fromBytes(storeStatsRepository.findTopProductsSketch(storeId));
+        quantitiesByProduct.forEach(topProducts::add);
+        storeStatsRepository.updateTopProductsSketch(storeId, topProducts.toBytes());
+    }
+
+    /**
+     * Moves a product between the in-stock and out-of-stock counters.
+     * A null previous stock means the product was just created, a null new stock means it was deleted.
+     */
+    @Transactional
+    public void recordStockChange(Long storeId, Integer previousStock, Integer newStock) {
+        long inStockDelta = inStock(newStock) - inStock(previousStock);
+        long outOfStockDelta = outOfStock(newStock) - outOfStock(previousStock);
+        if (inStockDelta == 0 && outOfStockDelta == 0) {
+            return;
+        }
+
+        int updated = storeStatsRepository.incrementProducts(storeId, inStockDelta, outOfStockDelta);
+        if (updated == 0 && !rebuild(storeId)) {
+            storeStatsRepository.incrementProducts(storeId, inStockDelta, outOfStockDelta);
+        }
+    }
+
+    /**
+     * Returns the materialized counters of a store, computing them from the source tables if the row has not been created yet.
+     */
+    @Transactional(readOnly = true)
+    public StoreStats getStats(Long storeId) {
+        return storeStatsRepository.findById(storeId)
+                .orElseGet(() -> computeFromSource(storeId));
+    }
+
+    /**
+     * Recomputes the counters of a store from the products and orders tables.
+     * Pending changes of the current transaction are flushed first, so they are included in the result.
+     */
+    @Transactional(readOnly = true)
+    public StoreStats computeFromSource(Long storeId) {
+        StoreProductStatsView productStats = productRepository.aggregateStatsByStoreId(storeId);
+        StoreOrderStatsView orderStats = orderRepository.aggregateStatsByStoreId(storeId, OrderStatus.COMPLETED);
+
+        HyperLogLog customerSketch = new HyperLogLog();
+        orderRepository.findDistinctCustomerIdsByStoreId(storeId).forEach(customerSketch::add);
+
+        // The exact best sellers reset any overestimation accumulated by evictions since the last rebuild
+        Map<Long, Long> topSellers = orderRepository.findTopSellingProductsByStoreId(storeId, PageRequest.of(0, SpaceSaving.DEFAULT_CAPACITY))
+                .stream()
+                .collect(Collectors.toMap(ProductSalesView::getProductId, ProductSalesView::getQuantitySold));
+        SpaceSaving topProducts = SpaceSaving.ofExact(SpaceSaving.DEFAULT_CAPACITY, topSellers, orderStats.getTotalItemsSold());
+
+        return StoreStats.builder()
+                .storeId(storeId)
+                .totalOrders(orderStats.getTotalOrders())
+                .totalOrdersCompleted(orderStats.getTotalOrdersCompleted())
+                .totalRevenue(orderStats.getTotalRevenue())
+                .totalItemsSold(orderStats.getTotalItemsSold())
+                .productsInStock(productStats.getProductsInStock())
+                .productsOutOfStock(productStats.getProductsOutOfStock())
+                .customerSketch(customerSketch.toBytes())
+                .topProductsSketch(topProducts.toBytes())
+                .build();
+    }
+
+    /**
+     * Estimates the number of distinct customers who ordered from the store from its HyperLogLog sketch.
+     */
+    public long estimateUniqueCustomers(StoreStats stats) {
+        return HyperLogLog.fromBytes(stats.getCustomerSketch()).estimate();
+    }
+
+    /**
+     * Returns the store's best sellers tracked by its Space-Saving sketch, heaviest first.
+     */
+    public List<SpaceSaving.Entry> estimateTopProducts(StoreStats stats, int limit) {
+        return SpaceSaving.fromBytes(stats.getTopProductsSketch()).top(limit);
+    }
+
+    /**
+     * Creates the missing row of a store from the source tables, which include the caller's pending change.
+     *
+     * @return false if a concurrent transaction created the row first; it could not see the caller's change,
+     *         which therefore still has to be applied as an increment
+     */
+    private boolean rebuild(Long storeId) {
+        return storeStatsRepository.insertIfAbsent(computeFromSource(storeId)) == 1;
+    }
+
+    private static long inStock(Integer stock) {
+        return stock != null && stock > 0 ? 1 : 0;
+    }
+
+    private static long outOfStock(Integer stock) {
+        return stock != null && stock == 0 ? 1 : 0;
+    }
+}
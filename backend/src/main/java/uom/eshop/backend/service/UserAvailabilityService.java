@@ -0,0 +1,143 @@
+package uom.eshop.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uom.eshop.backend.config.AvailabilityProperties;
+import uom.eshop.backend.repository.UserRepository;
+import uom.eshop.backend.repository.projection.UserIdentityView;
+import uom.eshop.backend.sketch.BloomFilter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Service that tells whether a username or email is still free, for sign-up forms that check them as the user types.
+ * Taken usernames and emails are mirrored in an in-memory Bloom filter, so a value that was never registered (what a user
+ * typing a new name mostly sends) is answered without database access; only a filter hit, i.e. a taken value or a rare
+ * false positive, is confirmed with an index lookup.
+ * The filter is built by streaming the users table once the application is ready, and again periodically, which resizes it and
+ * picks up users registered on other instances; users registered here are added as they commit. Until the first build every value
+ * is looked up. The answer is advisory: registration itself is guarded by the unique constraints.
+ */
+@Service
+@Slf4j
+public class UserAvailabilityService {
+
+    private static final String USERNAME_PREFIX = "username:";
+    private static final String EMAIL_PREFIX = "email:";
+
+    private final UserRepository userRepository;
+    private final long expectedUsers;
+    private final double falsePositiveProbability;
+    private final Counter filteredCounter;
+    private final Counter takenCounter;
+    private final Counter falsePositiveCounter;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile boolean ready;
+
+    public UserAvailabilityService(UserRepository userRepository, AvailabilityProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.expectedUsers = properties.getExpectedUsers();
+        this.falsePositiveProbability = properties.getFalsePositiveProbability();
+        // Usernames and emails share one filter, so it holds two values per user
+        this.filter = BloomFilter.create(2 * expectedUsers, falsePositiveProbability);
+
+        this.filteredCounter = meterRegistry.counter("eshop.users.availability.lookups", "result", "filtered");
+        this.takenCounter = meterRegistry.counter("eshop.users.availability.lookups", "result", "taken");
+        this.falsePositiveCounter = meterRegistry.counter("eshop.users.availability.lookups", "result", "false_positive");
+        Gauge.builder("eshop.users.availability.filter.bytes", this, service -> service.filter.sizeInBytes())
+                .description("Memory used by the Bloom filter of taken usernames and emails")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        return isAvailable(USERNAME_PREFIX + username, () -> userRepository.existsByUsername(username));
+    }
+
+    public boolean isEmailAvailable(String email) {
+        return isAvailable(EMAIL_PREFIX + email, () -> userRepository.existsByEmail(email));
+    }
+
+    /**
+     * Marks the username and email of a newly registered user as taken, once the registration is committed.
+     */
+    public void registered(String username, String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(username, email);
+                }
+            });
+        } else {
+            add(username, email);
+        }
+    }
+
+    /**
+     * Replaces the filter with one built from the users table, sized for at least twice the current number of users.
+     * Users registered while the table is being read are added to both filters, so none is lost in the swap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${eshop.availability.rebuild-interval:1h}", initialDelayString = "${eshop.availability.rebuild-interval:1h}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long users = userRepository.count();
+        BloomFilter rebuilt = BloomFilter.create(2 * Math.max(expectedUsers, 2 * users), falsePositiveProbability);
+        building = rebuilt;
+
+        AtomicLong loaded = new AtomicLong();
+        try (Stream<UserIdentityView> identities = userRepository.streamIdentities()) {
+            identities.forEach(identity -> {
+                rebuilt.add(USERNAME_PREFIX + identity.getUsername());
+                rebuilt.add(EMAIL_PREFIX + identity.getEmail());
+                loaded.incrementAndGet();
+            });
+            filter = rebuilt;
+            ready = true;
+        } finally {
+            building = null;
+        }
+
+        log.info("Rebuilt the taken username and email filter with {} users ({} KiB)", loaded.get(), rebuilt.sizeInBytes() / 1024);
+    }
+
+    private boolean isAvailable(String key, BooleanSupplier exists) {
+        if (ready && !filter.mightContain(key)) {
+            filteredCounter.increment();
+            return true;
+        }
+        boolean taken = exists.getAsBoolean();
+        (taken ? takenCounter : falsePositiveCounter).increment();
+        return !taken;
+    }
+
+    /**
+     * Reads the filter being built before the current one: the new filter is published before it stops being the one being built,
+     * so the value always ends up in the filter that is current after a rebuild.
+     */
+    private void add(String username, String email) {
+        BloomFilter next = building;
+        if (next != null) {
+            next.add(USERNAME_PREFIX + username);
+            next.add(EMAIL_PREFIX + email);
+        }
+
+        BloomFilter current = filter;
+        current.add(USERNAME_PREFIX + username);
+        current.add(EMAIL_PREFIX + email);
+    }
+}
@@ -1,12 +1,16 @@
 package uom.eshop.backend.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uom.eshop.backend.cache.UserDetailsCache;
 import uom.eshop.backend.dto.RegisterRequest;
 import uom.eshop.backend.exceptions.BadRequestException;
 import uom.eshop.backend.exceptions.ConflictException;
@@ -14,50 +18,67 @@ import uom.eshop.backend.model.*;
 import uom.eshop.backend.repository.*;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 
 /**
  * Service responsible for handling user-related business logic.
  * It provides methods for user registration and loading user details for authentication.
  * The service ensures that all necessary validations are performed during registration, including uniqueness of username, email, and tax ID.
+ * Uniqueness is enforced by the database: registration inserts the rows straight away and translates a violated unique constraint
+ * into a ConflictException, instead of querying for each value first, which took extra round trips and still raced with concurrent registrations.
  * It also creates the appropriate profile (customer or store) based on the user's role and initializes a shopping cart for customers.
+ * As a UserDetailsPasswordService it stores the rehashed password when a login finds a hash made with outdated encoder settings.
  */
 @Service
 @RequiredArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     private final CustomerRepository customerRepository;
     private final StoreRepository storeRepository;
     private final ShoppingCartRepository shoppingCartRepository;
+    private final RegisteredTaxIdRepository registeredTaxIdRepository;
+    private final StoreStatsService storeStatsService;
+    private final CustomerStatsService customerStatsService;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final UserAvailabilityService userAvailabilityService;
+    private final StoreDirectoryService storeDirectoryService;
 
+    /**
+     * Not transactional on purpose: a cache hit should not acquire a connection, and a miss runs in the repository's own transaction.
+     */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        User user = userDetailsCache.get(username, userRepository::findByUsername);
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        return user;
     }
 
+    /**
+     * Called by DaoAuthenticationProvider after a successful login whose stored hash needs upgrading, with the password already rehashed.
+     * The cached record is shared between requests, so a copy carrying the new hash is returned instead of modifying it.
+     */
+    @Override
     @Transactional
-    public User registerUser(RegisterRequest request) {
-        // Validate basic fields
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new ConflictException("Username already exists");
-        }
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new ConflictException("Email already exists");
-        }
-
-        // Validate tax ID uniqueness across both customers and stores
-        if (request.getTaxId() != null && !request.getTaxId().isBlank()) {
-            if (customerRepository.existsByTaxId(request.getTaxId())) {
-                throw new ConflictException("Tax ID already exists");
-            }
-            if (storeRepository.existsByTaxId(request.getTaxId())) {
-                throw new ConflictException("Tax ID already exists");
-            }
-        }
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User current = (User) user;
+        userRepository.updatePassword(current.getId(), newPassword);
+        userDetailsCache.evict(current.getUsername());
+        return User.builder()
+                .id(current.getId())
+                .username(current.getUsername())
+                .email(current.getEmail())
+                .password(newPassword)
+                .role(current.getRole())
+                .tokenVersion(current.getTokenVersion())
+                .build();
+    }
 
+    @Transactional
+    public User registerUser(RegisterRequest request) {
         // Validate role-specific required fields
         switch (request.getRole()) {
             case CUSTOMER:
@@ -76,21 +97,59 @@ public class UserService implements UserDetailsService {
                 .role(request.getRole())
                 .build();
 
-        user = userRepository.save(user);
-
-        // Create role-specific entity
-        switch (request.getRole()) {
-            case CUSTOMER:
-                createCustomerProfile(user, request);
-                break;
-            case STORE:
-                createStoreProfile(user, request);
-                break;
+        try {
+            user = userRepository.save(user);
+
+            // The tax ID row makes the tax ID unique across both customers and stores
+            registeredTaxIdRepository.save(RegisteredTaxId.builder()
+                    .taxId(request.getTaxId())
+                    .role(request.getRole())
+                    .build());
+
+            // Create role-specific entity
+            switch (request.getRole()) {
+                case CUSTOMER:
+                    createCustomerProfile(user, request);
+                    break;
+                case STORE:
+                    createStoreProfile(user, request);
+                    break;
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(e, request);
         }
 
+        userAvailabilityService.registered(user.getUsername(), user.getEmail());
+
         return user;
     }
 
+    /**
+     * Translates a violated unique constraint into the matching ConflictException; other integrity violations are rethrown.
+     * Rows are inserted as soon as they are saved (identity ids), so the violation surfaces at the save that caused it.
+     */
+    private RuntimeException toConflict(DataIntegrityViolationException e, RegisterRequest request) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : e.getMostSpecificCause().getMessage();
+        constraint = constraint == null ? "" : constraint.toLowerCase(Locale.ROOT);
+
+        if (constraint.contains(User.USERNAME_CONSTRAINT)) {
+            // The existing record is reloaded on the next login, in case the cached copy predates a change made elsewhere
+            userDetailsCache.evict(request.getUsername());
+            return new ConflictException("Username already exists");
+        }
+        if (constraint.contains(User.EMAIL_CONSTRAINT)) {
+            return new ConflictException("Email already exists");
+        }
+        if (constraint.contains(RegisteredTaxId.TAX_ID_CONSTRAINT)
+                || constraint.contains(Customer.TAX_ID_CONSTRAINT)
+                || constraint.contains(Store.TAX_ID_CONSTRAINT)) {
+            return new ConflictException("Tax ID already exists");
+        }
+        return e;
+    }
+
     private void validateCustomerFields(RegisterRequest request) {
         if (request.getTaxId() == null || request.getTaxId().isBlank()) {
             throw new BadRequestException("Tax ID is required for customer registration");
@@ -132,6 +191,7 @@ public class UserService implements UserDetailsService {
                 .build();
 
         shoppingCartRepository.save(cart);
+        customerStatsService.initialize(customer.getId());
     }
 
     private void createStoreProfile(User user, RegisterRequest request) {
@@ -142,6 +202,8 @@ public class UserService implements UserDetailsService {
                 .user(user)
                 .build();
 
-        storeRepository.save(store);
+        store = storeRepository.save(store);
+        storeStatsService.initialize(store.getId());
+        storeDirectoryService.markChanged();
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package uom.eshop.backend.sketch;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct long values added to it.
+ * Each value is hashed to 64 bits; the top {@code precision} bits pick one of 2^precision registers,
+ * and the register keeps the longest run of leading zeros seen in the remaining bits.
+ * The relative standard error is about 1.04 / sqrt(2^precision), independent of the number of values,
+ * and two sketches with the same precision can be merged by taking the register-wise maximum.
+ * Instances are not thread-safe; callers are expected to hold a lock (e.g. a row lock) while updating a shared sketch.
+ */
+public final class HyperLogLog {
+
+    /**
+     * 2048 one-byte registers: 2049 bytes serialized, about 2.3% standard error.
+     */
+    public static final int DEFAULT_PRECISION = 11;
+
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Restores a sketch serialized by {@link #toBytes()}; a null or empty array yields an empty sketch with the default precision.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new HyperLogLog();
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[0]);
+        if (bytes.length != sketch.registers.length + 1) {
+            throw new IllegalArgumentException("Expected " + (sketch.registers.length + 1) + " bytes for precision " + bytes[0] + ", got " + bytes.length);
+        }
+        System.arraycopy(bytes, 1, sketch.registers, 0, sketch.registers.length);
+        return sketch;
+    }
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @return whether a register changed, i.e. whether the serialized form needs to be written back
+     */
+    public boolean add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        // The sentinel bit caps the rank at 64 - precision + 1 when the remaining bits are all zero
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    public long estimate() {
+        double m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = alpha(registers.length) * m * m / sum;
+        // Small cardinalities leave many registers empty; linear counting is far more accurate there
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log(m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with precision " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Serializes the sketch as one precision byte followed by one byte per register.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public int sizeInBytes() {
+        return registers.length + 1;
+    }
+
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreading sequential ids over the whole 64-bit range.
+     */
+    private static long mix(long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53a87c3L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,241 @@
+package uom.eshop.backend.sketch;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed bitmap of non-negative long values, organised in the same way as a Roaring bitmap.
+ * Values are split into a high part (value >>> 16) that selects a container and a 16-bit low part stored in it.
+ * Sparse containers keep their low parts in a sorted char array, dense ones (more than 4096 values) switch to a fixed 8KB bitset,
+ * so memory stays proportional to the number of values rather than to the largest value.
+ * Instances are not thread-safe; callers that share a bitmap between threads should publish copies instead of mutating it.
+ */
+public final class RoaringBitmap {
+
+    private static final int ARRAY_CONTAINER_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private long[] keys = new long[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    public static RoaringBitmap of(Collection<Long> values) {
+        // Sorting first turns every insert into an append, avoiding array shifts inside containers
+        long[] sorted = values.stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (long value : sorted) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public boolean add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Only non-negative values can be stored: " + value);
+        }
+        long key = value >>> 16;
+        char low = (char) value;
+
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+
+        Container container = containers[index];
+        if (container.contains(low)) {
+            return false;
+        }
+        containers[index] = container.add(low);
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            long high = keys[i] << 16;
+            containers[i].forEach(low -> consumer.accept(high | low));
+        }
+    }
+
+    /**
+     * Approximate heap footprint of the bitmap contents, used to report the memory held by caches.
+     */
+    public long sizeInBytes() {
+        long bytes = 16L + keys.length * 8L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    public RoaringBitmap copy() {
+        RoaringBitmap copy = new RoaringBitmap();
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.containers = new Container[size];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    private void insertContainer(int index, long key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private interface Container {
+
+        boolean contains(char low);
+
+        /**
+         * Adds a value that is known to be absent and returns the container that now holds it,
+         * which may be a different representation once the array form grows past its limit.
+         */
+        Container add(char low);
+
+        int cardinality();
+
+        void forEach(LongConsumer consumer);
+
+        long sizeInBytes();
+
+        Container copy();
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            if (cardinality == ARRAY_CONTAINER_MAX) {
+                BitmapContainer bitmap = new BitmapContainer();
+                for (int i = 0; i < cardinality; i++) {
+                    bitmap.add(values[i]);
+                }
+                return bitmap.add(low);
+            }
+            int index = -Arrays.binarySearch(values, 0, cardinality, low) - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_CONTAINER_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(LongConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(values[i]);
+            }
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 24L + values.length * 2L;
+        }
+
+        @Override
+        public Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, Math.max(4, cardinality));
+            copy.cardinality = cardinality;
+            return copy;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+
+        private long[] words = new long[BITMAP_WORDS];
+        private int cardinality;
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            words[low >>> 6] |= 1L << low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(LongConsumer consumer) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 24L + words.length * 8L;
+        }
+
+        @Override
+        public Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            copy.words = words.clone();
+            copy.cardinality = cardinality;
+            return copy;
+        }
+    }
+}
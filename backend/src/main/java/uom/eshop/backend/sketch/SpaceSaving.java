@@ -0,0 +1,201 @@
+package uom.eshop.backend.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving sketch tracking the heaviest long items of a weighted stream with a fixed number of counters.
+ * An item that is already monitored has its counter increased; otherwise it takes over the counter with the smallest count,
+ * inheriting that count as its overestimation error. Every item whose true weight exceeds total / capacity is guaranteed to be monitored,
+ * and each monitored count overestimates the true weight by at most its recorded error.
+ * Instances are not thread-safe; callers are expected to hold a lock (e.g. a row lock) while updating a shared sketch.
+ */
+public final class SpaceSaving {
+
+    /**
+     * 64 counters: at most 1548 bytes serialized, enough headroom to answer top-10 queries for typical catalog skew.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final int MAX_CAPACITY = 4096;
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int ENTRY_BYTES = 3 * Long.BYTES;
+
+    private final int capacity;
+    private final long[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<Long, Integer> slots;
+    private int size;
+    private long total;
+
+    public SpaceSaving() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.capacity = capacity;
+        this.items = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Restores a sketch serialized by {@link #toBytes()}; a null or empty array yields an empty sketch with the default capacity.
+     */
+    public static SpaceSaving fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new SpaceSaving();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        SpaceSaving sketch = new SpaceSaving(buffer.getInt());
+        sketch.total = buffer.getLong();
+        int entries = (bytes.length - HEADER_BYTES) / ENTRY_BYTES;
+        if (entries > sketch.capacity || HEADER_BYTES + entries * ENTRY_BYTES != bytes.length) {
+            throw new IllegalArgumentException("Malformed sketch of " + bytes.length + " bytes for capacity " + sketch.capacity);
+        }
+        for (int i = 0; i < entries; i++) {
+            sketch.items[i] = buffer.getLong();
+            sketch.counts[i] = buffer.getLong();
+            sketch.errors[i] = buffer.getLong();
+            sketch.slots.put(sketch.items[i], i);
+        }
+        sketch.size = entries;
+        return sketch;
+    }
+
+    /**
+     * Builds a sketch whose counters hold exact weights, e.g. from a GROUP BY over the source table.
+     * Only the {@code capacity} heaviest items are kept, which preserves the guarantee that every unmonitored item weighs at most the smallest count.
+     *
+     * @param weights exact weight per item
+     * @param total the total weight of the stream, including items not listed
+     */
+    public static SpaceSaving ofExact(int capacity, Map<Long, Long> weights, long total) {
+        SpaceSaving sketch = new SpaceSaving(capacity);
+        weights.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(capacity)
+                .forEach(entry -> {
+                    int slot = sketch.size++;
+                    sketch.items[slot] = entry.getKey();
+                    sketch.counts[slot] = entry.getValue();
+                    sketch.slots.put(entry.getKey(), slot);
+                });
+        sketch.total = total;
+        return sketch;
+    }
+
+    public void add(long item, long weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        total += weight;
+
+        Integer slot = slots.get(item);
+        if (slot != null) {
+            counts[slot] += weight;
+            return;
+        }
+        if (size < capacity) {
+            slot = size++;
+            items[slot] = item;
+            counts[slot] = weight;
+            errors[slot] = 0;
+            slots.put(item, slot);
+            return;
+        }
+
+        // A linear scan for the minimum is cheaper than maintaining a heap for the few dozen counters kept per store
+        int min = 0;
+        for (int i = 1; i < size; i++) {
+            if (counts[i] < counts[min]) {
+                min = i;
+            }
+        }
+        slots.remove(items[min]);
+        items[min] = item;
+        errors[min] = counts[min];
+        counts[min] += weight;
+        slots.put(item, min);
+    }
+
+    /**
+     * Returns up to {@code limit} monitored items with the highest counts, heaviest first.
+     * An entry is flagged as guaranteed when even its lower bound beats every item not returned,
+     * i.e. it belongs to the true top {@code limit} whatever the estimation errors are.
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(items[i], counts[i], errors[i], false));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparingLong(Entry::item));
+
+        int returned = Math.min(limit, entries.size());
+        // Unmonitored items weigh at most the smallest counter once every counter is in use
+        long threshold = size == capacity ? minCount() : 0;
+        if (returned < entries.size()) {
+            threshold = Math.max(threshold, entries.get(returned).count());
+        }
+
+        List<Entry> result = new ArrayList<>(returned);
+        for (int i = 0; i < returned; i++) {
+            Entry entry = entries.get(i);
+            result.add(new Entry(entry.item(), entry.count(), entry.error(), entry.count() - entry.error() >= threshold));
+        }
+        return result;
+    }
+
+    /**
+     * Serializes the sketch as the capacity and total weight followed by one (item, count, error) triple per monitored item.
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + size * ENTRY_BYTES);
+        buffer.putInt(capacity);
+        buffer.putLong(total);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(items[i]);
+            buffer.putLong(counts[i]);
+            buffer.putLong(errors[i]);
+        }
+        return buffer.array();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Upper bound on the overestimation of any counter, total / capacity.
+     */
+    public long maxError() {
+        return total / capacity;
+    }
+
+    private long minCount() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, counts[i]);
+        }
+        return min;
+    }
+
+    /**
+     * A monitored item with its estimated weight; the true weight lies between {@code count - error} and {@code count}.
+     */
+    public record Entry(long item, long count, long error, boolean guaranteed) {
+    }
+}
@@ -0,0 +1,53 @@
+package uom.eshop.backend.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+import uom.eshop.backend.model.Order;
+import uom.eshop.backend.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Specification class for building dynamic queries over order histories.
+ * It provides specifications for the orders of a customer or a store, for filtering them by date range and status,
+ * and for keyset pagination: `after` selects the orders that come after a given one in the (order date, id) descending order.
+ */
+public class OrderSpecification {
+
+    public static Specification<Order> placedBy(Long customerId) {
+        return (root, query, cb) -> cb.equal(root.get("customer").get("id"), customerId);
+    }
+
+    public static Specification<Order> receivedBy(Long storeId) {
+        return (root, query, cb) -> cb.equal(root.get("store").get("id"), storeId);
+    }
+
+    public static Specification<Order> filterOrders(LocalDateTime from, LocalDateTime to, OrderStatus status) {
+        return orderedFrom(from)
+                .and(orderedBefore(to))
+                .and(statusEquals(status));
+    }
+
+    public static Specification<Order> after(LocalDateTime orderDate, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("orderDate"), orderDate),
+                cb.and(cb.equal(root.get("orderDate"), orderDate), cb.lessThan(root.get("id"), id)));
+    }
+
+    private static Specification<Order> orderedFrom(LocalDateTime from) {
+        return (root, query, cb) ->
+                from == null ? null :
+                        cb.greaterThanOrEqualTo(root.get("orderDate"), from);
+    }
+
+    private static Specification<Order> orderedBefore(LocalDateTime to) {
+        return (root, query, cb) ->
+                to == null ? null :
+                        cb.lessThan(root.get("orderDate"), to);
+    }
+
+    private static Specification<Order> statusEquals(OrderStatus status) {
+        return (root, query, cb) ->
+                status == null ? null :
+                        cb.equal(root.get("status"), status);
+    }
+}
@@ -0,0 +1,123 @@
+package uom.eshop.backend.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uom.eshop.backend.config.AvailabilityProperties;
+import uom.eshop.backend.repository.UserRepository;
+import uom.eshop.backend.repository.projection.UserIdentityView;
+import uom.eshop.backend.service.UserAvailabilityService;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures username availability checks as sent while a sign-up form is typed into: mostly names nobody has registered,
+ * with one in takenEvery checks hitting an existing user. database looks every name up in the users index, which is what the
+ * existence queries did, and filtered asks UserAvailabilityService, which answers unregistered names from its Bloom filter.
+ * The roundTripMicros parameter adds a fixed network round trip per database query.
+ * The users live in an in-memory H2 database behind a HikariCP pool, so absolute numbers differ from a real PostgreSQL server.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+
+    private static final int USER_COUNT = 100_000;
+
+    @Param({"0", "200"})
+    private long roundTripMicros;
+
+    @Param({"10"})
+    private int takenEvery;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private UserAvailabilityService availabilityService;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:availability;MODE=PostgreSQL;QUERY_CACHE_SIZE=0;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(4);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(50) NOT NULL UNIQUE, email VARCHAR(100) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("INSERT INTO users SELECT x, 'user' || x, 'user' || x || '@example.com' FROM SYSTEM_RANGE(1, " + USER_COUNT + ")");
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.count()).thenReturn((long) USER_COUNT);
+        when(userRepository.existsByUsername(anyString())).thenAnswer(invocation -> exists(invocation.getArgument(0)));
+        when(userRepository.streamIdentities()).thenAnswer(invocation -> jdbcTemplate.queryForStream("SELECT username, email FROM users",
+                (rs, rowNum) -> identity(rs.getString("username"), rs.getString("email"))));
+
+        AvailabilityProperties properties = new AvailabilityProperties();
+        properties.setExpectedUsers(USER_COUNT);
+        availabilityService = new UserAvailabilityService(userRepository, properties, new SimpleMeterRegistry());
+        availabilityService.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public boolean database() {
+        return !exists(nextUsername());
+    }
+
+    @Benchmark
+    public boolean filtered() {
+        return availabilityService.isUsernameAvailable(nextUsername());
+    }
+
+    private String nextUsername() {
+        long n = next++;
+        return n % takenEvery == 0 ? "user" + (n % USER_COUNT + 1) : "newbie" + n;
+    }
+
+    private boolean exists(String username) {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username = ?", Long.class, username);
+        return count != null && count > 0;
+    }
+
+    private static UserIdentityView identity(String username, String email) {
+        return new UserIdentityView() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AvailabilityBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+package uom.eshop.backend.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import uom.eshop.backend.cache.UserDetailsCache;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.repository.RevokedTokenRepository;
+import uom.eshop.backend.repository.UserRepository;
+import uom.eshop.backend.security.AuthenticatedUser;
+import uom.eshop.backend.security.JwtAuthenticationFilter;
+import uom.eshop.backend.security.JwtTokenProvider;
+import uom.eshop.backend.security.TokenRevocationService;
+import uom.eshop.backend.security.TokenVersionService;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the throughput of JwtAuthenticationFilter for a catalog request sent with a bearer token, as logged-in users browse.
+ * eagerVerification sends the request to a route that still verifies the token up front, which is what every route did before;
+ * deferredVerification sends it to GET /api/products, where the token is only verified if something reads the security context,
+ * and the catalog handler never does. anonymous sends the catalog request without a token, as the upper bound.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogAuthenticationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long-for-HS256";
+
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setExpiration(86_400_000L);
+        jwtProperties.setTokenVersionCacheTtl(Duration.ofHours(1));
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(jwtProperties);
+        token = tokenProvider.generateToken(new AuthenticatedUser(1L, "johndoe", Role.CUSTOMER, 1L, null, 0));
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(anyLong())).thenReturn(Optional.of(0L));
+        TokenVersionService tokenVersionService = new TokenVersionService(userRepository,
+                new UserDetailsCache(jwtProperties, new SimpleMeterRegistry()), jwtProperties);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(mock(RevokedTokenRepository.class),
+                jwtProperties, new SimpleMeterRegistry());
+        tokenRevocationService.rebuild();
+        filter = new JwtAuthenticationFilter(tokenProvider, tokenVersionService, tokenRevocationService,
+                mock(UserDetailsService.class), jwtProperties);
+    }
+
+    @Benchmark
+    public void eagerVerification(Blackhole blackhole) throws Exception {
+        browse("/api/cart", token, blackhole);
+    }
+
+    @Benchmark
+    public void deferredVerification(Blackhole blackhole) throws Exception {
+        browse("/api/products", token, blackhole);
+    }
+
+    @Benchmark
+    public void anonymous(Blackhole blackhole) throws Exception {
+        browse("/api/products", null, blackhole);
+    }
+
+    private void browse(String uri, String bearerToken, Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (bearerToken != null) {
+            request.addHeader("Authorization", "Bearer " + bearerToken);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        blackhole.consume(response);
+        SecurityContextHolder.clearContext();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,128 @@
+package uom.eshop.backend.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uom.eshop.backend.concurrent.ParallelQueryRunner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the customer dashboard aggregates run one after the other in a single read-only transaction
+ * versus fanned out through ParallelQueryRunner, for a customer with 500k orders across 2000 stores.
+ * Besides the latency, the peak number of connections checked out of the pool is printed after each trial,
+ * showing that a fan-out costs one connection per branch but never more than the runner's concurrency bound.
+ * The data lives in an in-memory H2 database behind a HikariCP pool, so absolute numbers differ from a real PostgreSQL server.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DashboardFanOutBenchmark {
+
+    private static final long CUSTOMER_ID = 1L;
+
+    private static final String CART_STATS =
+            "SELECT COALESCE(SUM(ci.quantity), 0), COALESCE(SUM(ci.quantity * p.price), 0) " +
+            "FROM cart_items ci JOIN products p ON p.id = ci.product_id WHERE ci.customer_id = ?";
+
+    private static final String ORDER_STATS =
+            "SELECT COUNT(*), COUNT(*) FILTER (WHERE status = 'COMPLETED'), COALESCE(SUM(total_price), 0), " +
+            "(SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi JOIN orders o2 ON o2.id = oi.order_id WHERE o2.customer_id = ?) " +
+            "FROM orders WHERE customer_id = ?";
+
+    private static final String UNIQUE_STORES = "SELECT COUNT(DISTINCT store_id) FROM orders WHERE customer_id = ?";
+
+    @Param({"500000"})
+    private int orderCount;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private ParallelQueryRunner runner;
+    private final AtomicInteger peakActiveConnections = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:dashboard-fanout;MODE=PostgreSQL;QUERY_CACHE_SIZE=0;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(10);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, price NUMERIC(10, 2) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE cart_items (id BIGINT PRIMARY KEY, customer_id BIGINT NOT NULL, product_id BIGINT NOT NULL, quantity INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT NOT NULL, store_id BIGINT NOT NULL, " +
+                "total_price NUMERIC(12, 2) NOT NULL, status VARCHAR(20) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, quantity INT NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_cart_items_customer_id ON cart_items (customer_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_orders_customer_id ON orders (customer_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+
+        jdbcTemplate.execute("INSERT INTO products SELECT x, MOD(x, 1000) + 0.99 FROM SYSTEM_RANGE(1, 5000)");
+        jdbcTemplate.execute("INSERT INTO cart_items SELECT x, MOD(x, 100) + 1, x, MOD(x, 3) + 1 FROM SYSTEM_RANGE(1, 500)");
+        // One customer owns every order; the stores are spread so the distinct count has real work to do
+        jdbcTemplate.execute("INSERT INTO orders SELECT x, " + CUSTOMER_ID + ", MOD(x, 2000) + 1, MOD(x, 1000) + 0.99, " +
+                "CASE WHEN MOD(x, 20) = 0 THEN 'CANCELLED' ELSE 'COMPLETED' END FROM SYSTEM_RANGE(1, " + orderCount + ")");
+        jdbcTemplate.execute("INSERT INTO order_items SELECT x, x, MOD(x, 3) + 1 FROM SYSTEM_RANGE(1, " + orderCount + ")");
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        runner = new ParallelQueryRunner(transactionManager, 4, 200, Duration.ofSeconds(30), new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println("Peak active connections: " + peakActiveConnections.getAndSet(0) + " of " + dataSource.getMaximumPoolSize());
+        runner.destroy();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void sequentialSingleTransaction(Blackhole blackhole) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            blackhole.consume(query(CART_STATS, CUSTOMER_ID));
+            blackhole.consume(query(ORDER_STATS, CUSTOMER_ID, CUSTOMER_ID));
+            blackhole.consume(query(UNIQUE_STORES, CUSTOMER_ID));
+        });
+    }
+
+    @Benchmark
+    public void parallelFanOut(Blackhole blackhole) {
+        ParallelQueryRunner.Branch<List<Map<String, Object>>> cart = runner.submit("cart", () -> query(CART_STATS, CUSTOMER_ID));
+        ParallelQueryRunner.Branch<List<Map<String, Object>>> orders = runner.submit("orders", () -> query(ORDER_STATS, CUSTOMER_ID, CUSTOMER_ID));
+        ParallelQueryRunner.Branch<List<Map<String, Object>>> stores = runner.submit("stores", () -> query(UNIQUE_STORES, CUSTOMER_ID));
+        blackhole.consume(cart.join());
+        blackhole.consume(orders.join());
+        blackhole.consume(stores.join());
+    }
+
+    private List<Map<String, Object>> query(String sql, Object... args) {
+        peakActiveConnections.accumulateAndGet(dataSource.getHikariPoolMXBean().getActiveConnections(), Math::max);
+        return jdbcTemplate.queryForList(sql, args);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DashboardFanOutBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,167 @@
+package uom.eshop.backend.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uom.eshop.backend.concurrent.ParallelQueryRunner;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.security.AuthenticatedUser;
+import uom.eshop.backend.security.JwtTokenProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Compares the store dashboard loaded the way the frontend does it today, with four sequential API calls,
+ * versus one call to the composite dashboard endpoint. Every simulated request verifies the JWT, loads the user
+ * and resolves the store, as requests did before the profile id was carried in the token, then runs its section in a read-only transaction;
+ * the composite request does this once and runs the list sections concurrently through ParallelQueryRunner.
+ * The roundTripMicros parameter adds a fixed network round trip per request, which is what the composite call saves most on a real network.
+ * Sample time mode reports the latency percentiles, including p0.95.
+ * The data lives in an in-memory H2 database behind a HikariCP pool, so absolute numbers differ from a real PostgreSQL server.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DashboardRoundTripBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long-for-HS256";
+    private static final String USERNAME = "techstore";
+    private static final long STORE_ID = 1L;
+    private static final int LIMIT = 10;
+
+    private static final String LOAD_USER = "SELECT id, username, password, role FROM users WHERE username = ?";
+    private static final String FIND_STORE = "SELECT id, name FROM stores WHERE user_id = ?";
+    private static final String STORE_STATS = "SELECT * FROM store_stats WHERE store_id = ?";
+    private static final String RECENT_ORDERS =
+            "SELECT o.id, o.total_price, o.order_date, oi.product_id, oi.quantity FROM " +
+            "(SELECT * FROM orders WHERE store_id = ? ORDER BY order_date DESC LIMIT " + LIMIT + ") o " +
+            "JOIN order_items oi ON oi.order_id = o.id";
+    private static final String STORE_PRODUCTS = "SELECT * FROM products WHERE store_id = ?";
+    private static final String TOP_PRODUCTS =
+            "SELECT id, title, brand FROM products WHERE id IN (SELECT id FROM products WHERE store_id = ? ORDER BY id LIMIT " + LIMIT + ")";
+
+    @Param({"0", "2000"})
+    private long roundTripMicros;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private ParallelQueryRunner runner;
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:dashboard-round-trip;MODE=PostgreSQL;QUERY_CACHE_SIZE=0;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(10);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(50) NOT NULL UNIQUE, password VARCHAR(100) NOT NULL, role VARCHAR(20) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE stores (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL UNIQUE, name VARCHAR(100) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE store_stats (store_id BIGINT PRIMARY KEY, total_orders BIGINT NOT NULL, total_revenue NUMERIC(14, 2) NOT NULL, " +
+                "products_in_stock BIGINT NOT NULL, products_out_of_stock BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, store_id BIGINT NOT NULL, title VARCHAR(200) NOT NULL, brand VARCHAR(100) NOT NULL, " +
+                "price NUMERIC(10, 2) NOT NULL, stock_quantity INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, store_id BIGINT NOT NULL, total_price NUMERIC(12, 2) NOT NULL, order_date TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, quantity INT NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_products_store_id ON products (store_id)");
+        jdbcTemplate.execute("CREATE INDEX idx_orders_store_id_order_date ON orders (store_id, order_date)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+
+        jdbcTemplate.execute("INSERT INTO users SELECT x, CASEWHEN(x = 1, '" + USERNAME + "', 'user' || x), 'hash', 'STORE' FROM SYSTEM_RANGE(1, 1000)");
+        jdbcTemplate.execute("INSERT INTO stores SELECT x, x, 'Store ' || x FROM SYSTEM_RANGE(1, 1000)");
+        jdbcTemplate.execute("INSERT INTO store_stats SELECT x, 100, 1000.00, 50, 5 FROM SYSTEM_RANGE(1, 1000)");
+        jdbcTemplate.execute("INSERT INTO products SELECT x, MOD(x, 1000) + 1, 'Product ' || x, 'Brand ' || MOD(x, 50), MOD(x, 1000) + 0.99, MOD(x, 20) " +
+                "FROM SYSTEM_RANGE(1, 100000)");
+        jdbcTemplate.execute("INSERT INTO orders SELECT x, MOD(x, 1000) + 1, MOD(x, 1000) + 0.99, DATEADD('MINUTE', -x, TIMESTAMP '2025-01-01 00:00:00') " +
+                "FROM SYSTEM_RANGE(1, 200000)");
+        jdbcTemplate.execute("INSERT INTO order_items SELECT x, MOD(x - 1, 200000) + 1, MOD(x, 100000) + 1, MOD(x, 3) + 1 FROM SYSTEM_RANGE(1, 400000)");
+
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setExpiration(86_400_000L);
+        tokenProvider = new JwtTokenProvider(jwtProperties);
+        token = tokenProvider.generateToken(new AuthenticatedUser(1L, USERNAME, Role.STORE, null, STORE_ID, 0));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        runner = new ParallelQueryRunner(transactionManager, 4, 200, Duration.ofSeconds(30), new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        runner.destroy();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void separateCalls(Blackhole blackhole) {
+        blackhole.consume(request(storeId -> section(STORE_STATS, storeId)));
+        blackhole.consume(request(storeId -> section(RECENT_ORDERS, storeId)));
+        blackhole.consume(request(storeId -> section(STORE_PRODUCTS, storeId)));
+        blackhole.consume(request(storeId -> section(TOP_PRODUCTS, storeId)));
+    }
+
+    @Benchmark
+    public void compositeCall(Blackhole blackhole) {
+        blackhole.consume(request(storeId -> {
+            ParallelQueryRunner.Branch<List<Map<String, Object>>> orders = runner.submit("orders", () -> jdbcTemplate.queryForList(RECENT_ORDERS, storeId));
+            ParallelQueryRunner.Branch<List<Map<String, Object>>> products = runner.submit("products", () -> jdbcTemplate.queryForList(STORE_PRODUCTS, storeId));
+            ParallelQueryRunner.Branch<List<Map<String, Object>>> topProducts = runner.submit("top-products", () -> jdbcTemplate.queryForList(TOP_PRODUCTS, storeId));
+            List<Map<String, Object>> stats = section(STORE_STATS, storeId);
+            return List.of(stats, orders.join(), products.join(), topProducts.join());
+        }));
+    }
+
+    /**
+     * One authenticated API request: the round trip, the JWT check, loadUserByUsername and findByUser, then the handler.
+     */
+    private Object request(Function<Long, Object> handler) {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+        String username = tokenProvider.parseToken(token)
+                .orElseThrow(() -> new IllegalStateException("Benchmark token rejected"))
+                .getUsername();
+        Map<String, Object> user = jdbcTemplate.queryForMap(LOAD_USER, username);
+        Long storeId = readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForObject(FIND_STORE, (rs, rowNum) -> rs.getLong("id"), user.get("ID")));
+        if (storeId == null || storeId != STORE_ID) {
+            throw new IllegalStateException("Benchmark store not found");
+        }
+        return handler.apply(storeId);
+    }
+
+    private List<Map<String, Object>> section(String sql, Long storeId) {
+        return readOnlyTransaction.execute(status -> jdbcTemplate.queryForList(sql, storeId));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DashboardRoundTripBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
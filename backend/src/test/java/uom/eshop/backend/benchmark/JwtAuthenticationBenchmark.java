@@ -0,0 +1,108 @@
+package uom.eshop.backend.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import uom.eshop.backend.cache.UserDetailsCache;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.repository.RevokedTokenRepository;
+import uom.eshop.backend.repository.UserRepository;
+import uom.eshop.backend.security.AuthenticatedUser;
+import uom.eshop.backend.security.JwtAuthenticationFilter;
+import uom.eshop.backend.security.JwtTokenProvider;
+import uom.eshop.backend.security.TokenRevocationService;
+import uom.eshop.backend.security.TokenVersionService;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the per-request authentication overhead of a bearer token.
+ * keyPerCallDoubleParse reproduces the previous token handling, which derived the HMAC key from the secret string and built
+ * a new parser on every call, and verified the same token twice (validate, then extract). cachedParserSingleParse is the current
+ * JwtTokenProvider.parseToken, and filter runs the whole JwtAuthenticationFilter with a warm token version cache,
+ * i.e. without any database access.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long-for-HS256";
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setExpiration(86_400_000L);
+        jwtProperties.setTokenVersionCacheTtl(Duration.ofHours(1));
+        tokenProvider = new JwtTokenProvider(jwtProperties);
+        token = tokenProvider.generateToken(new AuthenticatedUser(1L, "johndoe", Role.CUSTOMER, 1L, null, 0));
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(anyLong())).thenReturn(Optional.of(0L));
+        TokenVersionService tokenVersionService = new TokenVersionService(userRepository,
+                new UserDetailsCache(jwtProperties, new SimpleMeterRegistry()), jwtProperties);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(mock(RevokedTokenRepository.class),
+                jwtProperties, new SimpleMeterRegistry());
+        tokenRevocationService.rebuild();
+        filter = new JwtAuthenticationFilter(tokenProvider, tokenVersionService, tokenRevocationService,
+                mock(UserDetailsService.class), jwtProperties);
+    }
+
+    @Benchmark
+    public Claims keyPerCallDoubleParse() {
+        SecretKey validationKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Jwts.parser().verifyWith(validationKey).build().parseSignedClaims(token);
+
+        SecretKey extractionKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(extractionKey).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> cachedParserSingleParse() {
+        return tokenProvider.parseToken(token);
+    }
+
+    @Benchmark
+    public void filter(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
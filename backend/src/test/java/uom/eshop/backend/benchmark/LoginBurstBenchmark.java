@@ -0,0 +1,115 @@
+package uom.eshop.backend.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import uom.eshop.backend.exceptions.ServiceUnavailableException;
+import uom.eshop.backend.security.BoundedPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures catalog (browse) latency while logins are hammering the password encoder, with BCrypt running on the request threads
+ * (unbounded) versus on the bounded hashing pool of BoundedPasswordEncoder (bounded, one hashing thread and a short queue).
+ * Each group runs one browse thread, which sorts and pages a product list like the catalog endpoints do, next to eight login threads
+ * that verify a password back to back; a rejected login backs off for 50 ms, like a client honouring Retry-After.
+ * This is a sustained burst rather than an exact count of 1,000 logins, since JMH measures for a fixed time.
+ * Sample time mode reports the latency percentiles of the browse and login methods of each group separately.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Group)
+public class LoginBurstBenchmark {
+
+    private static final String PASSWORD = "password123";
+    private static final int PRODUCT_COUNT = 2_000;
+    private static final int PAGE_SIZE = 20;
+
+    private PasswordEncoder unbounded;
+    private BoundedPasswordEncoder bounded;
+    private String hash;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        unbounded = new BCryptPasswordEncoder(10);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        bounded = new BoundedPasswordEncoder(unbounded, threads, 4, Duration.ofSeconds(5), Duration.ofSeconds(2), new SimpleMeterRegistry());
+        hash = unbounded.encode(PASSWORD);
+
+        Random random = new Random(42);
+        products = new ArrayList<>(PRODUCT_COUNT);
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            products.add(new Product(i, "Product " + i, BigDecimal.valueOf(random.nextInt(100_000), 2)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        bounded.destroy();
+    }
+
+    @Benchmark
+    @Group("unbounded")
+    @GroupThreads(1)
+    public List<Product> unboundedBrowse() {
+        return browse();
+    }
+
+    @Benchmark
+    @Group("unbounded")
+    @GroupThreads(8)
+    public boolean unboundedLogin() {
+        return unbounded.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Group("bounded")
+    @GroupThreads(1)
+    public List<Product> boundedBrowse() {
+        return browse();
+    }
+
+    @Benchmark
+    @Group("bounded")
+    @GroupThreads(8)
+    public boolean boundedLogin() {
+        try {
+            return bounded.matches(PASSWORD, hash);
+        } catch (ServiceUnavailableException e) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            return false;
+        }
+    }
+
+    private List<Product> browse() {
+        return products.stream()
+                .sorted(Comparator.comparing(Product::price).thenComparing(Product::id))
+                .limit(PAGE_SIZE)
+                .toList();
+    }
+
+    public record Product(long id, String title, BigDecimal price) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoginBurstBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
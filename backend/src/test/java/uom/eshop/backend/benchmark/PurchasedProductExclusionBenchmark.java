@@ -0,0 +1,79 @@
+package uom.eshop.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uom.eshop.backend.sketch.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares filtering recommendation candidates against a customer's purchased products
+ * held as the previous List&lt;Long&gt; of ids versus the RoaringBitmap used by PurchasedProductCache.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchasedProductExclusionBenchmark {
+
+    private static final long CATALOG_SIZE = 1_000_000L;
+
+    @Param({"50", "1000", "20000"})
+    private int purchasedCount;
+
+    @Param({"500"})
+    private int candidateCount;
+
+    private List<Long> purchasedList;
+    private RoaringBitmap purchasedBitmap;
+    private long[] candidates;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        purchasedList = new ArrayList<>(purchasedCount);
+        for (int i = 0; i < purchasedCount; i++) {
+            purchasedList.add(random.nextLong(1, CATALOG_SIZE));
+        }
+        purchasedBitmap = RoaringBitmap.of(purchasedList);
+
+        candidates = new long[candidateCount];
+        for (int i = 0; i < candidateCount; i++) {
+            candidates[i] = random.nextLong(1, CATALOG_SIZE);
+        }
+    }
+
+    @Benchmark
+    public void listExclusion(Blackhole blackhole) {
+        for (long candidate : candidates) {
+            blackhole.consume(purchasedList.contains(candidate));
+        }
+    }
+
+    @Benchmark
+    public void bitmapExclusion(Blackhole blackhole) {
+        for (long candidate : candidates) {
+            blackhole.consume(purchasedBitmap.contains(candidate));
+        }
+    }
+
+    @Benchmark
+    public RoaringBitmap bitmapBuild() {
+        return RoaringBitmap.of(purchasedList);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PurchasedProductExclusionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
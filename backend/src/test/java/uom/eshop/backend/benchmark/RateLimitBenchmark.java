@@ -0,0 +1,86 @@
+package uom.eshop.backend.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+import uom.eshop.backend.config.RateLimitProperties;
+import uom.eshop.backend.security.RateLimitFilter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput cost of RateLimitFilter on a catalog request that is never limited.
+ * baseline runs the same mock request through an empty filter chain, hotClient sends every request from one address,
+ * and manyClients spreads them over the clientCount addresses, so the buckets no longer fit in the CPU caches.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    @Param({"1000000"})
+    private int clientCount;
+
+    private RateLimitFilter filter;
+    private String[] addresses;
+
+    @Setup
+    public void setUp() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setBrowse(new RateLimitProperties.Policy(1_000_000, 1_000_000));
+        filter = new RateLimitFilter(properties, JsonMapper.builder().build(), new SimpleMeterRegistry());
+
+        addresses = new String[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            addresses[i] = "10." + (i >>> 16) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff);
+            send(filter, addresses[i]);
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse baseline() throws Exception {
+        MockHttpServletRequest request = request(addresses[0]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain().doFilter(request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse hotClient() throws Exception {
+        return send(filter, addresses[0]);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse manyClients() throws Exception {
+        return send(filter, addresses[ThreadLocalRandom.current().nextInt(clientCount)]);
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, String address) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(address), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package uom.eshop.backend.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import uom.eshop.backend.exceptions.ConflictException;
+
+import java.sql.PreparedStatement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures customer registrations per second with eight concurrent clients, validating uniqueness with existence queries before the inserts
+ * (checkThenInsert, four queries for the username, email and the customer and store tax ids) versus letting the unique constraints reject
+ * duplicates (constraintBased, one extra insert into the shared tax_ids table). Both run the inserts of a registration in one transaction.
+ * The roundTripMicros parameter adds a fixed network round trip per statement, which is what the saved queries are worth on a real network.
+ * The tables live in an in-memory H2 database behind a HikariCP pool, so absolute numbers differ from a real PostgreSQL server.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationBenchmark {
+
+    @Param({"0", "200"})
+    private long roundTripMicros;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:registration;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(8);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "username VARCHAR(50) NOT NULL CONSTRAINT uk_users_username UNIQUE, email VARCHAR(100) NOT NULL CONSTRAINT uk_users_email UNIQUE, " +
+                "password VARCHAR(100) NOT NULL, role VARCHAR(20) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE tax_ids (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "tax_id VARCHAR(12) NOT NULL CONSTRAINT uk_tax_ids_tax_id UNIQUE, role VARCHAR(20) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE customers (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                "tax_id VARCHAR(12) NOT NULL CONSTRAINT uk_customers_tax_id UNIQUE, first_name VARCHAR(100), last_name VARCHAR(100))");
+        jdbcTemplate.execute("CREATE TABLE stores (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                "tax_id VARCHAR(12) NOT NULL CONSTRAINT uk_stores_tax_id UNIQUE, name VARCHAR(200))");
+        jdbcTemplate.execute("CREATE TABLE shopping_carts (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, customer_id BIGINT NOT NULL)");
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public long checkThenInsert() {
+        long n = sequence.incrementAndGet();
+        return transactionTemplate.execute(status -> {
+            if (exists("SELECT COUNT(*) FROM users WHERE username = ?", "user" + n)
+                    || exists("SELECT COUNT(*) FROM users WHERE email = ?", "user" + n + "@example.com")
+                    || exists("SELECT COUNT(*) FROM customers WHERE tax_id = ?", taxId(n))
+                    || exists("SELECT COUNT(*) FROM stores WHERE tax_id = ?", taxId(n))) {
+                throw new ConflictException("Already exists");
+            }
+            return insertCustomer(n, false);
+        });
+    }
+
+    @Benchmark
+    public long constraintBased() {
+        long n = sequence.incrementAndGet();
+        return transactionTemplate.execute(status -> insertCustomer(n, true));
+    }
+
+    private long insertCustomer(long n, boolean registerTaxId) {
+        long userId = insert("INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, 'CUSTOMER')",
+                "user" + n, "user" + n + "@example.com", "$2a$10$abcdefghijklmnopqrstuu");
+        if (registerTaxId) {
+            insert("INSERT INTO tax_ids (tax_id, role) VALUES (?, 'CUSTOMER')", taxId(n));
+        }
+        long customerId = insert("INSERT INTO customers (user_id, tax_id, first_name, last_name) VALUES (?, ?, 'John', 'Doe')",
+                userId, taxId(n));
+        return insert("INSERT INTO shopping_carts (customer_id) VALUES (?)", customerId);
+    }
+
+    private boolean exists(String sql, String value) {
+        roundTrip();
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, value);
+        return count != null && count > 0;
+    }
+
+    private long insert(String sql, Object... args) {
+        roundTrip();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"});
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Long.class);
+    }
+
+    private void roundTrip() {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+    }
+
+    private static String taxId(long n) {
+        return String.format("%09d", n);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RegistrationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
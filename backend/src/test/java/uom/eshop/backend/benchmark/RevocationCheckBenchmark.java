@@ -0,0 +1,71 @@
+package uom.eshop.backend.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.repository.RevokedTokenRepository;
+import uom.eshop.backend.security.TokenRevocationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures what TokenRevocationService.isRevoked adds to every authenticated request whose token was not revoked,
+ * with revokedCount revoked tokens in the filter. notRevoked checks a fresh token id, which the Bloom filter rejects
+ * without the database in all but about 1% of cases; compare with the whole JwtAuthenticationFilter in JwtAuthenticationBenchmark.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RevocationCheckBenchmark {
+
+    private static final int TOKEN_IDS = 4_096;
+
+    @Param({"100000"})
+    private int revokedCount;
+
+    private TokenRevocationService service;
+    private String[] tokenIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> revoked = new ArrayList<>(revokedCount);
+        for (int i = 0; i < revokedCount; i++) {
+            revoked.add(UUID.randomUUID().toString());
+        }
+        RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+        when(repository.findUnexpiredTokenIds(any())).thenReturn(revoked);
+        service = new TokenRevocationService(repository, new JwtProperties(), new SimpleMeterRegistry());
+        service.rebuild();
+
+        tokenIds = new String[TOKEN_IDS];
+        for (int i = 0; i < TOKEN_IDS; i++) {
+            tokenIds[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return service.isRevoked(tokenIds[next++ & (TOKEN_IDS - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RevocationCheckBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
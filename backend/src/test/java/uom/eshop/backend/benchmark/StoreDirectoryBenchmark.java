@@ -0,0 +1,135 @@
+package uom.eshop.backend.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
+import uom.eshop.backend.controller.StoreController;
+import uom.eshop.backend.dto.StoreResponse;
+import uom.eshop.backend.service.DashboardService;
+import uom.eshop.backend.service.StoreDirectoryService;
+import uom.eshop.backend.service.StoreService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Measures the throughput of GET /api/stores through StoreController, as every visitor of the marketplace sends it.
+ * database is the controller without a directory snapshot, which queries the first page of stores with their product counts
+ * and serializes it on every request; snapshot serves the pre-serialized gzip page of StoreDirectoryService, and revalidation
+ * sends the ETag of that page in If-None-Match and gets 304.
+ * The stores live in an in-memory H2 database behind a HikariCP pool, and roundTripMicros adds a fixed network round trip per query,
+ * so absolute numbers differ from a real PostgreSQL server. Requests go through MockMvc, which includes argument resolution
+ * and message conversion but not the servlet container or the security filters.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoreDirectoryBenchmark {
+
+    private static final int STORE_COUNT = 500;
+    private static final int PRODUCTS_PER_STORE = 40;
+
+    private static final String SUMMARIES =
+            "SELECT s.id, s.name, s.owner, COUNT(p.id) AS product_count FROM stores s LEFT JOIN products p ON p.store_id = s.id " +
+            "GROUP BY s.id, s.name, s.owner ORDER BY s.id";
+
+    @Param({"0", "200"})
+    private long roundTripMicros;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private StoreDirectoryService storeDirectoryService;
+    private MockMvc databaseMvc;
+    private MockMvc snapshotMvc;
+    private String etag;
+
+    @Setup
+    public void setUp() throws Exception {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:store-directory;MODE=PostgreSQL;QUERY_CACHE_SIZE=0;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(4);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE stores (id BIGINT PRIMARY KEY, name VARCHAR(200) NOT NULL, owner VARCHAR(200) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, store_id BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_products_store ON products (store_id)");
+        jdbcTemplate.execute("INSERT INTO stores SELECT x, 'Store ' || x, 'Owner ' || x FROM SYSTEM_RANGE(1, " + STORE_COUNT + ")");
+        jdbcTemplate.execute("INSERT INTO products SELECT x, MOD(x, " + STORE_COUNT + ") + 1 FROM SYSTEM_RANGE(1, " + STORE_COUNT * PRODUCTS_PER_STORE + ")");
+
+        StoreService storeService = mock(StoreService.class);
+        when(storeService.getStores(anyInt(), anyInt())).thenAnswer(invocation ->
+                query(SUMMARIES + " LIMIT " + invocation.getArgument(1, Integer.class) + " OFFSET "
+                        + invocation.getArgument(0, Integer.class) * invocation.getArgument(1, Integer.class)));
+        when(storeService.getAllStores()).thenAnswer(invocation -> query(SUMMARIES));
+
+        StoreDirectoryService withoutSnapshot = mock(StoreDirectoryService.class);
+        storeDirectoryService = new StoreDirectoryService(storeService, JsonMapper.builder().build(), new SimpleMeterRegistry());
+        storeDirectoryService.rebuild();
+
+        databaseMvc = MockMvcBuilders.standaloneSetup(
+                new StoreController(storeService, withoutSnapshot, mock(DashboardService.class))).build();
+        snapshotMvc = MockMvcBuilders.standaloneSetup(
+                new StoreController(storeService, storeDirectoryService, mock(DashboardService.class))).build();
+        etag = storeDirectoryService.getPage(0).gzipEtag();
+    }
+
+    @TearDown
+    public void tearDown() {
+        storeDirectoryService.destroy();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse database() throws Exception {
+        return databaseMvc.perform(get("/api/stores").header("Accept-Encoding", "gzip")).andReturn().getResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse snapshot() throws Exception {
+        return snapshotMvc.perform(get("/api/stores").header("Accept-Encoding", "gzip")).andReturn().getResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse revalidation() throws Exception {
+        return snapshotMvc.perform(get("/api/stores").header("Accept-Encoding", "gzip").header("If-None-Match", etag)).andReturn().getResponse();
+    }
+
+    private List<StoreResponse> query(String sql) {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+        return jdbcTemplate.query(sql, (rs, rowNum) -> StoreResponse.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .owner(rs.getString("owner"))
+                .productCount(rs.getInt("product_count"))
+                .build());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StoreDirectoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
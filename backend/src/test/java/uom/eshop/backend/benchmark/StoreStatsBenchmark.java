@@ -0,0 +1,125 @@
+package uom.eshop.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the store dashboard statistics computed with the previous eight single-counter queries
+ * versus the two conditional aggregation queries issued by StoreService, for a store with 1M orders.
+ * The data lives in an in-memory H2 database in PostgreSQL mode using the same table layout and indexes as the entities,
+ * so absolute numbers differ from a real PostgreSQL server but the relative cost of the round trips and scans carries over.
+ * Run the main method (or any JMH launcher) with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class StoreStatsBenchmark {
+
+    private static final long STORE_ID = 1L;
+
+    private static final String[] SINGLE_COUNTER_QUERIES = {
+            "SELECT COUNT(*) FROM products WHERE store_id = ?",
+            "SELECT COUNT(*) FROM products WHERE store_id = ? AND stock_quantity > 0",
+            "SELECT COUNT(*) FROM products WHERE store_id = ? AND stock_quantity = 0",
+            "SELECT COUNT(*) FROM orders WHERE store_id = ?",
+            "SELECT COUNT(*) FROM orders WHERE store_id = ? AND status = 'COMPLETED'",
+            "SELECT COUNT(DISTINCT customer_id) FROM orders WHERE store_id = ?",
+            "SELECT COALESCE(SUM(total_price), 0) FROM orders WHERE store_id = ?",
+            "SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi JOIN orders o ON o.id = oi.order_id WHERE o.store_id = ?"
+    };
+
+    private static final String PRODUCT_AGGREGATE =
+            "SELECT COUNT(*), COUNT(*) FILTER (WHERE stock_quantity > 0), COUNT(*) FILTER (WHERE stock_quantity = 0) " +
+            "FROM products WHERE store_id = ?";
+
+    private static final String ORDER_AGGREGATE =
+            "SELECT COUNT(*), COUNT(*) FILTER (WHERE status = 'COMPLETED'), COUNT(DISTINCT customer_id), COALESCE(SUM(total_price), 0), " +
+            "(SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi JOIN orders o2 ON o2.id = oi.order_id WHERE o2.store_id = ?) " +
+            "FROM orders WHERE store_id = ?";
+
+    @Param({"1000000"})
+    private int orderCount;
+
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:store-stats;MODE=PostgreSQL;QUERY_CACHE_SIZE=0", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, store_id BIGINT NOT NULL, stock_quantity INT NOT NULL)");
+            statement.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT NOT NULL, store_id BIGINT NOT NULL, " +
+                    "total_price NUMERIC(12, 2) NOT NULL, status VARCHAR(20) NOT NULL)");
+            statement.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, quantity INT NOT NULL)");
+            statement.execute("CREATE INDEX idx_products_store_id ON products (store_id)");
+            statement.execute("CREATE INDEX idx_orders_store_id ON orders (store_id)");
+            statement.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+
+            // One store owns every order; a handful of other stores keep the indexes selective
+            statement.execute("INSERT INTO products SELECT x, MOD(x, 5) + 1, MOD(x, 7) FROM SYSTEM_RANGE(1, 5000)");
+            statement.execute("INSERT INTO orders SELECT x, MOD(x, 50000) + 1, " + STORE_ID + ", MOD(x, 1000) + 0.99, " +
+                    "CASE WHEN MOD(x, 20) = 0 THEN 'CANCELLED' ELSE 'COMPLETED' END FROM SYSTEM_RANGE(1, " + orderCount + ")");
+            statement.execute("INSERT INTO order_items SELECT x, x, MOD(x, 3) + 1 FROM SYSTEM_RANGE(1, " + orderCount + ")");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void singleCounterQueries(Blackhole blackhole) throws SQLException {
+        for (String sql : SINGLE_COUNTER_QUERIES) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, STORE_ID);
+                consume(statement, blackhole);
+            }
+        }
+    }
+
+    @Benchmark
+    public void conditionalAggregation(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(PRODUCT_AGGREGATE)) {
+            statement.setLong(1, STORE_ID);
+            consume(statement, blackhole);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(ORDER_AGGREGATE)) {
+            statement.setLong(1, STORE_ID);
+            statement.setLong(2, STORE_ID);
+            consume(statement, blackhole);
+        }
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                for (int column = 1; column <= resultSet.getMetaData().getColumnCount(); column++) {
+                    blackhole.consume(resultSet.getObject(column));
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StoreStatsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package uom.eshop.backend.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uom.eshop.backend.config.RecommendationProperties;
+import uom.eshop.backend.repository.OrderRepository;
+import uom.eshop.backend.sketch.RoaringBitmap;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("PurchasedProductCache Tests")
+class PurchasedProductCacheTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final PurchasedProductCache cache = new PurchasedProductCache(orderRepository, new RecommendationProperties());
+
+    @Test
+    @DisplayName("Should apply a committed purchase to a cached bitmap")
+    void testPurchaseAppliedToCachedBitmap() {
+        // Arrange
+        when(orderRepository.findDistinctProductIdsByCustomerId(1L)).thenReturn(List.of(10L));
+        cache.getPurchasedProducts(1L);
+
+        // Act
+        cache.recordPurchases(1L, List.of(20L));
+
+        // Assert
+        assertTrue(cache.hasPurchased(1L, 10L));
+        assertTrue(cache.hasPurchased(1L, 20L));
+        verify(orderRepository, times(1)).findDistinctProductIdsByCustomerId(1L);
+    }
+
+    @Test
+    @DisplayName("Should not cache a bitmap loaded before a purchase that committed during the load")
+    void testLoadRacingCommitNotCached() throws Exception {
+        // Arrange
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(orderRepository.findDistinctProductIdsByCustomerId(1L))
+                .thenAnswer(invocation -> {
+                    // Reads the orders before the checkout commits, then waits for the commit
+                    loading.countDown();
+                    assertTrue(committed.await(5, TimeUnit.SECONDS));
+                    return List.of(10L);
+                })
+                .thenReturn(List.of(10L, 20L));
+
+        // Act
+        CompletableFuture<RoaringBitmap> load = CompletableFuture.supplyAsync(() -> cache.getPurchasedProducts(1L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.recordPurchases(1L, List.of(20L));
+        committed.countDown();
+        RoaringBitmap stale = load.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(stale.contains(20L));
+        assertEquals(0, cache.cachedCustomers());
+        assertTrue(cache.hasPurchased(1L, 20L));
+        verify(orderRepository, times(2)).findDistinctProductIdsByCustomerId(1L);
+    }
+}
@@ -0,0 +1,111 @@
+package uom.eshop.backend.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StaleWhileRevalidateCache Tests")
+class StaleWhileRevalidateCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+
+    private StaleWhileRevalidateCache<Long, Integer> newCache() {
+        return new StaleWhileRevalidateCache<>(100, Duration.ofSeconds(5), Duration.ofSeconds(60),
+                pendingRefreshes::add, value -> value >= 0, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should serve fresh values, then the stale value while one background refresh runs, then load again past max staleness")
+    void testFreshStaleAndExpired() {
+        StaleWhileRevalidateCache<Long, Integer> cache = newCache();
+        AtomicInteger version = new AtomicInteger();
+
+        assertEquals(new CachedValue<>(0, CachedValue.Status.MISS, Duration.ZERO), cache.get(1L, version::getAndIncrement));
+
+        clock.set(Duration.ofSeconds(3).toNanos());
+        assertEquals(new CachedValue<>(0, CachedValue.Status.HIT, Duration.ofSeconds(3)), cache.get(1L, version::getAndIncrement));
+
+        clock.set(Duration.ofSeconds(10).toNanos());
+        assertEquals(CachedValue.Status.STALE, cache.get(1L, version::getAndIncrement).status());
+        assertEquals(CachedValue.Status.STALE, cache.get(1L, version::getAndIncrement).status());
+        assertEquals(1, pendingRefreshes.size(), "Only one refresh may be in flight per key");
+
+        pendingRefreshes.remove(0).run();
+        assertEquals(new CachedValue<>(1, CachedValue.Status.HIT, Duration.ZERO), cache.get(1L, version::getAndIncrement));
+
+        clock.set(Duration.ofSeconds(75).toNanos());
+        assertEquals(new CachedValue<>(2, CachedValue.Status.MISS, Duration.ZERO), cache.get(1L, version::getAndIncrement));
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should refresh dirty entries, and keep an entry dirty when it was marked during the load that produced it")
+    void testDirtyEntries() {
+        StaleWhileRevalidateCache<Long, Integer> cache = newCache();
+        cache.get(1L, () -> 10);
+
+        clock.set(1);
+        cache.markDirty(1L);
+        assertEquals(CachedValue.Status.STALE, cache.get(1L, () -> {
+            // A checkout commits while the refresh reads the old numbers
+            clock.set(2);
+            cache.markDirty(1L);
+            return 11;
+        }).status());
+        pendingRefreshes.remove(0).run();
+
+        CachedValue<Integer> afterRefresh = cache.get(1L, () -> 12);
+        assertEquals(11, afterRefresh.value());
+        assertEquals(CachedValue.Status.STALE, afterRefresh.status());
+        pendingRefreshes.remove(0).run();
+        assertEquals(new CachedValue<>(12, CachedValue.Status.HIT, Duration.ZERO), cache.get(1L, () -> 13));
+    }
+
+    @Test
+    @DisplayName("Should run a single loader for concurrent misses and not cache rejected values")
+    void testSingleFlightMiss() throws Exception {
+        StaleWhileRevalidateCache<Long, Integer> cache = newCache();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CachedValue<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(readers.submit(() -> cache.get(1L, () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<CachedValue<Integer>> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS).value());
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+
+        // Partial results are returned but recomputed on the next read
+        assertEquals(-1, cache.get(2L, () -> -1).value());
+        assertEquals(CachedValue.Status.MISS, cache.get(2L, () -> -1).status());
+    }
+}
@@ -0,0 +1,97 @@
+package uom.eshop.backend.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.model.User;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UserDetailsCache Tests")
+class UserDetailsCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should not cache unknown usernames")
+    void testUnknownUserNotCached() {
+        UserDetailsCache cache = new UserDetailsCache(new JwtProperties(), meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("ghost", username -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }));
+        assertNull(cache.get("ghost", username -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }));
+
+        assertEquals(2, loads.get());
+        assertEquals(2.0, meterRegistry.get("eshop.auth.user.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reload a user once the entry has expired")
+    void testExpiredEntryReloaded() {
+        JwtProperties properties = new JwtProperties();
+        properties.setUserCacheTtl(Duration.ZERO);
+        UserDetailsCache cache = new UserDetailsCache(properties, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        User user = User.builder().id(1L).username("johndoe").role(Role.CUSTOMER).build();
+
+        cache.get("johndoe", username -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        });
+        cache.get("johndoe", username -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.get("eshop.auth.user.cache.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should not cache a user whose load was running when the user was evicted")
+    void testLoadRacingEvictionNotCached() throws Exception {
+        UserDetailsCache cache = new UserDetailsCache(new JwtProperties(), meterRegistry);
+        User stale = User.builder().id(1L).username("johndoe").role(Role.CUSTOMER).tokenVersion(0L).build();
+        User current = User.builder().id(1L).username("johndoe").role(Role.CUSTOMER).tokenVersion(1L).build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+
+        // The load reads the user before the token version is bumped, and returns after the eviction that follows the commit
+        CompletableFuture<User> racingLoad = CompletableFuture.supplyAsync(() -> cache.get("johndoe", username -> {
+            loading.countDown();
+            await(evicted);
+            return Optional.of(stale);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.evict("johndoe");
+        evicted.countDown();
+
+        assertSame(stale, racingLoad.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, meterRegistry.get("eshop.auth.user.cache.size").gauge().value());
+        assertSame(current, cache.get("johndoe", username -> Optional.of(current)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
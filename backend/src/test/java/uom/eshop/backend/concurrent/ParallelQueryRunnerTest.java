@@ -0,0 +1,97 @@
+package uom.eshop.backend.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ParallelQueryRunner Tests")
+class ParallelQueryRunnerTest {
+
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private ParallelQueryRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        runner = new ParallelQueryRunner(transactionManager, 2, 10, Duration.ofMillis(300), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.destroy();
+    }
+
+    @Test
+    @DisplayName("Should run branches concurrently, each in its own read-only transaction with the query timeout")
+    void testBranchesRunConcurrently() {
+        // Each query waits for the other to start, so running them one after the other would time out
+        CountDownLatch started = new CountDownLatch(2);
+        ParallelQueryRunner.Branch<String> first = runner.submit("first", () -> awaitOther(started, "a"));
+        ParallelQueryRunner.Branch<String> second = runner.submit("second", () -> awaitOther(started, "b"));
+
+        assertEquals(Optional.of("a"), first.join());
+        assertEquals(Optional.of("b"), second.join());
+
+        ArgumentCaptor<TransactionDefinition> captor = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(captor.capture());
+        for (TransactionDefinition definition : captor.getAllValues()) {
+            assertTrue(definition.isReadOnly());
+            assertEquals(1, definition.getTimeout());
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave a branch empty when its query times out or fails, without affecting the others")
+    void testTimeoutAndFailureFallBack() {
+        CountDownLatch never = new CountDownLatch(1);
+        ParallelQueryRunner.Branch<String> slow = runner.submit("slow", () -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        });
+        ParallelQueryRunner.Branch<String> failing = runner.submit("failing", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        long startedAt = System.nanoTime();
+        assertEquals(Optional.empty(), slow.join());
+        assertEquals(Optional.empty(), failing.join());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 1_000);
+
+        never.countDown();
+        assertEquals(Optional.of(42), runner.submit("healthy", () -> 42).join());
+        assertEquals(1.0, meterRegistry.counter("eshop.query.fanout.timeouts").count());
+        assertEquals(1.0, meterRegistry.counter("eshop.query.fanout.failures").count());
+    }
+
+    private static String awaitOther(CountDownLatch started, String result) {
+        started.countDown();
+        try {
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+}
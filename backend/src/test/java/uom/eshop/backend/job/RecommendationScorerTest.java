@@ -0,0 +1,62 @@
+package uom.eshop.backend.job;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uom.eshop.backend.repository.projection.ProductCandidateView;
+import uom.eshop.backend.sketch.RoaringBitmap;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@DisplayName("RecommendationScorer Tests")
+class RecommendationScorerTest {
+
+    private final List<ProductCandidateView> catalog = List.of(
+            candidate(50L, "Electronics", "Sony"),
+            candidate(40L, "Clothing", "Apple"),
+            candidate(30L, "Electronics", "Apple"),
+            candidate(20L, "Kitchen", "KitchenPro"),
+            candidate(10L, "Electronics", "Samsung")
+    );
+
+    @Test
+    @DisplayName("Should rank matching products newest first and skip purchased ones")
+    void testScore_MatchesTypeOrBrand() {
+        RecommendationScorer scorer = new RecommendationScorer(catalog, 10);
+        RecommendationScorer.CustomerProfile profile = new RecommendationScorer.CustomerProfile(
+                1L, Set.of("Electronics"), Set.of("Apple"), RoaringBitmap.of(List.of(30L)));
+
+        assertArrayEquals(new Long[]{50L, 40L, 10L}, scorer.score(profile));
+    }
+
+    @Test
+    @DisplayName("Should stop at top-N products")
+    void testScore_LimitedToTopN() {
+        RecommendationScorer scorer = new RecommendationScorer(catalog, 2);
+        RecommendationScorer.CustomerProfile profile = new RecommendationScorer.CustomerProfile(
+                1L, Set.of("Electronics"), Set.of(), new RoaringBitmap());
+
+        assertArrayEquals(new Long[]{50L, 30L}, scorer.score(profile));
+    }
+
+    private static ProductCandidateView candidate(Long id, String type, String brand) {
+        return new ProductCandidateView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public String getBrand() {
+                return brand;
+            }
+        };
+    }
+}
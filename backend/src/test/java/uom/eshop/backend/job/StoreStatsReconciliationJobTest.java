@@ -0,0 +1,75 @@
+package uom.eshop.backend.job;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import uom.eshop.backend.config.StatsProperties;
+import uom.eshop.backend.model.StoreStats;
+import uom.eshop.backend.repository.StoreRepository;
+import uom.eshop.backend.repository.StoreStatsRepository;
+import uom.eshop.backend.service.StoreStatsService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("StoreStatsReconciliationJob Tests")
+class StoreStatsReconciliationJobTest {
+
+    private StoreRepository storeRepository;
+    private StoreStatsRepository storeStatsRepository;
+    private StoreStatsService storeStatsService;
+    private SimpleMeterRegistry meterRegistry;
+    private StoreStatsReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        storeRepository = mock(StoreRepository.class);
+        storeStatsRepository = mock(StoreStatsRepository.class);
+        storeStatsService = mock(StoreStatsService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        job = new StoreStatsReconciliationJob(storeRepository, storeStatsRepository, storeStatsService,
+                new TransactionTemplate(transactionManager), new StatsProperties(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should log and count a store that fails to reconcile and carry on with the remaining stores")
+    void testFailedStoreSkipped() {
+        when(storeRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 2L, 3L));
+        when(storeRepository.findIdsAfter(eq(3L), any())).thenReturn(List.of());
+        when(storeStatsRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(stats(1L, 5L)));
+        when(storeStatsRepository.findByIdForUpdate(2L)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(storeStatsRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(stats(3L, 7L)));
+        when(storeStatsService.computeFromSource(1L)).thenReturn(stats(1L, 5L));
+        when(storeStatsService.computeFromSource(3L)).thenReturn(stats(3L, 8L));
+
+        int drifted = job.run();
+
+        assertEquals(1, drifted);
+        verify(storeStatsService).computeFromSource(3L);
+        verify(storeStatsRepository, times(2)).save(any(StoreStats.class));
+        assertEquals(1.0, meterRegistry.get("eshop.stats.reconciliation.failures").counter().count());
+        assertEquals(1.0, meterRegistry.get("eshop.stats.reconciliation.drift").counter().count());
+        assertEquals(1.0, meterRegistry.get("eshop.stats.reconciliation.drifted.stores").gauge().value());
+    }
+
+    private static StoreStats stats(Long storeId, long totalOrders) {
+        return StoreStats.builder()
+                .storeId(storeId)
+                .totalOrders(totalOrders)
+                .totalRevenue(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import uom.eshop.backend.model.CustomerRecommendation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DisplayName("CustomerRecommendationRepository Tests")
+class CustomerRecommendationRepositoryTest {
+
+    private static final LocalDateTime FIRST_RUN = LocalDateTime.of(2025, 1, 1, 2, 0);
+    private static final LocalDateTime SECOND_RUN = FIRST_RUN.plusDays(1);
+
+    @Autowired
+    private CustomerRecommendationRepository customerRecommendationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Should insert new recommendation lists and replace the lists of customers that already have one")
+    void testUpsertAll() {
+        // Arrange
+        customerRecommendationRepository.upsertAll(List.of(
+                recommendation(1L, FIRST_RUN, 10L, 20L, 30L),
+                recommendation(2L, FIRST_RUN, 40L)
+        ));
+
+        // Act
+        customerRecommendationRepository.upsertAll(List.of(
+                recommendation(2L, SECOND_RUN, 50L, 60L),
+                recommendation(3L, SECOND_RUN)
+        ));
+        entityManager.clear();
+
+        // Assert
+        assertEquals(3, customerRecommendationRepository.count());
+
+        CustomerRecommendation untouched = customerRecommendationRepository.findById(1L).orElseThrow();
+        assertArrayEquals(new Long[]{10L, 20L, 30L}, untouched.getProductIds());
+        assertEquals(FIRST_RUN, untouched.getComputedAt());
+
+        CustomerRecommendation replaced = customerRecommendationRepository.findById(2L).orElseThrow();
+        assertArrayEquals(new Long[]{50L, 60L}, replaced.getProductIds());
+        assertEquals(SECOND_RUN, replaced.getComputedAt());
+
+        CustomerRecommendation empty = customerRecommendationRepository.findById(3L).orElseThrow();
+        assertEquals(0, empty.getProductIds().length);
+    }
+
+    private static CustomerRecommendation recommendation(Long customerId, LocalDateTime computedAt, Long... productIds) {
+        return CustomerRecommendation.builder()
+                .customerId(customerId)
+                .productIds(productIds)
+                .computedAt(computedAt)
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import uom.eshop.backend.model.CustomerStats;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.test.database.replace=none",
+        // ON CONFLICT DO NOTHING needs the PostgreSQL compatibility mode of H2
+        "spring.datasource.url=jdbc:h2:mem:customer-stats;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+@DisplayName("CustomerStatsRepository Tests")
+class CustomerStatsRepositoryTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private CustomerStatsRepository customerStatsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Should insert a missing stats row and leave an existing one untouched")
+    void testInsertIfAbsent() {
+        // Arrange
+        CustomerStats first = CustomerStats.builder().customerId(5L).storeSketch(new byte[]{1}).updatedAt(UPDATED_AT).build();
+        CustomerStats second = CustomerStats.builder().customerId(5L).storeSketch(new byte[]{2}).updatedAt(UPDATED_AT.plusDays(1)).build();
+
+        // Act
+        int inserted = customerStatsRepository.insertIfAbsent(first);
+        int skipped = customerStatsRepository.insertIfAbsent(second);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, inserted);
+        assertEquals(0, skipped);
+        CustomerStats stored = customerStatsRepository.findById(5L).orElseThrow();
+        assertArrayEquals(new byte[]{1}, stored.getStoreSketch());
+        assertEquals(UPDATED_AT, stored.getUpdatedAt());
+    }
+}
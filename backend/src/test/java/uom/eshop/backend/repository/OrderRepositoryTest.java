@@ -0,0 +1,181 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import uom.eshop.backend.model.*;
+import uom.eshop.backend.repository.projection.CustomerOrderStatsView;
+import uom.eshop.backend.repository.projection.StoreOrderStatsView;
+import uom.eshop.backend.specification.OrderSpecification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DisplayName("OrderRepository Tests")
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Customer john;
+    private Customer jane;
+    private Store techStore;
+    private Store bookStore;
+    private Order firstCompletedTechOrder;
+    private Order secondCompletedTechOrder;
+
+    @BeforeEach
+    void setUp() {
+        john = customer("john", "123456789");
+        jane = customer("jane", "987654321");
+        techStore = store("tech", "111222333");
+        bookStore = store("books", "444555666");
+        Product laptop = product(techStore, "1000.00");
+        Product book = product(bookStore, "20.00");
+
+        firstCompletedTechOrder = order(john, techStore, OrderStatus.COMPLETED, laptop, 2);
+        order(john, techStore, OrderStatus.PENDING, laptop, 1);
+        order(jane, techStore, OrderStatus.CANCELLED, laptop, 1);
+        secondCompletedTechOrder = order(jane, techStore, OrderStatus.COMPLETED, laptop, 3);
+        order(john, bookStore, OrderStatus.COMPLETED, book, 4);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should count the store's orders, completed orders, revenue and items sold in one aggregate")
+    void testAggregateStatsByStoreId() {
+        // Act
+        StoreOrderStatsView stats = orderRepository.aggregateStatsByStoreId(techStore.getId(), OrderStatus.COMPLETED);
+
+        // Assert
+        assertEquals(4L, stats.getTotalOrders());
+        assertEquals(2L, stats.getTotalOrdersCompleted());
+        assertEquals(0, new BigDecimal("7000.00").compareTo(stats.getTotalRevenue()));
+        assertEquals(7L, stats.getTotalItemsSold());
+    }
+
+    @Test
+    @DisplayName("Should count the customer's orders, completed orders, amount spent and items purchased in one aggregate")
+    void testAggregateStatsByCustomerId() {
+        // Act
+        CustomerOrderStatsView stats = orderRepository.aggregateStatsByCustomerId(john.getId(), OrderStatus.COMPLETED);
+
+        // Assert
+        assertEquals(3L, stats.getTotalOrders());
+        assertEquals(2L, stats.getTotalOrdersCompleted());
+        assertEquals(0, new BigDecimal("3080.00").compareTo(stats.getTotalAmountSpent()));
+        assertEquals(7L, stats.getTotalItemsPurchased());
+    }
+
+    @Test
+    @DisplayName("Should return zero counts for a store without orders")
+    void testAggregateStatsByStoreIdWithoutOrders() {
+        // Arrange
+        Store emptyStore = store("empty", "777888999");
+        entityManager.flush();
+
+        // Act
+        StoreOrderStatsView stats = orderRepository.aggregateStatsByStoreId(emptyStore.getId(), OrderStatus.COMPLETED);
+
+        // Assert
+        assertEquals(0L, stats.getTotalOrders());
+        assertEquals(0L, stats.getTotalOrdersCompleted());
+        assertEquals(0, BigDecimal.ZERO.compareTo(stats.getTotalRevenue()));
+        assertEquals(0L, stats.getTotalItemsSold());
+    }
+
+    @Test
+    @DisplayName("Should select only the ids of the orders matching the specification, sorted and limited")
+    void testFindIds() {
+        // Arrange
+        Specification<Order> completedTechOrders = OrderSpecification.receivedBy(techStore.getId())
+                .and(OrderSpecification.filterOrders(null, null, OrderStatus.COMPLETED));
+        Sort newestFirst = Sort.by(Sort.Order.desc("id"));
+
+        // Act
+        List<Long> all = orderRepository.findIds(completedTechOrders, newestFirst, 10);
+        List<Long> first = orderRepository.findIds(completedTechOrders, newestFirst, 1);
+
+        // Assert
+        assertEquals(List.of(secondCompletedTechOrder.getId(), firstCompletedTechOrder.getId()), all);
+        assertEquals(List.of(secondCompletedTechOrder.getId()), first);
+    }
+
+    private User user(String username, Role role) {
+        User user = User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .role(role)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Customer customer(String username, String taxId) {
+        Customer customer = Customer.builder()
+                .taxId(taxId)
+                .firstName("First")
+                .lastName("Last")
+                .user(user(username, Role.CUSTOMER))
+                .build();
+        entityManager.persist(customer);
+        return customer;
+    }
+
+    private Store store(String username, String taxId) {
+        Store store = Store.builder()
+                .taxId(taxId)
+                .name("Store " + username)
+                .owner("Owner")
+                .user(user(username, Role.STORE))
+                .build();
+        entityManager.persist(store);
+        return store;
+    }
+
+    private Product product(Store store, String price) {
+        Product product = Product.builder()
+                .title("Product")
+                .type("Type")
+                .brand("Brand")
+                .description("Description")
+                .price(new BigDecimal(price))
+                .stockQuantity(100)
+                .store(store)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+
+    private Order order(Customer customer, Store store, OrderStatus status, Product product, int quantity) {
+        BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
+        Order order = Order.builder()
+                .customer(customer)
+                .store(store)
+                .status(status)
+                .totalPrice(subtotal)
+                .build();
+        entityManager.persist(order);
+        entityManager.persist(OrderItem.builder()
+                .order(order)
+                .product(product)
+                .quantity(quantity)
+                .priceAtPurchase(product.getPrice())
+                .subtotal(subtotal)
+                .build());
+        return order;
+    }
+}
@@ -0,0 +1,121 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import uom.eshop.backend.model.Product;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.model.Store;
+import uom.eshop.backend.model.User;
+import uom.eshop.backend.repository.projection.ProductCandidateView;
+import uom.eshop.backend.repository.projection.StoreProductStatsView;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DisplayName("ProductRepository Tests")
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Store techStore;
+    private Store emptyStore;
+    private Product newestInStock;
+    private Product secondInStock;
+    private Product thirdInStock;
+
+    @BeforeEach
+    void setUp() {
+        techStore = store("tech", "111222333", "Tech Store");
+        emptyStore = store("empty", "444555666", "Empty Store");
+        Store otherStore = store("other", "777888999", "Other Store");
+        product(techStore, 10);
+        product(techStore, 1);
+        thirdInStock = product(techStore, 3);
+        product(techStore, 0);
+        product(techStore, 0);
+        secondInStock = product(otherStore, 5);
+        product(otherStore, 0);
+        newestInStock = product(otherStore, 2);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should count the store's products in and out of stock in one aggregate")
+    void testAggregateStatsByStoreId() {
+        // Act
+        StoreProductStatsView stats = productRepository.aggregateStatsByStoreId(techStore.getId());
+
+        // Assert
+        assertEquals(5L, stats.getTotalProducts());
+        assertEquals(3L, stats.getProductsInStock());
+        assertEquals(2L, stats.getProductsOutOfStock());
+    }
+
+    @Test
+    @DisplayName("Should return zero counts for a store without products")
+    void testAggregateStatsByStoreIdWithoutProducts() {
+        // Act
+        StoreProductStatsView stats = productRepository.aggregateStatsByStoreId(emptyStore.getId());
+
+        // Assert
+        assertEquals(0L, stats.getTotalProducts());
+        assertEquals(0L, stats.getProductsInStock());
+        assertEquals(0L, stats.getProductsOutOfStock());
+    }
+
+    @Test
+    @DisplayName("Should return the newest in-stock products as recommendation candidates, capped by the page size")
+    void testFindInStockCandidates() {
+        // Act
+        List<ProductCandidateView> candidates = productRepository.findInStockCandidates(PageRequest.of(0, 3));
+
+        // Assert
+        assertEquals(List.of(newestInStock.getId(), secondInStock.getId(), thirdInStock.getId()),
+                candidates.stream().map(ProductCandidateView::getId).toList());
+    }
+
+    private Store store(String username, String taxId, String name) {
+        User user = User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .role(Role.STORE)
+                .build();
+        entityManager.persist(user);
+        Store store = Store.builder()
+                .taxId(taxId)
+                .name(name)
+                .owner("Owner")
+                .user(user)
+                .build();
+        entityManager.persist(store);
+        return store;
+    }
+
+    private Product product(Store store, int stockQuantity) {
+        Product product = Product.builder()
+                .title("Product")
+                .type("Type")
+                .brand("Brand")
+                .description("Description")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(stockQuantity)
+                .store(store)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+}
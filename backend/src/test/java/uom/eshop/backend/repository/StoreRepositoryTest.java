@@ -0,0 +1,107 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import uom.eshop.backend.model.Product;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.model.Store;
+import uom.eshop.backend.model.User;
+import uom.eshop.backend.repository.projection.StoreSummaryView;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("StoreRepository Tests")
+class StoreRepositoryTest {
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Store techStore;
+    private Store emptyStore;
+
+    @BeforeEach
+    void setUp() {
+        techStore = store("tech", "111222333", "Tech Store");
+        emptyStore = store("empty", "444555666", "Empty Store");
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(Product.builder()
+                    .title("Laptop " + i)
+                    .type("Laptop")
+                    .brand("Brand")
+                    .description("Description")
+                    .price(new BigDecimal("999.99"))
+                    .stockQuantity(10)
+                    .store(techStore)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should list stores with their product counts in a single statement, without loading any product")
+    void testFindSummariesUsesOneStatement() {
+        // Act
+        List<StoreSummaryView> summaries = storeRepository.findSummaries(PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(2, summaries.size());
+        assertEquals(techStore.getId(), summaries.get(0).getId());
+        assertEquals("Tech Store", summaries.get(0).getName());
+        assertEquals(3L, summaries.get(0).getProductCount());
+        assertEquals(emptyStore.getId(), summaries.get(1).getId());
+        assertEquals(0L, summaries.get(1).getProductCount());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Should page stores by id")
+    void testFindSummariesPages() {
+        // Act
+        List<StoreSummaryView> secondPage = storeRepository.findSummaries(PageRequest.of(1, 1));
+
+        // Assert
+        assertEquals(1, secondPage.size());
+        assertEquals(emptyStore.getId(), secondPage.get(0).getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Store store(String username, String taxId, String name) {
+        User user = User.builder()
+                .username(username)
+                .email(username + "@store.com")
+                .password("password")
+                .role(Role.STORE)
+                .build();
+        entityManager.persist(user);
+
+        Store store = Store.builder()
+                .taxId(taxId)
+                .name(name)
+                .owner("Owner")
+                .user(user)
+                .build();
+        entityManager.persist(store);
+        return store;
+    }
+}
@@ -0,0 +1,112 @@
+package uom.eshop.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import uom.eshop.backend.model.Product;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.model.Store;
+import uom.eshop.backend.model.StoreStats;
+import uom.eshop.backend.model.User;
+import uom.eshop.backend.service.StoreStatsService;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.test.database.replace=none",
+        // ON CONFLICT DO NOTHING needs the PostgreSQL compatibility mode of H2
+        "spring.datasource.url=jdbc:h2:mem:store-stats;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+@Import(StoreStatsService.class)
+@DisplayName("StoreStatsRepository Tests")
+class StoreStatsRepositoryTest {
+
+    @Autowired
+    private StoreStatsRepository storeStatsRepository;
+
+    @Autowired
+    private StoreStatsService storeStatsService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Should insert a missing stats row and leave an existing one untouched")
+    void testInsertIfAbsent() {
+        // Arrange
+        StoreStats first = StoreStats.builder().storeId(1L).totalOrders(3L).customerSketch(new byte[]{1}).build();
+        StoreStats second = StoreStats.builder().storeId(1L).totalOrders(7L).customerSketch(new byte[]{2}).build();
+
+        // Act
+        int inserted = storeStatsRepository.insertIfAbsent(first);
+        int skipped = storeStatsRepository.insertIfAbsent(second);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, inserted);
+        assertEquals(0, skipped);
+        StoreStats stored = storeStatsRepository.findById(1L).orElseThrow();
+        assertEquals(3L, stored.getTotalOrders());
+        assertArrayEquals(new byte[]{1}, stored.getCustomerSketch());
+    }
+
+    @Test
+    @DisplayName("Should create the missing stats row of a store from its products on the first stock change, then increment it")
+    void testRecordStockChangeWithMissingRow() {
+        // Arrange
+        Store store = store();
+        product(store, 4);
+        product(store, 0);
+        Product added = product(store, 2);
+        entityManager.flush();
+
+        // Act
+        storeStatsService.recordStockChange(store.getId(), null, added.getStockQuantity());
+        added.setStockQuantity(0);
+        storeStatsService.recordStockChange(store.getId(), 2, 0);
+        entityManager.clear();
+
+        // Assert
+        StoreStats stats = storeStatsRepository.findById(store.getId()).orElseThrow();
+        assertEquals(1L, stats.getProductsInStock());
+        assertEquals(2L, stats.getProductsOutOfStock());
+        assertEquals(0L, stats.getTotalOrders());
+    }
+
+    private Store store() {
+        User user = User.builder()
+                .username("tech")
+                .email("tech@example.com")
+                .password("password")
+                .role(Role.STORE)
+                .build();
+        entityManager.persist(user);
+        Store store = Store.builder()
+                .taxId("111222333")
+                .name("Tech Store")
+                .owner("Owner")
+                .user(user)
+                .build();
+        entityManager.persist(store);
+        return store;
+    }
+
+    private Product product(Store store, int stockQuantity) {
+        Product product = Product.builder()
+                .title("Product")
+                .type("Type")
+                .brand("Brand")
+                .description("Description")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(stockQuantity)
+                .store(store)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+}
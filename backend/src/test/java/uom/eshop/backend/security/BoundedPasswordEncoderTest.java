@@ -0,0 +1,73 @@
+package uom.eshop.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import uom.eshop.backend.exceptions.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BoundedPasswordEncoder Tests")
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Should hash on the pool and report a weaker stored hash as needing an upgrade")
+    void testDelegatesToPool() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1,
+                Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+        assertEquals(2, meterRegistry.get("eshop.auth.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 instead of queueing when the pool and its queue are full")
+    void testShedsWhenSaturated() throws Exception {
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(slow.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(3), meterRegistry);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+        while (meterRegistry.get("eshop.auth.password.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class, () -> encoder.matches("c", "hash"));
+        assertEquals(Duration.ofSeconds(3), exception.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("eshop.auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
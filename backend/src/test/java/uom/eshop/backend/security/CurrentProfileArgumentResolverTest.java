@@ -0,0 +1,73 @@
+package uom.eshop.backend.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import uom.eshop.backend.exceptions.ForbiddenException;
+import uom.eshop.backend.exceptions.NotFoundException;
+import uom.eshop.backend.model.Role;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CurrentProfileArgumentResolver Tests")
+class CurrentProfileArgumentResolverTest {
+
+    private final CurrentProfileArgumentResolver resolver = new CurrentProfileArgumentResolver();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should resolve the profile id of the matching role from the principal")
+    void testResolvesProfileIds() throws Exception {
+        MethodParameter customerId = parameter(0);
+        MethodParameter storeId = parameter(1);
+        assertTrue(resolver.supportsParameter(customerId));
+        assertTrue(resolver.supportsParameter(storeId));
+        assertFalse(resolver.supportsParameter(parameter(2)));
+
+        authenticate(new AuthenticatedUser(2L, "john", Role.CUSTOMER, 3L, null, 0));
+        assertEquals(3L, resolver.resolveArgument(customerId, null, null, null));
+        assertThrows(ForbiddenException.class, () -> resolver.resolveArgument(storeId, null, null, null));
+
+        authenticate(new AuthenticatedUser(4L, "techstore", Role.STORE, null, 9L, 0));
+        assertEquals(9L, resolver.resolveArgument(storeId, null, null, null));
+    }
+
+    @Test
+    @DisplayName("Should reject anonymous requests and users without a profile")
+    void testRejectsMissingPrincipalOrProfile() throws Exception {
+        MethodParameter storeId = parameter(1);
+
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertThrows(AuthenticationCredentialsNotFoundException.class, () -> resolver.resolveArgument(storeId, null, null, null));
+
+        authenticate(new AuthenticatedUser(4L, "techstore", Role.STORE, null, null, 0));
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> resolver.resolveArgument(storeId, null, null, null));
+        assertEquals("Store profile not found", exception.getMessage());
+    }
+
+    private static void authenticate(AuthenticatedUser principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static MethodParameter parameter(int index) throws NoSuchMethodException {
+        return new MethodParameter(Handler.class.getDeclaredMethod("handle", Long.class, Long.class, Long.class), index);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Handler {
+        void handle(@CurrentCustomerId Long customerId, @CurrentStoreId Long storeId, Long other) {
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package uom.eshop.backend.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.Role;
+import uom.eshop.backend.model.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("JwtAuthenticationFilter Tests")
+class JwtAuthenticationFilterTest {
+
+    private TokenVersionService tokenVersionService;
+    private TokenRevocationService tokenRevocationService;
+    private UserDetailsService userDetailsService;
+    private JwtProperties jwtProperties;
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("test-secret-key-that-is-at-least-256-bits-long-for-HS256-signing");
+        jwtProperties.setExpiration(60_000L);
+        tokenProvider = new JwtTokenProvider(jwtProperties);
+        tokenVersionService = mock(TokenVersionService.class);
+        tokenRevocationService = mock(TokenRevocationService.class);
+        userDetailsService = mock(UserDetailsService.class);
+        filter = new JwtAuthenticationFilter(tokenProvider, tokenVersionService, tokenRevocationService, userDetailsService, jwtProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should authenticate from the token claims, including the profile id, without loading the user")
+    void testAuthenticatesFromClaims() throws Exception {
+        User user = User.builder().id(4L).username("techstore").role(Role.STORE).tokenVersion(2).build();
+        String token = tokenProvider.generateToken(AuthenticatedUser.of(user, null, 9L));
+        when(tokenVersionService.isCurrent(4L, 2L)).thenReturn(true);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        AuthenticatedUser principal = AuthenticatedUser.from(authentication);
+        assertEquals(new AuthenticatedUser(4L, "techstore", Role.STORE, null, 9L, 2L, principal.tokenId(), principal.expiresAt()), principal);
+        assertNotNull(principal.tokenId());
+        assertEquals("ROLE_STORE", authentication.getAuthorities().iterator().next().getAuthority());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Should leave the request unauthenticated when the token version was revoked")
+    void testRejectsRevokedToken() throws Exception {
+        User user = User.builder().id(5L).username("johndoe").role(Role.CUSTOMER).tokenVersion(0).build();
+        String token = tokenProvider.generateToken(AuthenticatedUser.of(user, 3L, null));
+        when(tokenVersionService.isCurrent(5L, 0L)).thenReturn(false);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Should leave the request unauthenticated when the token itself was revoked")
+    void testRejectsSinglyRevokedToken() throws Exception {
+        User user = User.builder().id(5L).username("johndoe").role(Role.CUSTOMER).tokenVersion(0).build();
+        String token = tokenProvider.generateToken(AuthenticatedUser.of(user, 3L, null));
+        when(tokenRevocationService.isRevoked(anyString())).thenReturn(true);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(tokenVersionService);
+    }
+
+    @Test
+    @DisplayName("Should take the role and token version from the user record when database principals are enabled")
+    void testAuthenticatesFromDatabasePrincipal() throws Exception {
+        jwtProperties.setDatabasePrincipals(true);
+        User issued = User.builder().id(6L).username("jane").role(Role.CUSTOMER).tokenVersion(1).build();
+        String token = tokenProvider.generateToken(AuthenticatedUser.of(issued, 8L, null));
+        User current = User.builder().id(6L).username("jane").role(Role.STORE).tokenVersion(1).build();
+        when(userDetailsService.loadUserByUsername("jane")).thenReturn(current);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        AuthenticatedUser principal = AuthenticatedUser.from(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(Role.STORE, principal.role());
+        assertEquals(8L, principal.customerId());
+        assertNotNull(principal.tokenId());
+        verifyNoInteractions(tokenVersionService);
+
+        SecurityContextHolder.clearContext();
+        current.setTokenVersion(2);
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Should verify the token on a public catalog route only once the security context is read")
+    void testDefersAuthenticationOnPublicCatalog() throws Exception {
+        User user = User.builder().id(7L).username("johndoe").role(Role.CUSTOMER).tokenVersion(0).build();
+        String token = tokenProvider.generateToken(AuthenticatedUser.of(user, 3L, null));
+        when(tokenVersionService.isCurrent(7L, 0L)).thenReturn(true);
+        MockHttpServletRequest request = request(token);
+        request.setRequestURI("/api/products");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verifyNoInteractions(tokenVersionService);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(7L, AuthenticatedUser.from(authentication).userId());
+        verify(tokenVersionService).isCurrent(7L, 0L);
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,116 @@
+package uom.eshop.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import tools.jackson.databind.json.JsonMapper;
+import uom.eshop.backend.config.RateLimitProperties;
+import uom.eshop.backend.model.Role;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RateLimitFilter Tests")
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setAuth(new RateLimitProperties.Policy(2, 0.1));
+        properties.setCheckout(new RateLimitProperties.Policy(1, 0.1));
+        properties.setBrowse(new RateLimitProperties.Policy(2, 0.1));
+        filter = new RateLimitFilter(properties, JsonMapper.builder().build(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once a client exhausts the login policy")
+    void testLimitsLogin() throws Exception {
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse limited = send("POST", "/api/auth/login", "10.0.0.1");
+
+        assertEquals(429, limited.getStatus());
+        assertEquals("10", limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("\"code\":\"RateLimited\""));
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.2").getStatus());
+        assertEquals(200, send("GET", "/api/cart", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should limit checkout per user rather than per address")
+    void testLimitsCheckoutPerUser() throws Exception {
+        authenticate(1L);
+        assertEquals(200, send("POST", "/api/orders/checkout", "10.0.0.1").getStatus());
+        assertEquals(429, send("POST", "/api/orders/checkout", "10.0.0.2").getStatus());
+
+        authenticate(2L);
+        assertEquals(200, send("POST", "/api/orders/checkout", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should give clients forwarded by a trusted proxy their own login buckets")
+    void testLimitsForwardedClientsSeparately() throws Exception {
+        assertEquals(200, send("POST", "/api/auth/login", "172.18.0.5", "203.0.113.10").getStatus());
+        assertEquals(200, send("POST", "/api/auth/login", "172.18.0.5", "203.0.113.10").getStatus());
+        assertEquals(429, send("POST", "/api/auth/login", "172.18.0.5", "203.0.113.10").getStatus());
+
+        assertEquals(200, send("POST", "/api/auth/login", "172.18.0.5", "203.0.113.20").getStatus());
+        assertEquals(200, send("POST", "/api/auth/login", "172.18.0.5", "198.51.100.7, 203.0.113.20").getStatus());
+        assertEquals(429, send("POST", "/api/auth/login", "172.18.0.5", "203.0.113.20").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should share one catalog bucket across catalog reads and availability checks of a forwarded client, separate from other clients")
+    void testLimitsForwardedBrowsingSeparately() throws Exception {
+        assertEquals(200, send("GET", "/api/products", "172.18.0.5", "203.0.113.10").getStatus());
+        assertEquals(200, send("GET", "/api/auth/availability", "172.18.0.5", "203.0.113.10").getStatus());
+        assertEquals(429, send("GET", "/api/stores/1", "172.18.0.5", "203.0.113.10").getStatus());
+
+        assertEquals(200, send("GET", "/api/auth/availability", "172.18.0.5", "203.0.113.20").getStatus());
+        assertEquals(200, send("GET", "/api/stores", "172.18.0.5", "203.0.113.20").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should ignore X-Forwarded-For sent by a client that is not a trusted proxy")
+    void testIgnoresForwardedForFromUntrustedClient() throws Exception {
+        assertEquals(200, send("POST", "/api/auth/login", "203.0.113.10", "198.51.100.1").getStatus());
+        assertEquals(200, send("POST", "/api/auth/login", "203.0.113.10", "198.51.100.2").getStatus());
+
+        assertEquals(429, send("POST", "/api/auth/login", "203.0.113.10", "198.51.100.3").getStatus());
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddress) throws Exception {
+        return send(method, uri, remoteAddress, null);
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddress, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static void authenticate(Long userId) {
+        AuthenticatedUser principal = new AuthenticatedUser(userId, "user" + userId, Role.CUSTOMER, userId, null, 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
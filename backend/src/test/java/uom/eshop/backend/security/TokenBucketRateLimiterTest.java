@@ -0,0 +1,59 @@
+package uom.eshop.backend.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucketRateLimiter Tests")
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    @DisplayName("Should allow a burst up to the capacity, then refill one token per interval")
+    void testBurstAndRefill() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 2, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    @DisplayName("Should drop only buckets that have refilled completely")
+    void testSweepDropsIdleBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 100, clock::get);
+        limiter.tryAcquire("idle");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(900));
+        limiter.tryAcquire("busy");
+        limiter.tryAcquire("busy");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertEquals(1, limiter.sweep());
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("busy") > 0);
+    }
+
+    @Test
+    @DisplayName("Should let new clients through unlimited once the maximum number of keys is tracked")
+    void testMaxKeys() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 1, clock::get);
+        limiter.tryAcquire("a");
+
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(1, limiter.size());
+        assertEquals(2, limiter.overflows());
+    }
+}
@@ -0,0 +1,62 @@
+package uom.eshop.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.model.RevokedToken;
+import uom.eshop.backend.repository.RevokedTokenRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TokenRevocationService Tests")
+class TokenRevocationServiceTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        service = new TokenRevocationService(revokedTokenRepository, new JwtProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should look tokens up exactly until the filter is built, and not touch the database for filter misses after")
+    void testFilterMissSkipsDatabase() {
+        assertFalse(service.isRevoked("not-revoked"));
+        verify(revokedTokenRepository).existsById("not-revoked");
+
+        service.rebuild();
+        clearInvocations(revokedTokenRepository);
+
+        assertFalse(service.isRevoked("not-revoked"));
+        assertFalse(service.isRevoked(null));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    @DisplayName("Should report revoked tokens, whether revoked here, on another instance or before the rebuild")
+    void testRevokedTokens() {
+        when(revokedTokenRepository.findUnexpiredTokenIds(any())).thenReturn(List.of("old"));
+        when(revokedTokenRepository.existsById(anyString())).thenReturn(true);
+        service.rebuild();
+
+        service.revoke("local", Instant.now().plusSeconds(60));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+
+        when(revokedTokenRepository.findTokenIdsRevokedSince(any(), any())).thenReturn(List.of("remote"));
+        service.poll();
+
+        assertTrue(service.isRevoked("old"));
+        assertTrue(service.isRevoked("local"));
+        assertTrue(service.isRevoked("remote"));
+        verify(revokedTokenRepository, times(3)).existsById(anyString());
+    }
+}
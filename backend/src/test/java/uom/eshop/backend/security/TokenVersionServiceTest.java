@@ -0,0 +1,90 @@
+package uom.eshop.backend.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uom.eshop.backend.cache.UserDetailsCache;
+import uom.eshop.backend.config.JwtProperties;
+import uom.eshop.backend.repository.UserRepository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TokenVersionService Tests")
+class TokenVersionServiceTest {
+
+    private UserRepository userRepository;
+    private TokenVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        service = new TokenVersionService(userRepository, mock(UserDetailsCache.class), new JwtProperties());
+    }
+
+    @Test
+    @DisplayName("Should cache the current version and reload it once the tokens of the user are revoked")
+    void testRevokeAllReloadsVersion() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L)).thenReturn(Optional.of(1L));
+        when(userRepository.incrementTokenVersion(1L)).thenReturn(1);
+
+        assertTrue(service.isCurrent(1L, 0L));
+        assertTrue(service.isCurrent(1L, 0L));
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+
+        service.revokeAll(1L, "johndoe");
+
+        assertFalse(service.isCurrent(1L, 0L));
+        assertTrue(service.isCurrent(1L, 1L));
+        verify(userRepository, times(2)).findTokenVersionById(1L);
+    }
+
+    @Test
+    @DisplayName("Should not cache a version whose load was running when the tokens of the user were revoked")
+    void testLoadRacingRevokeAllNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch revoked = new CountDownLatch(1);
+        when(userRepository.incrementTokenVersion(1L)).thenReturn(1);
+        // The load reads the version before it is bumped, and returns after the invalidation that follows the commit
+        when(userRepository.findTokenVersionById(1L))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    await(revoked);
+                    return Optional.of(0L);
+                })
+                .thenReturn(Optional.of(1L));
+
+        CompletableFuture<Boolean> racingCheck = CompletableFuture.supplyAsync(() -> service.isCurrent(1L, 0L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        service.revokeAll(1L, "johndoe");
+        revoked.countDown();
+
+        assertTrue(racingCheck.get(5, TimeUnit.SECONDS));
+        assertFalse(service.isCurrent(1L, 0L));
+        verify(userRepository, times(2)).findTokenVersionById(1L);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens of a user that no longer exists")
+    void testMissingUser() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(service.isCurrent(1L, 0L));
+        assertFalse(service.isCurrent(1L, 0L));
+        verify(userRepository, times(2)).findTokenVersionById(1L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package uom.eshop.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uom.eshop.backend.model.CustomerStats;
+import uom.eshop.backend.repository.CustomerStatsRepository;
+import uom.eshop.backend.repository.OrderRepository;
+import uom.eshop.backend.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomerStatsService Tests")
+class CustomerStatsServiceTest {
+
+    @Mock
+    private CustomerStatsRepository customerStatsRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private CustomerStatsService customerStatsService;
+
+    @Test
+    @DisplayName("Should rebuild the stats row from the customer's orders when it does not exist yet")
+    void testRecordStores_MissingRowRebuilt() {
+        when(customerStatsRepository.findByIdForUpdate(5L)).thenReturn(Optional.empty());
+        when(orderRepository.findDistinctStoreIdsByCustomerId(5L)).thenReturn(List.of(1L, 2L));
+        when(customerStatsRepository.insertIfAbsent(any())).thenReturn(1);
+
+        customerStatsService.recordStores(5L, List.of(2L));
+
+        ArgumentCaptor<CustomerStats> captor = ArgumentCaptor.forClass(CustomerStats.class);
+        verify(customerStatsRepository).insertIfAbsent(captor.capture());
+        assertEquals(5L, captor.getValue().getCustomerId());
+        assertEquals(2L, HyperLogLog.fromBytes(captor.getValue().getStoreSketch()).estimate());
+        verify(customerStatsRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should add the stores to the row a concurrent checkout created first")
+    void testRecordStores_MissingRowCreatedConcurrently() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(1L);
+        CustomerStats created = CustomerStats.builder()
+                .customerId(5L)
+                .storeSketch(sketch.toBytes())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        when(customerStatsRepository.findByIdForUpdate(5L)).thenReturn(Optional.empty()).thenReturn(Optional.of(created));
+        when(orderRepository.findDistinctStoreIdsByCustomerId(5L)).thenReturn(List.of(2L));
+        when(customerStatsRepository.insertIfAbsent(any())).thenReturn(0);
+
+        customerStatsService.recordStores(5L, List.of(2L));
+
+        assertEquals(2L, HyperLogLog.fromBytes(created.getStoreSketch()).estimate());
+        verify(customerStatsRepository, times(2)).findByIdForUpdate(5L);
+    }
+}
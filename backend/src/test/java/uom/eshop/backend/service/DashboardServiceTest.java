@@ -0,0 +1,111 @@
+package uom.eshop.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uom.eshop.backend.cache.CachedValue;
+import uom.eshop.backend.concurrent.ParallelQueryRunner;
+import uom.eshop.backend.dto.*;
+import uom.eshop.backend.exceptions.BadRequestException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DashboardService Tests")
+class DashboardServiceTest {
+
+    @Mock
+    private StoreService storeService;
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ParallelQueryRunner parallelQueryRunner;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        parallelQueryRunner = new ParallelQueryRunner(transactionManager, 2, 10, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        dashboardService = new DashboardService(storeService, customerService, productService, orderService, parallelQueryRunner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelQueryRunner.destroy();
+    }
+
+    @Test
+    @DisplayName("Should return every section of the store dashboard, each queried in its own transaction")
+    void testGetStoreDashboard() {
+        StoreStatsResponse stats = StoreStatsResponse.builder().totalOrders(3L).partial(false).build();
+        List<OrderResponse> orders = List.of(OrderResponse.builder().orderId(1L).build());
+        List<ProductResponse> products = List.of(ProductResponse.builder().id(2L).build());
+        List<TopProductResponse> topProducts = List.of(TopProductResponse.builder().productId(2L).quantitySold(5L).build());
+
+        when(storeService.getStoreStats(7L, false)).thenReturn(new CachedValue<>(stats, CachedValue.Status.HIT, Duration.ZERO));
+        when(storeService.getRecentStoreOrders(7L, 10)).thenReturn(orders);
+        when(productService.getStoreProducts(7L)).thenReturn(products);
+        when(storeService.getTopProducts(7L, 10, false)).thenReturn(topProducts);
+
+        StoreDashboardResponse dashboard = dashboardService.getStoreDashboard(7L, 10);
+
+        assertEquals(DashboardSection.Status.OK, dashboard.getStats().getStatus());
+        assertSame(stats, dashboard.getStats().getData());
+        assertEquals(DashboardSection.Status.OK, dashboard.getRecentOrders().getStatus());
+        assertEquals(orders, dashboard.getRecentOrders().getData());
+        assertEquals(products, dashboard.getProducts().getData());
+        assertEquals(topProducts, dashboard.getTopProducts().getData());
+        verify(transactionManager, times(3)).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Should return the other sections when one section of the customer dashboard fails")
+    void testGetCustomerDashboardWithFailedSection() {
+        CustomerStatsResponse stats = CustomerStatsResponse.builder().totalOrders(4L).partial(true).build();
+        List<OrderResponse> orders = List.of(OrderResponse.builder().orderId(9L).build());
+
+        when(customerService.getCustomerStats(3L, false)).thenReturn(new CachedValue<>(stats, CachedValue.Status.MISS, Duration.ZERO));
+        when(orderService.getRecentCustomerOrders(3L, 5)).thenReturn(orders);
+        when(productService.getRecommendedProducts(3L, 5)).thenThrow(new IllegalStateException("database unavailable"));
+
+        CustomerDashboardResponse dashboard = dashboardService.getCustomerDashboard(3L, 5);
+
+        assertEquals(DashboardSection.Status.PARTIAL, dashboard.getStats().getStatus());
+        assertSame(stats, dashboard.getStats().getData());
+        assertEquals(DashboardSection.Status.OK, dashboard.getRecentOrders().getStatus());
+        assertEquals(orders, dashboard.getRecentOrders().getData());
+        assertEquals(DashboardSection.Status.UNAVAILABLE, dashboard.getRecommendations().getStatus());
+        assertNull(dashboard.getRecommendations().getData());
+    }
+
+    @Test
+    @DisplayName("Should reject a limit outside the allowed range before querying anything")
+    void testGetStoreDashboardInvalidLimit() {
+        assertThrows(BadRequestException.class, () -> dashboardService.getStoreDashboard(7L, 0));
+        assertThrows(BadRequestException.class, () -> dashboardService.getCustomerDashboard(3L, 51));
+
+        verifyNoInteractions(storeService, customerService, productService, orderService);
+    }
+}
@@ -0,0 +1,122 @@
+package uom.eshop.backend.service;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports 5 million order lines in a separate JVM whose heap is far smaller than the CSV it writes,
+ * so an export that buffered its rows or its output would fail with an OutOfMemoryError.
+ * The orders live in a file-based H2 database, which keeps them on disk rather than on the heap.
+ * Generating and exporting the orders takes a few minutes, so the test only runs when asked for:
+ * mvn test -Dtest=OrderExportMemoryTest -Deshop.tests.large=true
+ */
+@EnabledIfSystemProperty(named = "eshop.tests.large", matches = "true")
+@DisplayName("OrderExportService memory Tests")
+class OrderExportMemoryTest {
+
+    private static final int ORDER_COUNT = 1_000_000;
+    private static final int ITEMS_PER_ORDER = 5;
+    private static final String HEAP_BUDGET = "-Xmx64m";
+    private static final Pattern RESULT = Pattern.compile("Exported (\\d+) lines, (\\d+) bytes");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should export 5M order lines within a 64 MiB heap")
+    void testExportWithinHeapBudget() throws Exception {
+        // Arrange
+        String url = "jdbc:h2:file:" + directory.resolve("orders") + ";MODE=PostgreSQL";
+        try (HikariDataSource dataSource = dataSource(url)) {
+            createOrders(new JdbcTemplate(dataSource));
+        }
+
+        // Act
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                HEAP_BUDGET, "-XX:+ExitOnOutOfMemoryError",
+                "-cp", System.getProperty("java.class.path"),
+                OrderExportMemoryTest.class.getName(), url)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        boolean finished = process.waitFor(5, TimeUnit.MINUTES);
+
+        // Assert
+        assertTrue(finished, "Export did not finish in time");
+        assertEquals(0, process.exitValue(), output);
+        Matcher result = RESULT.matcher(output);
+        assertTrue(result.find(), output);
+        long lines = Long.parseLong(result.group(1));
+        long bytes = Long.parseLong(result.group(2));
+        assertEquals((long) ORDER_COUNT * ITEMS_PER_ORDER, lines);
+        assertTrue(bytes > 64L * 1024 * 1024 * 4, "The export should be much larger than the heap, was " + bytes + " bytes");
+    }
+
+    /**
+     * Runs the export in the child JVM and prints the number of lines and bytes written.
+     */
+    public static void main(String[] args) throws IOException {
+        try (HikariDataSource dataSource = dataSource(args[0])) {
+            CountingOutputStream out = new CountingOutputStream();
+            long lines = new OrderExportService(new JdbcTemplate(dataSource)).exportStoreOrders(1L, null, null, out, false);
+            System.out.println("Exported " + lines + " lines, " + out.count + " bytes");
+        }
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername("sa");
+        config.setMaximumPoolSize(1);
+        return new HikariDataSource(config);
+    }
+
+    private static void createOrders(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE customers (id BIGINT PRIMARY KEY, first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, title VARCHAR(255) NOT NULL, brand VARCHAR(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT NOT NULL, store_id BIGINT NOT NULL, " +
+                "total_price NUMERIC(12, 2) NOT NULL, order_date TIMESTAMP NOT NULL, status VARCHAR(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, " +
+                "quantity INT NOT NULL, price_at_purchase NUMERIC(12, 2) NOT NULL, subtotal NUMERIC(12, 2) NOT NULL)");
+
+        jdbcTemplate.execute("INSERT INTO customers SELECT x, 'First' || x, 'Last' || x FROM SYSTEM_RANGE(1, 1000)");
+        jdbcTemplate.execute("INSERT INTO products SELECT x, 'Product ' || x, 'Brand ' || MOD(x, 20) FROM SYSTEM_RANGE(1, 500)");
+        jdbcTemplate.execute("INSERT INTO orders SELECT x, MOD(x, 1000) + 1, 1, 99.95, TIMESTAMP '2024-01-01 00:00:00' + x * INTERVAL '1' SECOND, 'COMPLETED' " +
+                "FROM SYSTEM_RANGE(1, " + ORDER_COUNT + ")");
+        jdbcTemplate.execute("INSERT INTO order_items SELECT x, (x - 1) / " + ITEMS_PER_ORDER + " + 1, MOD(x, 500) + 1, 1, 19.99, 19.99 " +
+                "FROM SYSTEM_RANGE(1, " + (long) ORDER_COUNT * ITEMS_PER_ORDER + ")");
+        jdbcTemplate.execute("CREATE INDEX idx_orders_store_date ON orders (store_id, order_date, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
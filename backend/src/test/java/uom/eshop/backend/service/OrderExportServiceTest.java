@@ -0,0 +1,182 @@
+package uom.eshop.backend.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import uom.eshop.backend.exceptions.BadRequestException;
+import uom.eshop.backend.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(OrderExportService.class)
+@DisplayName("OrderExportService Tests")
+class OrderExportServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Store store;
+    private Order firstOrder;
+    private Order secondOrder;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = Customer.builder()
+                .taxId("123456789")
+                .firstName("John")
+                .lastName("Doe")
+                .user(user("john", Role.CUSTOMER))
+                .build();
+        entityManager.persist(customer);
+        store = Store.builder()
+                .taxId("111222333")
+                .name("Tech Store")
+                .owner("Owner")
+                .user(user("tech", Role.STORE))
+                .build();
+        entityManager.persist(store);
+        Store otherStore = Store.builder()
+                .taxId("444555666")
+                .name("Other Store")
+                .owner("Owner")
+                .user(user("other", Role.STORE))
+                .build();
+        entityManager.persist(otherStore);
+
+        Product laptop = product("MacBook Pro 16\", M3", "Apple", store);
+        Product formula = product("=HYPERLINK(\"http://example.com\")", "Brand", store);
+        Product book = product("Novel", "Publisher", otherStore);
+
+        // Persisted newest first, the export lists them oldest first
+        secondOrder = order(customer, store, START.plusDays(2), laptop);
+        firstOrder = order(customer, store, START, laptop, formula);
+        order(customer, otherStore, START.plusDays(1), book);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should export one CSV line per order item of the store, oldest order first, with quoted text")
+    void testExportStoreOrders() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long lines = orderExportService.exportStoreOrders(store.getId(), null, null, out, false);
+
+        // Assert
+        String[] csv = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines);
+        assertEquals(4, csv.length);
+        assertEquals(OrderExportService.HEADER, csv[0]);
+        assertTrue(csv[1].startsWith(firstOrder.getId() + ",2025-01-01T12:00,COMPLETED,"));
+        assertTrue(csv[1].contains(",John Doe,2000.00,"));
+        assertTrue(csv[1].contains(",\"MacBook Pro 16\"\", M3\",Apple,1,1000.00,1000.00"));
+        assertTrue(csv[2].contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\",Brand,"));
+        assertTrue(csv[3].startsWith(secondOrder.getId() + ",2025-01-03T12:00,"));
+    }
+
+    @Test
+    @DisplayName("Should export only the orders placed in the date range")
+    void testExportStoreOrdersInRange() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long lines = orderExportService.exportStoreOrders(store.getId(), START.plusDays(1), START.plusDays(3), out, false);
+
+        // Assert
+        String[] csv = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1, lines);
+        assertEquals(2, csv.length);
+        assertTrue(csv[1].startsWith(secondOrder.getId() + ","));
+    }
+
+    @Test
+    @DisplayName("Should gzip-compress the export when asked to")
+    void testExportStoreOrdersGzip() throws IOException {
+        // Arrange
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        // Act
+        orderExportService.exportStoreOrders(store.getId(), null, null, plain, false);
+        orderExportService.exportStoreOrders(store.getId(), null, null, compressed, true);
+
+        // Assert
+        byte[] decompressed = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())).readAllBytes();
+        assertArrayEquals(plain.toByteArray(), decompressed);
+    }
+
+    @Test
+    @DisplayName("Should reject a date range that ends before it starts")
+    void testExportStoreOrdersInvalidRange() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> orderExportService.validateRange(START, START));
+        assertThrows(BadRequestException.class,
+                () -> orderExportService.exportStoreOrders(store.getId(), START, START.minusDays(1), new ByteArrayOutputStream(), false));
+    }
+
+    private User user(String username, Role role) {
+        User user = User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .role(role)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Product product(String title, String brand, Store owner) {
+        Product product = Product.builder()
+                .title(title)
+                .type("Type")
+                .brand(brand)
+                .description("Description")
+                .price(new BigDecimal("1000.00"))
+                .stockQuantity(10)
+                .store(owner)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+
+    private Order order(Customer customer, Store seller, LocalDateTime orderDate, Product... products) {
+        Order order = Order.builder()
+                .customer(customer)
+                .store(seller)
+                .totalPrice(new BigDecimal("1000.00").multiply(BigDecimal.valueOf(products.length)))
+                .orderDate(orderDate)
+                .build();
+        entityManager.persist(order);
+        for (Product product : products) {
+            entityManager.persist(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(1)
+                    .priceAtPurchase(product.getPrice())
+                    .subtotal(product.getPrice())
+                    .build());
+        }
+        return order;
+    }
+}
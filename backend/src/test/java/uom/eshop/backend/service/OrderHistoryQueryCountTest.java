@@ -0,0 +1,281 @@
+package uom.eshop.backend.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import uom.eshop.backend.cache.DashboardStatsCache;
+import uom.eshop.backend.cache.PurchasedProductCache;
+import uom.eshop.backend.dto.OrderHistoryPage;
+import uom.eshop.backend.dto.OrderHistoryRequest;
+import uom.eshop.backend.dto.OrderResponse;
+import uom.eshop.backend.model.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement-count regression tests for the order history endpoints: however many orders are listed and however deep the page,
+ * each must take one query for the page of orders, one for the orders with their customer and store and one for the items with their products.
+ * Also covers the keyset pagination and the filters of the order histories against the database.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(OrderService.class)
+@DisplayName("Order history query count Tests")
+class OrderHistoryQueryCountTest {
+
+    private static final int ORDER_COUNT = 6;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private PurchasedProductCache purchasedProductCache;
+
+    @MockitoBean
+    private StoreStatsService storeStatsService;
+
+    @MockitoBean
+    private CustomerStatsService customerStatsService;
+
+    @MockitoBean
+    private SalesRollupService salesRollupService;
+
+    @MockitoBean
+    private DashboardStatsCache dashboardStatsCache;
+
+    private Statistics statistics;
+    private Customer customer;
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        customer = customer("john", "123456789");
+        Customer otherCustomer = customer("jane", "987654321");
+        store = store("tech", "111222333");
+        Store otherStore = store("books", "444555666");
+        Product laptop = product("Laptop", store);
+        Product mouse = product("Mouse", store);
+        Product novel = product("Novel", otherStore);
+
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            order(i % 2 == 0 ? customer : otherCustomer, store, START.plusDays(i), OrderStatus.COMPLETED, laptop, mouse);
+        }
+        // Placed at the same time as the newest order of the store
+        order(otherCustomer, store, START.plusDays(ORDER_COUNT - 1), OrderStatus.CANCELLED, laptop, mouse);
+        order(customer, otherStore, START.plusDays(ORDER_COUNT), OrderStatus.COMPLETED, novel, novel);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should load a page of a customer's order history in three statements")
+    void testGetCustomerOrders() {
+        // Act
+        OrderHistoryPage page = orderService.getCustomerOrders(customer.getId(), request(null, 20));
+
+        // Assert
+        List<OrderResponse> orders = page.getOrders();
+        assertEquals(ORDER_COUNT / 2 + 1, orders.size());
+        assertNull(page.getNextCursor());
+        assertEquals("Books Store", orders.get(0).getStoreName());
+        assertEquals("John Doe", orders.get(1).getCustomerName());
+        assertEquals(2, orders.get(1).getItems().size());
+        assertEquals("Laptop", orders.get(1).getItems().get(0).getProductTitle());
+        assertTrue(orders.get(1).getOrderDate().isAfter(orders.get(2).getOrderDate()));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should load the recent orders of a customer in three statements")
+    void testGetRecentCustomerOrders() {
+        // Act
+        List<OrderResponse> orders = orderService.getRecentCustomerOrders(customer.getId(), 2);
+
+        // Assert
+        assertEquals(2, orders.size());
+        assertEquals(2, orders.get(1).getItems().size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should walk a store's order history page by page with the cursor, in three statements per page")
+    void testGetStoreOrdersPages() {
+        // Arrange
+        List<Long> expected = orderService.getStoreOrders(store.getId(), request(null, 20)).getOrders().stream()
+                .map(OrderResponse::getOrderId)
+                .toList();
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+
+        // Act
+        do {
+            statistics.clear();
+            OrderHistoryPage page = orderService.getStoreOrders(store.getId(), request(cursor, 2));
+            assertEquals(3, statistics.getPrepareStatementCount());
+            assertTrue(page.getOrders().size() <= 2);
+            page.getOrders().forEach(order -> walked.add(order.getOrderId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(ORDER_COUNT + 1, expected.size());
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    @DisplayName("Should break ties between orders placed at the same time by id")
+    void testGetStoreOrdersSameDate() {
+        // Act
+        OrderHistoryPage first = orderService.getStoreOrders(store.getId(), request(null, 1));
+        OrderHistoryPage second = orderService.getStoreOrders(store.getId(), request(first.getNextCursor(), 1));
+
+        // Assert
+        OrderResponse newest = first.getOrders().get(0);
+        OrderResponse next = second.getOrders().get(0);
+        assertEquals("CANCELLED", newest.getStatus());
+        assertEquals(newest.getOrderDate(), next.getOrderDate());
+        assertTrue(newest.getOrderId() > next.getOrderId());
+    }
+
+    @Test
+    @DisplayName("Should filter a store's order history by date range and status")
+    void testGetStoreOrdersFiltered() {
+        // Arrange
+        OrderHistoryRequest range = OrderHistoryRequest.builder()
+                .from(START.plusDays(1))
+                .to(START.plusDays(3))
+                .size(20)
+                .build();
+        OrderHistoryRequest cancelled = OrderHistoryRequest.builder()
+                .status("cancelled")
+                .size(20)
+                .build();
+
+        // Act
+        List<OrderResponse> inRange = orderService.getStoreOrders(store.getId(), range).getOrders();
+        List<OrderResponse> cancelledOrders = orderService.getStoreOrders(store.getId(), cancelled).getOrders();
+
+        // Assert
+        assertEquals(2, inRange.size());
+        assertEquals(START.plusDays(2), inRange.get(0).getOrderDate());
+        assertEquals(START.plusDays(1), inRange.get(1).getOrderDate());
+        assertEquals(1, cancelledOrders.size());
+        assertEquals("CANCELLED", cancelledOrders.get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should load the recent orders of a store in three statements")
+    void testGetRecentStoreOrders() {
+        // Act
+        List<OrderResponse> orders = orderService.getRecentStoreOrders(store.getId(), 4);
+
+        // Assert
+        assertEquals(4, orders.size());
+        assertEquals("Mouse", orders.get(3).getItems().get(1).getProductTitle());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should stop after the id query when there are no orders")
+    void testGetStoreOrdersEmpty() {
+        // Act
+        List<OrderResponse> orders = orderService.getStoreOrders(-1L, request(null, 20)).getOrders();
+
+        // Assert
+        assertTrue(orders.isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Customer customer(String username, String taxId) {
+        Customer created = Customer.builder()
+                .taxId(taxId)
+                .firstName(Character.toUpperCase(username.charAt(0)) + username.substring(1))
+                .lastName("Doe")
+                .user(user(username, Role.CUSTOMER))
+                .build();
+        entityManager.persist(created);
+        entityManager.persist(ShoppingCart.builder().customer(created).build());
+        return created;
+    }
+
+    private Store store(String username, String taxId) {
+        Store created = Store.builder()
+                .taxId(taxId)
+                .name(Character.toUpperCase(username.charAt(0)) + username.substring(1) + " Store")
+                .owner("Owner")
+                .user(user(username, Role.STORE))
+                .build();
+        entityManager.persist(created);
+        return created;
+    }
+
+    private User user(String username, Role role) {
+        User user = User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .role(role)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Product product(String title, Store owner) {
+        Product product = Product.builder()
+                .title(title)
+                .type(title)
+                .brand("Brand")
+                .description("Description")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(10)
+                .store(owner)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+
+    private static OrderHistoryRequest request(String cursor, int size) {
+        return OrderHistoryRequest.builder()
+                .cursor(cursor)
+                .size(size)
+                .build();
+    }
+
+    private void order(Customer buyer, Store seller, LocalDateTime orderDate, OrderStatus status, Product... products) {
+        Order order = Order.builder()
+                .customer(buyer)
+                .store(seller)
+                .totalPrice(new BigDecimal("20.00"))
+                .orderDate(orderDate)
+                .status(status)
+                .build();
+        entityManager.persist(order);
+        for (Product product : products) {
+            entityManager.persist(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(1)
+                    .priceAtPurchase(product.getPrice())
+                    .subtotal(product.getPrice())
+                    .build());
+        }
+    }
+}
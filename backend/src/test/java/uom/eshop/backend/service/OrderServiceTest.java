@@ -7,7 +7,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
+import uom.eshop.backend.cache.DashboardStatsCache;
+import uom.eshop.backend.cache.PurchasedProductCache;
+import uom.eshop.backend.dto.OrderHistoryRequest;
 import uom.eshop.backend.dto.OrderResponse;
 import uom.eshop.backend.exceptions.BadRequestException;
 import uom.eshop.backend.exceptions.ForbiddenException;
@@ -15,15 +19,20 @@ import uom.eshop.backend.exceptions.InsufficientStockException;
 import uom.eshop.backend.exceptions.NotFoundException;
 import uom.eshop.backend.model.*;
 import uom.eshop.backend.repository.*;
+import uom.eshop.backend.security.AuthenticatedUser;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +57,21 @@ class OrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private PurchasedProductCache purchasedProductCache;
+
+    @Mock
+    private StoreStatsService storeStatsService;
+
+    @Mock
+    private CustomerStatsService customerStatsService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private DashboardStatsCache dashboardStatsCache;
+
     @Mock
     private Authentication authentication;
 
@@ -138,8 +162,7 @@ class OrderServiceTest {
     @DisplayName("Should successfully complete order with multiple stores")
     void testCompleteOrder_MultiStore_Success() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockCustomerUser);
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
         
         Order order1 = Order.builder()
@@ -171,7 +194,7 @@ class OrderServiceTest {
         when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(mockCart);
 
         // Act
-        List<OrderResponse> result = orderService.completeOrder(authentication);
+        List<OrderResponse> result = orderService.completeOrder(1L);
 
         // Assert
         assertNotNull(result);
@@ -184,6 +207,14 @@ class OrderServiceTest {
         verify(orderRepository, times(2)).save(any(Order.class));
         verify(orderItemRepository, times(2)).save(any(OrderItem.class));
         verify(productRepository, times(2)).save(any(Product.class));
+        verify(purchasedProductCache).recordPurchases(1L, Set.of(1L, 2L));
+        verify(storeStatsService).recordOrder(1L, 1L, OrderStatus.COMPLETED, new BigDecimal("1999.98"), Map.of(1L, 2L), 0);
+        verify(storeStatsService).recordOrder(2L, 1L, OrderStatus.COMPLETED, new BigDecimal("899.99"), Map.of(2L, 1L), 0);
+        verify(customerStatsService).recordStores(1L, List.of(1L, 2L));
+        verify(dashboardStatsCache).markCustomerDirty(1L);
+        verify(dashboardStatsCache).markStoresDirty(List.of(1L, 2L));
+        verify(salesRollupService).recordOrder(eq(1L), eq(1L), any(), eq(new BigDecimal("1999.98")), eq(2L));
+        verify(salesRollupService).recordOrder(eq(2L), eq(1L), any(), eq(new BigDecimal("899.99")), eq(1L));
         verify(cartItemRepository).deleteAll(mockCart.getItems());
     }
 
@@ -191,20 +222,18 @@ class OrderServiceTest {
     @DisplayName("Should throw exception when cart is empty")
     void testCompleteOrder_EmptyCart() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockCustomerUser);
-        
         ShoppingCart emptyCart = ShoppingCart.builder()
                 .id(1L)
                 .customer(mockCustomer)
                 .items(new ArrayList<>())
                 .build();
 
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(emptyCart));
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class,
-            () -> orderService.completeOrder(authentication));
+            () -> orderService.completeOrder(1L));
         
         assertEquals("Cart is empty", exception.getMessage());
         verify(orderRepository, never()).save(any());
@@ -214,15 +243,14 @@ class OrderServiceTest {
     @DisplayName("Should throw exception when insufficient stock during checkout")
     void testCompleteOrder_InsufficientStock() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockCustomerUser);
         mockProduct1.setStockQuantity(1); // Less than cart quantity (2)
         
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
 
         // Act & Assert
         InsufficientStockException exception = assertThrows(InsufficientStockException.class,
-            () -> orderService.completeOrder(authentication));
+            () -> orderService.completeOrder(1L));
         
         assertTrue(exception.getMessage().contains("Insufficient stock"));
         verify(orderRepository, never()).save(any());
@@ -230,38 +258,99 @@ class OrderServiceTest {
     }
 
     @Test
-    @DisplayName("Should successfully get customer orders")
-    void testGetCustomerOrders_Success() {
+    @DisplayName("Should successfully get recent customer orders, loading orders and items in one query each")
+    void testGetRecentCustomerOrders_Success() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockCustomerUser);
-        
         Order order1 = Order.builder()
                 .id(1L)
                 .customer(mockCustomer)
                 .store(mockStore1)
                 .totalPrice(new BigDecimal("1999.98"))
-                .items(new ArrayList<>())
+                .build();
+        Order order2 = Order.builder()
+                .id(2L)
+                .customer(mockCustomer)
+                .store(mockStore1)
+                .totalPrice(new BigDecimal("999.99"))
+                .build();
+        OrderItem item = OrderItem.builder()
+                .id(10L)
+                .order(order2)
+                .product(mockProduct1)
+                .quantity(1)
+                .priceAtPurchase(new BigDecimal("999.99"))
+                .subtotal(new BigDecimal("999.99"))
                 .build();
 
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
-        when(orderRepository.findByCustomerOrderByOrderDateDesc(mockCustomer))
-                .thenReturn(Arrays.asList(order1));
+        when(orderRepository.findIdsByCustomerId(eq(1L), eq(PageRequest.of(0, 5)))).thenReturn(List.of(2L, 1L));
+        when(orderRepository.findWithCustomerAndStoreByIdIn(List.of(2L, 1L))).thenReturn(Arrays.asList(order1, order2));
+        when(orderItemRepository.findWithProductByOrderIdIn(List.of(2L, 1L))).thenReturn(List.of(item));
 
         // Act
-        List<OrderResponse> result = orderService.getCustomerOrders(authentication);
+        List<OrderResponse> result = orderService.getRecentCustomerOrders(1L, 5);
 
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(1L, result.get(0).getOrderId());
-        verify(orderRepository).findByCustomerOrderByOrderDateDesc(mockCustomer);
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getOrderId());
+        assertEquals(1, result.get(0).getItems().size());
+        assertEquals(mockProduct1.getId(), result.get(0).getItems().get(0).getProductId());
+        assertEquals(1L, result.get(1).getOrderId());
+        assertTrue(result.get(1).getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not query orders or items when the customer has no orders")
+    void testGetRecentCustomerOrders_None() {
+        // Arrange
+        when(orderRepository.findIdsByCustomerId(eq(1L), any())).thenReturn(List.of());
+
+        // Act
+        List<OrderResponse> result = orderService.getRecentCustomerOrders(1L, 5);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(orderRepository, never()).findWithCustomerAndStoreByIdIn(any());
+        verifyNoInteractions(orderItemRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject order history pages with an invalid size, date range, status or cursor without querying")
+    void testGetCustomerOrders_InvalidRequest() {
+        // Arrange
+        List<OrderHistoryRequest> requests = List.of(
+                OrderHistoryRequest.builder().size(0).build(),
+                OrderHistoryRequest.builder().size(OrderService.MAX_HISTORY_PAGE_SIZE + 1).build(),
+                OrderHistoryRequest.builder().size(20).from(LocalDateTime.of(2025, 2, 1, 0, 0)).to(LocalDateTime.of(2025, 1, 1, 0, 0)).build(),
+                OrderHistoryRequest.builder().size(20).status("SHIPPED").build(),
+                OrderHistoryRequest.builder().size(20).cursor("not-a-cursor").build());
+
+        // Act & Assert
+        for (OrderHistoryRequest request : requests) {
+            assertThrows(BadRequestException.class, () -> orderService.getCustomerOrders(1L, request));
+        }
+        verifyNoInteractions(orderRepository, orderItemRepository);
+    }
+
+    @Test
+    @DisplayName("Should decode an order cursor to the position it was encoded from")
+    void testOrderCursorRoundTrip() {
+        // Arrange
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000), 42L);
+
+        // Act
+        String token = cursor.encode();
+
+        // Assert
+        assertEquals(cursor, OrderCursor.decode(token));
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
     }
 
     @Test
     @DisplayName("Should successfully get order by ID for authorized customer")
     void testGetOrderById_AuthorizedCustomer() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockCustomerUser);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(mockCustomerUser, 1L, null));
         
         Order order = Order.builder()
                 .id(1L)
@@ -272,7 +361,6 @@ class OrderServiceTest {
                 .build();
 
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
 
         // Act
         OrderResponse result = orderService.getOrderById(1L, authentication);
@@ -287,7 +375,7 @@ class OrderServiceTest {
     @DisplayName("Should throw exception when customer tries to view another customer's order")
     void testGetOrderById_UnauthorizedCustomer() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockCustomerUser);
+        when(authentication.getPrincipal()).thenReturn(AuthenticatedUser.of(mockCustomerUser, 1L, null));
         
         Customer anotherCustomer = Customer.builder()
                 .id(2L)
@@ -302,7 +390,6 @@ class OrderServiceTest {
                 .build();
 
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
 
         // Act & Assert
         ForbiddenException exception = assertThrows(ForbiddenException.class,
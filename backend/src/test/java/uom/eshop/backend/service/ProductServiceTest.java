@@ -6,27 +6,39 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.Authentication;
+import uom.eshop.backend.cache.DashboardStatsCache;
+import uom.eshop.backend.cache.PurchasedProductCache;
+import uom.eshop.backend.config.RecommendationProperties;
 import uom.eshop.backend.dto.AddProductRequest;
 import uom.eshop.backend.dto.ProductResponse;
 import uom.eshop.backend.dto.UpdateProductStockRequest;
+import uom.eshop.backend.exceptions.BadRequestException;
 import uom.eshop.backend.exceptions.ForbiddenException;
 import uom.eshop.backend.exceptions.NotFoundException;
+import uom.eshop.backend.model.Customer;
+import uom.eshop.backend.model.CustomerRecommendation;
 import uom.eshop.backend.model.Product;
 import uom.eshop.backend.model.Role;
 import uom.eshop.backend.model.Store;
 import uom.eshop.backend.model.User;
+import uom.eshop.backend.repository.CustomerRecommendationRepository;
+import uom.eshop.backend.repository.CustomerRepository;
+import uom.eshop.backend.repository.OrderRepository;
 import uom.eshop.backend.repository.ProductRepository;
 import uom.eshop.backend.repository.StoreRepository;
+import uom.eshop.backend.sketch.RoaringBitmap;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,7 +52,28 @@ class ProductServiceTest {
     private StoreRepository storeRepository;
 
     @Mock
-    private Authentication authentication;
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CustomerRecommendationRepository customerRecommendationRepository;
+
+    @Mock
+    private PurchasedProductCache purchasedProductCache;
+
+    @Mock
+    private StoreStatsService storeStatsService;
+
+    @Spy
+    private RecommendationProperties recommendationProperties = new RecommendationProperties();
+
+    @Mock
+    private DashboardStatsCache dashboardStatsCache;
+
+    @Mock
+    private StoreDirectoryService storeDirectoryService;
 
     @InjectMocks
     private ProductService productService;
@@ -92,12 +125,11 @@ class ProductServiceTest {
     @DisplayName("Should successfully add a product")
     void testAddProduct_Success() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockStoreUser);
-        when(storeRepository.findByUser(mockStoreUser)).thenReturn(Optional.of(mockStore));
+        when(storeRepository.getReferenceById(1L)).thenReturn(mockStore);
         when(productRepository.save(any(Product.class))).thenReturn(mockProduct);
 
         // Act
-        ProductResponse result = productService.addProduct(addProductRequest, authentication);
+        ProductResponse result = productService.addProduct(addProductRequest, 1L);
 
         // Assert
         assertNotNull(result);
@@ -107,52 +139,36 @@ class ProductServiceTest {
         assertEquals(50, result.getStockQuantity());
         assertEquals(1L, result.getStoreId());
 
-        verify(storeRepository).findByUser(mockStoreUser);
+        verify(storeRepository).getReferenceById(1L);
         verify(productRepository).save(any(Product.class));
-    }
-
-    @Test
-    @DisplayName("Should throw exception when store profile not found")
-    void testAddProduct_StoreNotFound() {
-        // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockStoreUser);
-        when(storeRepository.findByUser(mockStoreUser)).thenReturn(Optional.empty());
-
-        // Act & Assert
-        NotFoundException exception = assertThrows(NotFoundException.class,
-            () -> productService.addProduct(addProductRequest, authentication));
-        
-        assertEquals("Store profile not found for user", exception.getMessage());
-        verify(productRepository, never()).save(any());
+        verify(storeDirectoryService).markChanged();
     }
 
     @Test
     @DisplayName("Should successfully update product stock")
     void testUpdateProductStock_Success() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockStoreUser);
-
         UpdateProductStockRequest request = UpdateProductStockRequest.builder()
                 .stockQuantity(100)
                 .build();
 
-        when(storeRepository.findByUser(mockStoreUser)).thenReturn(Optional.of(mockStore));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
         when(productRepository.save(any(Product.class))).thenReturn(mockProduct);
 
         // Act
-        ProductResponse result = productService.updateProductStock(1L, request, authentication);
+        ProductResponse result = productService.updateProductStock(1L, request, 1L);
 
         // Assert
         assertNotNull(result);
         verify(productRepository).save(any(Product.class));
+        verify(storeStatsService).recordStockChange(1L, 50, 100);
+        verify(dashboardStatsCache).markStoresDirty(List.of(1L));
     }
 
     @Test
     @DisplayName("Should throw exception when updating another store's product")
     void testUpdateProductStock_UnauthorizedStore() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockStoreUser);
         Store anotherStore = Store.builder().id(2L).name("Another Store").build();
         Product anotherProduct = Product.builder()
                 .id(2L)
@@ -160,12 +176,11 @@ class ProductServiceTest {
                 .build();
 
         UpdateProductStockRequest request = new UpdateProductStockRequest(100);
-        when(storeRepository.findByUser(mockStoreUser)).thenReturn(Optional.of(mockStore));
         when(productRepository.findById(2L)).thenReturn(Optional.of(anotherProduct));
 
         // Act & Assert
         ForbiddenException exception = assertThrows(ForbiddenException.class,
-            () -> productService.updateProductStock(2L, request, authentication));
+            () -> productService.updateProductStock(2L, request, 1L));
         
         assertEquals("You can only update products from your own store", exception.getMessage());
         verify(productRepository, never()).save(any());
@@ -175,7 +190,6 @@ class ProductServiceTest {
     @DisplayName("Should successfully get store products")
     void testGetStoreProducts_Success() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockStoreUser);
         Product product2 = Product.builder()
                 .id(2L)
                 .title("MacBook Pro")
@@ -186,11 +200,11 @@ class ProductServiceTest {
                 .store(mockStore)
                 .build();
 
-        when(storeRepository.findByUser(mockStoreUser)).thenReturn(Optional.of(mockStore));
+        when(storeRepository.getReferenceById(1L)).thenReturn(mockStore);
         when(productRepository.findByStore(mockStore)).thenReturn(Arrays.asList(mockProduct, product2));
 
         // Act
-        List<ProductResponse> result = productService.getStoreProducts(authentication);
+        List<ProductResponse> result = productService.getStoreProducts(1L);
 
         // Assert
         assertNotNull(result);
@@ -234,13 +248,11 @@ class ProductServiceTest {
     @DisplayName("Should successfully update entire product")
     void testUpdateProduct_Success() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockStoreUser);
-        when(storeRepository.findByUser(mockStoreUser)).thenReturn(Optional.of(mockStore));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
         when(productRepository.save(any(Product.class))).thenReturn(mockProduct);
 
         // Act
-        ProductResponse result = productService.updateProduct(1L, addProductRequest, authentication);
+        ProductResponse result = productService.updateProduct(1L, addProductRequest, 1L);
 
         // Assert
         assertNotNull(result);
@@ -251,36 +263,126 @@ class ProductServiceTest {
     @DisplayName("Should successfully delete product")
     void testDeleteProduct_Success() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockStoreUser);
-        when(storeRepository.findByUser(mockStoreUser)).thenReturn(Optional.of(mockStore));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
 
         // Act
-        productService.deleteProduct(1L, authentication);
+        productService.deleteProduct(1L, 1L);
 
         // Assert
         verify(productRepository).delete(mockProduct);
+        verify(storeDirectoryService).markChanged();
     }
 
     @Test
     @DisplayName("Should throw exception when deleting another store's product")
     void testDeleteProduct_UnauthorizedStore() {
         // Arrange
-        when(authentication.getPrincipal()).thenReturn(mockStoreUser);
         Store anotherStore = Store.builder().id(2L).name("Another Store").build();
         Product anotherProduct = Product.builder()
                 .id(2L)
                 .store(anotherStore)
                 .build();
 
-        when(storeRepository.findByUser(mockStoreUser)).thenReturn(Optional.of(mockStore));
         when(productRepository.findById(2L)).thenReturn(Optional.of(anotherProduct));
 
         // Act & Assert
         ForbiddenException exception = assertThrows(ForbiddenException.class,
-            () -> productService.deleteProduct(2L, authentication));
+            () -> productService.deleteProduct(2L, 1L));
         
         assertEquals("You can only delete products from your own store", exception.getMessage());
         verify(productRepository, never()).delete(any(Product.class));
+        verify(storeDirectoryService, never()).markChanged();
+    }
+
+    @Test
+    @DisplayName("Should leave already purchased products out of recommendations")
+    void testGetRecommendedProducts_ExcludesPurchased() {
+        // Arrange
+        User customerUser = User.builder().id(2L).username("johndoe").role(Role.CUSTOMER).build();
+        Customer customer = Customer.builder().id(5L).user(customerUser).build();
+        Product newest = Product.builder().id(30L).title("iPad Air").stockQuantity(5).store(mockStore).build();
+        Product purchased = Product.builder().id(20L).title("iPhone 14").stockQuantity(5).store(mockStore).build();
+        Product older = Product.builder().id(10L).title("AirPods").stockQuantity(5).store(mockStore).build();
+        when(customerRepository.getReferenceById(5L)).thenReturn(customer);
+        when(orderRepository.findDistinctProductTypesByCustomer(customer)).thenReturn(List.of("Smartphone"));
+        when(orderRepository.findDistinctProductBrandsByCustomer(customer)).thenReturn(List.of("Apple"));
+        when(purchasedProductCache.getPurchasedProducts(5L)).thenReturn(RoaringBitmap.of(List.of(20L)));
+        when(productRepository.findRecommendationCandidates(any(), any(), eq(Long.MAX_VALUE), any()))
+                .thenReturn(Arrays.asList(newest, purchased, older));
+
+        // Act
+        List<ProductResponse> result = productService.getRecommendedProducts(5L, 2);
+
+        // Assert
+        assertEquals(List.of(30L, 10L), result.stream().map(ProductResponse::getId).toList());
+        verify(orderRepository, never()).findDistinctProductIdsByCustomer(any());
+    }
+
+    @Test
+    @DisplayName("Should serve precomputed recommendations without running the live query")
+    void testGetRecommendedProducts_Precomputed() {
+        // Arrange
+        User customerUser = User.builder().id(2L).username("johndoe").role(Role.CUSTOMER).build();
+        Customer customer = Customer.builder().id(5L).user(customerUser).build();
+        Product inStock = Product.builder().id(30L).title("iPad Air").stockQuantity(5).store(mockStore).build();
+        Product soldOut = Product.builder().id(20L).title("iPhone 14").stockQuantity(0).store(mockStore).build();
+        CustomerRecommendation recommendation = CustomerRecommendation.builder()
+                .customerId(5L)
+                .productIds(new Long[]{20L, 30L})
+                .computedAt(LocalDateTime.now())
+                .build();
+        when(customerRepository.getReferenceById(5L)).thenReturn(customer);
+        when(customerRecommendationRepository.findById(5L)).thenReturn(Optional.of(recommendation));
+        when(purchasedProductCache.getPurchasedProducts(5L)).thenReturn(new RoaringBitmap());
+        when(productRepository.findAllWithStoreByIdIn(List.of(20L, 30L))).thenReturn(List.of(inStock, soldOut));
+
+        // Act
+        List<ProductResponse> result = productService.getRecommendedProducts(5L, 1);
+
+        // Assert
+        assertEquals(List.of(30L), result.stream().map(ProductResponse::getId).toList());
+        verify(orderRepository, never()).findDistinctProductTypesByCustomer(any());
+        verify(productRepository, never()).findRecommendationCandidates(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fill a precomputed list that is shorter than the limit from live scoring, without repeating products")
+    void testGetRecommendedProducts_PrecomputedToppedUp() {
+        // Arrange
+        User customerUser = User.builder().id(2L).username("johndoe").role(Role.CUSTOMER).build();
+        Customer customer = Customer.builder().id(5L).user(customerUser).build();
+        Product inStock = Product.builder().id(30L).title("iPad Air").stockQuantity(5).store(mockStore).build();
+        Product soldOut = Product.builder().id(20L).title("iPhone 14").stockQuantity(0).store(mockStore).build();
+        Product newer = Product.builder().id(40L).title("iPad Pro").stockQuantity(5).store(mockStore).build();
+        Product older = Product.builder().id(10L).title("AirPods").stockQuantity(5).store(mockStore).build();
+        CustomerRecommendation recommendation = CustomerRecommendation.builder()
+                .customerId(5L)
+                .productIds(new Long[]{20L, 30L})
+                .computedAt(LocalDateTime.now())
+                .build();
+        when(customerRepository.getReferenceById(5L)).thenReturn(customer);
+        when(customerRecommendationRepository.findById(5L)).thenReturn(Optional.of(recommendation));
+        when(purchasedProductCache.getPurchasedProducts(5L)).thenReturn(new RoaringBitmap());
+        when(productRepository.findAllWithStoreByIdIn(List.of(20L, 30L))).thenReturn(List.of(inStock, soldOut));
+        when(orderRepository.findDistinctProductTypesByCustomer(customer)).thenReturn(List.of("Tablet"));
+        when(orderRepository.findDistinctProductBrandsByCustomer(customer)).thenReturn(List.of("Apple"));
+        when(productRepository.findRecommendationCandidates(any(), any(), eq(Long.MAX_VALUE), any()))
+                .thenReturn(Arrays.asList(newer, inStock, older));
+
+        // Act
+        List<ProductResponse> result = productService.getRecommendedProducts(5L, 3);
+
+        // Assert
+        assertEquals(List.of(30L, 40L, 10L), result.stream().map(ProductResponse::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should reject a recommendation limit outside the supported range")
+    void testGetRecommendedProducts_InvalidLimit() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> productService.getRecommendedProducts(5L, 0));
+        assertThrows(BadRequestException.class,
+                () -> productService.getRecommendedProducts(5L, ProductService.MAX_RECOMMENDATIONS + 1));
+        verifyNoInteractions(customerRecommendationRepository);
     }
-}
\ No newline at end of file
+}
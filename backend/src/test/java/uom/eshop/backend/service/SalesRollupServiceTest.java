@@ -0,0 +1,97 @@
+package uom.eshop.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uom.eshop.backend.config.StatsProperties;
+import uom.eshop.backend.dto.SalesTimeSeriesResponse;
+import uom.eshop.backend.exceptions.BadRequestException;
+import uom.eshop.backend.model.RollupGranularity;
+import uom.eshop.backend.model.StoreSalesRollup;
+import uom.eshop.backend.repository.StoreSalesRollupRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SalesRollupService Tests")
+class SalesRollupServiceTest {
+
+    private static final LocalDateTime DAY_START = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @Mock
+    private StoreSalesRollupRepository rollupRepository;
+
+    @Spy
+    private StatsProperties statsProperties = new StatsProperties();
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    @Test
+    @DisplayName("Should add an order to its hourly and daily buckets")
+    void testRecordOrder_UpdatesBothGranularities() {
+        LocalDateTime orderDate = DAY_START.plusHours(14).plusMinutes(25);
+        StoreSalesRollup hour = StoreSalesRollup.builder().storeId(1L).granularity(RollupGranularity.HOUR).bucketStart(DAY_START.plusHours(14)).build();
+        StoreSalesRollup day = StoreSalesRollup.builder().storeId(1L).granularity(RollupGranularity.DAY).bucketStart(DAY_START)
+                .revenue(new BigDecimal("5.00")).orderCount(1L).itemsSold(1L).build();
+        when(rollupRepository.findBucketForUpdate(1L, RollupGranularity.HOUR, DAY_START.plusHours(14))).thenReturn(Optional.of(hour));
+        when(rollupRepository.findBucketForUpdate(1L, RollupGranularity.DAY, DAY_START)).thenReturn(Optional.of(day));
+
+        salesRollupService.recordOrder(1L, 7L, orderDate, new BigDecimal("20.00"), 3);
+
+        verify(rollupRepository).insertBucketIfAbsent(1L, "HOUR", DAY_START.plusHours(14));
+        verify(rollupRepository).insertBucketIfAbsent(1L, "DAY", DAY_START);
+        assertEquals(new BigDecimal("20.00"), hour.getRevenue());
+        assertEquals(1L, hour.getOrderCount());
+        assertEquals(new BigDecimal("25.00"), day.getRevenue());
+        assertEquals(2L, day.getOrderCount());
+        assertEquals(4L, day.getItemsSold());
+        assertEquals(513, hour.getCustomerSketch().length);
+        assertEquals(2049, day.getCustomerSketch().length);
+    }
+
+    @Test
+    @DisplayName("Should return one bucket per hour in the range, with zeros for hours without sales")
+    void testGetTimeSeries_DenseBuckets() {
+        StoreSalesRollup rollup = StoreSalesRollup.builder().storeId(1L).granularity(RollupGranularity.HOUR).bucketStart(DAY_START.plusHours(2))
+                .revenue(new BigDecimal("12.50")).orderCount(2L).itemsSold(5L).build();
+        when(rollupRepository.findByStoreIdAndGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+                1L, RollupGranularity.HOUR, DAY_START, DAY_START.plusHours(4))).thenReturn(List.of(rollup));
+
+        SalesTimeSeriesResponse result = salesRollupService.getTimeSeries(1L, DAY_START.plusMinutes(30), DAY_START.plusHours(4), "hour");
+
+        assertEquals(4, result.getBuckets().size());
+        assertEquals(DAY_START, result.getFrom());
+        assertEquals(0L, result.getBuckets().get(0).getOrders());
+        assertEquals(new BigDecimal("12.50"), result.getBuckets().get(2).getRevenue());
+        assertEquals(new BigDecimal("12.50"), result.getTotalRevenue());
+        assertEquals(2L, result.getTotalOrders());
+        assertEquals(5L, result.getTotalItemsSold());
+    }
+
+    @Test
+    @DisplayName("Should reject ranges above the bucket limit and unknown granularities")
+    void testGetTimeSeries_InvalidRequests() {
+        statsProperties.getTimeSeries().setMaxBuckets(24);
+
+        assertThrows(BadRequestException.class,
+                () -> salesRollupService.getTimeSeries(1L, DAY_START, DAY_START.plusHours(25), "HOUR"));
+        assertThrows(BadRequestException.class,
+                () -> salesRollupService.getTimeSeries(1L, DAY_START, DAY_START.plusDays(1), "WEEK"));
+        assertThrows(BadRequestException.class,
+                () -> salesRollupService.getTimeSeries(1L, DAY_START, DAY_START, "DAY"));
+        verify(rollupRepository, never()).findByStoreIdAndGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+                any(), any(), any(), any());
+    }
+}
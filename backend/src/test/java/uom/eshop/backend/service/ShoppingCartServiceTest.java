@@ -7,7 +7,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.Authentication;
+import uom.eshop.backend.cache.DashboardStatsCache;
 import uom.eshop.backend.dto.AddToCartRequest;
 import uom.eshop.backend.dto.CartResponse;
 import uom.eshop.backend.exceptions.InsufficientStockException;
@@ -39,7 +39,7 @@ class ShoppingCartServiceTest {
     private ProductRepository productRepository;
 
     @Mock
-    private Authentication authentication;
+    private DashboardStatsCache dashboardStatsCache;
 
     @InjectMocks
     private ShoppingCartService shoppingCartService;
@@ -87,8 +87,6 @@ class ShoppingCartServiceTest {
                 .items(new ArrayList<>())
                 .totalPrice(BigDecimal.ZERO)
                 .build();
-
-        when(authentication.getPrincipal()).thenReturn(mockCustomerUser);
     }
 
     @Test
@@ -100,7 +98,7 @@ class ShoppingCartServiceTest {
                 .quantity(2)
                 .build();
 
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
         when(cartItemRepository.findByCartAndProduct(mockCart, mockProduct)).thenReturn(Optional.empty());
@@ -108,7 +106,7 @@ class ShoppingCartServiceTest {
         when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(mockCart);
 
         // Act
-        CartResponse result = shoppingCartService.addProductToCart(request, authentication);
+        CartResponse result = shoppingCartService.addProductToCart(request, 1L);
 
         // Assert
         assertNotNull(result);
@@ -123,13 +121,13 @@ class ShoppingCartServiceTest {
         // Arrange
         AddToCartRequest request = new AddToCartRequest(1L, 100); // More than available
         
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
 
         // Act & Assert
         InsufficientStockException exception = assertThrows(InsufficientStockException.class,
-            () -> shoppingCartService.addProductToCart(request, authentication));
+            () -> shoppingCartService.addProductToCart(request, 1L));
         
         assertTrue(exception.getMessage().contains("Insufficient stock"));
         verify(cartItemRepository, never()).save(any());
@@ -149,7 +147,7 @@ class ShoppingCartServiceTest {
                 .subtotal(new BigDecimal("2999.97"))
                 .build();
 
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
         when(cartItemRepository.findByCartAndProduct(mockCart, mockProduct)).thenReturn(Optional.of(existingItem));
@@ -157,7 +155,7 @@ class ShoppingCartServiceTest {
         when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(mockCart);
 
         // Act
-        CartResponse result = shoppingCartService.addProductToCart(request, authentication);
+        CartResponse result = shoppingCartService.addProductToCart(request, 1L);
 
         // Assert
         assertNotNull(result);
@@ -169,11 +167,11 @@ class ShoppingCartServiceTest {
     @DisplayName("Should successfully get cart")
     void testGetCart_Success() {
         // Arrange
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
 
         // Act
-        CartResponse result = shoppingCartService.getCart(authentication);
+        CartResponse result = shoppingCartService.getCart(1L);
 
         // Assert
         assertNotNull(result);
@@ -192,7 +190,7 @@ class ShoppingCartServiceTest {
                 .quantity(2)
                 .build();
 
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
         when(cartItemRepository.findByCartAndProduct(mockCart, mockProduct)).thenReturn(Optional.of(existingItem));
@@ -200,7 +198,7 @@ class ShoppingCartServiceTest {
         when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(mockCart);
 
         // Act
-        CartResponse result = shoppingCartService.updateCartItemQuantity(1L, 5, authentication);
+        CartResponse result = shoppingCartService.updateCartItemQuantity(1L, 5, 1L);
 
         // Assert
         assertNotNull(result);
@@ -219,14 +217,14 @@ class ShoppingCartServiceTest {
                 .quantity(2)
                 .build();
 
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
         when(cartItemRepository.findByCartAndProduct(mockCart, mockProduct)).thenReturn(Optional.of(existingItem));
 
         // Act & Assert
         InsufficientStockException exception = assertThrows(InsufficientStockException.class,
-            () -> shoppingCartService.updateCartItemQuantity(1L, 100, authentication));
+            () -> shoppingCartService.updateCartItemQuantity(1L, 100, 1L));
         
         assertTrue(exception.getMessage().contains("Insufficient stock"));
         verify(cartItemRepository, never()).save(any());
@@ -245,33 +243,34 @@ class ShoppingCartServiceTest {
 
         mockCart.getItems().add(existingItem);
 
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
         when(cartItemRepository.findByCartAndProduct(mockCart, mockProduct)).thenReturn(Optional.of(existingItem));
         when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(mockCart);
 
         // Act
-        CartResponse result = shoppingCartService.removeProductFromCart(1L, authentication);
+        CartResponse result = shoppingCartService.removeProductFromCart(1L, 1L);
 
         // Assert
         assertNotNull(result);
         verify(cartItemRepository).delete(existingItem);
         verify(shoppingCartRepository).save(mockCart);
+        verify(dashboardStatsCache).markCustomerDirty(mockCustomer.getId());
     }
 
     @Test
     @DisplayName("Should throw exception when product not in cart")
     void testRemoveProductFromCart_ProductNotInCart() {
         // Arrange
-        when(customerRepository.findByUser(mockCustomerUser)).thenReturn(Optional.of(mockCustomer));
+        when(customerRepository.getReferenceById(1L)).thenReturn(mockCustomer);
         when(shoppingCartRepository.findByCustomer(mockCustomer)).thenReturn(Optional.of(mockCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(mockProduct));
         when(cartItemRepository.findByCartAndProduct(mockCart, mockProduct)).thenReturn(Optional.empty());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
-            () -> shoppingCartService.removeProductFromCart(1L, authentication));
+            () -> shoppingCartService.removeProductFromCart(1L, 1L));
         
         assertEquals("Product not in cart", exception.getMessage());
         verify(cartItemRepository, never()).delete(any());
@@ -0,0 +1,135 @@
+package uom.eshop.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+import uom.eshop.backend.dto.StoreResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("StoreDirectoryService Tests")
+class StoreDirectoryServiceTest {
+
+    private StoreService storeService;
+    private StoreDirectoryService service;
+
+    @BeforeEach
+    void setUp() {
+        storeService = mock(StoreService.class);
+        service = new StoreDirectoryService(storeService, JsonMapper.builder().build(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    @DisplayName("Should serve nothing before the first build, then pre-serialized pages of the default size and an empty list past the end")
+    void testPages() throws IOException {
+        assertNull(service.getPage(0));
+
+        when(storeService.getAllStores()).thenReturn(stores(StoreService.DEFAULT_PAGE_SIZE + 1));
+        service.rebuild();
+
+        StoreDirectoryService.Page first = service.getPage(0);
+        String json = new String(first.json(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{\"id\":1,\"name\":\"Store 1\""));
+        assertEquals(json, gunzip(first.gzip()));
+
+        assertTrue(new String(service.getPage(1).json(), StandardCharsets.UTF_8).startsWith("[{\"id\":" + (StoreService.DEFAULT_PAGE_SIZE + 1) + ","));
+        assertEquals("[]", new String(service.getPage(2).json(), StandardCharsets.UTF_8));
+        assertEquals(StoreService.DEFAULT_PAGE_SIZE + 1, first.totalStores());
+        assertEquals(StoreService.DEFAULT_PAGE_SIZE + 1, service.getPage(2).totalStores());
+        assertNull(service.getPage(-1));
+        verify(storeService, times(1)).getAllStores();
+    }
+
+    @Test
+    @DisplayName("Should derive the ETags from the content and match If-None-Match against either encoding")
+    void testEtags() {
+        when(storeService.getAllStores()).thenReturn(stores(2));
+        service.rebuild();
+        StoreDirectoryService.Page page = service.getPage(0);
+
+        assertNotEquals(page.etag(), page.gzipEtag());
+        assertTrue(page.matches(page.etag()));
+        assertTrue(page.matches("\"other\", " + page.gzipEtag()));
+        assertTrue(page.matches("W/" + page.etag()));
+        assertTrue(page.matches("*"));
+        assertFalse(page.matches("\"other\""));
+        assertFalse(page.matches(null));
+
+        service.rebuild();
+        assertEquals(page.etag(), service.getPage(0).etag());
+
+        when(storeService.getAllStores()).thenReturn(stores(3));
+        service.rebuild();
+        assertFalse(service.getPage(0).matches(page.etag()));
+    }
+
+    @Test
+    @DisplayName("Should change the ETag of an unchanged page when the total number of stores changes")
+    void testEtagCoversTotal() {
+        when(storeService.getAllStores()).thenReturn(stores(StoreService.DEFAULT_PAGE_SIZE));
+        service.rebuild();
+        StoreDirectoryService.Page before = service.getPage(0);
+
+        when(storeService.getAllStores()).thenReturn(stores(StoreService.DEFAULT_PAGE_SIZE + 1));
+        service.rebuild();
+        StoreDirectoryService.Page after = service.getPage(0);
+
+        assertArrayEquals(before.json(), after.json());
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals(StoreService.DEFAULT_PAGE_SIZE + 1, after.totalStores());
+    }
+
+    @Test
+    @DisplayName("Should rebuild in the background once a change is marked")
+    void testMarkChangedRebuilds() {
+        when(storeService.getAllStores()).thenReturn(stores(1));
+        service.rebuild();
+        StoreDirectoryService.Page before = service.getPage(0);
+
+        when(storeService.getAllStores()).thenReturn(stores(2));
+        service.markChanged();
+
+        verify(storeService, timeout(5000).times(2)).getAllStores();
+        await(() -> service.getPage(0) != before);
+        assertTrue(new String(service.getPage(0).json(), StandardCharsets.UTF_8).contains("\"name\":\"Store 2\""));
+    }
+
+    private static List<StoreResponse> stores(int count) {
+        List<StoreResponse> stores = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            stores.add(new StoreResponse(id, "Store " + id, "Owner " + id, (int) id));
+        }
+        return stores;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package uom.eshop.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uom.eshop.backend.cache.DashboardStatsCache;
+import uom.eshop.backend.concurrent.ParallelQueryRunner;
+import uom.eshop.backend.dto.StoreStatsResponse;
+import uom.eshop.backend.model.StoreStats;
+import uom.eshop.backend.repository.OrderRepository;
+import uom.eshop.backend.repository.ProductRepository;
+import uom.eshop.backend.repository.StoreRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StoreService Tests")
+class StoreServiceTest {
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StoreStatsService storeStatsService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private DashboardStatsCache dashboardStatsCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ParallelQueryRunner parallelQueryRunner;
+    private StoreService storeService;
+    private StoreStats stats;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        parallelQueryRunner = new ParallelQueryRunner(transactionManager, 2, 10, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        storeService = new StoreService(storeRepository, orderRepository, orderService, productRepository,
+                storeStatsService, salesRollupService, parallelQueryRunner, dashboardStatsCache);
+        stats = StoreStats.builder()
+                .storeId(1L)
+                .totalOrders(3L)
+                .totalOrdersCompleted(2L)
+                .totalRevenue(new BigDecimal("42.00"))
+                .totalItemsSold(7L)
+                .productsInStock(4L)
+                .productsOutOfStock(1L)
+                .build();
+        when(storeStatsService.getStats(1L)).thenReturn(stats);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelQueryRunner.destroy();
+    }
+
+    @Test
+    @DisplayName("Should return the exact unique-customer count when it was requested and completed")
+    void testGetStoreStats_Exact() {
+        // Arrange
+        when(orderRepository.countDistinctCustomersByStoreId(1L)).thenReturn(12L);
+
+        // Act
+        StoreStatsResponse response = storeService.getStoreStats(1L, true).value();
+
+        // Assert
+        assertEquals(12L, response.getUniqueCustomers());
+        assertEquals(5L, response.getTotalProducts());
+        assertFalse(response.isPartial());
+        verify(storeStatsService, never()).estimateUniqueCustomers(any());
+    }
+
+    @Test
+    @DisplayName("Should mark the statistics partial when the exact unique-customer count fails and the sketch estimate is returned instead")
+    void testGetStoreStats_ExactFallsBackToEstimate() {
+        // Arrange
+        when(orderRepository.countDistinctCustomersByStoreId(1L)).thenThrow(new IllegalStateException("statement timeout"));
+        when(storeStatsService.estimateUniqueCustomers(stats)).thenReturn(11L);
+
+        // Act
+        StoreStatsResponse response = storeService.getStoreStats(1L, true).value();
+
+        // Assert
+        assertEquals(11L, response.getUniqueCustomers());
+        assertEquals(3L, response.getTotalOrders());
+        assertTrue(response.isPartial());
+    }
+}
@@ -0,0 +1,175 @@
+package uom.eshop.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uom.eshop.backend.model.OrderStatus;
+import uom.eshop.backend.model.StoreStats;
+import uom.eshop.backend.repository.OrderRepository;
+import uom.eshop.backend.repository.ProductRepository;
+import uom.eshop.backend.repository.StoreStatsRepository;
+import uom.eshop.backend.repository.projection.ProductSalesView;
+import uom.eshop.backend.repository.projection.StoreOrderStatsView;
+import uom.eshop.backend.repository.projection.StoreProductStatsView;
+import uom.eshop.backend.sketch.HyperLogLog;
+import uom.eshop.backend.sketch.SpaceSaving;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StoreStatsService Tests")
+class StoreStatsServiceTest {
+
+    @Mock
+    private StoreStatsRepository storeStatsRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private StoreStatsService storeStatsService;
+
+    @Test
+    @DisplayName("Should move a product between stock counters when its stock crosses zero")
+    void testRecordStockChange_Transitions() {
+        when(storeStatsRepository.incrementProducts(eq(1L), anyLong(), anyLong())).thenReturn(1);
+
+        storeStatsService.recordStockChange(1L, null, 5);
+        storeStatsService.recordStockChange(1L, 5, 0);
+        storeStatsService.recordStockChange(1L, 0, null);
+        storeStatsService.recordStockChange(1L, 5, 3);
+
+        verify(storeStatsRepository).incrementProducts(1L, 1, 0);
+        verify(storeStatsRepository).incrementProducts(1L, -1, 1);
+        verify(storeStatsRepository).incrementProducts(1L, 0, -1);
+        verifyNoMoreInteractions(storeStatsRepository);
+    }
+
+    @Test
+    @DisplayName("Should write the customer sketch back only when the customer changes a register")
+    void testRecordOrder_SketchWrittenOnlyWhenChanged() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(10L);
+        when(storeStatsRepository.incrementOrder(eq(1L), anyLong(), any(), anyLong(), anyLong())).thenReturn(1);
+        when(storeStatsRepository.findCustomerSketch(1L)).thenReturn(sketch.toBytes());
+
+        storeStatsService.recordOrder(1L, 10L, OrderStatus.COMPLETED, BigDecimal.ONE, Map.of(100L, 1L), 0);
+        verify(storeStatsRepository, never()).updateCustomerSketch(anyLong(), any());
+
+        storeStatsService.recordOrder(1L, 11L, OrderStatus.COMPLETED, BigDecimal.ONE, Map.of(100L, 1L), 0);
+        sketch.add(11L);
+        verify(storeStatsRepository).updateCustomerSketch(1L, sketch.toBytes());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the stats row from the source tables when it does not exist yet")
+    void testRecordOrder_MissingRowRebuilt() {
+        when(storeStatsRepository.incrementOrder(1L, 1, new BigDecimal("10.00"), 2, 0)).thenReturn(0);
+        when(storeStatsRepository.insertIfAbsent(any())).thenReturn(1);
+
+        StoreProductStatsView productStats = mock(StoreProductStatsView.class);
+        when(productStats.getProductsInStock()).thenReturn(4L);
+        when(productStats.getProductsOutOfStock()).thenReturn(1L);
+        when(productRepository.aggregateStatsByStoreId(1L)).thenReturn(productStats);
+
+        StoreOrderStatsView orderStats = mock(StoreOrderStatsView.class);
+        when(orderStats.getTotalOrders()).thenReturn(3L);
+        when(orderStats.getTotalOrdersCompleted()).thenReturn(3L);
+        when(orderStats.getTotalRevenue()).thenReturn(new BigDecimal("42.00"));
+        when(orderStats.getTotalItemsSold()).thenReturn(7L);
+        when(orderRepository.aggregateStatsByStoreId(1L, OrderStatus.COMPLETED)).thenReturn(orderStats);
+        when(orderRepository.findDistinctCustomerIdsByStoreId(1L)).thenReturn(List.of(10L, 11L));
+        List<ProductSalesView> topSellers = List.of(sales(100L, 5L), sales(101L, 2L));
+        when(orderRepository.findTopSellingProductsByStoreId(eq(1L), any())).thenReturn(topSellers);
+
+        storeStatsService.recordOrder(1L, 10L, OrderStatus.COMPLETED, new BigDecimal("10.00"), Map.of(100L, 2L), 0);
+
+        ArgumentCaptor<StoreStats> captor = ArgumentCaptor.forClass(StoreStats.class);
+        verify(storeStatsRepository).insertIfAbsent(captor.capture());
+        verify(storeStatsRepository).incrementOrder(1L, 1, new BigDecimal("10.00"), 2, 0);
+        verify(storeStatsRepository, never()).findCustomerSketch(anyLong());
+        StoreStats saved = captor.getValue();
+        assertEquals(1L, saved.getStoreId());
+        assertEquals(3L, saved.getTotalOrders());
+        assertEquals(2L, storeStatsService.estimateUniqueCustomers(saved));
+        assertEquals(new BigDecimal("42.00"), saved.getTotalRevenue());
+        assertEquals(7L, saved.getTotalItemsSold());
+        assertEquals(4L, saved.getProductsInStock());
+        assertEquals(1L, saved.getProductsOutOfStock());
+        assertEquals(List.of(new SpaceSaving.Entry(100L, 5L, 0L, true), new SpaceSaving.Entry(101L, 2L, 0L, true)),
+                storeStatsService.estimateTopProducts(saved, 10));
+    }
+
+    @Test
+    @DisplayName("Should apply the order as an increment when a concurrent checkout creates the missing row first")
+    void testRecordOrder_MissingRowCreatedConcurrently() {
+        when(storeStatsRepository.incrementOrder(1L, 1, BigDecimal.TEN, 2, 0)).thenReturn(0, 1);
+        when(storeStatsRepository.insertIfAbsent(any())).thenReturn(0);
+        when(productRepository.aggregateStatsByStoreId(1L)).thenReturn(mock(StoreProductStatsView.class));
+        StoreOrderStatsView orderStats = mock(StoreOrderStatsView.class);
+        when(orderStats.getTotalItemsSold()).thenReturn(0L);
+        when(orderRepository.aggregateStatsByStoreId(1L, OrderStatus.COMPLETED)).thenReturn(orderStats);
+        when(storeStatsRepository.findCustomerSketch(1L)).thenReturn(new HyperLogLog().toBytes());
+        when(storeStatsRepository.findTopProductsSketch(1L)).thenReturn(new SpaceSaving().toBytes());
+
+        storeStatsService.recordOrder(1L, 10L, OrderStatus.COMPLETED, BigDecimal.TEN, Map.of(100L, 2L), 0);
+
+        verify(storeStatsRepository, times(2)).incrementOrder(1L, 1, BigDecimal.TEN, 2, 0);
+        verify(storeStatsRepository).updateCustomerSketch(eq(1L), any());
+        verify(storeStatsRepository).updateTopProductsSketch(eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("Should apply a stock change as an increment when a concurrent write creates the missing row first")
+    void testRecordStockChange_MissingRowCreatedConcurrently() {
+        when(storeStatsRepository.incrementProducts(1L, 1, 0)).thenReturn(0, 1);
+        when(storeStatsRepository.insertIfAbsent(any())).thenReturn(0);
+        when(productRepository.aggregateStatsByStoreId(1L)).thenReturn(mock(StoreProductStatsView.class));
+        StoreOrderStatsView orderStats = mock(StoreOrderStatsView.class);
+        when(orderStats.getTotalItemsSold()).thenReturn(0L);
+        when(orderRepository.aggregateStatsByStoreId(1L, OrderStatus.COMPLETED)).thenReturn(orderStats);
+
+        storeStatsService.recordStockChange(1L, null, 5);
+
+        verify(storeStatsRepository, times(2)).incrementProducts(1L, 1, 0);
+        verify(storeStatsRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should add the quantity of every ordered product to the top-products sketch")
+    void testRecordOrder_TopProductsSketchUpdated() {
+        SpaceSaving sketch = new SpaceSaving();
+        sketch.add(100L, 3);
+        when(storeStatsRepository.incrementOrder(1L, 1, BigDecimal.TEN, 5, 0)).thenReturn(1);
+        when(storeStatsRepository.findTopProductsSketch(1L)).thenReturn(sketch.toBytes());
+
+        storeStatsService.recordOrder(1L, 10L, OrderStatus.COMPLETED, BigDecimal.TEN, Map.of(100L, 1L, 101L, 4L), 0);
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(storeStatsRepository).updateTopProductsSketch(eq(1L), captor.capture());
+        SpaceSaving updated = SpaceSaving.fromBytes(captor.getValue());
+        assertEquals(8L, updated.total());
+        assertEquals(List.of(new SpaceSaving.Entry(100L, 4L, 0L, true), new SpaceSaving.Entry(101L, 4L, 0L, true)), updated.top(2));
+    }
+
+    private static ProductSalesView sales(Long productId, Long quantitySold) {
+        ProductSalesView view = mock(ProductSalesView.class);
+        when(view.getProductId()).thenReturn(productId);
+        when(view.getQuantitySold()).thenReturn(quantitySold);
+        return view;
+    }
+}
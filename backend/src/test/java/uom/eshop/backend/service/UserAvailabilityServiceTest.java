@@ -0,0 +1,86 @@
+package uom.eshop.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uom.eshop.backend.config.AvailabilityProperties;
+import uom.eshop.backend.repository.UserRepository;
+import uom.eshop.backend.repository.projection.UserIdentityView;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("UserAvailabilityService Tests")
+class UserAvailabilityServiceTest {
+
+    private UserRepository userRepository;
+    private UserAvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        AvailabilityProperties properties = new AvailabilityProperties();
+        properties.setExpectedUsers(1_000);
+        service = new UserAvailabilityService(userRepository, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should look values up until the filter is built, and answer values never registered without the database after")
+    void testFilterMissSkipsDatabase() {
+        assertTrue(service.isUsernameAvailable("newbie"));
+        verify(userRepository).existsByUsername("newbie");
+
+        when(userRepository.streamIdentities()).thenReturn(Stream.of(identity("johndoe", "john@example.com")));
+        service.rebuild();
+        clearInvocations(userRepository);
+
+        assertTrue(service.isUsernameAvailable("newbie"));
+        assertTrue(service.isEmailAvailable("newbie@example.com"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should confirm taken values, loaded from the table or registered after, against the database")
+    void testTakenValues() {
+        when(userRepository.streamIdentities()).thenReturn(Stream.of(identity("johndoe", "john@example.com")));
+        when(userRepository.existsByUsername(anyString())).thenReturn(true);
+        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        service.rebuild();
+
+        service.registered("janedoe", "jane@example.com");
+
+        assertFalse(service.isUsernameAvailable("johndoe"));
+        assertFalse(service.isEmailAvailable("john@example.com"));
+        assertFalse(service.isUsernameAvailable("janedoe"));
+        assertFalse(service.isEmailAvailable("jane@example.com"));
+        verify(userRepository, times(2)).existsByUsername(anyString());
+        verify(userRepository, times(2)).existsByEmail(anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep usernames and emails apart, so an email is not reported taken because it was used as a username")
+    void testUsernamesAndEmailsAreSeparate() {
+        when(userRepository.streamIdentities()).thenReturn(Stream.of(identity("john@example.com", "other@example.com")));
+        service.rebuild();
+
+        assertTrue(service.isEmailAvailable("john@example.com"));
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    private static UserIdentityView identity(String username, String email) {
+        return new UserIdentityView() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
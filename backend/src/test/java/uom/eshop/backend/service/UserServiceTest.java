@@ -1,25 +1,34 @@
 package uom.eshop.backend.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import uom.eshop.backend.cache.UserDetailsCache;
+import uom.eshop.backend.config.JwtProperties;
 import uom.eshop.backend.dto.RegisterRequest;
 import uom.eshop.backend.exceptions.BadRequestException;
 import uom.eshop.backend.exceptions.ConflictException;
 import uom.eshop.backend.model.Customer;
+import uom.eshop.backend.model.RegisteredTaxId;
 import uom.eshop.backend.model.Role;
 import uom.eshop.backend.model.Store;
 import uom.eshop.backend.model.User;
 import uom.eshop.backend.repository.CustomerRepository;
+import uom.eshop.backend.repository.RegisteredTaxIdRepository;
 import uom.eshop.backend.repository.ShoppingCartRepository;
 import uom.eshop.backend.repository.StoreRepository;
 import uom.eshop.backend.repository.UserRepository;
 
+import java.sql.SQLException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,12 +48,30 @@ class UserServiceTest {
     @Mock
     private StoreRepository storeRepository;
 
+    @Mock
+    private StoreStatsService storeStatsService;
+
+    @Mock
+    private CustomerStatsService customerStatsService;
+
     @Mock
     private ShoppingCartRepository shoppingCartRepository;
 
+    @Mock
+    private RegisteredTaxIdRepository registeredTaxIdRepository;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(new JwtProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private UserAvailabilityService userAvailabilityService;
+
+    @Mock
+    private StoreDirectoryService storeDirectoryService;
+
     @InjectMocks
     private UserService userService;
 
@@ -90,10 +117,6 @@ class UserServiceTest {
     @DisplayName("Should successfully register a customer")
     void testRegisterCustomer_Success() {
         // Arrange
-        when(userRepository.existsByUsername(customerRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(customerRequest.getEmail())).thenReturn(false);
-        when(customerRepository.existsByTaxId(customerRequest.getTaxId())).thenReturn(false);
-        when(storeRepository.existsByTaxId(customerRequest.getTaxId())).thenReturn(false);
         when(passwordEncoder.encode(customerRequest.getPassword())).thenReturn("encoded_password");
         when(userRepository.save(any(User.class))).thenReturn(mockUser);
         when(customerRepository.save(any(Customer.class))).thenReturn(Customer.builder().id(1L).build());
@@ -108,8 +131,11 @@ class UserServiceTest {
         assertEquals(Role.CUSTOMER, result.getRole());
 
         verify(userRepository).save(any(User.class));
+        verify(registeredTaxIdRepository).save(argThat(taxId -> taxId.getTaxId().equals("123456789") && taxId.getRole() == Role.CUSTOMER));
         verify(customerRepository).save(any(Customer.class));
         verify(shoppingCartRepository).save(any());
+        verify(userAvailabilityService).registered("johndoe", "john@example.com");
+        verify(customerStatsService).initialize(1L);
         verify(storeRepository, never()).save(any());
     }
 
@@ -125,10 +151,6 @@ class UserServiceTest {
                 .role(Role.STORE)
                 .build();
 
-        when(userRepository.existsByUsername(storeRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(storeRequest.getEmail())).thenReturn(false);
-        when(customerRepository.existsByTaxId(storeRequest.getTaxId())).thenReturn(false);
-        when(storeRepository.existsByTaxId(storeRequest.getTaxId())).thenReturn(false);
         when(passwordEncoder.encode(storeRequest.getPassword())).thenReturn("encoded_password");
         when(userRepository.save(any(User.class))).thenReturn(mockStoreUser);
         when(storeRepository.save(any(Store.class))).thenReturn(Store.builder().id(1L).build());
@@ -142,7 +164,10 @@ class UserServiceTest {
         assertEquals(Role.STORE, result.getRole());
 
         verify(userRepository).save(any(User.class));
+        verify(registeredTaxIdRepository).save(argThat(taxId -> taxId.getTaxId().equals("987654321") && taxId.getRole() == Role.STORE));
         verify(storeRepository).save(any(Store.class));
+        verify(storeStatsService).initialize(1L);
+        verify(storeDirectoryService).markChanged();
         verify(customerRepository, never()).save(any());
         verify(shoppingCartRepository, never()).save(any());
     }
@@ -151,62 +176,79 @@ class UserServiceTest {
     @DisplayName("Should throw exception when username already exists")
     void testRegisterUser_UsernameExists() {
         // Arrange
-        when(userRepository.existsByUsername(customerRequest.getUsername())).thenReturn(true);
+        when(passwordEncoder.encode(customerRequest.getPassword())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation(User.USERNAME_CONSTRAINT));
 
         // Act & Assert
         ConflictException exception = assertThrows(ConflictException.class,
             () -> userService.registerUser(customerRequest));
         
         assertEquals("Username already exists", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(userDetailsCache).evict("johndoe");
+        verify(registeredTaxIdRepository, never()).save(any());
+        verify(userAvailabilityService, never()).registered(any(), any());
     }
 
     @Test
     @DisplayName("Should throw exception when email already exists")
     void testRegisterUser_EmailExists() {
         // Arrange
-        when(userRepository.existsByUsername(customerRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(customerRequest.getEmail())).thenReturn(true);
+        when(passwordEncoder.encode(customerRequest.getPassword())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation(User.EMAIL_CONSTRAINT));
 
         // Act & Assert
         ConflictException exception = assertThrows(ConflictException.class,
             () -> userService.registerUser(customerRequest));
         
         assertEquals("Email already exists", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(registeredTaxIdRepository, never()).save(any());
     }
 
     @Test
     @DisplayName("Should throw exception when tax ID already exists for customer")
     void testRegisterUser_TaxIdExistsForCustomer() {
         // Arrange
-        when(userRepository.existsByUsername(customerRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(customerRequest.getEmail())).thenReturn(false);
-        when(customerRepository.existsByTaxId(customerRequest.getTaxId())).thenReturn(true);
+        when(passwordEncoder.encode(customerRequest.getPassword())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenReturn(mockUser);
+        when(registeredTaxIdRepository.save(any(RegisteredTaxId.class))).thenThrow(uniqueViolation(RegisteredTaxId.TAX_ID_CONSTRAINT));
 
         // Act & Assert
         ConflictException exception = assertThrows(ConflictException.class,
             () -> userService.registerUser(customerRequest));
         
         assertEquals("Tax ID already exists", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(customerRepository, never()).save(any());
     }
 
     @Test
-    @DisplayName("Should throw exception when tax ID already exists for store")
+    @DisplayName("Should throw exception when tax ID already exists for store, recognising the constraint from the driver message")
     void testRegisterUser_TaxIdExistsForStore() {
         // Arrange
-        when(userRepository.existsByUsername(customerRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(customerRequest.getEmail())).thenReturn(false);
-        when(customerRepository.existsByTaxId(customerRequest.getTaxId())).thenReturn(false);
-        when(storeRepository.existsByTaxId(customerRequest.getTaxId())).thenReturn(true);
+        when(passwordEncoder.encode(storeRequest.getPassword())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenReturn(mockUser);
+        when(registeredTaxIdRepository.save(any(RegisteredTaxId.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("ERROR: duplicate key value violates unique constraint \"uk_tax_ids_tax_id\"", "23505")));
 
         // Act & Assert
         ConflictException exception = assertThrows(ConflictException.class,
-            () -> userService.registerUser(customerRequest));
+            () -> userService.registerUser(storeRequest));
         
         assertEquals("Tax ID already exists", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(storeRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should rethrow integrity violations other than the registration unique constraints")
+    void testRegisterUser_OtherViolation() {
+        // Arrange
+        DataIntegrityViolationException violation = uniqueViolation("fk_customers_user_id");
+        when(passwordEncoder.encode(customerRequest.getPassword())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenReturn(mockUser);
+        when(customerRepository.save(any(Customer.class))).thenThrow(violation);
+
+        // Act & Assert
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+            () -> userService.registerUser(customerRequest)));
     }
 
     @Test
@@ -214,8 +256,6 @@ class UserServiceTest {
     void testRegisterCustomer_MissingTaxId() {
         // Arrange
         customerRequest.setTaxId(null);
-        when(userRepository.existsByUsername(customerRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(customerRequest.getEmail())).thenReturn(false);
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class,
@@ -229,10 +269,6 @@ class UserServiceTest {
     void testRegisterCustomer_MissingFirstName() {
         // Arrange
         customerRequest.setFirstName(null);
-        when(userRepository.existsByUsername(customerRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(customerRequest.getEmail())).thenReturn(false);
-        when(customerRepository.existsByTaxId(customerRequest.getTaxId())).thenReturn(false);
-        when(storeRepository.existsByTaxId(customerRequest.getTaxId())).thenReturn(false);
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class,
@@ -246,10 +282,6 @@ class UserServiceTest {
     void testRegisterStore_MissingStoreName() {
         // Arrange
         storeRequest.setStoreName(null);
-        when(userRepository.existsByUsername(storeRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(storeRequest.getEmail())).thenReturn(false);
-        when(customerRepository.existsByTaxId(storeRequest.getTaxId())).thenReturn(false);
-        when(storeRepository.existsByTaxId(storeRequest.getTaxId())).thenReturn(false);
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class,
@@ -283,4 +315,46 @@ class UserServiceTest {
         assertThrows(org.springframework.security.core.userdetails.UsernameNotFoundException.class, 
             () -> userService.loadUserByUsername("nonexistent"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should serve repeated lookups from the cache until the user is evicted")
+    void testLoadUserByUsername_Cached() {
+        // Arrange
+        when(userRepository.findByUsername("johndoe")).thenReturn(Optional.of(mockUser));
+
+        // Act
+        userService.loadUserByUsername("johndoe");
+        var cached = userService.loadUserByUsername("johndoe");
+        userDetailsCache.evict("johndoe");
+        userService.loadUserByUsername("johndoe");
+
+        // Assert
+        assertSame(mockUser, cached);
+        verify(userRepository, times(2)).findByUsername("johndoe");
+        assertEquals(1.0 / 3, userDetailsCache.hitRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should store the rehashed password and evict the cached user")
+    void testUpdatePassword() {
+        // Arrange
+        mockUser.setPassword("$2a$04$old");
+        when(userRepository.findByUsername("johndoe")).thenReturn(Optional.of(mockUser));
+        userService.loadUserByUsername("johndoe");
+
+        // Act
+        var updated = userService.updatePassword(mockUser, "$2a$12$new");
+        userService.loadUserByUsername("johndoe");
+
+        // Assert
+        assertEquals("$2a$12$new", updated.getPassword());
+        assertEquals("$2a$04$old", mockUser.getPassword());
+        verify(userRepository).updatePassword(mockUser.getId(), "$2a$12$new");
+        verify(userRepository, times(2)).findByUsername("johndoe");
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("duplicate key", "23505"), constraintName));
+    }
+}
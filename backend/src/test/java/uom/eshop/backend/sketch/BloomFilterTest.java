@@ -0,0 +1,48 @@
+package uom.eshop.backend.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BloomFilter Tests")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should size 100k strings at 1% to about 117 KiB and seven hash functions")
+    void testSizing() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+
+        assertEquals(7, filter.hashCount());
+        assertEquals(958_528, filter.bitCount());
+        assertEquals(filter.bitCount() / 8, filter.sizeInBytes());
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1.0));
+    }
+
+    @Test
+    @DisplayName("Should never miss an added string and stay near the configured false positive probability")
+    void testNoFalseNegativesAndFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+        String[] added = new String[100_000];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = UUID.randomUUID().toString();
+            filter.add(added[i]);
+        }
+
+        for (String tokenId : added) {
+            assertTrue(filter.mightContain(tokenId));
+        }
+
+        int falsePositives = 0;
+        int probes = 200_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        double rate = falsePositives / (double) probes;
+        assertTrue(rate < 0.015, "False positive rate " + rate + " exceeds 1.5%");
+    }
+}
@@ -0,0 +1,76 @@
+package uom.eshop.backend.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HyperLogLog Tests")
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Should occupy 2049 bytes per sketch with about 2.3% standard error at the default precision")
+    void testMemoryAndStandardError() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        assertEquals(2049, sketch.sizeInBytes());
+        assertEquals(2049, sketch.toBytes().length);
+        assertEquals(0.023, sketch.relativeStandardError(), 0.0005);
+    }
+
+    @Test
+    @DisplayName("Should stay within three standard errors of the true count from tens to millions of distinct values")
+    void testEstimateErrorBounds() {
+        // 3 sigma of 1.04 / sqrt(2048) is about 6.9%; small counts are estimated by linear counting and are near exact
+        HyperLogLog sketch = new HyperLogLog();
+        double bound = 3 * sketch.relativeStandardError();
+        long added = 0;
+
+        for (long checkpoint : new long[]{10, 100, 1_000, 10_000, 100_000, 1_000_000}) {
+            while (added < checkpoint) {
+                sketch.add(++added);
+            }
+            double error = Math.abs(sketch.estimate() - checkpoint) / (double) checkpoint;
+            assertTrue(error <= bound, "Relative error " + error + " at " + checkpoint + " exceeds " + bound);
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore duplicates and report unchanged registers for repeated values")
+    void testDuplicates() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long customerId = 1; customerId <= 500; customerId++) {
+            sketch.add(customerId);
+        }
+        long estimate = sketch.estimate();
+
+        for (long customerId = 1; customerId <= 500; customerId++) {
+            assertFalse(sketch.add(customerId));
+        }
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    @DisplayName("Should merge to the same registers as a sketch fed the union, and survive serialization")
+    void testMergeAndSerialization() {
+        SplittableRandom random = new SplittableRandom(11);
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            long value = random.nextLong(0, 1L << 40);
+            (i % 2 == 0 ? left : right).add(value);
+            union.add(value);
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(left.toBytes());
+        restored.merge(right);
+
+        assertArrayEquals(union.toBytes(), restored.toBytes());
+        assertEquals(union.estimate(), restored.estimate());
+        assertThrows(IllegalArgumentException.class, () -> restored.merge(new HyperLogLog(12)));
+        assertEquals(0, HyperLogLog.fromBytes(null).estimate());
+    }
+}
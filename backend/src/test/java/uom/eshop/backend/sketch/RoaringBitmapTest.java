@@ -0,0 +1,77 @@
+package uom.eshop.backend.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RoaringBitmap Tests")
+class RoaringBitmapTest {
+
+    @Test
+    @DisplayName("Should contain exactly the added values across sparse and dense containers")
+    void testAddAndContains() {
+        SplittableRandom random = new SplittableRandom(7);
+        TreeSet<Long> expected = new TreeSet<>();
+        RoaringBitmap bitmap = new RoaringBitmap();
+
+        // Dense block that forces an array container to turn into a bitset
+        for (long value = 0; value < 10_000; value++) {
+            expected.add(value);
+            bitmap.add(value);
+        }
+        // Sparse values spread over many containers
+        for (int i = 0; i < 5_000; i++) {
+            long value = random.nextLong(0, 1L << 40);
+            assertEquals(expected.add(value), bitmap.add(value));
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        for (long value : expected) {
+            assertTrue(bitmap.contains(value));
+        }
+        assertFalse(bitmap.contains(-1L));
+        assertFalse(bitmap.contains((1L << 40) + 1));
+
+        List<Long> iterated = new ArrayList<>();
+        bitmap.forEach(iterated::add);
+        assertEquals(new ArrayList<>(expected), iterated);
+    }
+
+    @Test
+    @DisplayName("Should not share state between a bitmap and its copy")
+    void testCopyIsIndependent() {
+        RoaringBitmap original = RoaringBitmap.of(List.of(1L, 2L, 3L));
+        RoaringBitmap copy = original.copy();
+        copy.add(4L);
+
+        assertFalse(original.contains(4L));
+        assertTrue(copy.contains(4L));
+        assertEquals(3, original.cardinality());
+    }
+
+    @Test
+    @DisplayName("Should keep sparse bitmaps far smaller than a boxed id list")
+    void testSparseFootprint() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            ids.add(id * 37);
+        }
+        RoaringBitmap bitmap = RoaringBitmap.of(ids);
+
+        // ArrayList<Long> costs roughly 4 bytes per reference plus 16 bytes per boxed Long
+        assertTrue(bitmap.sizeInBytes() < ids.size() * 20L / 4,
+                "Bitmap uses " + bitmap.sizeInBytes() + " bytes");
+    }
+
+    @Test
+    @DisplayName("Should reject negative values")
+    void testNegativeValue() {
+        assertThrows(IllegalArgumentException.class, () -> new RoaringBitmap().add(-5L));
+    }
+}
@@ -0,0 +1,104 @@
+package uom.eshop.backend.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SpaceSaving Tests")
+class SpaceSavingTest {
+
+    @Test
+    @DisplayName("Should match the exact GROUP BY top 10 of a skewed sales stream within the error bounds")
+    void testAccuracyAgainstExactTopProducts() {
+        // 200k order lines over 5000 products with Zipf-like popularity, quantities 1..3, like a store with a long-tail catalog
+        SplittableRandom random = new SplittableRandom(7);
+        double[] cumulative = zipfCumulative(5_000, 1.1);
+        SpaceSaving sketch = new SpaceSaving();
+        Map<Long, Long> exact = new HashMap<>();
+        long total = 0;
+
+        for (int i = 0; i < 200_000; i++) {
+            long productId = sample(cumulative, random.nextDouble()) + 1;
+            long quantity = random.nextInt(1, 4);
+            sketch.add(productId, quantity);
+            exact.merge(productId, quantity, Long::sum);
+            total += quantity;
+        }
+
+        // Equivalent of SELECT product_id, SUM(quantity) ... GROUP BY product_id ORDER BY SUM(quantity) DESC, product_id LIMIT 10
+        List<Long> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        List<SpaceSaving.Entry> estimatedTop = sketch.top(10);
+
+        assertEquals(total, sketch.total());
+        assertEquals(exactTop, estimatedTop.stream().map(SpaceSaving.Entry::item).collect(Collectors.toList()));
+        for (SpaceSaving.Entry entry : estimatedTop) {
+            long trueCount = exact.get(entry.item());
+            assertTrue(entry.count() >= trueCount, "Count of " + entry.item() + " underestimates " + trueCount);
+            assertTrue(entry.count() - entry.error() <= trueCount, "Lower bound of " + entry.item() + " exceeds " + trueCount);
+            assertTrue(entry.error() <= sketch.maxError());
+            assertTrue(entry.guaranteed());
+        }
+    }
+
+    @Test
+    @DisplayName("Should monitor every item heavier than total / capacity even when light items keep evicting counters")
+    void testHeavyHittersSurviveEvictions() {
+        SpaceSaving sketch = new SpaceSaving(8);
+        for (long item = 1; item <= 10_000; item++) {
+            sketch.add(item + 100, 1);
+            if (item % 10 == 0) {
+                sketch.add(1L, 1);
+            }
+        }
+
+        SpaceSaving.Entry top = sketch.top(1).get(0);
+        assertEquals(1L, top.item());
+        assertTrue(top.count() - top.error() <= 1_000 && top.count() >= 1_000);
+        assertThrows(IllegalArgumentException.class, () -> sketch.add(1L, 0));
+    }
+
+    @Test
+    @DisplayName("Should survive serialization and keep exact counters built from a GROUP BY result")
+    void testSerializationAndExactRebuild() {
+        SpaceSaving exact = SpaceSaving.ofExact(2, Map.of(1L, 50L, 2L, 30L, 3L, 10L), 95);
+
+        SpaceSaving restored = SpaceSaving.fromBytes(exact.toBytes());
+        assertEquals(95, restored.total());
+        assertEquals(List.of(new SpaceSaving.Entry(1L, 50L, 0L, true), new SpaceSaving.Entry(2L, 30L, 0L, true)), restored.top(5));
+
+        // Product 3 replaces the smallest counter and inherits it as error, so its lower bound cannot be trusted
+        restored.add(3L, 25);
+        assertEquals(List.of(new SpaceSaving.Entry(3L, 55L, 30L, false), new SpaceSaving.Entry(1L, 50L, 0L, true)), restored.top(2));
+        assertEquals(0, SpaceSaving.fromBytes(null).total());
+    }
+
+    private static double[] zipfCumulative(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, double u) {
+        int index = Arrays.binarySearch(cumulative, u);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * Helpers for the paged list endpoints, which return one page as the body and
+ * describe the remaining pages in response headers.
+ */
+import type { AxiosResponse } from 'axios';
+
+const readHeader = (response: AxiosResponse, name: string): string | null => {
+  const value = response.headers[name.toLowerCase()];
+  return typeof value === 'string' && value.length > 0 ? value : null;
+};
+
+/**
+ * Total number of items across all pages (`X-Total-Count`), or null if the
+ * response does not carry it.
+ */
+export const getTotalCount = (response: AxiosResponse): number | null => {
+  const value = readHeader(response, 'X-Total-Count');
+  const total = value === null ? NaN : Number(value);
+  return Number.isFinite(total) ? total : null;
+};
+
+/**
+ * Opaque cursor of the next page (`X-Next-Cursor`), or null on the last page.
+ */
+export const getNextCursor = (response: AxiosResponse): string | null =>
+  readHeader(response, 'X-Next-Cursor');
@@ -0,0 +1,35 @@
+/**
+ * Loads the public store listing, which the backend serves one page at a time.
+ */
+import { getStoreController } from './store-controller/store-controller';
+import type { StoreResponse } from './generated.schemas';
+import { parseJsonFromBlob } from './blob-utils';
+import { getTotalCount } from './pagination';
+
+export interface StorePage {
+  stores: StoreResponse[];
+  total: number;
+}
+
+/**
+ * Fetches one page of stores (default page size) with the total number of stores.
+ */
+export const fetchStorePage = async (page: number): Promise<StorePage> => {
+  const response = await getStoreController().getAllStores({ params: { page } });
+  const stores = (await parseJsonFromBlob<StoreResponse[]>(response.data)) ?? [];
+  return { stores, total: getTotalCount(response) ?? stores.length };
+};
+
+/**
+ * Fetches every store by following the pages until the total is reached.
+ */
+export const fetchAllStores = async (): Promise<StoreResponse[]> => {
+  const stores: StoreResponse[] = [];
+  for (let page = 0; ; page++) {
+    const result = await fetchStorePage(page);
+    stores.push(...result.stores);
+    if (result.stores.length === 0 || stores.length >= result.total) {
+      return stores;
+    }
+  }
+};
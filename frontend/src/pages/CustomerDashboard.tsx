@@ -27,14 +27,16 @@ import { Link } from 'react-router-dom';
 import { StatCard } from '../components/common';
 import { useCart } from '../hooks/useCart';
 import { getOrderController } from '../api/order-controller/order-controller';
+import { getCustomerController } from '../api/customer-controller/customer-controller';
 import { getProductController } from '../api/product-controller/product-controller';
-import type { OrderResponse, ProductResponse } from '../api/generated.schemas';
+import type { CustomerStatsResponse, OrderResponse, ProductResponse } from '../api/generated.schemas';
 import { ROUTES } from '../constants/routes';
 import { parseJsonFromBlob } from '../api/blob-utils';
 
 export const CustomerDashboard: React.FC = () => {
   const { cart, itemCount } = useCart();
-  const [orders, setOrders] = useState<OrderResponse[]>([]);
+  const [stats, setStats] = useState<CustomerStatsResponse | null>(null);
+  const [recentOrders, setRecentOrders] = useState<OrderResponse[]>([]);
   const [recommendedProducts, setRecommendedProducts] = useState<ProductResponse[]>([]);
   const [loading, setLoading] = useState(true);
 
@@ -46,11 +48,12 @@ export const CustomerDashboard: React.FC = () => {
     try {
       setLoading(true);
       
-      // Fetch orders
-      const orderController = getOrderController();
-      const ordersResponse = await orderController.getCustomerOrders();
-      const ordersData = await parseJsonFromBlob<OrderResponse[]>(ordersResponse.data);
-      setOrders(ordersData);
+      // Fetch stats over all orders and the latest 3 orders; the order list itself is paged
+      const statsResponse = await getCustomerController().getCustomerStats();
+      setStats(await parseJsonFromBlob<CustomerStatsResponse>(statsResponse.data));
+
+      const ordersResponse = await getOrderController().getRecentOrders1({ limit: 3 });
+      setRecentOrders(await parseJsonFromBlob<OrderResponse[]>(ordersResponse.data));
 
       // Fetch recommended products (latest 3 products from all stores)
       const productController = getProductController();
@@ -65,18 +68,9 @@ export const CustomerDashboard: React.FC = () => {
     }
   };
 
-  // Calculate stats
-  const totalSpent = orders.reduce((sum, order) => sum + (order.totalPrice || 0), 0);
-  const totalItemsOrdered = orders.reduce(
-    (sum, order) => sum + (order.items?.reduce((itemSum, item) => itemSum + (item.quantity || 0), 0) || 0),
-    0
-  );
-  const uniqueStores = new Set(orders.map(order => order.storeId)).size;
-
-  // Get recent orders (last 3)
-  const recentOrders = orders
-    .sort((a, b) => new Date(b.orderDate!).getTime() - new Date(a.orderDate!).getTime())
-    .slice(0, 3);
+  const totalOrders = stats?.totalOrders ?? 0;
+  const totalSpent = stats?.totalAmountSpent ?? 0;
+  const uniqueStores = stats?.uniqueStoresPurchasedFrom ?? 0;
 
   if (loading) {
     return (
@@ -118,7 +112,7 @@ export const CustomerDashboard: React.FC = () => {
         <Paper sx={{ p: 3 }}>
           <StatCard
             icon={Receipt}
-            value={orders.length.toString()}
+            value={totalOrders.toString()}
             label="Total Orders"
             iconColor="success.main"
           />
@@ -147,7 +141,7 @@ export const CustomerDashboard: React.FC = () => {
           <Typography variant="h5" component="h2" fontWeight={600}>
             Recent Orders
           </Typography>
-          {orders.length > 0 && (
+          {totalOrders > 0 && (
             <Button
               component={Link}
               to={ROUTES.ORDERS}
@@ -15,19 +15,21 @@ import {
   Person,
 } from '@mui/icons-material';
 import { Link, useSearchParams } from 'react-router-dom';
-import { getStoreController } from '../api/store-controller/store-controller';
 import type { StoreResponse } from '../api/generated.schemas';
 import { StoreDetailPage } from './StoreDetailPage';
 import { ROUTES } from '../constants/routes';
 import { getApiError } from '../api/api-error';
-import { parseJsonFromBlob } from '../api/blob-utils';
+import { fetchStorePage } from '../api/store-directory';
 
 export const MarketplacePage: React.FC = () => {
   const [searchParams] = useSearchParams();
   const storeId = searchParams.get('id');
   
   const [stores, setStores] = useState<StoreResponse[]>([]);
+  const [totalStores, setTotalStores] = useState(0);
+  const [nextPage, setNextPage] = useState(0);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
   useEffect(() => {
@@ -44,10 +46,10 @@ export const MarketplacePage: React.FC = () => {
   const fetchStores = async () => {
     try {
       setLoading(true);
-      const storeController = getStoreController();
-      const response = await storeController.getAllStores();
-      const storesData = await parseJsonFromBlob<StoreResponse[]>(response.data);
+      const { stores: storesData, total } = await fetchStorePage(0);
       setStores(storesData);
+      setTotalStores(total);
+      setNextPage(1);
       setError(null);
     } catch (err) {
       const apiError = getApiError(err);
@@ -58,6 +60,23 @@ export const MarketplacePage: React.FC = () => {
     }
   };
 
+  const fetchMoreStores = async () => {
+    try {
+      setLoadingMore(true);
+      const { stores: storesData, total } = await fetchStorePage(nextPage);
+      setStores((current) => [...current, ...storesData]);
+      setTotalStores(total);
+      setNextPage(nextPage + 1);
+      setError(null);
+    } catch (err) {
+      const apiError = getApiError(err);
+      setError(apiError?.message || 'Failed to load more stores');
+      console.error('Fetch more stores error:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   if (loading) {
     return (
       <Box sx={{ display: 'flex', justifyContent: 'center', py: 8 }}>
@@ -172,6 +191,20 @@ export const MarketplacePage: React.FC = () => {
           ))}
         </Box>
       )}
+
+      {/* Load More */}
+      {stores.length > 0 && (
+        <Box sx={{ display: 'flex', flexDirection: 'column', alignItems: 'center', gap: 1, mt: 4 }}>
+          <Typography variant="body2" color="text.secondary">
+            Showing {stores.length} of {totalStores} stores
+          </Typography>
+          {stores.length < totalStores && (
+            <Button variant="outlined" onClick={fetchMoreStores} disabled={loadingMore}>
+              {loadingMore ? 'Loading...' : 'Load More Stores'}
+            </Button>
+          )}
+        </Box>
+      )}
     </Box>
   );
 };
\ No newline at end of file
@@ -17,6 +17,7 @@ import {
   TableHead,
   TableRow,
   Paper,
+  Button,
 } from '@mui/material';
 import {
   Receipt,
@@ -28,10 +29,13 @@ import { getOrderController } from '../api/order-controller/order-controller';
 import type { OrderResponse } from '../api/generated.schemas';
 import { getApiError } from '../api/api-error';
 import { parseJsonFromBlob } from '../api/blob-utils';
+import { getNextCursor } from '../api/pagination';
 
 export const OrdersPage: React.FC = () => {
   const [orders, setOrders] = useState<OrderResponse[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
   useEffect(() => {
@@ -42,13 +46,11 @@ export const OrdersPage: React.FC = () => {
     try {
       setLoading(true);
       const orderController = getOrderController();
+      // Orders come newest first, one page at a time
       const response = await orderController.getCustomerOrders();
       const ordersData = await parseJsonFromBlob<OrderResponse[]>(response.data);
-      // Sort by date (newest first)
-      const sortedOrders = ordersData.sort((a: OrderResponse, b: OrderResponse) => {
-        return new Date(b.orderDate!).getTime() - new Date(a.orderDate!).getTime();
-      });
-      setOrders(sortedOrders);
+      setOrders(ordersData);
+      setNextCursor(getNextCursor(response));
       setError(null);
     } catch (err) {
       const apiError = getApiError(err);
@@ -59,6 +61,27 @@ export const OrdersPage: React.FC = () => {
     }
   };
 
+  const fetchMoreOrders = async () => {
+    if (!nextCursor) {
+      return;
+    }
+    try {
+      setLoadingMore(true);
+      const orderController = getOrderController();
+      const response = await orderController.getCustomerOrders({ params: { cursor: nextCursor } });
+      const ordersData = await parseJsonFromBlob<OrderResponse[]>(response.data);
+      setOrders((current) => [...current, ...ordersData]);
+      setNextCursor(getNextCursor(response));
+      setError(null);
+    } catch (err) {
+      const apiError = getApiError(err);
+      setError(apiError?.message || 'Failed to load more orders');
+      console.error('Fetch more orders error:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const formatDate = (dateString: string) => {
     const date = new Date(dateString);
     return date.toLocaleDateString('en-US', {
@@ -233,6 +256,15 @@ export const OrdersPage: React.FC = () => {
           ))}
         </Box>
       )}
+
+      {/* Load More */}
+      {nextCursor && (
+        <Box sx={{ display: 'flex', justifyContent: 'center', mt: 4 }}>
+          <Button variant="outlined" onClick={fetchMoreOrders} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load More Orders'}
+          </Button>
+        </Box>
+      )}
     </Box>
   );
 };
\ No newline at end of file
@@ -15,13 +15,13 @@ import {
 } from '@mui/icons-material';
 import { getProductController } from '../api/product-controller/product-controller';
 import { getShoppingCartController } from '../api/shopping-cart-controller/shopping-cart-controller';
-import { getStoreController } from '../api/store-controller/store-controller';
 import type { ProductResponse, GetProductsParams, StoreResponse } from '../api/generated.schemas';
 import { ProductFilters } from '../components/products/ProductFilters';
 import { useToast } from '../contexts/ToastContext';
 import { useCart } from '../hooks/useCart';
 import { getApiError } from '../api/api-error';
 import { parseJsonFromBlob } from '../api/blob-utils';
+import { fetchAllStores } from '../api/store-directory';
 
 export const ProductsPage: React.FC = () => {
   const [products, setProducts] = useState<ProductResponse[]>([]);
@@ -50,11 +50,9 @@ export const ProductsPage: React.FC = () => {
     try {
       setLoading(true);
       const productController = getProductController();
-      const storeController = getStoreController();
-      
-      // Fetch stores for store filter
-      const storesResponse = await storeController.getAllStores();
-      const storesData = await parseJsonFromBlob<StoreResponse[]>(storesResponse.data);
+
+      // Fetch every page of stores for the store filter
+      const storesData = await fetchAllStores();
       setStores(storesData);
       
       // Fetch ALL products for brand extraction
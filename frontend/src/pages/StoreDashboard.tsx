@@ -25,14 +25,15 @@ import {
 import { Link } from 'react-router-dom';
 import { StatCard } from '../components/common';
 import { getProductController } from '../api/product-controller/product-controller';
-import { getOrderController } from '../api/order-controller/order-controller';
-import type { ProductResponse, OrderResponse } from '../api/generated.schemas';
+import { getStoreController } from '../api/store-controller/store-controller';
+import type { ProductResponse, OrderResponse, StoreStatsResponse } from '../api/generated.schemas';
 import { ROUTES } from '../constants/routes';
 import { parseJsonFromBlob } from '../api/blob-utils';
 
 export const StoreDashboard: React.FC = () => {
   const [products, setProducts] = useState<ProductResponse[]>([]);
-  const [orders, setOrders] = useState<OrderResponse[]>([]);
+  const [stats, setStats] = useState<StoreStatsResponse | null>(null);
+  const [recentOrders, setRecentOrders] = useState<OrderResponse[]>([]);
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
@@ -49,11 +50,13 @@ export const StoreDashboard: React.FC = () => {
       const productsData = await parseJsonFromBlob<ProductResponse[]>(productsResponse.data);
       setProducts(productsData);
 
-      // Fetch store orders
-      const orderController = getOrderController();
-      const ordersResponse = await orderController.getStoreOrders();
-      const ordersData = await parseJsonFromBlob<OrderResponse[]>(ordersResponse.data);
-      setOrders(ordersData);
+      // Fetch stats over all orders and the latest 5 orders; the order list itself is paged
+      const storeController = getStoreController();
+      const statsResponse = await storeController.getStoreStats();
+      setStats(await parseJsonFromBlob<StoreStatsResponse>(statsResponse.data));
+
+      const ordersResponse = await storeController.getRecentOrders({ limit: 5 });
+      setRecentOrders(await parseJsonFromBlob<OrderResponse[]>(ordersResponse.data));
     } catch (err) {
       console.error('Failed to fetch dashboard data:', err);
     } finally {
@@ -61,14 +64,9 @@ export const StoreDashboard: React.FC = () => {
     }
   };
 
-  // Calculate stats
-  const totalRevenue = orders.reduce((sum, order) => sum + (order.totalPrice || 0), 0);
-  const uniqueCustomers = new Set(orders.map(order => order.customerId)).size;
-
-  // Get recent orders (last 5)
-  const recentOrders = orders
-    .sort((a, b) => new Date(b.orderDate!).getTime() - new Date(a.orderDate!).getTime())
-    .slice(0, 5);
+  const totalOrders = stats?.totalOrders ?? 0;
+  const totalRevenue = stats?.totalRevenue ?? 0;
+  const uniqueCustomers = stats?.uniqueCustomers ?? 0;
 
   // Get recent products (last 3)
   const recentProducts = products.slice(0, 3);
@@ -124,7 +122,7 @@ export const StoreDashboard: React.FC = () => {
         <Paper sx={{ p: 3 }}>
           <StatCard
             icon={Receipt}
-            value={orders.length.toString()}
+            value={totalOrders.toString()}
             label="Total Orders"
             iconColor="success.main"
           />
@@ -153,7 +151,7 @@ export const StoreDashboard: React.FC = () => {
           <Typography variant="h5" component="h2" fontWeight={600}>
             Recent Orders
           </Typography>
-          {orders.length > 0 && (
+          {totalOrders > 0 && (
             <Button
               component={Link}
               to={ROUTES.STORE_ORDERS}
@@ -12,6 +12,7 @@ import {
   TableHead,
   TableRow,
   Paper,
+  Button,
   IconButton,
   Dialog,
   DialogTitle,
@@ -28,10 +29,13 @@ import {
 import { getOrderController } from '../api/order-controller/order-controller';
 import type { OrderResponse } from '../api/generated.schemas';
 import { parseJsonFromBlob } from '../api/blob-utils';
+import { getNextCursor } from '../api/pagination';
 
 export const StoreOrdersPage: React.FC = () => {
   const [orders, setOrders] = useState<OrderResponse[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
   
   // Order details dialog
@@ -46,13 +50,11 @@ export const StoreOrdersPage: React.FC = () => {
     try {
       setLoading(true);
       const orderController = getOrderController();
+      // Orders come newest first, one page at a time
       const response = await orderController.getStoreOrders();
       const ordersData = await parseJsonFromBlob<OrderResponse[]>(response.data);
-      // Sort by date (newest first)
-      const sortedOrders = ordersData.sort((a: OrderResponse, b: OrderResponse) => {
-        return new Date(b.orderDate!).getTime() - new Date(a.orderDate!).getTime();
-      });
-      setOrders(sortedOrders);
+      setOrders(ordersData);
+      setNextCursor(getNextCursor(response));
       setError(null);
     } catch (err) {
       setError('Failed to load orders');
@@ -62,6 +64,26 @@ export const StoreOrdersPage: React.FC = () => {
     }
   };
 
+  const fetchMoreOrders = async () => {
+    if (!nextCursor) {
+      return;
+    }
+    try {
+      setLoadingMore(true);
+      const orderController = getOrderController();
+      const response = await orderController.getStoreOrders({ params: { cursor: nextCursor } });
+      const ordersData = await parseJsonFromBlob<OrderResponse[]>(response.data);
+      setOrders((current) => [...current, ...ordersData]);
+      setNextCursor(getNextCursor(response));
+      setError(null);
+    } catch (err) {
+      setError('Failed to load more orders');
+      console.error('Fetch more orders error:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const formatDate = (dateString: string) => {
     const date = new Date(dateString);
     return date.toLocaleDateString('en-US', {
@@ -208,6 +230,15 @@ export const StoreOrdersPage: React.FC = () => {
         </TableContainer>
       )}
 
+      {/* Load More */}
+      {nextCursor && (
+        <Box sx={{ display: 'flex', justifyContent: 'center', mt: 4 }}>
+          <Button variant="outlined" onClick={fetchMoreOrders} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load More Orders'}
+          </Button>
+        </Box>
+      )}
+
       {/* Order Details Dialog */}
       <Dialog open={dialogOpen} onClose={handleCloseDialog} maxWidth="md" fullWidth>
         <DialogTitle>